@@ -0,0 +1,76 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Utility for replacing a file so that a crash leaves either the old or the new contents, never a
+ * truncated mix: the bytes go to a {@code <name>.tmp} sibling that is fsynced and then renamed over
+ * the target ({@code ATOMIC_MOVE}, falling back to a plain replace where the file system lacks it).
+ * Every write is reported as a {@link CycleJfrEvents.PersistenceWrite}.
+ */
+public final class AtomicFileUtil {
+    private AtomicFileUtil() { /* utility */ }
+
+    /**
+     * Replace {@code target} with the concatenation of {@code bodies}, creating its directory if needed.
+     *
+     * @param target    file to replace
+     * @param operation operation name recorded in the flight recorder event (e.g. write, compact)
+     * @param bodies    contents, written in order until each buffer is drained
+     * @return number of bytes written
+     * @throws IOException when the temp file cannot be written or moved into place; the target is then unchanged
+     */
+    public static long writeAtomically(File target, String operation, ByteBuffer... bodies) throws IOException {
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        var tmp = writeTemp(target, bodies);
+        long written = tmp.length();
+        replace(tmp, target);
+        CycleJfrEvents.persisted(event, target.getName(), operation, written);
+        return written;
+    }
+
+    /**
+     * First half of {@link #writeAtomically}: write {@code bodies} to the temp sibling of
+     * {@code target} and fsync it. Callers that must add to the file before it replaces the target
+     * (without holding a lock during the fsync) finish with {@link #replace}.
+     *
+     * @param target file that will be replaced
+     * @param bodies contents, written in order until each buffer is drained
+     * @return the temp file
+     * @throws IOException when the temp file cannot be written
+     */
+    static File writeTemp(File target, ByteBuffer... bodies) throws IOException {
+        var dir = target.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) throw new IOException("Failed to create directory: " + dir.getAbsolutePath());
+        var tmp = new File(dir, target.getName() + ".tmp");
+        try (var ch = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (var body : bodies) {
+                while (body.hasRemaining()) ch.write(body);
+            }
+            ch.force(true);
+        }
+        return tmp;
+    }
+
+    /**
+     * Second half of {@link #writeAtomically}: rename a temp file over the target.
+     *
+     * @param tmp    temp file from {@link #writeTemp}
+     * @param target file to replace
+     * @throws IOException when the file cannot be moved; the target is then unchanged
+     */
+    static void replace(File tmp, File target) throws IOException {
+        try {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
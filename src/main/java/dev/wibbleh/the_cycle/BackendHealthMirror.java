@@ -0,0 +1,152 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Lobby-side copy of the hardcore backend's {@code /health} response, refreshed in the background.
+ * <p>
+ * Callers on the main thread read {@link #snapshot()} instead of doing network I/O. Every probe
+ * also feeds a {@link CircuitBreaker}: an answered probe closes it, a failed one counts as a failure,
+ * so RPCs can be refused or queued immediately while the backend is down and resume as soon as
+ * a probe succeeds.
+ */
+public class BackendHealthMirror {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final int PROBE_TIMEOUT_MS = 2000;
+
+    /**
+     * Last known backend state.
+     *
+     * @param reachable     true when the last probe was answered
+     * @param role          backend role
+     * @param cycleNumber   backend cycle number (-1 when never seen)
+     * @param playersOnline players on the backend
+     * @param phase         backend cycle phase, or null when it did not report one
+     * @param mspt          backend average tick time in milliseconds
+     * @param checkedAt     epoch millis of the last probe (0 when never probed)
+     */
+    public record Snapshot(boolean reachable, String role, int cycleNumber, int playersOnline, String phase, double mspt, long checkedAt) {
+        /** State before the first probe finished. */
+        public static final Snapshot UNKNOWN = new Snapshot(false, null, -1, 0, null, 0.0, 0L);
+
+        /**
+         * @return true when the backend reported a cycle that is still being prepared
+         */
+        public boolean cycleInProgress() {
+            return reachable && phase != null && !phase.equals("IDLE") && !phase.equals("READY");
+        }
+    }
+
+    private final String healthUrl;
+    private final CircuitBreaker breaker;
+    private final long pollMillis;
+    private final AtomicBoolean probing = new AtomicBoolean(false);
+    private ScheduledExecutorService scheduler;
+    private volatile Snapshot snapshot = Snapshot.UNKNOWN;
+
+    /**
+     * @param healthUrl  backend {@code /health} URL
+     * @param breaker    breaker fed with probe results
+     * @param pollMillis interval between probes
+     */
+    public BackendHealthMirror(String healthUrl, CircuitBreaker breaker, long pollMillis) {
+        this.healthUrl = healthUrl;
+        this.breaker = breaker;
+        this.pollMillis = Math.max(100L, pollMillis);
+    }
+
+    /**
+     * Start probing in the background.
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "HardcoreCycle-BackendHealth");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::probe, 0L, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop probing.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) scheduler.shutdownNow();
+        scheduler = null;
+    }
+
+    /**
+     * @return last known backend state; never null
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * @return probed {@code /health} URL
+     */
+    public String healthUrl() {
+        return healthUrl;
+    }
+
+    /**
+     * @return breaker fed by this mirror
+     */
+    public CircuitBreaker breaker() {
+        return breaker;
+    }
+
+    /**
+     * Probe the backend once. Overlapping probes are skipped.
+     */
+    void probe() {
+        if (!probing.compareAndSet(false, true)) return;
+        HttpRetryUtil.getBodyAsync(healthUrl, PROBE_TIMEOUT_MS).whenComplete((body, error) -> {
+            try {
+                var parsed = body == null ? null : parse(body, System.currentTimeMillis());
+                if (parsed != null) {
+                    snapshot = parsed;
+                    breaker.recordSuccess();
+                } else {
+                    var last = snapshot;
+                    if (last.reachable()) LOG.warning("Hardcore backend health probe failed: " + healthUrl);
+                    snapshot = new Snapshot(false, last.role(), last.cycleNumber(), last.playersOnline(), last.phase(), last.mspt(), System.currentTimeMillis());
+                    breaker.recordFailure();
+                }
+            } finally {
+                probing.set(false);
+            }
+        });
+    }
+
+    /**
+     * Parse a {@code /health} response body.
+     *
+     * @param json response body
+     * @param now  epoch millis to record as the probe time
+     * @return snapshot, or null when the body is not a health response
+     */
+    static Snapshot parse(String json, long now) {
+        try {
+            JsonObject o = JsonParser.parseString(json).getAsJsonObject();
+            if (!o.has("status")) return null;
+            return new Snapshot(true,
+                    o.has("role") ? o.get("role").getAsString() : null,
+                    o.has("cycleNumber") ? o.get("cycleNumber").getAsInt() : -1,
+                    o.has("playersOnline") ? o.get("playersOnline").getAsInt() : 0,
+                    o.has("phase") && !o.get("phase").isJsonNull() ? o.get("phase").getAsString() : null,
+                    o.has("mspt") ? o.get("mspt").getAsDouble() : 0.0,
+                    now);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
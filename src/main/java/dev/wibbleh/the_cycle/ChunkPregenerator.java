@@ -0,0 +1,203 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-generates the chunks around a new world's spawn using Paper's async chunk API so players
+ * don't pay for synchronous generation when they spread out after arriving.
+ * <p>
+ * Chunks are requested in spiral order (closest to spawn first) with a bounded number of requests
+ * in flight. Dispatch runs once per tick on the main thread and pauses automatically while the
+ * server's average tick time exceeds the configured threshold. Each generated chunk gets a plugin
+ * chunk ticket so it stays resident until {@link #releaseTickets()} is called (when players arrive).
+ */
+public class ChunkPregenerator {
+    private static final int PROGRESS_LOG_STEP_PERCENT = 10;
+
+    private final JavaPlugin plugin;
+    private final World world;
+    private final int centerX;
+    private final int centerZ;
+    private final int[][] offsets;
+    private final int maxInFlight;
+    private final double maxMspt;
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final AtomicInteger completed = new AtomicInteger();
+    private int nextIndex = 0;
+    private int inFlight = 0;
+    private int lastLoggedPercent = 0;
+    private boolean paused = false;
+    private boolean ticketsHeld = false;
+    private BukkitRunnable task;
+
+    /**
+     * @param plugin        owning plugin (scheduler and chunk ticket owner)
+     * @param world         world to pre-generate
+     * @param centerChunkX  chunk X of the spiral center (usually the spawn chunk)
+     * @param centerChunkZ  chunk Z of the spiral center
+     * @param radiusChunks  radius in chunks; a square of (2r+1)^2 chunks is generated
+     * @param maxInFlight   maximum number of outstanding async chunk requests
+     * @param maxMspt       dispatch pauses while the average tick time is above this value
+     */
+    public ChunkPregenerator(JavaPlugin plugin, World world, int centerChunkX, int centerChunkZ, int radiusChunks, int maxInFlight, double maxMspt) {
+        this.plugin = plugin;
+        this.world = world;
+        this.centerX = centerChunkX;
+        this.centerZ = centerChunkZ;
+        this.offsets = spiralOffsets(Math.max(0, radiusChunks));
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxMspt = maxMspt;
+    }
+
+    /**
+     * Start dispatching chunk requests. Must be called on the main server thread.
+     *
+     * @return future completing when every chunk has been generated (or the run was cancelled)
+     */
+    public CompletableFuture<Void> start() {
+        if (task != null) return completion;
+        plugin.getLogger().info("Pre-generating " + offsets.length + " chunks around spawn of " + world.getName() + ".");
+        task = new BukkitRunnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        };
+        task.runTaskTimer(plugin, 0L, 1L);
+        return completion;
+    }
+
+    /**
+     * Dispatch up to the in-flight limit. Runs once per tick on the main thread.
+     */
+    void tick() {
+        if (completion.isDone()) return;
+        double mspt = ServerLoad.averageTickMillis();
+        if (mspt > maxMspt) {
+            if (!paused) plugin.getLogger().info("Pausing chunk pre-generation; server busy (mspt=" + String.format("%.1f", mspt) + ").");
+            paused = true;
+            return;
+        }
+        if (paused) {
+            plugin.getLogger().info("Resuming chunk pre-generation.");
+            paused = false;
+        }
+        while (inFlight < maxInFlight && nextIndex < offsets.length) {
+            int cx = centerX + offsets[nextIndex][0];
+            int cz = centerZ + offsets[nextIndex][1];
+            nextIndex++;
+            inFlight++;
+            world.getChunkAtAsync(cx, cz, true).whenComplete((chunk, err) -> onChunkDone(cx, cz, err));
+        }
+    }
+
+    private void onChunkDone(int cx, int cz, Throwable err) {
+        inFlight--;
+        if (err != null) {
+            plugin.getLogger().fine("Pre-generation of chunk " + cx + "," + cz + " failed: " + err.getMessage());
+        } else if (!completion.isDone()) {
+            world.addPluginChunkTicket(cx, cz, plugin);
+            ticketsHeld = true;
+        }
+        int done = completed.incrementAndGet();
+        int percent = offsets.length == 0 ? 100 : done * 100 / offsets.length;
+        if (percent >= lastLoggedPercent + PROGRESS_LOG_STEP_PERCENT || done == offsets.length) {
+            lastLoggedPercent = percent - percent % PROGRESS_LOG_STEP_PERCENT;
+            plugin.getLogger().info("Chunk pre-generation for " + world.getName() + ": " + done + "/" + offsets.length + " (" + percent + "%)");
+        }
+        if (done >= offsets.length) finish();
+    }
+
+    private void finish() {
+        if (task != null) task.cancel();
+        completion.complete(null);
+    }
+
+    /**
+     * Stop dispatching new requests. Chunks already generated keep their tickets until
+     * {@link #releaseTickets()} is called.
+     */
+    public void cancel() {
+        finish();
+    }
+
+    /**
+     * Remove all chunk tickets held by this plugin in the pre-generated world so the server may
+     * unload chunks nobody is standing in. Must be called on the main server thread.
+     */
+    public void releaseTickets() {
+        cancel();
+        if (!ticketsHeld) return;
+        ticketsHeld = false;
+        world.removePluginChunkTickets(plugin);
+        plugin.getLogger().info("Released pre-generated chunk tickets for " + world.getName() + ".");
+    }
+
+    /**
+     * @return fraction of chunks generated so far, in [0, 1]
+     */
+    public double getProgress() {
+        return offsets.length == 0 ? 1.0 : Math.min(1.0, completed.get() / (double) offsets.length);
+    }
+
+    /**
+     * @return true between {@link #start()} and completion or cancellation
+     */
+    public boolean isRunning() {
+        return task != null && !completion.isDone();
+    }
+
+    /**
+     * @return true while dispatch is paused because the server is busy
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * @return name of the world being pre-generated
+     */
+    public String getWorldName() {
+        return world.getName();
+    }
+
+    /**
+     * @return total number of chunks in this run
+     */
+    public int getTotalChunks() {
+        return offsets.length;
+    }
+
+    /**
+     * Build chunk offsets covering a square of the given radius, ordered as an outward square
+     * spiral starting at (0, 0) so chunks closest to spawn are generated first.
+     *
+     * @param radius radius in chunks
+     * @return array of {dx, dz} pairs
+     */
+    static int[][] spiralOffsets(int radius) {
+        int side = 2 * radius + 1;
+        int[][] out = new int[side * side][];
+        int x = 0;
+        int z = 0;
+        int dx = 0;
+        int dz = -1;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = new int[]{x, z};
+            // Turn at the corners of each ring
+            if (x == z || (x < 0 && x == -z) || (x > 0 && x == 1 - z)) {
+                int t = dx;
+                dx = -dz;
+                dz = t;
+            }
+            x += dx;
+            z += dz;
+        }
+        return out;
+    }
+}
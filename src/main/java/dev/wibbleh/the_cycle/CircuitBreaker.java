@@ -0,0 +1,132 @@
+package dev.wibbleh.the_cycle;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Circuit breaker guarding calls to the hardcore backend.
+ * <p>
+ * {@link State#CLOSED}: requests go through; {@code failureThreshold} consecutive failures open the
+ * circuit. {@link State#OPEN}: requests are refused immediately instead of waiting for connect
+ * timeouts. After {@code openMillis} the next request is let through as a trial
+ * ({@link State#HALF_OPEN}); its success closes the circuit, its failure opens it again. A success
+ * reported from elsewhere (e.g. a health probe) closes the circuit at any time. All methods are
+ * thread-safe.
+ */
+public class CircuitBreaker {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+
+    /**
+     * Breaker state.
+     */
+    public enum State {
+        /** Requests go through. */
+        CLOSED,
+        /** Requests are refused until the open period ends. */
+        OPEN,
+        /** One trial request is in flight. */
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final CopyOnWriteArrayList<Runnable> closeListeners = new CopyOnWriteArrayList<>();
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0L;
+    private long rejected = 0L;
+
+    /**
+     * @param failureThreshold consecutive failures that open the circuit (at least 1)
+     * @param openMillis       time the circuit stays open before a trial request is allowed
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, openMillis));
+        this.clock = clock;
+    }
+
+    /**
+     * Run a callback whenever the circuit closes after being open or half-open. Callbacks run on
+     * the thread that reported the success.
+     *
+     * @param listener callback
+     */
+    public void onClose(Runnable listener) {
+        closeListeners.add(listener);
+    }
+
+    /**
+     * Ask whether a request may be sent now.
+     *
+     * @return false when the circuit is open (or half-open with its trial still in flight)
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED -> {
+                return true;
+            }
+            case OPEN -> {
+                if (clock.getAsLong() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+            }
+            case HALF_OPEN -> { }
+        }
+        rejected++;
+        return false;
+    }
+
+    /**
+     * Report a successful call; closes the circuit.
+     */
+    public void recordSuccess() {
+        boolean reopened;
+        synchronized (this) {
+            reopened = state != State.CLOSED;
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+        }
+        if (reopened) {
+            LOG.info("Hardcore backend reachable again; circuit closed.");
+            for (var l : closeListeners) l.run();
+        }
+    }
+
+    /**
+     * Report a failed call (transport error or server error).
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            if (state == State.CLOSED) LOG.warning("Hardcore backend unreachable after " + consecutiveFailures + " failures; circuit opened.");
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        } else if (state == State.OPEN) {
+            // Failed probes while open extend the open period
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * @return current state
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return requests refused while the circuit was open
+     */
+    public synchronized long rejectedCount() {
+        return rejected;
+    }
+}
@@ -34,6 +34,7 @@ public class CommandHandler implements CommandExecutor, TabCompleter {
      * - setcycle <n>
      * - cycle-now
      * - status
+     * - timings
      *
      * @param sender command sender
      * @param cmd    command object
@@ -51,7 +52,7 @@ public class CommandHandler implements CommandExecutor, TabCompleter {
         String name = cmd.getName();
         if (name.equalsIgnoreCase("cycle")) {
             if (args.length == 0) {
-                sender.sendMessage("Usage: /cycle setcycle <n> | /cycle cycle-now | /cycle status");
+                sender.sendMessage("Usage: /cycle setcycle <n> | /cycle cycle-now | /cycle status | /cycle timings");
                 return true;
             }
             if (args[0].equalsIgnoreCase("setcycle") && args.length == 2) {
@@ -95,11 +96,48 @@ public class CommandHandler implements CommandExecutor, TabCompleter {
             if (args[0].equalsIgnoreCase("status")) {
                 if (plugin instanceof Main m) {
                     sender.sendMessage("Cycle=" + m.getCycleNumber() + " playersOnline=" + Bukkit.getOnlinePlayers().size());
+                    String phase = m.getCyclePhase();
+                    if (phase != null) sender.sendMessage("Phase: " + phase);
+                    String pregen = m.getPregenerationStatus();
+                    if (pregen != null) sender.sendMessage("Pre-generation: " + pregen);
+                    var deletion = m.getDeletionStats();
+                    if (deletion != null && deletion.filesDeleted() > 0) {
+                        sender.sendMessage("Deletion: " + deletion.activeDeletions() + " active, " + deletion.filesDeleted() + " files / "
+                                + deletion.bytesDeleted() / (1024 * 1024) + " MiB deleted, last " + deletion.lastBytesPerSecond() / (1024 * 1024)
+                                + " MiB/s, throttled " + deletion.throttledMillis() + "ms");
+                    }
+                    var backend = m.getBackendHealth();
+                    if (backend != null) {
+                        String seen = backend.checkedAt() == 0 ? "never checked"
+                                : "checked " + (System.currentTimeMillis() - backend.checkedAt()) / 1000 + "s ago";
+                        sender.sendMessage("Backend: " + (backend.reachable() ? "reachable" : "unreachable") + " cycle=" + backend.cycleNumber()
+                                + " players=" + backend.playersOnline() + (backend.phase() != null ? " phase=" + backend.phase() : "")
+                                + " circuit=" + m.getBackendCircuitState() + " (" + seen + ")");
+                    }
+                    var transfers = m.getTransferStats();
+                    if (transfers != null && transfers.wavesReleased() > 0) {
+                        sender.sendMessage("Transfers: " + transfers.playersReleased() + " players in " + transfers.wavesReleased()
+                                + " waves, " + transfers.queued() + " queued, wave latency last=" + transfers.lastWaveLatencyMillis()
+                                + "ms avg=" + transfers.avgWaveLatencyMillis() + "ms max=" + transfers.maxWaveLatencyMillis() + "ms");
+                    }
                 } else {
                     sender.sendMessage("Cycle=unknown");
                 }
                 return true;
             }
+            if (args[0].equalsIgnoreCase("timings")) {
+                var timings = plugin instanceof Main m ? m.getCycleTimings() : null;
+                var lines = timings == null ? List.<String>of() : timings.formatLines();
+                if (lines.isEmpty()) {
+                    sender.sendMessage("No cycle timings recorded yet.");
+                    return true;
+                }
+                sender.sendMessage("Cycle timings (since restart):");
+                lines.forEach(sender::sendMessage);
+                var last = timings.getLastCycle();
+                if (last != null) sender.sendMessage("Last cycle #" + last.cycle() + ": " + last.stagesMs());
+                return true;
+            }
         }
         return false;
     }
@@ -118,7 +156,7 @@ public class CommandHandler implements CommandExecutor, TabCompleter {
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command cmd, @NotNull String alias, @NotNull String[] args) {
         if (!cmd.getName().equalsIgnoreCase("cycle")) return Collections.emptyList();
         if (args.length == 1) {
-            var subs = Arrays.asList("setcycle", "cycle-now", "status");
+            var subs = Arrays.asList("setcycle", "cycle-now", "status", "timings");
             String partial = args[0].toLowerCase();
             return subs.stream()
                     .filter(s -> s.startsWith(partial))
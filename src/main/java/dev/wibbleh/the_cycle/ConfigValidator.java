@@ -4,6 +4,7 @@ import org.bukkit.configuration.file.FileConfiguration;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.logging.Logger;
 
 /**
@@ -16,7 +17,8 @@ public final class ConfigValidator {
     private static final int MAX_PORT = 65535;
     private static final int MIN_SECRET_LENGTH = 16;
     private static final int MAX_COUNTDOWN_SECONDS = 300;
-    private static final int MAX_DELAY_SECONDS = 60;
+    private static final int MAX_RECOMMENDED_SPARE_WORLDS = 5;
+    private static final int MAX_RECOMMENDED_PREGEN_RADIUS = 32;
 
     private ConfigValidator() {
         // Utility class
@@ -90,6 +92,28 @@ public final class ConfigValidator {
                 errors.add("Invalid server.http_port: " + httpPort + " (must be " + MIN_PORT + "-" + MAX_PORT + ")");
             }
 
+            if (cfg.getInt("server.http_max_concurrent_requests", 16) < 1) {
+                errors.add("Invalid server.http_max_concurrent_requests: must be at least 1");
+            }
+            if (cfg.getLong("server.http_queue_timeout_millis", 2000L) < 0) {
+                errors.add("Invalid server.http_queue_timeout_millis: must be 0 or greater");
+            }
+            if (cfg.getInt("server.http_max_body_bytes", 65536) < 1024) {
+                errors.add("Invalid server.http_max_body_bytes: must be at least 1024");
+            }
+            if (cfg.getInt("server.http_read_timeout_seconds", 10) < 1) {
+                errors.add("Invalid server.http_read_timeout_seconds: must be at least 1");
+            }
+            if (cfg.getInt("server.http_idle_timeout_seconds", 30) < 1) {
+                errors.add("Invalid server.http_idle_timeout_seconds: must be at least 1");
+            }
+            if (cfg.getDouble("server.http_rate_limit_per_second", 10.0) < 0) {
+                errors.add("Invalid server.http_rate_limit_per_second: must be 0 (unlimited) or greater");
+            }
+            if (cfg.getInt("server.http_rate_limit_burst", 20) < 1) {
+                errors.add("Invalid server.http_rate_limit_burst: must be at least 1");
+            }
+
             String rpcSecret = cfg.getString("server.rpc_secret", "").trim();
             if (rpcSecret.isEmpty()) {
                 warnings.add("HTTP RPC is enabled but 'server.rpc_secret' is empty (authentication disabled)");
@@ -98,6 +122,10 @@ public final class ConfigValidator {
             }
         }
 
+        if (cfg.getBoolean("server.accept_legacy_rpc", false)) {
+            warnings.add("'server.accept_legacy_rpc' is enabled; legacy plugin-message RPCs send the secret in plain text and are deprecated");
+        }
+
         // Validate hardcore-specific HTTP notification
         if (role.equals("hardcore")) {
             String lobbyHttpUrl = cfg.getString("server.lobby_http_url", "").trim();
@@ -109,7 +137,6 @@ public final class ConfigValidator {
         // Validate behavior settings
         int countdownLobby = cfg.getInt("behavior.countdown_send_to_lobby_seconds", 10);
         int countdownHardcore = cfg.getInt("behavior.countdown_send_to_hardcore_seconds", 10);
-        int delayGeneration = cfg.getInt("behavior.delay_before_generation_seconds", 3);
         int waitPlayers = cfg.getInt("behavior.wait_for_players_to_leave_seconds", 30);
 
         if (countdownLobby < 0 || countdownLobby > MAX_COUNTDOWN_SECONDS) {
@@ -118,13 +145,112 @@ public final class ConfigValidator {
         if (countdownHardcore < 0 || countdownHardcore > MAX_COUNTDOWN_SECONDS) {
             warnings.add("countdown_send_to_hardcore_seconds is " + countdownHardcore + " (recommend 0-" + MAX_COUNTDOWN_SECONDS + ")");
         }
-        if (delayGeneration < 0 || delayGeneration > MAX_DELAY_SECONDS) {
-            warnings.add("delay_before_generation_seconds is " + delayGeneration + " (recommend 0-" + MAX_DELAY_SECONDS + ")");
+        if (cfg.contains("behavior.delay_before_generation_seconds")) {
+            warnings.add("behavior.delay_before_generation_seconds is no longer used; generation starts as soon as the previous world is empty");
         }
         if (waitPlayers < 0 || waitPlayers > MAX_COUNTDOWN_SECONDS) {
             warnings.add("wait_for_players_to_leave_seconds is " + waitPlayers + " (recommend 0-" + MAX_COUNTDOWN_SECONDS + ")");
         }
 
+        // Validate world deletion budget
+        int deletionParallelism = cfg.getInt("deletion.parallelism", 2);
+        if (deletionParallelism < 1) {
+            errors.add("Invalid deletion.parallelism: " + deletionParallelism + " (must be at least 1)");
+        }
+        if (cfg.getLong("deletion.max_bytes_per_second", 67108864L) < 0) {
+            errors.add("Invalid deletion.max_bytes_per_second (must be 0 or greater)");
+        }
+        if (cfg.getLong("deletion.max_files_per_second", 2000L) < 0) {
+            errors.add("Invalid deletion.max_files_per_second (must be 0 or greater)");
+        }
+        if (cfg.getInt("deletion.orphan_sweep_interval_minutes", 30) < 0) {
+            errors.add("Invalid deletion.orphan_sweep_interval_minutes (must be 0 or greater)");
+        }
+        String archiveMode = cfg.getString("deletion.archive_mode", "off").trim().toLowerCase(Locale.ROOT);
+        if (!archiveMode.equals("off") && !archiveMode.equals("dragon_kills") && !archiveMode.equals("all")) {
+            errors.add("Invalid deletion.archive_mode: '" + archiveMode + "' (must be 'off', 'dragon_kills' or 'all')");
+        }
+        int archiveLevel = cfg.getInt("deletion.archive_compression_level", 6);
+        if (archiveLevel < 0 || archiveLevel > 9) {
+            errors.add("Invalid deletion.archive_compression_level: " + archiveLevel + " (must be 0-9)");
+        }
+        if (!archiveMode.equals("off") && !cfg.getBoolean("behavior.delete_previous_worlds", true)) {
+            warnings.add("deletion.archive_mode has no effect while behavior.delete_previous_worlds is false");
+        }
+
+        // Validate spare world pool
+        int poolSize = cfg.getInt("world_pool.size", 1);
+        if (poolSize < 0) {
+            errors.add("Invalid world_pool.size: " + poolSize + " (must be 0 or greater)");
+        } else if (poolSize > MAX_RECOMMENDED_SPARE_WORLDS) {
+            warnings.add("world_pool.size is " + poolSize + "; each spare world uses disk space (recommend 0-" + MAX_RECOMMENDED_SPARE_WORLDS + ")");
+        }
+
+        // Validate spawn pre-generation
+        int pregenRadius = cfg.getInt("pregeneration.radius_chunks", 8);
+        if (pregenRadius < 0) {
+            errors.add("Invalid pregeneration.radius_chunks: " + pregenRadius + " (must be 0 or greater)");
+        } else if (pregenRadius > MAX_RECOMMENDED_PREGEN_RADIUS) {
+            warnings.add("pregeneration.radius_chunks is " + pregenRadius + "; large radii delay the world-ready notification (recommend 0-" + MAX_RECOMMENDED_PREGEN_RADIUS + ")");
+        }
+        int pregenInFlight = cfg.getInt("pregeneration.max_in_flight", 16);
+        if (pregenInFlight < 1) {
+            errors.add("Invalid pregeneration.max_in_flight: " + pregenInFlight + " (must be at least 1)");
+        }
+
+        int templateRadius = cfg.getInt("world_template.radius_chunks", 8);
+        if (templateRadius < 0) {
+            errors.add("Invalid world_template.radius_chunks: " + templateRadius + " (must be 0 or greater)");
+        }
+        if (cfg.getBoolean("world_template.enabled", true) && !cfg.getBoolean("server.randomize_seed", true)
+                && cfg.getLong("server.seed", 0L) == 0L) {
+            warnings.add("server.randomize_seed is false but server.seed is 0; world_template mode needs a fixed non-zero seed");
+        }
+
+        // Validate transfer pacing
+        int perWave = cfg.getInt("transfers.per_wave", 5);
+        if (perWave < 1) {
+            errors.add("Invalid transfers.per_wave: " + perWave + " (must be at least 1)");
+        }
+        long waveInterval = cfg.getLong("transfers.wave_interval_ticks", 10L);
+        if (waveInterval < 1) {
+            errors.add("Invalid transfers.wave_interval_ticks: " + waveInterval + " (must be at least 1)");
+        }
+
+        // Validate persistent RPC retry tuning
+        if (cfg.getInt("rpc_retry.max_concurrent", 4) < 1) {
+            errors.add("Invalid rpc_retry.max_concurrent: must be at least 1");
+        }
+        long baseBackoff = cfg.getLong("rpc_retry.base_backoff_seconds", 5L);
+        long maxBackoff = cfg.getLong("rpc_retry.max_backoff_seconds", 300L);
+        if (baseBackoff < 1) {
+            errors.add("Invalid rpc_retry.base_backoff_seconds: " + baseBackoff + " (must be at least 1)");
+        } else if (maxBackoff < baseBackoff) {
+            errors.add("Invalid rpc_retry.max_backoff_seconds: " + maxBackoff + " (must not be below rpc_retry.base_backoff_seconds)");
+        }
+        if (cfg.getLong("rpc_retry.health_poll_seconds", 10L) < 1) {
+            errors.add("Invalid rpc_retry.health_poll_seconds: must be at least 1");
+        }
+
+        // Validate backend health mirror and circuit breaker
+        if (cfg.getLong("backend_health.poll_seconds", 5L) < 1) {
+            errors.add("Invalid backend_health.poll_seconds: must be at least 1");
+        }
+        if (cfg.getInt("backend_health.failure_threshold", 3) < 1) {
+            errors.add("Invalid backend_health.failure_threshold: must be at least 1");
+        }
+        if (cfg.getLong("backend_health.open_seconds", 30L) < 1) {
+            errors.add("Invalid backend_health.open_seconds: must be at least 1");
+        }
+
+        // Validate cycle event stream
+        if (cfg.getInt("events.replay_size", 256) < 1) {
+            errors.add("Invalid events.replay_size: must be at least 1");
+        }
+        if (cfg.getLong("state.flush_millis", 1000L) < 10L) {
+            errors.add("Invalid state.flush_millis: must be at least 10");
+        }
+
         // Validate webhook URL if configured
         String webhookUrl = cfg.getString("webhook.url", "").trim();
         if (!webhookUrl.isEmpty() && !webhookUrl.startsWith("http://") && !webhookUrl.startsWith("https://")) {
@@ -0,0 +1,287 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drives a world cycle on the hardcore backend through explicit phases.
+ * <p>
+ * Phases advance as soon as their condition holds, driven by server events instead of polling:
+ * <ul>
+ *     <li>{@link Phase#DRAINING}: waits for every player to leave the previous world
+ *     ({@link PlayerQuitEvent} / {@link PlayerChangedWorldEvent}). After the drain timeout the
+ *     remaining players are force-moved to the lobby and given a short grace period.</li>
+ *     <li>{@link Phase#UNLOADING}: unloads the previous world and schedules its deletion.</li>
+ *     <li>{@link Phase#GENERATING}: claims, copies or generates the new world.</li>
+ *     <li>{@link Phase#ADMITTING}: the new world is loaded; spawn pre-generation runs and the lobby
+ *     is told it can send players.</li>
+ *     <li>{@link Phase#READY}: the cycle is live.</li>
+ * </ul>
+ * At most one timeout task is pending at any time. Phase durations are recorded into
+ * {@link CycleTimings} and every transition is reported to {@link CycleOperations} so HTTP callers
+ * waiting on the cycle are released. Each phase is also emitted as a {@link CycleJfrEvents.Phase}
+ * flight recorder event. All methods run on the main server thread.
+ */
+public class CycleCoordinator implements Listener {
+    private static final long FORCE_MOVE_GRACE_TICKS = 60L; // 3 seconds for forced transfers to go through
+
+    /**
+     * Cycle phases in the order they are visited.
+     */
+    public enum Phase { IDLE, DRAINING, UNLOADING, GENERATING, ADMITTING, READY }
+
+    private final Main plugin;
+    private final Set<UUID> draining = new HashSet<>();
+    private Phase phase = Phase.IDLE;
+    private int cycle = 0;
+    private String previousWorldName;
+    private long phaseStartedAt = System.nanoTime();
+    private BukkitTask timeoutTask;
+    private boolean advanceScheduled = false;
+    // Spans the current phase in flight recordings; null while IDLE or READY
+    private CycleJfrEvents.Phase phaseEvent;
+
+    public CycleCoordinator(Main plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Start a new cycle.
+     *
+     * @param newCycle           cycle number being started
+     * @param prevWorldName      world of the cycle being replaced
+     * @param waitForDrain       when false the previous world is left to {@link Main} and generation starts immediately
+     * @param drainTimeoutSeconds seconds to wait for players to leave before force-moving them
+     * @return false when another cycle is still running
+     */
+    public boolean begin(int newCycle, String prevWorldName, boolean waitForDrain, int drainTimeoutSeconds) {
+        if (isBusy()) {
+            plugin.getLogger().warning("Cycle #" + newCycle + " requested while cycle #" + cycle + " is " + phase + "; ignoring.");
+            return false;
+        }
+        cycle = newCycle;
+        previousWorldName = prevWorldName;
+        if (!waitForDrain) {
+            enterGenerating();
+            return true;
+        }
+        transition(Phase.DRAINING);
+        World prev = Bukkit.getWorld(prevWorldName);
+        if (prev == null) {
+            enterGenerating();
+            return true;
+        }
+        draining.clear();
+        for (Player p : prev.getPlayers()) draining.add(p.getUniqueId());
+        if (draining.isEmpty()) {
+            enterUnloading();
+            return true;
+        }
+        plugin.getLogger().info("Cycle #" + cycle + ": waiting for " + draining.size() + " player(s) to leave " + prevWorldName + ".");
+        scheduleTimeout(this::onDrainTimeout, Math.max(0, drainTimeoutSeconds) * 20L);
+        return true;
+    }
+
+    /**
+     * Called by {@link Main} once the new world has been loaded (or failed to load).
+     *
+     * @param forCycle cycle the world belongs to
+     * @param loaded   true when the world exists and players can be admitted
+     */
+    public void worldLoaded(int forCycle, boolean loaded) {
+        if (forCycle != cycle || phase != Phase.GENERATING) return;
+        transition(loaded ? Phase.ADMITTING : Phase.READY, !loaded);
+    }
+
+    /**
+     * Called by {@link Main} once the lobby has been told the world is ready.
+     *
+     * @param forCycle cycle that was announced
+     */
+    public void lobbyNotified(int forCycle) {
+        if (forCycle != cycle || phase != Phase.ADMITTING) return;
+        transition(Phase.READY);
+    }
+
+    /**
+     * @return current phase
+     */
+    public Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @return cycle number the current phase belongs to
+     */
+    public int getCycle() {
+        return cycle;
+    }
+
+    /**
+     * @return true while the previous world is being drained or the new one is being produced
+     */
+    public boolean isBusy() {
+        return phase == Phase.DRAINING || phase == Phase.UNLOADING || phase == Phase.GENERATING;
+    }
+
+    /**
+     * @return true from the start of a cycle until its lobby has been notified, including the
+     *         admission phase; false only while IDLE or READY
+     */
+    public boolean isActive() {
+        return phase != Phase.IDLE && phase != Phase.READY;
+    }
+
+    /**
+     * Cancel any pending timeout (plugin shutdown).
+     */
+    public void shutdown() {
+        cancelTimeout();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        playerLeft(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        if (event.getFrom() != null && event.getFrom().getName().equals(previousWorldName)) {
+            playerLeft(event.getPlayer().getUniqueId());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+        if (phase == Phase.DRAINING && event.getWorld().getName().equals(previousWorldName)) {
+            // Someone else unloaded the previous world; nothing left to drain
+            draining.clear();
+            scheduleAdvanceToUnloading();
+        }
+    }
+
+    private void playerLeft(UUID id) {
+        if (phase != Phase.DRAINING || !draining.remove(id) || !draining.isEmpty()) return;
+        scheduleAdvanceToUnloading();
+    }
+
+    /**
+     * Advance on the next tick: during {@link PlayerQuitEvent} the player still counts as being in
+     * the world, so unloading it in the same tick would fail.
+     */
+    private void scheduleAdvanceToUnloading() {
+        if (advanceScheduled) return;
+        advanceScheduled = true;
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            advanceScheduled = false;
+            if (phase == Phase.DRAINING) enterUnloading();
+        });
+    }
+
+    private void onDrainTimeout() {
+        timeoutTask = null;
+        if (phase != Phase.DRAINING) return;
+        World prev = Bukkit.getWorld(previousWorldName);
+        if (prev == null || prev.getPlayers().isEmpty()) {
+            enterUnloading();
+            return;
+        }
+        plugin.getLogger().info("Cycle #" + cycle + ": timed out waiting for players to leave " + previousWorldName
+                + "; forcing " + prev.getPlayers().size() + " player(s) to the lobby.");
+        draining.clear();
+        for (Player r : prev.getPlayers()) {
+            draining.add(r.getUniqueId());
+            try { plugin.sendPlayerToLobby(r); } catch (Exception ex) { plugin.getLogger().warning("Failed to force-move player " + r.getName() + " to lobby: " + ex.getMessage()); }
+        }
+        // Players leaving still advance immediately; the grace period only bounds the wait
+        scheduleTimeout(this::enterUnloading, FORCE_MOVE_GRACE_TICKS);
+    }
+
+    private void enterUnloading() {
+        if (phase != Phase.DRAINING) return;
+        transition(Phase.UNLOADING);
+        World prev = Bukkit.getWorld(previousWorldName);
+        if (prev != null) {
+            boolean unloaded = Bukkit.unloadWorld(prev, false);
+            if (!unloaded) plugin.getLogger().warning("Failed to unload previous world '" + previousWorldName + "' prior to generation; scheduling deletion fallback.");
+            plugin.scheduleWorldDeletion(previousWorldName);
+        }
+        enterGenerating();
+    }
+
+    private void enterGenerating() {
+        transition(Phase.GENERATING);
+        plugin.generateWorldForCycle(cycle);
+    }
+
+    private void transition(Phase next) {
+        transition(next, false);
+    }
+
+    private void transition(Phase next, boolean failed) {
+        cancelTimeout();
+        long elapsedNanos = System.nanoTime() - phaseStartedAt;
+        long elapsedMillis = elapsedNanos / 1_000_000L;
+        recordPhase(phase, next, elapsedNanos);
+        if (phase != Phase.IDLE && phase != Phase.READY) {
+            plugin.getLogger().info("Cycle #" + cycle + ": " + phase + " -> " + next + " after " + elapsedMillis + "ms.");
+        } else {
+            plugin.getLogger().info("Cycle #" + cycle + ": " + next + ".");
+        }
+        if (phaseEvent != null) {
+            phaseEvent.next = next.name();
+            phaseEvent.failed = failed;
+            phaseEvent.commit();
+            phaseEvent = null;
+        }
+        phase = next;
+        phaseStartedAt = System.nanoTime();
+        if (next != Phase.IDLE && next != Phase.READY) {
+            phaseEvent = new CycleJfrEvents.Phase();
+            phaseEvent.cycle = cycle;
+            phaseEvent.phase = next.name();
+            phaseEvent.begin();
+        }
+        CycleOperations operations = plugin.getCycleOperations();
+        if (operations != null) operations.phaseReached(cycle, next, failed);
+        plugin.publishCycleEvent("phase", Map.of("cycle", cycle, "phase", next.name(), "failed", failed));
+    }
+
+    private void recordPhase(Phase ended, Phase next, long elapsedNanos) {
+        CycleTimings timings = plugin.getCycleTimings();
+        if (timings == null) return;
+        switch (ended) {
+            case DRAINING -> timings.record(CycleTimings.Stage.DRAIN, elapsedNanos);
+            case UNLOADING -> timings.record(CycleTimings.Stage.UNLOAD, elapsedNanos);
+            case GENERATING -> timings.record(CycleTimings.Stage.GENERATE, elapsedNanos);
+            case ADMITTING -> timings.record(CycleTimings.Stage.ADMIT, elapsedNanos);
+            default -> { }
+        }
+        if (next == Phase.READY) timings.finishCycle(cycle);
+    }
+
+    private void scheduleTimeout(Runnable action, long delayTicks) {
+        cancelTimeout();
+        timeoutTask = Bukkit.getScheduler().runTaskLater(plugin, action, delayTicks);
+    }
+
+    private void cancelTimeout() {
+        if (timeoutTask != null) {
+            timeoutTask.cancel();
+            timeoutTask = null;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * Cycle events of the hardcore backend (phase changes, generation progress, world ready, deaths,
+ * dragon kills), streamed to lobbies as server-sent events on {@code GET /events}.
+ * <p>
+ * Published events get an id of the form {@code <boot>-<seq>} and are kept in a ring buffer of
+ * the last {@code replaySize} events. A client reconnecting with {@code Last-Event-ID} gets every
+ * event after that id from the buffer before live events; when the id is older than the buffer or
+ * from a previous server run a {@code reset} event tells it that events were missed.
+ * <p>
+ * Publishing never blocks: each subscriber has a bounded queue drained by its own virtual thread,
+ * and a subscriber that falls too far behind is disconnected so it can resume from its last id.
+ * Idle streams get a comment line every {@link #HEARTBEAT_MILLIS} so dead connections are noticed.
+ */
+public class CycleEventBus {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final Gson GSON = new Gson();
+    static final long HEARTBEAT_MILLIS = 15_000L;
+    static final int MAX_SUBSCRIBERS = 32;
+    // Live events a subscriber may lag behind before it is disconnected
+    static final int SUBSCRIBER_QUEUE = 256;
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * One event.
+     *
+     * @param seq  position in the stream of this server run
+     * @param type event name
+     * @param data JSON payload
+     */
+    public record Event(long seq, String type, String data) {}
+
+    private final String boot = Long.toString(System.currentTimeMillis(), 36);
+    private final Event[] ring;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private long nextSeq = 1L;
+    private boolean closed = false;
+
+    /**
+     * @param replaySize events kept for reconnecting clients
+     */
+    public CycleEventBus(int replaySize) {
+        this.ring = new Event[Math.max(1, replaySize)];
+    }
+
+    /**
+     * Publish an event to every subscriber. Safe to call from any thread.
+     *
+     * @param type event name
+     * @param data payload, serialized to JSON
+     */
+    public void publish(String type, Map<String, ?> data) {
+        String json = GSON.toJson(data);
+        synchronized (this) {
+            if (closed) return;
+            var event = new Event(nextSeq++, type, json);
+            ring[(int) (event.seq() % ring.length)] = event;
+            byte[] frame = frame(event);
+            for (var s : subscribers) s.offer(frame);
+        }
+    }
+
+    /**
+     * Attach a client. Replayed events are queued before any event published afterwards.
+     *
+     * @param lastEventId {@code Last-Event-ID} sent by the client, or null for a new client
+     * @param out         response stream; closed when the subscriber ends
+     * @param onClose     called once when the subscriber ends
+     * @return false when the subscriber limit is reached or the bus is closed
+     */
+    public boolean subscribe(String lastEventId, OutputStream out, Runnable onClose) {
+        var subscriber = new Subscriber(out, onClose);
+        synchronized (this) {
+            if (closed || subscribers.size() >= MAX_SUBSCRIBERS) return false;
+            for (byte[] frame : replayFrames(lastEventId)) subscriber.offer(frame);
+            subscribers.add(subscriber);
+        }
+        subscriber.start();
+        return true;
+    }
+
+    /**
+     * Disconnect every subscriber and stop accepting events.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        for (var s : subscribers) s.stop();
+    }
+
+    /**
+     * @return connected subscribers
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Events after {@code lastEventId}, preceded by a {@code reset} event when some were lost.
+     * Caller holds the lock.
+     */
+    private List<byte[]> replayFrames(String lastEventId) {
+        var frames = new ArrayList<byte[]>();
+        if (lastEventId == null || lastEventId.isBlank()) return frames;
+        long oldest = Math.max(1L, nextSeq - ring.length);
+        long after = parseSeq(lastEventId);
+        if (after < 0 || after >= nextSeq) {
+            // Unknown id or one from a previous run: everything kept is new to the client
+            after = 0L;
+            frames.add(reset(oldest));
+        } else if (after < oldest - 1) {
+            frames.add(reset(oldest));
+        }
+        for (long seq = Math.max(after + 1, oldest); seq < nextSeq; seq++) {
+            frames.add(frame(ring[(int) (seq % ring.length)]));
+        }
+        return frames;
+    }
+
+    private long parseSeq(String id) {
+        int dash = id.lastIndexOf('-');
+        if (dash <= 0 || !id.substring(0, dash).equals(boot)) return -1L;
+        try {
+            return Long.parseLong(id.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private byte[] reset(long oldest) {
+        // No id: the client keeps resuming from the last event it actually received
+        return ("event: reset\ndata: " + GSON.toJson(Map.of("oldest", boot + "-" + oldest)) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] frame(Event e) {
+        return ("id: " + boot + "-" + e.seq() + "\nevent: " + e.type() + "\ndata: " + e.data() + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private final class Subscriber {
+        private final OutputStream out;
+        private final Runnable onClose;
+        // Room for a full replay on top of the live backlog
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(ring.length + SUBSCRIBER_QUEUE);
+        private final AtomicBoolean done = new AtomicBoolean(false);
+        private volatile Thread writer;
+
+        Subscriber(OutputStream out, Runnable onClose) {
+            this.out = out;
+            this.onClose = onClose;
+        }
+
+        void start() {
+            writer = Thread.ofVirtual().name("HardcoreCycle-Events").start(this::run);
+        }
+
+        void offer(byte[] frame) {
+            if (!queue.offer(frame)) {
+                LOG.fine("Event subscriber fell behind; disconnecting it so it can resume.");
+                stop();
+            }
+        }
+
+        /**
+         * Ask the writer to end. The writer closes the stream, so a slow client never blocks the
+         * publisher.
+         */
+        void stop() {
+            if (!done.compareAndSet(false, true)) return;
+            subscribers.remove(this);
+            if (writer != null) writer.interrupt();
+        }
+
+        private void run() {
+            try {
+                while (!done.get()) {
+                    byte[] frame = queue.poll(HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+                    out.write(frame != null ? frame : HEARTBEAT);
+                    // Send whatever else is already queued before flushing
+                    while ((frame = queue.poll()) != null) out.write(frame);
+                    out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client went away or the subscriber was stopped
+            } finally {
+                done.set(true);
+                subscribers.remove(this);
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Already gone
+                }
+                onClose.run();
+            }
+        }
+    }
+}
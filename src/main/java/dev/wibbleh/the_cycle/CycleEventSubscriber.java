@@ -0,0 +1,225 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Lobby-side client of the backend's {@code /events} stream.
+ * <p>
+ * One virtual thread holds the connection open and hands every event to the listener as it
+ * arrives. When the connection drops it reconnects with a backoff (reset after a successful
+ * connect) and sends the id of the last event it received as {@code Last-Event-ID}, so events
+ * published meanwhile are replayed by the backend. A stream that stays silent for three heartbeat
+ * intervals is treated as dead and reopened. The listener runs on the stream thread and must hop
+ * to the main thread itself before touching Bukkit APIs.
+ */
+public class CycleEventSubscriber {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final long MIN_BACKOFF_MILLIS = 1_000L;
+    private static final long MAX_BACKOFF_MILLIS = 30_000L;
+    private static final long STALE_MILLIS = 3 * CycleEventBus.HEARTBEAT_MILLIS;
+
+    /**
+     * Event received from the backend.
+     *
+     * @param id   event id, or null for events without one (e.g. {@code reset})
+     * @param type event name ({@code message} when the backend sent none)
+     * @param data payload (JSON for events published by {@link CycleEventBus})
+     */
+    public record Event(String id, String type, String data) {}
+
+    private final String url;
+    private final Consumer<Event> listener;
+    private final long staleMillis;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(CONNECT_TIMEOUT_MS))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private volatile boolean running = false;
+    private volatile String lastEventId;
+    private volatile long lastActivity;
+    private volatile InputStream current;
+    private volatile Thread reader;
+    private ScheduledExecutorService watchdog;
+
+    /**
+     * @param url      backend {@code /events} URL
+     * @param listener receives every event
+     */
+    public CycleEventSubscriber(String url, Consumer<Event> listener) {
+        this(url, listener, STALE_MILLIS);
+    }
+
+    CycleEventSubscriber(String url, Consumer<Event> listener, long staleMillis) {
+        this.url = url;
+        this.listener = listener;
+        this.staleMillis = staleMillis;
+    }
+
+    /**
+     * Open the stream in the background.
+     */
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        reader = Thread.ofVirtual().name("HardcoreCycle-EventStream").start(this::run);
+        watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "HardcoreCycle-EventStreamWatchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        long check = Math.max(100L, staleMillis / 3);
+        watchdog.scheduleWithFixedDelay(this::closeIfStale, check, check, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Close the stream and stop reconnecting.
+     */
+    public synchronized void stop() {
+        running = false;
+        if (watchdog != null) watchdog.shutdownNow();
+        closeCurrent();
+        if (reader != null) reader.interrupt();
+    }
+
+    /**
+     * @return id of the last event received, or null before the first one
+     */
+    public String lastEventId() {
+        return lastEventId;
+    }
+
+    private void run() {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                var builder = HttpRequest.newBuilder(URI.create(url))
+                        .header("Accept", "text/event-stream")
+                        .GET();
+                String resumeFrom = lastEventId;
+                if (resumeFrom != null) builder.header("Last-Event-ID", resumeFrom);
+                var response = client.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+                if (response.statusCode() != 200) {
+                    response.body().close();
+                    throw new java.io.IOException("HTTP " + response.statusCode());
+                }
+                LOG.info("Subscribed to backend events at " + url + (resumeFrom == null ? "" : " (resuming after " + resumeFrom + ")"));
+                backoff = MIN_BACKOFF_MILLIS;
+                read(response.body());
+            } catch (InterruptedException e) {
+                if (!running) return;
+            } catch (Exception e) {
+                if (running) LOG.fine("Backend event stream unavailable: " + e.getMessage());
+            }
+            // The watchdog interrupts a stale read; that must not end the loop
+            Thread.interrupted();
+            if (!running) return;
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                if (!running) return;
+            }
+            backoff = Math.min(MAX_BACKOFF_MILLIS, backoff * 2);
+        }
+    }
+
+    private void read(InputStream body) throws java.io.IOException {
+        current = body;
+        lastActivity = System.currentTimeMillis();
+        try (var in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            var parser = new Parser();
+            String line;
+            while (running && (line = in.readLine()) != null) {
+                lastActivity = System.currentTimeMillis();
+                var event = parser.accept(line);
+                if (event == null) continue;
+                if (event.id() != null) lastEventId = event.id();
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    LOG.warning("Backend event handler failed for " + event.type() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            current = null;
+        }
+    }
+
+    private void closeIfStale() {
+        if (current != null && System.currentTimeMillis() - lastActivity > staleMillis) {
+            LOG.fine("Backend event stream silent for " + staleMillis + "ms; reconnecting.");
+            closeCurrent();
+            // A read blocked on the closed stream only wakes up when interrupted
+            if (reader != null) reader.interrupt();
+        }
+    }
+
+    private void closeCurrent() {
+        var in = current;
+        if (in == null) return;
+        try {
+            in.close();
+        } catch (java.io.IOException ignored) {
+            // Reader sees the stream end either way
+        }
+    }
+
+    /**
+     * Incremental parser for the {@code text/event-stream} format: fields accumulate until a blank
+     * line dispatches the event; comment lines (heartbeats) are skipped.
+     */
+    static final class Parser {
+        private String id;
+        private String type;
+        private StringBuilder data;
+
+        /**
+         * @param line one line of the stream, without its terminator
+         * @return the completed event, or null while one is still being read
+         */
+        Event accept(String line) {
+            if (line.isEmpty()) {
+                if (data == null) {
+                    id = null;
+                    type = null;
+                    return null;
+                }
+                var event = new Event(id, type == null ? "message" : type, data.toString());
+                id = null;
+                type = null;
+                data = null;
+                return event;
+            }
+            if (line.startsWith(":")) return null;
+            int colon = line.indexOf(':');
+            String field = colon < 0 ? line : line.substring(0, colon);
+            String value = colon < 0 ? "" : line.substring(colon + 1);
+            if (value.startsWith(" ")) value = value.substring(1);
+            switch (field) {
+                case "id" -> id = value;
+                case "event" -> type = value;
+                case "data" -> {
+                    if (data == null) data = new StringBuilder(value);
+                    else data.append('\n').append(value);
+                }
+                default -> {
+                    // retry and unknown fields are ignored
+                }
+            }
+            return null;
+        }
+    }
+}
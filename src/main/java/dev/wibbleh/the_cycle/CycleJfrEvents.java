@@ -0,0 +1,203 @@
+package dev.wibbleh.the_cycle;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.regex.Pattern;
+
+/**
+ * Java Flight Recorder events for the plugin's own work, so a recording taken while the server
+ * stalls shows which cycle phase, RPC, world operation or file write was running next to Paper's
+ * tick events. All events are under the "Hardcore Cycle" category and carry the cycle number where
+ * one applies ({@code -1} otherwise). They cost nothing unless a recording enables them; the default
+ * JFR settings record them with their duration and without stack traces.
+ * <p>
+ * Usage follows the JFR pattern: create the event, {@code begin()} before the work, fill the fields
+ * and {@code commit()} after it.
+ */
+public final class CycleJfrEvents {
+    private static final String CATEGORY = "Hardcore Cycle";
+    private static final Pattern CYCLE_WORLD = Pattern.compile("hardcore_cycle_(\\d+)");
+
+    private CycleJfrEvents() {
+        // Utility class
+    }
+
+    /**
+     * @param name world or world folder name, e.g. {@code hardcore_cycle_12.deleting.<uuid>}
+     * @return cycle number in the name, or -1 when it is not a cycle world
+     */
+    static int cycleOf(String name) {
+        if (name == null) return -1;
+        var m = CYCLE_WORLD.matcher(name);
+        if (!m.find()) return -1;
+        try {
+            return Integer.parseInt(m.group(1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * One phase of the cycle coordinator, from entering it until the next transition.
+     */
+    @Name("dev.wibbleh.the_cycle.CyclePhase")
+    @Label("Cycle Phase")
+    @Category({CATEGORY, "Cycle"})
+    @Description("Time a cycle spent in one coordinator phase")
+    @StackTrace(false)
+    public static final class Phase extends Event {
+        @Label("Cycle")
+        public int cycle;
+        @Label("Phase")
+        public String phase;
+        @Label("Next Phase")
+        public String next;
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    /**
+     * Main-thread work done for a cycle (preparing it, creating or loading the world, moving players).
+     */
+    @Name("dev.wibbleh.the_cycle.CycleStep")
+    @Label("Cycle Step")
+    @Category({CATEGORY, "Cycle"})
+    @Description("Main-thread work done for a cycle")
+    @StackTrace(false)
+    public static final class Step extends Event {
+        @Label("Cycle")
+        public int cycle;
+        @Label("Step")
+        public String step;
+        @Label("World")
+        public String world;
+        @Label("Players")
+        public int players;
+    }
+
+    /**
+     * One outbound HTTP RPC attempt.
+     */
+    @Name("dev.wibbleh.the_cycle.RpcSend")
+    @Label("RPC Send")
+    @Category({CATEGORY, "RPC"})
+    @Description("Outbound HTTP RPC attempt")
+    @StackTrace(false)
+    public static final class RpcSend extends Event {
+        @Label("URL")
+        public String url;
+        @Label("Attempt")
+        public int attempt;
+        @Label("Status")
+        @Description("HTTP status, or -1 when no response arrived")
+        public int status;
+        @Label("Request Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * One inbound RPC, from receipt until its handler returned.
+     */
+    @Name("dev.wibbleh.the_cycle.RpcReceive")
+    @Label("RPC Receive")
+    @Category({CATEGORY, "RPC"})
+    @Description("Inbound RPC over HTTP or the plugin-message channel")
+    @StackTrace(false)
+    public static final class RpcReceive extends Event {
+        @Label("Transport")
+        public String transport;
+        @Label("Action")
+        public String action;
+        @Label("Caller")
+        public String caller;
+        @Label("Cycle")
+        @Description("Target cycle sent with the RPC, or -1")
+        public int cycle;
+        @Label("Message Size")
+        @DataAmount
+        public long bytes;
+        @Label("Accepted")
+        public boolean accepted;
+    }
+
+    /**
+     * Unloading a cycle world.
+     */
+    @Name("dev.wibbleh.the_cycle.WorldUnload")
+    @Label("World Unload")
+    @Category({CATEGORY, "World I/O"})
+    @Description("Unloading a previous cycle world")
+    @StackTrace(false)
+    public static final class WorldUnload extends Event {
+        @Label("Cycle")
+        public int cycle;
+        @Label("World")
+        public String world;
+        @Label("Unloaded")
+        public boolean unloaded;
+    }
+
+    /**
+     * Deleting a world folder tree.
+     */
+    @Name("dev.wibbleh.the_cycle.WorldDeletion")
+    @Label("World Deletion")
+    @Category({CATEGORY, "World I/O"})
+    @Description("Deleting a world folder")
+    @StackTrace(false)
+    public static final class WorldDeletion extends Event {
+        @Label("Cycle")
+        public int cycle;
+        @Label("Folder")
+        public String folder;
+        @Label("Files")
+        public long files;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+        @Label("Success")
+        public boolean success;
+    }
+
+    /**
+     * Writing one of the plugin's state files.
+     */
+    @Name("dev.wibbleh.the_cycle.PersistenceWrite")
+    @Label("Persistence Write")
+    @Category({CATEGORY, "Persistence"})
+    @Description("Writing or syncing a plugin state file")
+    @StackTrace(false)
+    public static final class PersistenceWrite extends Event {
+        @Label("File")
+        public String file;
+        @Label("Operation")
+        @Description("write, append, sync or compact")
+        public String operation;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Record a state file write that already happened.
+     *
+     * @param event     event begun before the write
+     * @param file      file name
+     * @param operation write, append, sync or compact
+     * @param bytes     bytes written
+     */
+    static void persisted(PersistenceWrite event, String file, String operation, long bytes) {
+        if (!event.shouldCommit()) return;
+        event.file = file;
+        event.operation = operation;
+        event.bytes = bytes;
+        event.commit();
+    }
+}
@@ -0,0 +1,316 @@
+package dev.wibbleh.the_cycle;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks cycle requests accepted over HTTP so callers can follow them without holding a thread.
+ * <p>
+ * A {@code cycle-now} RPC creates an operation and returns its id immediately. Once the main thread
+ * has run the request the operation is bound to the cycle it started or joined, or rejected when
+ * no cycle could be started. Phase transitions reported by {@link CycleCoordinator} then advance the
+ * bound operation. Waiters get a {@link CompletableFuture} per requested phase, completed when that
+ * phase (or a later one) is reached or when the operation ends, so any number of long-poll requests
+ * can wait without parking threads.
+ * <p>
+ * Finished operations are kept for {@link #RETENTION_MILLIS} so late pollers still see the outcome.
+ * <p>
+ * Requests carrying an idempotency key go through {@link #admit(String)}: a key seen within the
+ * last {@link #RETENTION_MILLIS} (at most {@link #MAX_KEYS} keys are remembered) maps to the
+ * operation it created, so retried or replayed deliveries of one request never start a second cycle.
+ * All methods are thread-safe.
+ */
+public class CycleOperations {
+    static final long RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    static final int MAX_OPERATIONS = 256;
+    static final int MAX_KEYS = 1024;
+
+    /**
+     * Lifecycle of an operation.
+     */
+    public enum State {
+        /** Accepted; waiting for the main thread to start the cycle. */
+        PENDING,
+        /** Bound to a cycle that is in progress. */
+        RUNNING,
+        /** The cycle reached {@link CycleCoordinator.Phase#READY} with its world loaded. */
+        DONE,
+        /** The request did not start a cycle and there was no running cycle to join. */
+        REJECTED,
+        /** The cycle could not be started or its world failed to load. */
+        FAILED;
+
+        boolean isFinal() {
+            return this == DONE || this == REJECTED || this == FAILED;
+        }
+    }
+
+    /**
+     * Snapshot of an operation, as returned by the status endpoint.
+     *
+     * @param operationId operation id
+     * @param state       lifecycle state
+     * @param cycle       cycle number the operation started (-1 until known)
+     * @param phase       last phase reached by that cycle
+     * @param createdAt   epoch millis when the request was accepted
+     * @param message     reason for a rejection or failure, otherwise null
+     */
+    public record Status(String operationId, State state, int cycle, CycleCoordinator.Phase phase, long createdAt, String message) {}
+
+    /**
+     * Outcome of {@link #admit(String)}.
+     *
+     * @param operationId operation handling the request
+     * @param duplicate   true when the key was seen before and no new operation was created
+     */
+    public record Admission(String operationId, boolean duplicate) {}
+
+    private record KeyEntry(String operationId, long seenAt) {}
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    // Insertion-ordered so the oldest keys are evicted first; guarded by this
+    private final LinkedHashMap<String, KeyEntry> keys = new LinkedHashMap<>();
+    private int lastCycle = -1;
+    private CycleCoordinator.Phase lastPhase = CycleCoordinator.Phase.IDLE;
+    private boolean lastFailed = false;
+
+    /**
+     * Register a new operation.
+     *
+     * @return the operation id
+     */
+    public String create() {
+        prune(System.currentTimeMillis());
+        var op = new Operation(UUID.randomUUID().toString(), System.currentTimeMillis());
+        operations.put(op.id, op);
+        return op.id;
+    }
+
+    /**
+     * Register a request, or find the operation an earlier delivery of it created.
+     *
+     * @param idempotencyKey key shared by all deliveries of one request (null or empty: always new)
+     * @return the operation handling the request
+     */
+    public Admission admit(String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isEmpty()) return new Admission(create(), false);
+        long now = System.currentTimeMillis();
+        synchronized (keys) {
+            for (var it = keys.values().iterator(); it.hasNext(); ) {
+                var k = it.next();
+                if (now - k.seenAt() <= RETENTION_MILLIS && keys.size() < MAX_KEYS) break;
+                it.remove();
+            }
+            var seen = keys.get(idempotencyKey);
+            if (seen != null) return new Admission(seen.operationId(), true);
+            String id = create();
+            keys.put(idempotencyKey, new KeyEntry(id, now));
+            return new Admission(id, false);
+        }
+    }
+
+    /**
+     * Bind an operation to a cycle that already finished, e.g. when a request for that cycle
+     * arrives after it was started by another request. The operation ends as {@link State#DONE}.
+     *
+     * @param id    operation id
+     * @param cycle cycle number the request asked for
+     */
+    public void bindFinished(String id, int cycle) {
+        var op = operations.get(id);
+        if (op != null) op.bind(cycle, CycleCoordinator.Phase.READY, false);
+    }
+
+    /**
+     * @return number of remembered idempotency keys
+     */
+    int keyCount() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    /**
+     * Bind an operation to the cycle it started. Phases that cycle already went through while the
+     * request ran on the main thread are applied immediately.
+     *
+     * @param id    operation id
+     * @param cycle cycle number started by the request
+     */
+    public void bind(String id, int cycle) {
+        var op = operations.get(id);
+        if (op == null) return;
+        CycleCoordinator.Phase phase;
+        boolean failed;
+        synchronized (this) {
+            phase = cycle == lastCycle ? lastPhase : CycleCoordinator.Phase.IDLE;
+            failed = cycle == lastCycle && lastFailed;
+        }
+        op.bind(cycle, phase, failed);
+    }
+
+    /**
+     * End an operation without starting a cycle.
+     *
+     * @param id      operation id
+     * @param state   {@link State#REJECTED} or {@link State#FAILED}
+     * @param message reason reported to pollers
+     */
+    public void end(String id, State state, String message) {
+        var op = operations.get(id);
+        if (op != null) op.end(state, message);
+    }
+
+    /**
+     * Advance the operations bound to a cycle. Called by {@link CycleCoordinator} on every transition.
+     *
+     * @param cycle  cycle number
+     * @param phase  phase entered
+     * @param failed true when the cycle went to READY because its world failed to load
+     */
+    public void phaseReached(int cycle, CycleCoordinator.Phase phase, boolean failed) {
+        synchronized (this) {
+            lastCycle = cycle;
+            lastPhase = phase;
+            lastFailed = failed;
+        }
+        for (var op : operations.values()) {
+            if (op.cycle() == cycle) op.advance(phase, failed);
+        }
+    }
+
+    /**
+     * @param id operation id
+     * @return current status, or null when the id is unknown or expired
+     */
+    public Status status(String id) {
+        var op = operations.get(id);
+        return op == null ? null : op.snapshot();
+    }
+
+    /**
+     * Wait for an operation to reach a phase.
+     *
+     * @param id     operation id
+     * @param target phase to wait for
+     * @return future completed with the status once the phase is reached or the operation ends,
+     * or null when the id is unknown or expired
+     */
+    public CompletableFuture<Status> await(String id, CycleCoordinator.Phase target) {
+        var op = operations.get(id);
+        return op == null ? null : op.await(target);
+    }
+
+    /**
+     * @return number of tracked operations
+     */
+    int size() {
+        return operations.size();
+    }
+
+    /**
+     * Drop finished operations past their retention, then the oldest finished ones while over the cap.
+     */
+    void prune(long now) {
+        operations.values().removeIf(op -> op.finishedAt() > 0 && now - op.finishedAt() > RETENTION_MILLIS);
+        if (operations.size() < MAX_OPERATIONS) return;
+        var finished = new ArrayList<Operation>();
+        for (var op : operations.values()) if (op.finishedAt() > 0) finished.add(op);
+        finished.sort((a, b) -> Long.compare(a.finishedAt(), b.finishedAt()));
+        for (Iterator<Operation> it = finished.iterator(); it.hasNext() && operations.size() >= MAX_OPERATIONS; ) {
+            operations.remove(it.next().id);
+        }
+    }
+
+    private static final class Operation {
+        final String id;
+        final long createdAt;
+        private final Map<CycleCoordinator.Phase, CompletableFuture<Status>> waiters = new EnumMap<>(CycleCoordinator.Phase.class);
+        private State state = State.PENDING;
+        private int cycle = -1;
+        private CycleCoordinator.Phase phase = CycleCoordinator.Phase.IDLE;
+        private String message;
+        private long finishedAt = 0L;
+
+        Operation(String id, long createdAt) {
+            this.id = id;
+            this.createdAt = createdAt;
+        }
+
+        synchronized int cycle() {
+            return cycle;
+        }
+
+        synchronized long finishedAt() {
+            return finishedAt;
+        }
+
+        synchronized Status snapshot() {
+            return new Status(id, state, cycle, phase, createdAt, message);
+        }
+
+        void bind(int boundCycle, CycleCoordinator.Phase reached, boolean failed) {
+            synchronized (this) {
+                if (state != State.PENDING) return;
+                cycle = boundCycle;
+                state = State.RUNNING;
+            }
+            advance(reached, failed);
+        }
+
+        void advance(CycleCoordinator.Phase reached, boolean failed) {
+            List<CompletableFuture<Status>> due = new ArrayList<>();
+            Status status;
+            synchronized (this) {
+                if (state != State.RUNNING || reached.ordinal() < phase.ordinal()) return;
+                phase = reached;
+                if (reached == CycleCoordinator.Phase.READY) finish(failed ? State.FAILED : State.DONE, failed ? "World failed to load." : null);
+                for (var it = waiters.entrySet().iterator(); it.hasNext(); ) {
+                    var e = it.next();
+                    if (state.isFinal() || e.getKey().ordinal() <= reached.ordinal()) {
+                        due.add(e.getValue());
+                        it.remove();
+                    }
+                }
+                status = snapshot();
+            }
+            // Complete outside the lock; callbacks write HTTP responses
+            for (var f : due) f.complete(status);
+        }
+
+        void end(State finalState, String reason) {
+            List<CompletableFuture<Status>> due;
+            Status status;
+            synchronized (this) {
+                if (state.isFinal()) return;
+                finish(finalState, reason);
+                due = new ArrayList<>(waiters.values());
+                waiters.clear();
+                status = snapshot();
+            }
+            for (var f : due) f.complete(status);
+        }
+
+        synchronized CompletableFuture<Status> await(CycleCoordinator.Phase target) {
+            if (state.isFinal() || (state == State.RUNNING && phase.ordinal() >= target.ordinal())) {
+                return CompletableFuture.completedFuture(snapshot());
+            }
+            // Each caller gets its own copy so a caller-side timeout does not complete other waiters
+            return waiters.computeIfAbsent(target, k -> new CompletableFuture<>()).copy();
+        }
+
+        private void finish(State finalState, String reason) {
+            state = finalState;
+            message = reason;
+            finishedAt = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Wall-clock timings of every stage of a world cycle.
+ * <p>
+ * Durations are measured with {@link System#nanoTime()} by the code running each stage and recorded
+ * here into one {@link LatencyHistogram} per stage (microsecond resolution). The stages of the cycle
+ * in progress are also collected so that a per-cycle line can be appended to
+ * {@code cycle_history.jsonl} when the cycle finishes, for trend analysis across restarts.
+ * <p>
+ * Recording happens on the main server thread; histograms and the last finished cycle can be read
+ * from any thread (HTTP stats endpoint).
+ */
+public class CycleTimings {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Timed stages. Coordinator phases (drain, unload, generate, admit) cover the sub-stages
+     * recorded inside them (countdown to lobby, template copy, world load, teleport, pre-generation,
+     * lobby notify). The lobby countdown is recorded on the lobby server.
+     */
+    public enum Stage {
+        COUNTDOWN_TO_LOBBY("countdown_to_lobby"),
+        LOBBY_COUNTDOWN("lobby_countdown"),
+        DRAIN("drain"),
+        UNLOAD("unload"),
+        GENERATE("generate"),
+        TEMPLATE_COPY("template_copy"),
+        WORLD_LOAD("world_load"),
+        TELEPORT("teleport"),
+        ADMIT("admit"),
+        PREGENERATION("pregeneration"),
+        NOTIFY_LOBBY("notify_lobby"),
+        TOTAL("total");
+
+        private final String key;
+
+        Stage(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return stable name used in JSON output and the history file
+         */
+        public String key() {
+            return key;
+        }
+    }
+
+    /**
+     * Durations of one finished cycle, as written to the history file.
+     *
+     * @param cycle      cycle number
+     * @param finishedAt epoch millis when the cycle became ready
+     * @param stagesMs   stage name to duration in milliseconds
+     */
+    public record CycleRecord(int cycle, long finishedAt, Map<String, Long> stagesMs) {}
+
+    private final Map<Stage, LatencyHistogram> histograms;
+    private final File historyFile;
+    private final Consumer<Runnable> asyncRunner;
+    private final Map<String, Long> currentStages = new LinkedHashMap<>();
+    private int currentCycle = -1;
+    private long cycleStartedAt = 0L;
+    private volatile CycleRecord lastCycle;
+
+    /**
+     * @param historyFile file receiving one JSON line per finished cycle (null disables history)
+     * @param asyncRunner executes history appends off the main thread
+     */
+    public CycleTimings(File historyFile, Consumer<Runnable> asyncRunner) {
+        var map = new EnumMap<Stage, LatencyHistogram>(Stage.class);
+        for (Stage s : Stage.values()) map.put(s, new LatencyHistogram());
+        this.histograms = Collections.unmodifiableMap(map);
+        this.historyFile = historyFile;
+        this.asyncRunner = asyncRunner == null ? Runnable::run : asyncRunner;
+    }
+
+    /**
+     * Start collecting stages for a new cycle.
+     *
+     * @param cycle cycle number
+     */
+    public void startCycle(int cycle) {
+        currentCycle = cycle;
+        cycleStartedAt = System.nanoTime();
+        currentStages.clear();
+    }
+
+    /**
+     * Record a stage duration.
+     *
+     * @param stage       stage that finished
+     * @param elapsedNanos duration measured with {@link System#nanoTime()}
+     */
+    public void record(Stage stage, long elapsedNanos) {
+        histograms.get(stage).record(elapsedNanos / 1_000L);
+        Metrics.cycleStage(stage).observe(elapsedNanos / 1_000_000L);
+        if (currentCycle != -1) currentStages.merge(stage.key(), elapsedNanos / 1_000_000L, Long::sum);
+    }
+
+    /**
+     * Record a stage that started at the given {@link System#nanoTime()} value and ends now.
+     *
+     * @param stage     stage that finished
+     * @param startNanos start timestamp
+     */
+    public void recordSince(Stage stage, long startNanos) {
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Finish the cycle in progress: record its total duration and append it to the history file.
+     *
+     * @param cycle cycle number that became ready
+     */
+    public void finishCycle(int cycle) {
+        if (cycle != currentCycle) return;
+        recordSince(Stage.TOTAL, cycleStartedAt);
+        var record = new CycleRecord(cycle, System.currentTimeMillis(), new LinkedHashMap<>(currentStages));
+        lastCycle = record;
+        currentCycle = -1;
+        currentStages.clear();
+        if (historyFile != null) asyncRunner.accept(() -> appendHistory(historyFile, record));
+    }
+
+    /**
+     * @return histogram for a stage
+     */
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * @return the most recently finished cycle, or null when none finished since startup
+     */
+    public CycleRecord getLastCycle() {
+        return lastCycle;
+    }
+
+    /**
+     * Build a JSON-serializable view: per-stage summaries in milliseconds plus the last cycle.
+     *
+     * @return map suitable for Gson serialization
+     */
+    public Map<String, Object> toJsonModel() {
+        var stages = new LinkedHashMap<String, Object>();
+        for (var e : histograms.entrySet()) {
+            var s = e.getValue().summary();
+            if (s.count() == 0) continue;
+            var m = new LinkedHashMap<String, Object>();
+            m.put("count", s.count());
+            m.put("minMs", s.min() / 1000.0);
+            m.put("meanMs", s.mean() / 1000.0);
+            m.put("p50Ms", s.p50() / 1000.0);
+            m.put("p90Ms", s.p90() / 1000.0);
+            m.put("p99Ms", s.p99() / 1000.0);
+            m.put("maxMs", s.max() / 1000.0);
+            stages.put(e.getKey().key(), m);
+        }
+        var model = new LinkedHashMap<String, Object>();
+        model.put("stages", stages);
+        model.put("lastCycle", lastCycle);
+        return model;
+    }
+
+    /**
+     * Human-readable summary lines for the {@code /cycle timings} command.
+     *
+     * @return one line per stage with recorded samples
+     */
+    public List<String> formatLines() {
+        var lines = new ArrayList<String>();
+        for (var e : histograms.entrySet()) {
+            var s = e.getValue().summary();
+            if (s.count() == 0) continue;
+            lines.add(String.format(Locale.ROOT, "%s: n=%d p50=%s p90=%s p99=%s max=%s",
+                    e.getKey().key(), s.count(), formatMicros(s.p50()), formatMicros(s.p90()), formatMicros(s.p99()), formatMicros(s.max())));
+        }
+        return lines;
+    }
+
+    static String formatMicros(long micros) {
+        if (micros < 1_000L) return micros + "us";
+        if (micros < 1_000_000L) return String.format(Locale.ROOT, "%.1fms", micros / 1000.0);
+        return String.format(Locale.ROOT, "%.2fs", micros / 1_000_000.0);
+    }
+
+    /**
+     * Append one cycle as a JSON line to the history file.
+     *
+     * @param file   history file
+     * @param record cycle durations
+     */
+    static void appendHistory(File file, CycleRecord record) {
+        var df = file.getParentFile();
+        if (df != null && !df.exists() && !df.mkdirs()) {
+            LOG.warning("Failed to create data folder: " + df.getAbsolutePath());
+            return;
+        }
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        try (var writer = new FileWriter(file, true)) {
+            String line = GSON.toJson(record);
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+            CycleJfrEvents.persisted(event, file.getName(), "append", line.length() + 1L);
+        } catch (Exception e) {
+            LOG.warning("Failed to append cycle history: " + e.getMessage());
+        }
+    }
+}
@@ -98,6 +98,7 @@ public class DeathListener implements Listener {
             deathCause = dead.getName() + " died";
         }
         entry.put("cause", deathCause);
+        if (plugin instanceof Main m) m.publishCycleEvent("death", Map.of("cycle", m.getCycleNumber(), "player", dead.getName(), "cause", deathCause));
         entry.put("location", dead.getLocation().getBlockX() + "," + dead.getLocation().getBlockY() + "," + dead.getLocation().getBlockZ());
 
         var drops = ev.getDrops().stream()
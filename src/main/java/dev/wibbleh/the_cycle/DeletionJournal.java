@@ -0,0 +1,362 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Durable, append-only journal of world folder deletions.
+ * <p>
+ * Each deletion goes through these records, one line each:
+ * <pre>
+ * E &lt;id&gt; &lt;world&gt;     enqueued (A instead of E: archive before deleting)
+ * S &lt;id&gt; &lt;folder&gt;    started; folder is the renamed copy actually being deleted
+ * Z &lt;id&gt;             archive written (archive entries only)
+ * C &lt;id&gt;             completed
+ * </pre>
+ * {@code K 0 <world>} marks a world to be archived whenever its deletion is enqueued.
+ * Replaying the journal on startup yields exactly the deletions that have not completed, including
+ * the renamed folder of a deletion interrupted half-way; a torn final line is ignored.
+ * <p>
+ * Callers only update the in-memory state; records are written and forced to disk by a background
+ * thread in groups, at most {@link #GROUP_COMMIT_MILLIS} after the first unwritten one, so the main
+ * thread enqueueing a deletion or marking a world to keep never waits on the disk. {@link #markStarted}
+ * is the exception: the deletion worker calls it after renaming the folder and it returns only once
+ * that record and everything before it are on disk, so a deletion never runs unjournaled. Completed
+ * entries are dropped by rewriting the journal once enough of them have accumulated. All methods are
+ * thread-safe.
+ */
+public class DeletionJournal {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final int COMPACT_AFTER_COMPLETED = 64;
+    static final long GROUP_COMMIT_MILLIS = 50L;
+
+    /**
+     * A deletion that has not completed yet.
+     *
+     * @param id            journal id
+     * @param worldName     world folder name that was enqueued
+     * @param startedFolder renamed folder being deleted, or null when deletion has not started
+     * @param archive       true when the folder is archived before it is deleted
+     * @param archived      true once the archive has been written
+     */
+    public record Entry(long id, String worldName, String startedFolder, boolean archive, boolean archived) {
+        /**
+         * @return folder name to delete: the renamed folder once started, otherwise the world name
+         */
+        public String folderName() {
+            return startedFolder != null ? startedFolder : worldName;
+        }
+    }
+
+    private final File file;
+    private final Map<Long, Entry> pending = new LinkedHashMap<>();
+    private final Map<String, Long> pendingByWorld = new HashMap<>();
+    private final Set<String> keep = new LinkedHashSet<>();
+    // Records not handed to the file yet, in order; guarded by this
+    private final List<String> unwritten = new ArrayList<>();
+    // Held while touching the file, always before this, so callers only wait for in-memory updates
+    private final Object ioLock = new Object();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "HardcoreCycle-DeletionJournal");
+        t.setDaemon(true);
+        return t;
+    });
+    // Guarded by ioLock
+    private FileChannel channel;
+    private long nextId = 1L;
+    private int completedSinceCompaction = 0;
+    private boolean tornTail = false;
+    private boolean writeScheduled = false;
+    private boolean compactScheduled = false;
+
+    /**
+     * Open the journal, replaying and compacting any existing records.
+     *
+     * @param file journal file (created on first append)
+     */
+    public DeletionJournal(File file) {
+        this.file = file;
+        replay();
+        // Rewriting also drops a torn tail so new records do not continue a partial line
+        if (completedSinceCompaction > 0 || tornTail) compact();
+    }
+
+    /**
+     * Record a world folder to delete. A world that is already pending is not added twice.
+     *
+     * @param worldName world folder name
+     * @return the pending entry for the world
+     */
+    public synchronized Entry enqueue(String worldName) {
+        return enqueue(worldName, false);
+    }
+
+    /**
+     * Record a world folder to delete, optionally archiving it first. Worlds marked with
+     * {@link #markKeep(String)} are always archived.
+     *
+     * @param worldName world folder name
+     * @param archive   archive the folder before deleting it
+     * @return the pending entry for the world
+     */
+    public synchronized Entry enqueue(String worldName, boolean archive) {
+        Long existing = pendingByWorld.get(worldName);
+        if (existing != null) return pending.get(existing);
+        boolean keepIt = archive || keep.remove(worldName);
+        var entry = new Entry(nextId++, worldName, null, keepIt, false);
+        append((keepIt ? "A\t" : "E\t") + entry.id() + "\t" + worldName);
+        pending.put(entry.id(), entry);
+        pendingByWorld.put(worldName, entry.id());
+        return entry;
+    }
+
+    /**
+     * Mark a world to be archived instead of only deleted once its deletion is enqueued.
+     *
+     * @param worldName world folder name
+     */
+    public synchronized void markKeep(String worldName) {
+        if (!keep.add(worldName)) return;
+        append("K\t0\t" + worldName);
+    }
+
+    /**
+     * Record that the archive of an entry has been written.
+     *
+     * @param id journal id
+     */
+    public synchronized void markArchived(long id) {
+        var entry = pending.get(id);
+        if (entry == null) return;
+        append("Z\t" + id);
+        pending.put(id, new Entry(id, entry.worldName(), entry.startedFolder(), entry.archive(), true));
+    }
+
+    /**
+     * Record that deletion of an entry started on the given (possibly renamed) folder.
+     *
+     * @param id     journal id
+     * @param folder folder name being deleted
+     * @return the updated entry, or null when the id is not pending
+     */
+    public Entry markStarted(long id, String folder) {
+        Entry started;
+        synchronized (this) {
+            var entry = pending.get(id);
+            if (entry == null) return null;
+            append("S\t" + id + "\t" + folder);
+            started = new Entry(id, entry.worldName(), folder, entry.archive(), entry.archived());
+            pending.put(id, started);
+        }
+        sync();
+        return started;
+    }
+
+    /**
+     * Record that an entry's folder is gone.
+     *
+     * @param id journal id
+     */
+    public synchronized void complete(long id) {
+        var entry = pending.remove(id);
+        if (entry == null) return;
+        pendingByWorld.remove(entry.worldName());
+        append("C\t" + id);
+        if (++completedSinceCompaction >= COMPACT_AFTER_COMPLETED && !compactScheduled && !writer.isShutdown()) {
+            compactScheduled = true;
+            writer.execute(this::compact);
+        }
+    }
+
+    /**
+     * @param id journal id
+     * @return the pending entry, or null when it completed or never existed
+     */
+    public synchronized Entry get(long id) {
+        return pending.get(id);
+    }
+
+    /**
+     * @return deletions not completed yet, in enqueue order
+     */
+    public synchronized List<Entry> pending() {
+        return new ArrayList<>(pending.values());
+    }
+
+    /**
+     * Write and force every record appended so far. Blocks the calling thread on the disk.
+     */
+    public void sync() {
+        synchronized (ioLock) {
+            List<String> batch;
+            synchronized (this) {
+                if (unwritten.isEmpty()) return;
+                batch = new ArrayList<>(unwritten);
+                unwritten.clear();
+            }
+            var sb = new StringBuilder();
+            for (String record : batch) sb.append(record).append('\n');
+            var event = new CycleJfrEvents.PersistenceWrite();
+            event.begin();
+            try {
+                if (channel == null) {
+                    var df = file.getParentFile();
+                    if (df != null && !df.exists() && !df.mkdirs()) {
+                        LOG.warning("Failed to create data folder: " + df.getAbsolutePath());
+                    }
+                    channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                var buf = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+                int written = 0;
+                while (buf.hasRemaining()) written += channel.write(buf);
+                channel.force(false);
+                CycleJfrEvents.persisted(event, file.getName(), "append", written);
+            } catch (IOException e) {
+                LOG.warning("Failed to append to deletion journal: " + e.getMessage());
+                closeChannel();
+            }
+        }
+    }
+
+    /**
+     * Write any remaining records and close the journal file.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) writer.shutdownNow();
+        } catch (InterruptedException e) {
+            writer.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        sync();
+        synchronized (ioLock) {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Rewrite the journal with only the pending entries.
+     */
+    void compact() {
+        synchronized (ioLock) {
+            String content;
+            synchronized (this) {
+                compactScheduled = false;
+                var sb = new StringBuilder();
+                for (String w : keep) sb.append("K\t0\t").append(w).append('\n');
+                for (var e : pending.values()) {
+                    sb.append(e.archive() ? "A\t" : "E\t").append(e.id()).append('\t').append(e.worldName()).append('\n');
+                    if (e.startedFolder() != null) sb.append("S\t").append(e.id()).append('\t').append(e.startedFolder()).append('\n');
+                    if (e.archived()) sb.append("Z\t").append(e.id()).append('\n');
+                }
+                content = sb.toString();
+                // The rewritten file already reflects these; anything appended later follows it
+                unwritten.clear();
+                completedSinceCompaction = 0;
+            }
+            rewrite(content);
+        }
+    }
+
+    private void rewrite(String content) {
+        closeChannel();
+        try {
+            AtomicFileUtil.writeAtomically(file, "compact", ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            LOG.warning("Failed to compact deletion journal: " + e.getMessage());
+        }
+    }
+
+    private void replay() {
+        if (!file.exists()) return;
+        String content;
+        try {
+            content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            LOG.warning("Failed to read deletion journal: " + e.getMessage());
+            return;
+        }
+        // Only newline-terminated records are complete; a torn final write is ignored
+        int end = content.lastIndexOf('\n');
+        tornTail = end != content.length() - 1;
+        if (end < 0) return;
+        for (String line : content.substring(0, end).split("\n")) {
+            String[] parts = line.split("\t", 3);
+            long id;
+            try {
+                id = Long.parseLong(parts.length > 1 ? parts[1] : "");
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            nextId = Math.max(nextId, id + 1);
+            switch (parts[0]) {
+                case "E", "A" -> {
+                    if (parts.length == 3 && !parts[2].isEmpty()) {
+                        pending.put(id, new Entry(id, parts[2], null, parts[0].equals("A"), false));
+                        pendingByWorld.put(parts[2], id);
+                        keep.remove(parts[2]);
+                    }
+                }
+                case "K" -> {
+                    if (parts.length == 3 && !parts[2].isEmpty()) keep.add(parts[2]);
+                }
+                case "S" -> {
+                    var entry = pending.get(id);
+                    if (entry != null && parts.length == 3) pending.put(id, new Entry(id, entry.worldName(), parts[2], entry.archive(), entry.archived()));
+                }
+                case "Z" -> {
+                    var entry = pending.get(id);
+                    if (entry != null) pending.put(id, new Entry(id, entry.worldName(), entry.startedFolder(), entry.archive(), true));
+                }
+                case "C" -> {
+                    var entry = pending.remove(id);
+                    if (entry != null) pendingByWorld.remove(entry.worldName());
+                    completedSinceCompaction++;
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private void append(String record) {
+        unwritten.add(record);
+        // After close() records stay in memory only; the next start replays what reached the disk
+        if (!writeScheduled && !writer.isShutdown()) {
+            writeScheduled = true;
+            writer.schedule(this::groupWrite, GROUP_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void groupWrite() {
+        synchronized (this) {
+            writeScheduled = false;
+        }
+        sync();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
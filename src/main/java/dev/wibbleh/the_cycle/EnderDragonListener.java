@@ -11,6 +11,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.entity.EntityDeathEvent;
 
 import java.time.Duration;
+import java.util.Map;
 
 /**
  * Listener that handles ender dragon kills and updates the win/attempt tracking.
@@ -45,6 +46,7 @@ public class EnderDragonListener implements Listener {
         // Show large title screen to all players
         var killer = event.getEntity().getKiller();
         String killerName = killer != null ? killer.getName() : "Unknown Hero";
+        plugin.publishCycleEvent("dragon", Map.of("cycle", plugin.getCycleNumber(), "killer", killerName));
         
         var title = Component.text("MINECRAFT BEATEN!", NamedTextColor.GOLD);
         var subtitle = Component.text("Killed by " + killerName, NamedTextColor.YELLOW);
@@ -0,0 +1,100 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Immutable server status served on {@code GET /health}.
+ * <p>
+ * The main thread captures the values once per tick and publishes a new snapshot only when they
+ * changed; the JSON body and its ETag are computed once at that point. HTTP threads only read the
+ * published reference, so health probes never touch Bukkit state and cost no serialization.
+ */
+public final class HealthSnapshot {
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Values reported by {@code /health}.
+     *
+     * @param role               configured server role
+     * @param cycleNumber        current cycle
+     * @param phase              cycle phase, or null on servers that do not run cycles
+     * @param playersOnline      online players
+     * @param mspt               average tick time, rounded to 0.1 ms
+     * @param rpcQueue           RPCs waiting in the persistent retry queue
+     * @param rpcOutbox          plugin-message RPCs waiting for an acknowledgement
+     * @param transferQueue      players waiting for a transfer wave
+     * @param pendingMoves       players with a pending move on their next join
+     * @param generationProgress spawn pre-generation progress (0..1), or null when none is running
+     */
+    public record Values(String role, int cycleNumber, String phase, int playersOnline, double mspt,
+                         int rpcQueue, int rpcOutbox, int transferQueue, int pendingMoves, Double generationProgress) {}
+
+    private final Values values;
+    private final byte[] body;
+    private final String etag;
+
+    /**
+     * @param values values to serve
+     */
+    public HealthSnapshot(Values values) {
+        this.values = values;
+        var json = new LinkedHashMap<String, Object>();
+        json.put("status", "ok");
+        json.put("role", values.role());
+        json.put("cycleNumber", values.cycleNumber());
+        json.put("playersOnline", values.playersOnline());
+        json.put("mspt", values.mspt());
+        if (values.phase() != null) json.put("phase", values.phase());
+        var queues = new LinkedHashMap<String, Object>();
+        queues.put("rpc", values.rpcQueue());
+        queues.put("rpcOutbox", values.rpcOutbox());
+        queues.put("transfers", values.transferQueue());
+        queues.put("pendingMoves", values.pendingMoves());
+        json.put("queues", queues);
+        if (values.generationProgress() != null) json.put("generationProgress", values.generationProgress());
+        this.body = GSON.toJson(json).getBytes(StandardCharsets.UTF_8);
+        var crc = new CRC32();
+        crc.update(body);
+        // Derived from the body, so republishing identical values keeps the ETag clients hold
+        this.etag = "\"" + Long.toHexString(crc.getValue()) + "-" + body.length + "\"";
+    }
+
+    /**
+     * @return the values this snapshot was built from
+     */
+    public Values values() {
+        return values;
+    }
+
+    /**
+     * @return serialized JSON body; callers must not modify it
+     */
+    public byte[] body() {
+        return body;
+    }
+
+    /**
+     * @return quoted entity tag of the body
+     */
+    public String etag() {
+        return etag;
+    }
+
+    /**
+     * @param ifNoneMatch value of the request's {@code If-None-Match} header, or null
+     * @return true when the client already has this body
+     */
+    public boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+}
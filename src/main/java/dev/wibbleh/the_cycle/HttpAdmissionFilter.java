@@ -0,0 +1,176 @@
+package dev.wibbleh.the_cycle;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of every embedded HTTP endpoint.
+ * <p>
+ * Each remote address draws from its own token bucket before anything else happens, so a flooding
+ * client is turned away with 429 before its body is read or its signature verified. Admitted
+ * requests then wait (up to a queue timeout) for one of a fixed number of concurrency permits and
+ * are answered with 503 when none frees up in time. Time spent waiting is recorded in a
+ * {@link LatencyHistogram}; rejections are counted by reason.
+ */
+public class HttpAdmissionFilter extends Filter {
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
+    private static final int MAX_TRACKED_ADDRESSES = 1024;
+
+    /**
+     * Admission counters since startup.
+     *
+     * @param admitted        requests that got a permit
+     * @param rateLimited     requests rejected by their address's token bucket
+     * @param overloaded      requests rejected because no permit freed up within the queue timeout
+     * @param oversized       requests rejected for exceeding the body size limit
+     * @param readTimeouts    requests whose body was not received within the read timeout
+     * @param inFlight        requests currently holding a permit
+     * @param queueWait       time admitted requests waited for a permit, in microseconds
+     */
+    public record Stats(long admitted, long rateLimited, long overloaded, long oversized, long readTimeouts,
+                        int inFlight, LatencyHistogram.Summary queueWait) {}
+
+    private final int maxConcurrent;
+    private final Semaphore permits;
+    private final long queueTimeoutMillis;
+    private final double ratePerSecond;
+    private final int burst;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong overloaded = new AtomicLong();
+    private final AtomicLong oversized = new AtomicLong();
+    private final AtomicLong readTimeouts = new AtomicLong();
+
+    /**
+     * @param maxConcurrent      requests handled at the same time (at least 1)
+     * @param queueTimeoutMillis how long a request may wait for a permit before it is rejected
+     * @param ratePerSecond      sustained requests per second per remote address (0 = unlimited)
+     * @param burst              requests a remote address may send at once
+     */
+    public HttpAdmissionFilter(int maxConcurrent, long queueTimeoutMillis, double ratePerSecond, int burst) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.queueTimeoutMillis = Math.max(0L, queueTimeoutMillis);
+        this.ratePerSecond = Math.max(0.0, ratePerSecond);
+        this.burst = Math.max(1, burst);
+    }
+
+    @Override
+    public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+        var remote = exchange.getRemoteAddress();
+        String address = remote == null || remote.getAddress() == null ? "unknown" : remote.getAddress().getHostAddress();
+        if (!tryTake(address, System.nanoTime())) {
+            rateLimited.incrementAndGet();
+            reject(exchange, HTTP_TOO_MANY_REQUESTS);
+            return;
+        }
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            overloaded.incrementAndGet();
+            reject(exchange, HTTP_SERVICE_UNAVAILABLE);
+            return;
+        }
+        queueWait.record((System.nanoTime() - waitStart) / 1_000L);
+        admitted.incrementAndGet();
+        try {
+            chain.doFilter(exchange);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public String description() {
+        return "Per-address rate limit and concurrency cap";
+    }
+
+    /**
+     * Count a request rejected for exceeding the body size limit.
+     */
+    public void recordOversized() {
+        oversized.incrementAndGet();
+    }
+
+    /**
+     * Count a request whose body did not arrive within the read timeout.
+     */
+    public void recordReadTimeout() {
+        readTimeouts.incrementAndGet();
+    }
+
+    /**
+     * @return admission counters since startup
+     */
+    public Stats getStats() {
+        return new Stats(admitted.get(), rateLimited.get(), overloaded.get(), oversized.get(), readTimeouts.get(),
+                maxConcurrent - permits.availablePermits(), queueWait.summary());
+    }
+
+    /**
+     * Take one token from the address's bucket.
+     *
+     * @param address  remote address
+     * @param nowNanos current {@link System#nanoTime()}
+     * @return false when the address is over its rate
+     */
+    boolean tryTake(String address, long nowNanos) {
+        if (ratePerSecond == 0.0) return true;
+        if (buckets.size() > MAX_TRACKED_ADDRESSES) {
+            // Buckets that refilled completely carry no state worth keeping
+            buckets.values().removeIf(b -> b.isFull(nowNanos));
+        }
+        return buckets.computeIfAbsent(address, a -> new TokenBucket(nowNanos)).tryTake(nowNanos);
+    }
+
+    private static void reject(HttpExchange exchange, int code) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().close();
+            exchange.sendResponseHeaders(code, -1);
+        }
+    }
+
+    private final class TokenBucket {
+        private double tokens = burst;
+        private long lastNanos;
+
+        TokenBucket(long nowNanos) {
+            this.lastNanos = nowNanos;
+        }
+
+        synchronized boolean tryTake(long nowNanos) {
+            refill(nowNanos);
+            if (tokens < 1.0) return false;
+            tokens -= 1.0;
+            return true;
+        }
+
+        synchronized boolean isFull(long nowNanos) {
+            refill(nowNanos);
+            return tokens >= burst;
+        }
+
+        private void refill(long nowNanos) {
+            long elapsed = nowNanos - lastNanos;
+            if (elapsed <= 0) return;
+            tokens = Math.min(burst, tokens + elapsed * ratePerSecond / 1_000_000_000.0);
+            lastNanos = nowNanos;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package dev.wibbleh.the_cycle;
 
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
@@ -23,6 +30,7 @@ public final class HttpRetryUtil {
     private static final int HTTP_OK_MAX = 300;
     private static final int HTTP_CLIENT_ERROR_MIN = 400;
     private static final int HTTP_CLIENT_ERROR_MAX = 500;
+    private static final Map<Integer, HttpClient> CLIENTS = new ConcurrentHashMap<>();
 
     private HttpRetryUtil() {
         // Utility class
@@ -82,7 +90,8 @@ public final class HttpRetryUtil {
     }
 
     /**
-     * Perform HTTP POST with retry and exponential backoff.
+     * Perform HTTP POST with retry and exponential backoff, blocking until the final attempt ends.
+     * Never call this on the server thread; use {@link #postAsync} there.
      *
      * @param url         target URL
      * @param payload     JSON payload to send
@@ -91,74 +100,151 @@ public final class HttpRetryUtil {
      * @return result of the HTTP operation
      */
     public static HttpResult postWithRetry(String url, String payload, String signature, RetryConfig config) {
+        return postAsync(url, payload, signature, config).join();
+    }
+
+    /**
+     * Perform HTTP POST with retry and exponential backoff without blocking the caller.
+     * <p>
+     * Requests go through one shared keep-alive {@link HttpClient} per connect timeout; retries are
+     * scheduled with {@link CompletableFuture#delayedExecutor} instead of sleeping. The returned
+     * future never completes exceptionally and its callbacks run on HTTP client or scheduler threads,
+     * so callers must hop to the main thread themselves before touching Bukkit APIs.
+     *
+     * @param url       target URL
+     * @param payload   JSON payload to send
+     * @param signature HMAC signature header value (optional)
+     * @param config    retry configuration
+     * @return future completed with the result of the last attempt
+     */
+    public static CompletableFuture<HttpResult> postAsync(String url, String payload, String signature, RetryConfig config) {
         if (url == null || url.isEmpty()) {
-            return HttpResult.failure("URL is null or empty", 0);
+            return CompletableFuture.completedFuture(HttpResult.failure("URL is null or empty", 0));
         }
         if (payload == null) {
-            return HttpResult.failure("Payload is null", 0);
+            return CompletableFuture.completedFuture(HttpResult.failure("Payload is null", 0));
         }
+        HttpRequest request;
+        try {
+            var builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(Math.max(1, config.readTimeoutMs)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(payload, StandardCharsets.UTF_8));
+            if (signature != null && !signature.isEmpty()) builder.header("X-Signature", signature);
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            // Malformed URLs cannot succeed on retry
+            LOG.warning("HTTP POST to " + url + " failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(HttpResult.failure("Invalid URL: " + e.getMessage(), 1));
+        }
+        var result = new CompletableFuture<HttpResult>();
+        attempt(client(config.connectTimeoutMs), request, config, 0, result);
+        return result;
+    }
 
-        int attempts = 0;
-        Exception lastException = null;
-
-        for (int i = 0; i <= config.maxRetries; i++) {
-            attempts++;
-            HttpURLConnection conn = null;
-
-            try {
-                var u = new URL(url);
-                conn = (HttpURLConnection) u.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setDoOutput(true);
-                conn.setRequestProperty("Content-Type", "application/json");
-                if (signature != null && !signature.isEmpty()) {
-                    conn.setRequestProperty("X-Signature", signature);
-                }
-                conn.setConnectTimeout(config.connectTimeoutMs);
-                conn.setReadTimeout(config.readTimeoutMs);
-
-                try (var os = conn.getOutputStream()) {
-                    os.write(payload.getBytes(StandardCharsets.UTF_8));
-                }
-
-                int code = conn.getResponseCode();
+    private static void attempt(HttpClient client, HttpRequest request, RetryConfig config, int attempt, CompletableFuture<HttpResult> result) {
+        int attempts = attempt + 1;
+        String url = request.uri().toString();
+        long started = System.nanoTime();
+        var event = new CycleJfrEvents.RpcSend();
+        event.begin();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            Metrics.RPC_ATTEMPT_SECONDS.observe((System.nanoTime() - started) / 1_000_000L);
+            if (event.shouldCommit()) {
+                event.url = url;
+                event.attempt = attempts;
+                event.status = error == null ? response.statusCode() : -1;
+                event.bytes = request.bodyPublisher().map(HttpRequest.BodyPublisher::contentLength).orElse(-1L);
+                event.commit();
+            }
+            String lastError;
+            if (error == null) {
+                int code = response.statusCode();
                 if (code >= HTTP_OK_MIN && code < HTTP_OK_MAX) {
+                    Metrics.RPC_ATTEMPTS_OK.inc();
                     LOG.fine("HTTP POST to " + url + " succeeded with status " + code + " (attempt " + attempts + ")");
-                    return HttpResult.success(code, attempts);
+                    result.complete(HttpResult.success(code, attempts));
+                    return;
                 } else if (code >= HTTP_CLIENT_ERROR_MIN && code < HTTP_CLIENT_ERROR_MAX) {
                     // Client errors (4xx) are not retryable
-                    String error = "HTTP POST returned " + code + " (client error, not retrying)";
-                    LOG.warning(error);
-                    return HttpResult.failure(code, error, attempts);
-                } else {
-                    // Server errors (5xx) are retryable
-                    lastException = new Exception("HTTP " + code);
-                    LOG.warning("HTTP POST to " + url + " returned " + code + " (attempt " + attempts + "/" + (config.maxRetries + 1) + ")");
-                }
-
-            } catch (Exception e) {
-                lastException = e;
-                LOG.warning("HTTP POST to " + url + " failed (attempt " + attempts + "/" + (config.maxRetries + 1) + "): " + e.getMessage());
-            } finally {
-                if (conn != null) {
-                    conn.disconnect();
+                    Metrics.RPC_ATTEMPTS_CLIENT_ERROR.inc();
+                    Metrics.RPC_FAILURES.inc();
+                    String message = "HTTP POST returned " + code + " (client error, not retrying)";
+                    LOG.warning(message);
+                    result.complete(HttpResult.failure(code, message, attempts));
+                    return;
                 }
+                // Server errors (5xx) are retryable
+                Metrics.RPC_ATTEMPTS_SERVER_ERROR.inc();
+                lastError = "HTTP " + code;
+                LOG.warning("HTTP POST to " + url + " returned " + code + " (attempt " + attempts + "/" + (config.maxRetries + 1) + ")");
+            } else {
+                Metrics.RPC_ATTEMPTS_IO_ERROR.inc();
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                lastError = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+                LOG.warning("HTTP POST to " + url + " failed (attempt " + attempts + "/" + (config.maxRetries + 1) + "): " + lastError);
             }
-
-            // Don't sleep after the last attempt
-            if (i < config.maxRetries) {
-                int delay = calculateBackoff(i, config.baseDelayMs, config.maxDelayMs);
-                try {
-                    Thread.sleep(delay);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    return HttpResult.failure("Interrupted during retry backoff", attempts);
-                }
+            if (attempt >= config.maxRetries) {
+                Metrics.RPC_FAILURES.inc();
+                result.complete(HttpResult.failure("HTTP POST failed after " + attempts + " attempts: " + lastError, attempts));
+                return;
             }
+            int delay = calculateBackoff(attempt, config.baseDelayMs, config.maxDelayMs);
+            CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                    .execute(() -> attempt(client, request, config, attempt + 1, result));
+        });
+    }
+
+    /**
+     * GET a URL once without blocking the caller, e.g. to probe a {@code /health} endpoint.
+     *
+     * @param url       target URL
+     * @param timeoutMs connect and read timeout in milliseconds
+     * @return future completed with the response status, or -1 when the request failed; never
+     * completes exceptionally
+     */
+    public static CompletableFuture<Integer> getStatusAsync(String url, int timeoutMs) {
+        if (url == null || url.isEmpty()) return CompletableFuture.completedFuture(-1);
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMillis(Math.max(1, timeoutMs))).GET().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(-1);
+        }
+        return client(timeoutMs).sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> error == null ? response.statusCode() : -1);
+    }
+
+    /**
+     * GET a URL once without blocking the caller and return its body.
+     *
+     * @param url       target URL
+     * @param timeoutMs connect and read timeout in milliseconds
+     * @return future completed with the body of a 2xx response, or null when the request failed or
+     * returned another status; never completes exceptionally
+     */
+    public static CompletableFuture<String> getBodyAsync(String url, int timeoutMs) {
+        if (url == null || url.isEmpty()) return CompletableFuture.completedFuture(null);
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMillis(Math.max(1, timeoutMs))).GET().build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(null);
         }
+        return client(timeoutMs).sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .handle((response, error) -> error == null && response.statusCode() >= HTTP_OK_MIN && response.statusCode() < HTTP_OK_MAX
+                        ? response.body() : null);
+    }
 
-        String error = lastException != null ? lastException.getMessage() : "Unknown error";
-        return HttpResult.failure("HTTP POST failed after " + attempts + " attempts: " + error, attempts);
+    /**
+     * Shared client for a connect timeout. Clients keep connections alive between requests, so the
+     * same few instances are reused for the lifetime of the plugin.
+     */
+    private static HttpClient client(int connectTimeoutMs) {
+        return CLIENTS.computeIfAbsent(Math.max(1, connectTimeoutMs), ms -> HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(ms))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build());
     }
 
     /**
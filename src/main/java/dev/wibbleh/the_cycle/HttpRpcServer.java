@@ -1,5 +1,6 @@
 package dev.wibbleh.the_cycle;
 
+import com.google.gson.Gson;
 import com.sun.net.httpserver.Headers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
@@ -10,39 +11,275 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.bukkit.Bukkit;
 import java.util.logging.Logger;
 
 /**
  * Minimal embedded HTTP server used to accept RPCs on the hardcore backend.
- * It supports a POST /rpc endpoint that expects a JSON body and an HMAC header 'X-Signature'.
+ * It supports a POST /rpc endpoint that expects a versioned JSON {@link RpcEnvelope} and an HMAC header
+ * 'X-Signature' over the raw body; actions are dispatched through a registry of handlers. It also serves
+ * a GET /rpc/operations/{id} endpoint to follow (or long-poll) an accepted cycle-now,
+ * a GET /health endpoint, a GET /stats endpoint with per-stage cycle timings and deletion throughput,
+ * a GET /metrics endpoint in the Prometheus text format (see {@link Metrics}),
+ * and a GET /events server-sent event stream of cycle events (see {@link CycleEventBus}).
+ * Requests run on virtual threads behind {@link HttpAdmissionFilter}; bodies are size- and time-limited.
  */
 public class HttpRpcServer {
     private static final int HTTP_OK = 200;
     private static final int HTTP_ACCEPTED = 202;
+    private static final int HTTP_NOT_MODIFIED = 304;
     private static final int HTTP_BAD_REQUEST = 400;
     private static final int HTTP_FORBIDDEN = 403;
+    private static final int HTTP_NOT_FOUND = 404;
     private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_PAYLOAD_TOO_LARGE = 413;
+    private static final int HTTP_SERVICE_UNAVAILABLE = 503;
     private static final int HTTP_INTERNAL_ERROR = 500;
-    private static final int RPC_TIMEOUT_SECONDS = 120;
-    private static final int EXECUTOR_THREAD_COUNT = 2;
+    private static final int DEFAULT_LONG_POLL_SECONDS = 30;
+    private static final int MAX_LONG_POLL_SECONDS = 120;
+    private static final String OPERATIONS_PATH = "/rpc/operations/";
+    private static final Gson GSON = new Gson();
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
     
+    /**
+     * Resource limits of the embedded server.
+     *
+     * @param maxConcurrentRequests requests handled at the same time
+     * @param queueTimeoutMillis    how long a request may wait for a free slot before it gets 503
+     * @param maxBodyBytes          largest accepted request body
+     * @param readTimeoutSeconds    time allowed to receive a request body
+     * @param idleTimeoutSeconds    idle keep-alive connections are closed after this long
+     * @param ratePerSecond         sustained requests per second per remote address (0 = unlimited)
+     * @param burst                 requests a remote address may send at once
+     */
+    public record Limits(int maxConcurrentRequests, long queueTimeoutMillis, int maxBodyBytes,
+                         int readTimeoutSeconds, int idleTimeoutSeconds, double ratePerSecond, int burst) {
+        /**
+         * @return the defaults used when nothing is configured
+         */
+        public static Limits defaults() {
+            return new Limits(16, 2000L, 64 * 1024, 10, 30, 10.0, 20);
+        }
+    }
+
     private final Main plugin;
     private final HttpServer server;
+    private final Limits limits;
+    private final HttpAdmissionFilter admission;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService readTimeouts;
+    private final Map<String, RpcAction> actions = new HashMap<>();
 
     public HttpRpcServer(Main plugin, int port, String bindAddr) throws IOException {
+        this(plugin, port, bindAddr, Limits.defaults());
+    }
+
+    /**
+     * Create the server. Each request runs on its own virtual thread; the admission filter bounds
+     * how many run at once and how often one address may call.
+     *
+     * @param plugin   plugin instance
+     * @param port     port to listen on
+     * @param bindAddr address to bind, or null/empty for all interfaces
+     * @param limits   resource limits
+     * @throws IOException when the port cannot be bound
+     */
+    public HttpRpcServer(Main plugin, int port, String bindAddr, Limits limits) throws IOException {
         this.plugin = plugin;
+        this.limits = limits;
+        registerDefaultActions();
+        applyConnectionTimeouts(limits);
         var addr = bindAddr == null || bindAddr.isEmpty() ? new InetSocketAddress(port) : new InetSocketAddress(bindAddr, port);
         server = HttpServer.create(addr, 0);
-        server.createContext("/rpc", new RpcHandler());
-        server.createContext("/health", new HealthHandler());
-        server.setExecutor(Executors.newFixedThreadPool(EXECUTOR_THREAD_COUNT));
+        admission = new HttpAdmissionFilter(limits.maxConcurrentRequests(), limits.queueTimeoutMillis(), limits.ratePerSecond(), limits.burst());
+        server.createContext("/rpc", new RpcHandler()).getFilters().add(admission);
+        server.createContext(OPERATIONS_PATH, new OperationsHandler()).getFilters().add(admission);
+        server.createContext("/health", new HealthHandler()).getFilters().add(admission);
+        server.createContext("/metrics", new MetricsHandler()).getFilters().add(admission);
+        server.createContext("/stats", new StatsHandler()).getFilters().add(admission);
+        server.createContext("/events", new EventsHandler()).getFilters().add(admission);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        readTimeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+            var t = new Thread(r, "HardcoreCycle-HttpReadTimeout");
+            t.setDaemon(true);
+            return t;
+        });
     }
 
     public void start() { server.start(); }
     @SuppressWarnings("unused")
-    public void stop(int delaySeconds) { server.stop(delaySeconds); }
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdownNow();
+        readTimeouts.shutdownNow();
+    }
+
+    /**
+     * @return admission counters (rate limiting, overload, oversized bodies, queue wait)
+     */
+    public HttpAdmissionFilter.Stats getAdmissionStats() {
+        return admission.getStats();
+    }
+
+    /**
+     * The JDK server reads its idle and request time limits from the JVM-wide system properties
+     * {@code sun.net.httpserver.idleInterval} and {@code sun.net.httpserver.maxReqTime} once, when the
+     * first {@link HttpServer} in the JVM is created, and they apply to every such server. Set them
+     * unless they are already set (by the operator with {@code -D}, or by an earlier start of this
+     * plugin); a changed value therefore only takes effect after a server restart.
+     */
+    static void applyConnectionTimeouts(Limits limits) {
+        applyConnectionTimeout("sun.net.httpserver.idleInterval", "server.http_idle_timeout_seconds", limits.idleTimeoutSeconds());
+        applyConnectionTimeout("sun.net.httpserver.maxReqTime", "server.http_read_timeout_seconds", limits.readTimeoutSeconds());
+    }
+
+    private static void applyConnectionTimeout(String property, String option, int seconds) {
+        String value = String.valueOf(Math.max(1, seconds));
+        String current = System.getProperty(property);
+        if (current == null) {
+            System.setProperty(property, value);
+        } else if (!current.equals(value)) {
+            LOG.warning(option + " is " + value + " but the JVM already uses " + property + "=" + current
+                    + "; restart the server (or change -D" + property + ") to apply it.");
+        }
+    }
+
+    /**
+     * Read a request body of at most {@link Limits#maxBodyBytes()} bytes. The exchange is closed
+     * when the body does not arrive within the read timeout.
+     *
+     * @return the body, or null when the request was rejected (the response has been handled)
+     */
+    byte[] readBody(HttpExchange exchange) throws IOException {
+        String declared = exchange.getRequestHeaders().getFirst("Content-Length");
+        if (declared != null) {
+            long length;
+            try {
+                length = Long.parseLong(declared.trim());
+            } catch (NumberFormatException e) {
+                exchange.sendResponseHeaders(HTTP_BAD_REQUEST, -1);
+                return null;
+            }
+            if (length > limits.maxBodyBytes()) {
+                admission.recordOversized();
+                exchange.sendResponseHeaders(HTTP_PAYLOAD_TOO_LARGE, -1);
+                return null;
+            }
+        }
+        var timedOut = new AtomicBoolean(false);
+        ScheduledFuture<?> watchdog = readTimeouts.schedule(() -> {
+            timedOut.set(true);
+            exchange.close();
+        }, Math.max(1, limits.readTimeoutSeconds()), TimeUnit.SECONDS);
+        try (var is = exchange.getRequestBody()) {
+            byte[] data = is.readNBytes(limits.maxBodyBytes() + 1);
+            if (data.length > limits.maxBodyBytes()) {
+                admission.recordOversized();
+                exchange.sendResponseHeaders(HTTP_PAYLOAD_TOO_LARGE, -1);
+                return null;
+            }
+            return data;
+        } catch (IOException e) {
+            if (!timedOut.get()) throw e;
+            admission.recordReadTimeout();
+            plugin.getLogger().warning("HTTP request body not received within " + limits.readTimeoutSeconds() + "s; connection closed.");
+            return null;
+        } finally {
+            watchdog.cancel(false);
+        }
+    }
+
+    /**
+     * Handles one RPC action after the envelope was parsed and its signature verified.
+     */
+    @FunctionalInterface
+    interface RpcAction {
+        void handle(RpcEnvelope envelope, HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Register the handler for an action name, replacing any previous one.
+     */
+    void registerAction(String action, RpcAction handler) {
+        actions.put(action, handler);
+    }
+
+    private void registerDefaultActions() {
+        registerAction("cycle-now", (envelope, exchange) -> {
+            // Answer right away; the cycle runs on the main thread and is followed via /rpc/operations/{id}
+            var admission = plugin.getCycleOperations().admit(envelope.id());
+            String operationId = admission.operationId();
+            if (admission.duplicate()) {
+                plugin.getLogger().info("Received duplicate HTTP RPC cycle-now (key " + envelope.id() + "); answering with operation " + operationId + ".");
+            } else {
+                plugin.getLogger().info("Received HTTP RPC cycle-now; scheduling triggerCycle on main thread as operation " + operationId + ".");
+                Bukkit.getScheduler().runTask(plugin, () -> plugin.startCycleOperation(operationId, envelope.cycle()));
+            }
+            var body = new LinkedHashMap<String, Object>();
+            body.put("operationId", operationId);
+            body.put("statusUrl", OPERATIONS_PATH + operationId);
+            if (admission.duplicate()) body.put("duplicate", true);
+            sendJson(exchange, HTTP_ACCEPTED, body);
+        });
+        // world-ready: backend notifies lobby that the new world is ready; lobby should move players to hardcore
+        registerAction("world-ready", (envelope, exchange) -> {
+            final var safeLogger = plugin.getLogger();
+            safeLogger.info("Received HTTP world-ready notification; scheduling lobby countdown to move players to hardcore.");
+            // Schedule the lobby-side countdown to move players to hardcore. Run on main thread to be safe.
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    // Already acted on when the event stream delivered it first
+                    if (plugin.seenWorldReady(envelope.cycle())) return;
+                    int secs = plugin.getCountdownSendToHardcoreSeconds();
+                    plugin.scheduleCountdownThenMovePlayersToHardcore(secs);
+                } catch (Throwable t) {
+                    safeLogger.warning("Error while scheduling lobby move after world-ready: " + t.getMessage());
+                }
+            });
+            sendOk(exchange);
+        });
+        // move-players: explicit request to move players to configured hardcore server
+        registerAction("move-players", (envelope, exchange) -> {
+            final var safeLogger = plugin.getLogger();
+            safeLogger.info("Received HTTP move-players; scheduling player move on main thread.");
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                try {
+                    String target = plugin.getHardcoreServerName();
+                    if (target == null || target.isEmpty()) {
+                        safeLogger.warning("move-players received but hardcore server name is not configured.");
+                        return;
+                    }
+                    for (var p : Bukkit.getOnlinePlayers()) {
+                        try {
+                            plugin.sendPlayerToServer(p, target);
+                        } catch (Exception ex) {
+                            safeLogger.warning("Failed to move player " + p.getName() + " to " + target + ": " + ex.getMessage());
+                        }
+                    }
+                } catch (Throwable t) {
+                    safeLogger.warning("Error while processing move-players: " + t.getMessage());
+                }
+            });
+            sendOk(exchange);
+        });
+    }
+
+    private RpcSigner signer() {
+        var signer = plugin.getRpcSigner();
+        return signer != null ? signer : new RpcSigner(plugin.getConfig().getString("server.rpc_secret", ""));
+    }
 
     class RpcHandler implements HttpHandler {
         @Override
@@ -52,119 +289,228 @@ public class HttpRpcServer {
                 exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
                 return;
             }
-            try (var is = exchange.getRequestBody()) {
-                byte[] data = is.readAllBytes();
-                String payload = new String(data, StandardCharsets.UTF_8);
-                var hdr = exchange.getRequestHeaders();
-                String sig = hdr.getFirst("X-Signature");
-                String secret = plugin.getConfig().getString("server.rpc_secret", "");
-                boolean ok = RpcHttpUtil.verifyHmacHex(secret, payload, sig);
-                if (!ok) {
+            var event = new CycleJfrEvents.RpcReceive();
+            event.begin();
+            event.transport = "http";
+            event.cycle = -1;
+            try {
+                byte[] data = readBody(exchange);
+                if (data == null) return;
+                event.bytes = data.length;
+                // The signature covers the raw body bytes, so verify before decoding anything
+                String sig = exchange.getRequestHeaders().getFirst("X-Signature");
+                if (!signer().verify(data, sig)) {
                     exchange.sendResponseHeaders(HTTP_FORBIDDEN, -1);
                     safeLogger.warning("Rejected HTTP RPC with invalid signature.");
                     return;
                 }
-                // Expect a simple JSON like {"action":"cycle-now","caller":"..."}
-                if (payload.contains("\"action\":\"cycle-now\"")) {
-                    safeLogger.info("Received HTTP RPC cycle-now; scheduling triggerCycle on main thread and waiting for completion.");
-                    final var latch = new java.util.concurrent.CountDownLatch(1);
-                    final var err = new java.util.concurrent.atomic.AtomicReference<Throwable>(null);
-                    // Schedule the work on main thread and count down when finished
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        try {
-                            plugin.triggerCycle();
-                        } catch (Throwable t) {
-                            safeLogger.warning("Error while executing triggerCycle from HTTP RPC: " + t.getMessage());
-                            err.set(t);
-                        } finally {
-                            latch.countDown();
-                        }
-                    });
+                RpcEnvelope envelope;
+                try {
+                    envelope = RpcEnvelope.parse(data);
+                } catch (IllegalArgumentException e) {
+                    safeLogger.warning("Rejected HTTP RPC: " + e.getMessage());
+                    exchange.sendResponseHeaders(HTTP_BAD_REQUEST, -1);
+                    return;
+                }
+                event.action = envelope.action();
+                event.caller = envelope.caller();
+                if (envelope.cycle() != null) event.cycle = envelope.cycle();
+                var action = actions.get(envelope.action());
+                if (action == null) {
+                    exchange.sendResponseHeaders(HTTP_BAD_REQUEST, -1);
+                    return;
+                }
+                action.handle(envelope, exchange);
+                event.accepted = true;
+            } catch (Exception e) {
+                safeLogger.warning("Failed to handle HTTP RPC: " + e.getMessage());
+                exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
+            } finally {
+                event.commit();
+            }
+        }
+    }
 
-                    // Wait for completion (timeout to avoid hanging indefinitely)
-                    boolean completed = false;
+    /**
+     * GET /rpc/operations/{id}[?phase=READY&amp;timeout=30]: status of a cycle-now operation. With a
+     * phase the response is held until the cycle reaches it, the operation ends or the timeout
+     * (capped at {@value #MAX_LONG_POLL_SECONDS}s) passes. Held requests do not occupy an executor
+     * thread: the handler returns and the response is written on the executor when the operation's
+     * future completes, never on the server thread that completed it.
+     */
+    class OperationsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            try {
+                String path = exchange.getRequestURI().getPath();
+                String id = path.length() > OPERATIONS_PATH.length() ? path.substring(OPERATIONS_PATH.length()) : "";
+                var operations = plugin.getCycleOperations();
+                var status = operations.status(id);
+                if (status == null) {
+                    exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+                    return;
+                }
+                var query = parseQuery(exchange.getRequestURI().getRawQuery());
+                String phaseParam = query.get("phase");
+                if (phaseParam == null) {
+                    sendJson(exchange, HTTP_OK, statusModel(status, null));
+                    return;
+                }
+                CycleCoordinator.Phase target;
+                int timeout;
+                try {
+                    target = CycleCoordinator.Phase.valueOf(phaseParam.toUpperCase(Locale.ROOT));
+                    timeout = Integer.parseInt(query.getOrDefault("timeout", String.valueOf(DEFAULT_LONG_POLL_SECONDS)));
+                } catch (IllegalArgumentException e) {
+                    exchange.sendResponseHeaders(HTTP_BAD_REQUEST, -1);
+                    return;
+                }
+                timeout = Math.max(0, Math.min(MAX_LONG_POLL_SECONDS, timeout));
+                var future = operations.await(id, target);
+                if (future == null) {
+                    exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+                    return;
+                }
+                // Waiters are completed on the main thread; write the response on the HTTP executor instead
+                future.completeOnTimeout(null, timeout, TimeUnit.SECONDS).whenCompleteAsync((reached, err) -> {
+                    var current = reached != null ? reached : operations.status(id);
                     try {
-                        // Wait longer for large worlds; 120s should be ample for typical cases while avoiding indefinite block.
-                        completed = latch.await(RPC_TIMEOUT_SECONDS, java.util.concurrent.TimeUnit.SECONDS);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
+                        if (current == null) {
+                            exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+                            exchange.close();
+                        } else {
+                            sendJson(exchange, HTTP_OK, statusModel(current, target));
+                        }
+                    } catch (IOException e) {
+                        plugin.getLogger().fine("Failed to answer operation long-poll: " + e.getMessage());
+                        exchange.close();
                     }
+                }, executor);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to handle operation status request: " + e.getMessage());
+                exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
+            }
+        }
+    }
 
-                    if (!completed) {
-                        safeLogger.warning("HTTP RPC cycle-now did not complete within timeout; returning 202.");
-                        byte[] out = "ACCEPTED".getBytes(StandardCharsets.UTF_8);
-                        exchange.sendResponseHeaders(HTTP_ACCEPTED, out.length);
-                        try (var os = exchange.getResponseBody()) { os.write(out); }
-                        return;
-                    }
+    private static Map<String, Object> statusModel(CycleOperations.Status status, CycleCoordinator.Phase target) {
+        var model = new LinkedHashMap<String, Object>();
+        model.put("operationId", status.operationId());
+        model.put("state", status.state());
+        model.put("cycle", status.cycle());
+        model.put("phase", status.phase());
+        model.put("createdAt", status.createdAt());
+        if (status.message() != null) model.put("message", status.message());
+        if (target != null) {
+            boolean started = status.state() == CycleOperations.State.RUNNING || status.state() == CycleOperations.State.DONE;
+            model.put("reached", started && status.phase().ordinal() >= target.ordinal());
+        }
+        return model;
+    }
 
-                    if (err.get() != null) {
-                        safeLogger.warning("HTTP RPC cycle-now completed with error: " + err.get().getMessage());
-                        exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
-                        return;
-                    }
+    static Map<String, String> parseQuery(String rawQuery) {
+        var params = new HashMap<String, String>();
+        if (rawQuery == null || rawQuery.isEmpty()) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
 
-                    // Completed successfully
-                    byte[] out = "OK".getBytes(StandardCharsets.UTF_8);
-                    exchange.sendResponseHeaders(HTTP_OK, out.length);
-                    try (var os = exchange.getResponseBody()) { os.write(out); }
-                    return;
-                }
+    private static void sendOk(HttpExchange exchange) throws IOException {
+        byte[] out = "OK".getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(HTTP_OK, out.length);
+        try (var os = exchange.getResponseBody()) { os.write(out); }
+    }
 
-                // world-ready: backend notifies lobby that the new world is ready; lobby should move players to hardcore
-                if (payload.contains("\"action\":\"world-ready\"")) {
-                    safeLogger.info("Received HTTP world-ready notification; scheduling lobby countdown to move players to hardcore.");
-                    // Schedule the lobby-side countdown to move players to hardcore. Run on main thread to be safe.
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        try {
-                            int secs = plugin.getCountdownSendToHardcoreSeconds();
-                            plugin.scheduleCountdownThenMovePlayersToHardcore(secs);
-                        } catch (Throwable t) {
-                            safeLogger.warning("Error while scheduling lobby move after world-ready: " + t.getMessage());
-                        }
-                    });
-                    byte[] out = "OK".getBytes(StandardCharsets.UTF_8);
-                    exchange.sendResponseHeaders(HTTP_OK, out.length);
-                    try (var os = exchange.getResponseBody()) { os.write(out); }
+    private static void sendJson(HttpExchange exchange, int code, Object body) throws IOException {
+        byte[] responseBytes = GSON.toJson(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, responseBytes.length);
+        try (var os = exchange.getResponseBody()) {
+            os.write(responseBytes);
+        }
+    }
+
+    /**
+     * GET /events: server-sent event stream of cycle events. Resumes after the {@code Last-Event-ID}
+     * header (or {@code ?lastEventId=}) when given. The handler returns as soon as the stream is
+     * registered; events are written by the bus, so open streams hold neither an executor thread
+     * nor an admission permit.
+     */
+    class EventsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+            var events = plugin.getCycleEvents();
+            if (events == null) {
+                exchange.sendResponseHeaders(HTTP_NOT_FOUND, -1);
+                return;
+            }
+            if (events.subscriberCount() >= CycleEventBus.MAX_SUBSCRIBERS) {
+                exchange.sendResponseHeaders(HTTP_SERVICE_UNAVAILABLE, -1);
+                return;
+            }
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            if (lastEventId == null) lastEventId = parseQuery(exchange.getRequestURI().getRawQuery()).get("lastEventId");
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            // Length 0: chunked, open-ended response
+            exchange.sendResponseHeaders(HTTP_OK, 0);
+            if (!events.subscribe(lastEventId, exchange.getResponseBody(), exchange::close)) {
+                // Lost a race for the last slot; the client retries
+                exchange.close();
+            }
+        }
+    }
+
+    class HealthHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+
+            try {
+                // Published by the main thread; mspt lets the other server pace player transfers to
+                // this one and phase lets the lobby skip auto-start while a cycle is being prepared
+                var snapshot = plugin.getHealthSnapshot();
+                if (snapshot == null) {
+                    // The server has not ticked since startup
+                    exchange.sendResponseHeaders(HTTP_SERVICE_UNAVAILABLE, -1);
                     return;
                 }
-
-                // move-players: explicit request to move players to configured hardcore server
-                if (payload.contains("\"action\":\"move-players\"")) {
-                    safeLogger.info("Received HTTP move-players; scheduling player move on main thread.");
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        try {
-                            String target = plugin.getHardcoreServerName();
-                            if (target == null || target.isEmpty()) {
-                                safeLogger.warning("move-players received but hardcore server name is not configured.");
-                                return;
-                            }
-                            for (var p : Bukkit.getOnlinePlayers()) {
-                                try {
-                                    plugin.sendPlayerToServer(p, target);
-                                } catch (Exception ex) {
-                                    safeLogger.warning("Failed to move player " + p.getName() + " to " + target + ": " + ex.getMessage());
-                                }
-                            }
-                        } catch (Throwable t) {
-                            safeLogger.warning("Error while processing move-players: " + t.getMessage());
-                        }
-                    });
-                    byte[] out = "OK".getBytes(StandardCharsets.UTF_8);
-                    exchange.sendResponseHeaders(HTTP_OK, out.length);
-                    try (var os = exchange.getResponseBody()) { os.write(out); }
+                exchange.getResponseHeaders().set("ETag", snapshot.etag());
+                exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+                if (snapshot.matches(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(HTTP_NOT_MODIFIED, -1);
                     return;
                 }
-
-                exchange.sendResponseHeaders(HTTP_BAD_REQUEST, -1);
+                byte[] responseBytes = snapshot.body();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(HTTP_OK, responseBytes.length);
+                try (var os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
             } catch (Exception e) {
-                safeLogger.warning("Failed to handle HTTP RPC: " + e.getMessage());
+                plugin.getLogger().warning("Failed to handle health check: " + e.getMessage());
                 exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
             }
         }
     }
 
-    class HealthHandler implements HttpHandler {
+    class MetricsHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange exchange) throws IOException {
             if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
@@ -173,23 +519,48 @@ public class HttpRpcServer {
             }
 
             try {
-                String role = plugin.getConfig().getString("server.role", "hardcore");
-                int cycle = plugin.getCycleNumber();
-                int players = Bukkit.getOnlinePlayers().size();
+                byte[] responseBytes = Metrics.REGISTRY.scrape().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(HTTP_OK, responseBytes.length);
+                try (var os = exchange.getResponseBody()) {
+                    os.write(responseBytes);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to handle metrics request: " + e.getMessage());
+                exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
+            }
+        }
+    }
 
-                String response = String.format(
-                        "{\"status\":\"ok\",\"role\":\"%s\",\"cycleNumber\":%d,\"playersOnline\":%d}",
-                        role, cycle, players
-                );
+    class StatsHandler implements HttpHandler {
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            if (!"GET".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(HTTP_METHOD_NOT_ALLOWED, -1);
+                return;
+            }
+
+            try {
+                var stats = new LinkedHashMap<String, Object>();
+                stats.put("cycleNumber", plugin.getCycleNumber());
+                var timings = plugin.getCycleTimings();
+                if (timings != null) stats.put("cycleTimings", timings.toJsonModel());
+                var deletion = plugin.getDeletionStats();
+                if (deletion != null) stats.put("worldDeletion", deletion);
+                var archives = plugin.getArchiveResults();
+                if (archives != null && !archives.isEmpty()) stats.put("worldArchives", archives);
+                stats.put("http", admission.getStats());
+                var rpcRetry = plugin.getRpcRetryEngine();
+                if (rpcRetry != null) stats.put("rpcRetry", rpcRetry.getStats());
 
-                byte[] responseBytes = response.getBytes(StandardCharsets.UTF_8);
+                byte[] responseBytes = GSON.toJson(stats).getBytes(StandardCharsets.UTF_8);
                 exchange.getResponseHeaders().set("Content-Type", "application/json");
                 exchange.sendResponseHeaders(HTTP_OK, responseBytes.length);
                 try (var os = exchange.getResponseBody()) {
                     os.write(responseBytes);
                 }
             } catch (Exception e) {
-                plugin.getLogger().warning("Failed to handle health check: " + e.getMessage());
+                plugin.getLogger().warning("Failed to handle stats request: " + e.getMessage());
                 exchange.sendResponseHeaders(HTTP_INTERNAL_ERROR, -1);
             }
         }
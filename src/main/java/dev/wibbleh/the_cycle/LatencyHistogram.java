@@ -0,0 +1,109 @@
+package dev.wibbleh.the_cycle;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear histogram in the spirit of HdrHistogram.
+ * <p>
+ * Values below 16 get exact buckets; every larger power-of-two range is split into 16 linear
+ * sub-buckets, so any recorded value is reported with at most ~6% relative error while the whole
+ * {@code long} range fits in 960 counters. Recording is lock-free and allocation-free and may
+ * happen on any thread; reads see a consistent-enough view for reporting.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Summary of recorded values.
+     *
+     * @param count number of recorded values
+     * @param min   smallest value (0 when empty)
+     * @param mean  arithmetic mean (0 when empty)
+     * @param p50   median
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param max   largest value (0 when empty)
+     */
+    public record Summary(long count, long min, long mean, long p50, long p90, long p99, long max) {}
+
+    /**
+     * Record a value. Negative values are clamped to zero.
+     *
+     * @param value value to record
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(bucketIndex(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+        min.accumulateAndGet(v, Math::min);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    /**
+     * @return number of recorded values
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Estimate the value at the given percentile.
+     *
+     * @param percentile percentile in [0, 100]
+     * @return estimated value (midpoint of the matching bucket, clamped to the observed range)
+     */
+    public long percentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0L;
+        long rank = Math.max(1L, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percentile)) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long lo = bucketLowerBound(i);
+                long mid = lo + (bucketWidth(i) - 1) / 2;
+                return Math.max(min.get(), Math.min(max.get(), mid));
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * @return summary of all recorded values
+     */
+    public Summary summary() {
+        long c = count.get();
+        if (c == 0) return new Summary(0, 0, 0, 0, 0, 0, 0);
+        return new Summary(c, min.get(), sum.get() / c, percentile(50), percentile(90), percentile(99), max.get());
+    }
+
+    static int bucketIndex(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int magnitude = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) ((v >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int magnitude = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long sub = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (1L << magnitude) + (sub << (magnitude - SUB_BUCKET_BITS));
+    }
+
+    private static long bucketWidth(int index) {
+        if (index < SUB_BUCKETS) return 1L;
+        int magnitude = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        return 1L << (magnitude - SUB_BUCKET_BITS);
+    }
+}
@@ -14,11 +14,14 @@ import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
+import java.nio.file.Files;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
 import java.util.logging.Logger;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.title.Title;
@@ -26,9 +29,11 @@ import net.kyori.adventure.title.Title;
 public class Main extends JavaPlugin implements Listener {
     private static final Logger LOG = Logger.getLogger("HardcoreCycle");
     private static final int RPC_QUEUE_DRAIN_INTERVAL_TICKS = 20;
-    private static final int PERSISTENT_RPC_RETRY_INTERVAL_TICKS = 1200; // 60 seconds
-    private static final int GRACE_PERIOD_TICKS = 60; // 3 seconds
     private static final int AUTO_START_DELAY_TICKS = 40; // 2 seconds
+    private static final int SPARE_WORLD_FIRST_REFILL_DELAY_TICKS = 600; // 30 seconds after startup
+    private static final int WORLD_TEMPLATE_CHECK_INTERVAL_TICKS = 1200; // 60 seconds
+    private static final int ORPHAN_SWEEP_FIRST_DELAY_TICKS = 200; // 10 seconds after startup
+    private static final int PREGEN_RELEASE_AFTER_ARRIVAL_TICKS = 200; // 10 seconds for arriving players to load their own chunks
     
     // Title screen timing constants
     private static final long CYCLE_COMPLETE_FADE_IN_MILLIS = 500;
@@ -52,6 +57,8 @@ public class Main extends JavaPlugin implements Listener {
     private final AtomicInteger totalWins = new AtomicInteger(0);
     // Track if a cycle start request is pending (to avoid duplicate auto-starts)
     private final AtomicBoolean cycleStartPending = new AtomicBoolean(false);
+    // Phases of the running cycle (hardcore only); background work (spare generation) waits while it is busy
+    private CycleCoordinator cycleCoordinator;
     // Death recap data collected per-cycle
     private final List<Map<String, Object>> deathRecap = new ArrayList<>();
     // Track alive players by UUID
@@ -65,14 +72,18 @@ public class Main extends JavaPlugin implements Listener {
     private String lobbyServer;
     private String lobbyWorldName;
     private boolean registeredBungeeChannel = false;
-    // Cycle tracking
+    // Cycle number and stats (pending moves go to pending_moves.log), written behind by stateStore
+    private File stateFile;
+    private StateStore stateStore;
+    // Legacy cycle number and stats files, imported into stateFile once
     private File cycleFile;
-    // Stats tracking file for attempts and wins
     private File statsFile;
     // Server role — when false this instance acts as a lobby and must not create/delete worlds
     private boolean isHardcoreBackend = true;
     // RPC / forwarding configuration
     private String rpcSecret = "";
+    // HMAC signer keyed once from server.rpc_secret when the config is loaded
+    private RpcSigner rpcSigner = new RpcSigner("");
     private String hardcoreServerName = "";
         /**
      * Namespaced RPC plugin channel used for lobby-to-hardcore server forwarding.
@@ -84,12 +95,29 @@ public class Main extends JavaPlugin implements Listener {
     private static final int MAX_RPC_QUEUE = 100;
     private static final int MAX_PERSISTENT_RPC_QUEUE = 100;
     
-    // Outbound RPC queue used when the Bungee outgoing channel isn't available yet.
-    private final Deque<byte[]> outboundRpcQueue = new ArrayDeque<>();
+    // Plugin-message RPCs not yet acknowledged by the backend; flushed in batches, retransmitted until acked
+    private final RpcOutbox rpcOutbox = new RpcOutbox(MAX_RPC_QUEUE);
+    private boolean rpcFlushScheduled = false;
     private int rpcQueueTaskId = -1;
  // Webhook
      private String webhookUrl;
      private WorldDeletionService worldDeletionService;
+    // Pool of pre-generated worlds claimed by performCycle (hardcore only)
+    private SpareWorldPool spareWorldPool;
+    private int spareWorldRefillTaskId = -1;
+    // Spawn-area pre-generation for the current cycle's world; chunk tickets are held until players arrive
+    private ChunkPregenerator chunkPregenerator;
+    private int pregenReleaseTaskId = -1;
+    // Pristine fixed-seed world copied for each cycle (null unless template mode is active)
+    private WorldTemplate worldTemplate;
+    private int worldTemplateTaskId = -1;
+    private int orphanSweepTaskId = -1;
+    // Paces countdown-end transfers in waves instead of one Connect burst
+    private TransferScheduler transferScheduler;
+    // Per-stage cycle durations, exposed through /cycle timings and the HTTP /stats endpoint
+    private CycleTimings cycleTimings;
+    // cycle-now requests accepted over HTTP, followed through /rpc/operations/{id}
+    private final CycleOperations cycleOperations = new CycleOperations();
      private WebhookService webhookService;
      private CommandHandler commandHandler;
     // Optional embedded HTTP RPC server (started when configured)
@@ -103,8 +131,6 @@ public class Main extends JavaPlugin implements Listener {
     private boolean randomizeSeed = true;
     // Optional configured seed (only used when randomizeSeed is false and non-zero)
     private long configuredSeed = 0L;
-    // Delay (seconds) to wait before starting world generation (configurable)
-    private int delayBeforeGenerationSeconds = 3;
     // Maximum seconds to wait for players to leave the previous hardcore world before forcing generation
     private int waitForPlayersToLeaveSeconds = 30;
     // Whether to show a short server-wide pre-generation countdown on the hardcore server
@@ -116,14 +142,26 @@ public class Main extends JavaPlugin implements Listener {
     // Pending moves for players who are dead at move time; they will be moved on respawn
     private final Set<UUID> pendingLobbyMoves = Collections.synchronizedSet(new HashSet<>());
     private final Set<UUID> pendingHardcoreMoves = Collections.synchronizedSet(new HashSet<>());
-    // File used to persist pending moves across restarts
+    // Legacy pending moves file, imported into stateFile once
     private File pendingMovesFile;
     // File used to persist failed RPC messages across restarts
     private File persistentRpcQueueFile;
-    // Persistent queue for failed RPC messages (survives restarts)
-    private final List<RpcQueueStorage.QueuedRpc> persistentRpcQueue = Collections.synchronizedList(new ArrayList<>());
-    // Task ID for periodic RPC retry task
-    private int persistentRpcRetryTaskId = -1;
+    // Legacy JSON snapshot of the queue, imported into the log once
+    private File legacyRpcQueueFile;
+    // Lobby only: background copy of the backend's /health and the circuit breaker it feeds
+    private BackendHealthMirror backendHealth;
+    // Delivers failed RPC messages off the main thread (survives restarts through persistentRpcQueueFile)
+    private RpcRetryEngine rpcRetryEngine;
+    // Hardcore only: cycle events served on /events
+    private CycleEventBus cycleEvents;
+    // Lobby only: subscription to the backend's /events
+    private CycleEventSubscriber cycleEventSubscriber;
+    // Lobby only: last cycle whose world-ready was acted on, so the stream and the POST move players once
+    private int lastWorldReadyCycle = -1;
+    private int pregenProgressTaskId = -1;
+    // Status served on /health; replaced by the main thread, read by HTTP threads
+    private volatile HealthSnapshot healthSnapshot;
+    private int healthSnapshotTaskId = -1;
 
     /**
      * Plugin enable lifecycle method. Loads configuration, wires helper services,
@@ -145,7 +183,8 @@ public class Main extends JavaPlugin implements Listener {
         
         // ensure data folder and pending moves file
         pendingMovesFile = new File(getDataFolder(), "pending_moves.json");
-        persistentRpcQueueFile = new File(getDataFolder(), "failed_rpcs.json");
+        persistentRpcQueueFile = new File(getDataFolder(), "failed_rpcs.log");
+        legacyRpcQueueFile = new File(getDataFolder(), "failed_rpcs.json");
 
         // Read server role (default: hardcore). If role is "lobby" the plugin will not create or delete worlds.
         String role = cfg.getString("server.role", "hardcore").trim().toLowerCase(Locale.ROOT);
@@ -168,17 +207,32 @@ public class Main extends JavaPlugin implements Listener {
             registeredBungeeChannel = false;
         }
 
+        stateFile = new File(getDataFolder(), "state.json");
         cycleFile = new File(getDataFolder(), "cycles.json");
         statsFile = new File(getDataFolder(), "stats.txt");
-        loadCycleNumber();
-        loadStats();
+        cycleTimings = new CycleTimings(new File(getDataFolder(), "cycle_history.jsonl"),
+                r -> Bukkit.getScheduler().runTaskAsynchronously(this, r));
+        stateStore = new StateStore(stateFile, new PendingMovesJournal(new File(getDataFolder(), "pending_moves.log")), cfg.getLong("state.flush_millis", 1000L), this::captureState);
+        loadState();
+        stateStore.start();
         // wire services
         boolean deletePrev = cfg.getBoolean("behavior.delete_previous_worlds", true);
         boolean deferDelete = cfg.getBoolean("behavior.defer_delete_until_restart", false);
         boolean asyncDelete = cfg.getBoolean("behavior.async_delete", true);
         boolean sharedDeath = cfg.getBoolean("behavior.shared_death", false);
 
-        worldDeletionService = new WorldDeletionService(this, deletePrev, deferDelete, asyncDelete);
+        worldDeletionService = new WorldDeletionService(this, deletePrev, deferDelete, asyncDelete,
+                cfg.getInt("deletion.parallelism", 2),
+                cfg.getLong("deletion.max_bytes_per_second", 67108864L),
+                cfg.getLong("deletion.max_files_per_second", 2000L),
+                cfg.getLong("deletion.save_backoff_millis", 2000L));
+        getServer().getPluginManager().registerEvents(worldDeletionService, this);
+        String archiveMode = cfg.getString("deletion.archive_mode", "off").trim().toLowerCase(Locale.ROOT);
+        if (isHardcoreBackend && !archiveMode.equals("off")) {
+            worldDeletionService.configureArchive(new WorldArchiver(new File(getDataFolder(), "archives"),
+                    cfg.getInt("deletion.archive_compression_level", 6),
+                    cfg.getLong("deletion.archive_max_total_mb", 2048L) * 1024L * 1024L), archiveMode.equals("all"));
+        }
         webhookService = new WebhookService(this, webhookUrl);
         var dl = new DeathListener(this, enableActionbarLocal, sharedDeath, aliveMap, deathRecap);
         var edl = new EnderDragonListener(this);
@@ -196,6 +250,7 @@ public class Main extends JavaPlugin implements Listener {
 
         // Register RPC handler: incoming channel on hardcore, and provide outgoing registration for lobby
         this.rpcSecret = cfg.getString("server.rpc_secret", "");
+        this.rpcSigner = new RpcSigner(rpcSecret);
         this.hardcoreServerName = cfg.getString("server.hardcore", "");
         // Optional HTTP RPC URL for lobby to call (if present, prefer HTTP forwarding when available)
         int httpPort = cfg.getInt("server.http_port", 8080);
@@ -207,12 +262,11 @@ public class Main extends JavaPlugin implements Listener {
         // Seed config: default to random seed per-cycle unless configured otherwise
         randomizeSeed = cfg.getBoolean("server.randomize_seed", true);
         configuredSeed = cfg.getLong("server.seed", 0L);
-        // Delay and wait settings for safe generation
-        delayBeforeGenerationSeconds = cfg.getInt("behavior.delay_before_generation_seconds", 3);
+        // Wait settings for safe generation
         waitForPlayersToLeaveSeconds = cfg.getInt("behavior.wait_for_players_to_leave_seconds", 30);
         preGenerationCountdownEnabled = cfg.getBoolean("behavior.pre_generation_countdown_enabled", true);
         String httpBind = cfg.getString("server.http_bind", "");
-        var rpcHandler = new RpcHandler(this, this, this.rpcSecret, RPC_CHANNEL);
+        var rpcHandler = new RpcHandler(this, this, this.rpcSecret, RPC_CHANNEL, cfg.getBoolean("server.accept_legacy_rpc", false));
         try {
             // Incoming channel
             getServer().getMessenger().registerIncomingPluginChannel(this, RPC_CHANNEL, rpcHandler);
@@ -226,9 +280,19 @@ public class Main extends JavaPlugin implements Listener {
         // If HTTP endpoint is enabled in config, start embedded HTTP RPC server on this instance (allows lobby or hardcore to accept RPCs)
         try {
             if (cfg.getBoolean("server.http_enabled", false)) {
-                httpRpcServer = new HttpRpcServer(this, httpPort, httpBind);
+                var defaults = HttpRpcServer.Limits.defaults();
+                var limits = new HttpRpcServer.Limits(
+                        cfg.getInt("server.http_max_concurrent_requests", defaults.maxConcurrentRequests()),
+                        cfg.getLong("server.http_queue_timeout_millis", defaults.queueTimeoutMillis()),
+                        cfg.getInt("server.http_max_body_bytes", defaults.maxBodyBytes()),
+                        cfg.getInt("server.http_read_timeout_seconds", defaults.readTimeoutSeconds()),
+                        cfg.getInt("server.http_idle_timeout_seconds", defaults.idleTimeoutSeconds()),
+                        cfg.getDouble("server.http_rate_limit_per_second", defaults.ratePerSecond()),
+                        cfg.getInt("server.http_rate_limit_burst", defaults.burst()));
+                httpRpcServer = new HttpRpcServer(this, httpPort, httpBind, limits);
                 httpRpcServer.start();
                 LOG.info("Started embedded HTTP RPC server on port " + httpPort + (httpBind.isEmpty() ? "" : " bound to " + httpBind));
+                healthSnapshotTaskId = Bukkit.getScheduler().runTaskTimer(this, () -> refreshHealthSnapshot(role), 0L, 1L).getTaskId();
             }
         } catch (Exception e) {
             LOG.warning("Failed to start embedded HTTP RPC server: " + e.getMessage());
@@ -237,20 +301,36 @@ public class Main extends JavaPlugin implements Listener {
 
         worldDeletionService.processPendingDeletions();
 
-        // Load persisted pending moves (if any)
-        loadPendingMoves();
-        
-        // Load persisted RPC queue (if any)
-        loadPersistentRpcQueue();
+        if (isHardcoreBackend) {
+            cycleCoordinator = new CycleCoordinator(this);
+            getServer().getPluginManager().registerEvents(cycleCoordinator, this);
+            initSpareWorldPool();
+            initWorldTemplate();
+            initOrphanSweep();
+        }
+
+        initBackendHealth();
+        initCycleEvents();
+
+        // Load persisted RPC queue (if any) and start delivering it
+        initRpcRetryEngine();
+        registerMetrics();
 
-        // Schedule a periodic task to try to drain the outbound RPC queue (runs on main thread)
+        // Schedule a periodic task to retransmit unacknowledged plugin-message RPCs (runs on main thread)
         if (rpcQueueTaskId == -1) {
-            rpcQueueTaskId = Bukkit.getScheduler().runTaskTimer(this, this::drainRpcQueue, RPC_QUEUE_DRAIN_INTERVAL_TICKS, RPC_QUEUE_DRAIN_INTERVAL_TICKS).getTaskId();
+            rpcQueueTaskId = Bukkit.getScheduler().runTaskTimer(this, this::flushRpcOutbox, RPC_QUEUE_DRAIN_INTERVAL_TICKS, RPC_QUEUE_DRAIN_INTERVAL_TICKS).getTaskId();
         }
 
         getServer().getPluginManager().registerEvents(dl, this);
         getServer().getPluginManager().registerEvents(edl, this);
         getServer().getPluginManager().registerEvents(pjl, this);
+        transferScheduler = new TransferScheduler(this,
+                cfg.getInt("transfers.per_wave", 5),
+                cfg.getLong("transfers.wave_interval_ticks", 10L),
+                cfg.getDouble("transfers.max_mspt", 45.0),
+                cfg.getInt("transfers.health_poll_seconds", 5),
+                backendHealth);
+        getServer().getPluginManager().registerEvents(transferScheduler, this);
 
         if (enableScoreboard) {
             var scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
@@ -271,10 +351,36 @@ public class Main extends JavaPlugin implements Listener {
      */
     @Override
     public void onDisable() {
-        writeCycleFile(cycleNumber.get());
-        writeStatsFile();
-        savePendingMoves();
-        savePersistentRpcQueue();
+        if (spareWorldRefillTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(spareWorldRefillTaskId);
+            spareWorldRefillTaskId = -1;
+        }
+        if (worldTemplateTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(worldTemplateTaskId);
+            worldTemplateTaskId = -1;
+        }
+        if (orphanSweepTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(orphanSweepTaskId);
+            orphanSweepTaskId = -1;
+        }
+        if (healthSnapshotTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(healthSnapshotTaskId);
+            healthSnapshotTaskId = -1;
+        }
+        releasePregeneratedChunks();
+        if (cycleCoordinator != null) cycleCoordinator.shutdown();
+        if (transferScheduler != null) transferScheduler.stop();
+        if (worldDeletionService != null) worldDeletionService.shutdown();
+        // Barrier: everything changed before shutdown is on disk before the plugin unloads
+        if (spareWorldPool != null) spareWorldPool.flush();
+        if (stateStore != null) {
+            stateStore.close();
+            stateStore = null;
+        }
+        if (backendHealth != null) backendHealth.stop();
+        if (rpcRetryEngine != null) rpcRetryEngine.shutdown();
+        if (cycleEventSubscriber != null) cycleEventSubscriber.stop();
+        if (cycleEvents != null) cycleEvents.close();
     }
 
     /**
@@ -293,7 +399,7 @@ public class Main extends JavaPlugin implements Listener {
      */
     public void setCycleNumber(int n) {
         cycleNumber.set(n);
-        writeCycleFile(n);
+        markStateDirty();
         updateScoreboard();
     }
 
@@ -305,25 +411,75 @@ public class Main extends JavaPlugin implements Listener {
         performCycle();
     }
 
+    /**
+     * Run an accepted cycle-now request on the main thread and bind its operation to a cycle.
+     * <p>
+     * A request arriving while a cycle is active (up to and including admission into the new world)
+     * joins that cycle's operation instead of being rejected, and a request for a cycle that has already been started (its target is not above
+     * the current cycle number) is answered with that cycle; neither starts another generation.
+     *
+     * @param operationId operation created for the request
+     * @param targetCycle cycle number the requester wants started, or null when unknown
+     */
+    public void startCycleOperation(String operationId, Integer targetCycle) {
+        var operations = getCycleOperations();
+        int before = getCycleNumber();
+        if (isCycleActive()) {
+            LOG.info("cycle-now arrived while cycle #" + before + " is in progress; joining it as operation " + operationId + ".");
+            operations.bind(operationId, before);
+            return;
+        }
+        if (targetCycle != null && targetCycle <= before) {
+            LOG.info("cycle-now for cycle #" + targetCycle + " arrived after cycle #" + before + " was started; not starting another.");
+            operations.bindFinished(operationId, before);
+            return;
+        }
+        try {
+            triggerCycle();
+        } catch (Throwable t) {
+            LOG.warning("Error while executing triggerCycle from RPC: " + t.getMessage());
+            operations.end(operationId, CycleOperations.State.FAILED, String.valueOf(t.getMessage()));
+            return;
+        }
+        int after = getCycleNumber();
+        if (after != before) {
+            operations.bind(operationId, after);
+        } else {
+            operations.end(operationId, CycleOperations.State.REJECTED, "Another cycle is still in progress or this server does not run cycles.");
+        }
+    }
+
     /**
      * Perform the world cycle: increment cycle number, persist, optionally send webhook,
      * create a new world, move players into the new world (or lobby), and schedule deletion
      * of the previous world according to configuration.
      *
-     * This method is synchronized to avoid concurrent cycles.
+     * Runs on the main server thread. The phases after the bookkeeping (draining the previous
+     * world, unloading, generating) are driven by {@link CycleCoordinator}; a request arriving while
+     * a cycle is still in one of those phases is ignored.
      */
-    public synchronized void performCycle() {
+    public void performCycle() {
         if (!isHardcoreBackend) {
             // Prevent accidental world creation on lobby instances.
                         LOG.warning("World cycle attempted on a server configured as 'lobby'. This server will not create worlds. Please run /cycle on your hardcore backend.");
             return;
         }
+        if (cycleCoordinator == null) cycleCoordinator = new CycleCoordinator(this);
+        if (cycleCoordinator.isBusy()) {
+            LOG.warning("Cycle requested while cycle #" + cycleCoordinator.getCycle() + " is still " + cycleCoordinator.getPhase() + "; ignoring.");
+            return;
+        }
         int next = cycleNumber.incrementAndGet();
+        var step = new CycleJfrEvents.Step();
+        step.begin();
+        // Claim a pre-generated world right away so doGenerateWorld only has to move players
+        if (spareWorldPool != null && spareWorldPool.isEnabled()) {
+            spareWorldPool.claim(next);
+        }
         // Increment attempts counter (will be reset when dragon is killed)
         attemptsSinceLastWin.incrementAndGet();
-        writeStatsFile();
+        markStateDirty();
         updateScoreboard();
-        writeCycleFile(next);
 
         if (webhookUrl != null && !webhookUrl.isEmpty()) {
             webhookService.send(buildWebhookPayload(next, deathRecap));
@@ -333,8 +489,7 @@ public class Main extends JavaPlugin implements Listener {
         // Clear the active cycle players set - new cycle means players can join again
         playersInCurrentCycle.clear();
 
-        // Schedule generation after ensuring all players have been moved to lobby.
-        final int cycleNum = next;
+        // Generation starts once all players have left the previous world.
         final String prevWorldName = "hardcore_cycle_" + (next - 1);
         // Move ALL online players to lobby before starting world generation (prevents timeouts during generation)
         Collection<? extends Player> playersToMove = Bukkit.getOnlinePlayers();
@@ -353,59 +508,34 @@ public class Main extends JavaPlugin implements Listener {
             LOG.info("No online players to move to lobby; proceeding with world generation.");
         }
 
-        // Start a short delay before attempting generation, then poll for remaining players leaving worlds
-        Bukkit.getScheduler().runTaskLater(this, () -> {
-            // If we should wait for players to leave, poll once per second up to the configured timeout
-            // Wait if previous world exists and deletion is enabled
-            if (waitForPlayersToLeaveSeconds > 0 && next > 1 && cfg.getBoolean("behavior.delete_previous_worlds", true)) {
-                final int[] elapsed = {0};
-                final org.bukkit.scheduler.BukkitTask[] taskHolder = new org.bukkit.scheduler.BukkitTask[1];
-                taskHolder[0] = Bukkit.getScheduler().runTaskTimer(this, () -> {
-                    World pw = Bukkit.getWorld(prevWorldName);
-                    boolean empty = (pw == null) || pw.getPlayers().isEmpty();
-                    if (empty || elapsed[0] >= waitForPlayersToLeaveSeconds) {
-                        if (!empty) {
-                            LOG.info("Timeout waiting for previous-world players to leave; forcing move to lobby and proceeding with generation after grace period.");
-                            // Forcibly move remaining players to lobby now
-                            World pwForce = Bukkit.getWorld(prevWorldName);
-                            if (pwForce != null) {
-                                for (Player r : pwForce.getPlayers()) {
-                                    try { sendPlayerToLobby(r); } catch (Exception ex) { LOG.warning("Failed to force-move player " + r.getName() + " to lobby: " + ex.getMessage()); }
-                                }
-                            }
-                            // cancel polling
-                            if (taskHolder[0] != null) taskHolder[0].cancel();
-                            // wait a short grace period (3s) to allow client transfers to initiate, then proceed with unload/generation
-                            Bukkit.getScheduler().runTaskLater(this, () -> {
-                                World pw2 = Bukkit.getWorld(prevWorldName);
-                                if (pw2 != null) {
-                                    boolean unloaded = Bukkit.unloadWorld(pw2, false);
-                                    if (!unloaded) LOG.warning("Failed to unload previous world '" + prevWorldName + "' prior to generation; scheduling deletion fallback.");
-                                    worldDeletionService.scheduleDeleteWorldFolder(prevWorldName);
-                                }
-                                doGenerateWorld(cycleNum);
-                            }, 60L); // 3 seconds grace
-                            return;
-                        }
-                        // empty: cancel and proceed immediately
-                        if (taskHolder[0] != null) taskHolder[0].cancel();
-                        World pw2 = Bukkit.getWorld(prevWorldName);
-                        if (pw2 != null) {
-                            boolean unloaded = Bukkit.unloadWorld(pw2, false);
-                            if (!unloaded) LOG.warning("Failed to unload previous world '" + prevWorldName + "' prior to generation; scheduling deletion fallback.");
-                            worldDeletionService.scheduleDeleteWorldFolder(prevWorldName);
-                        }
-                        doGenerateWorld(cycleNum);
-                        return;
-                    }
-                    elapsed[0]++;
-                }, 0L, 20L);
-            } else {
-                // No wait requested — either not configured or not relevant — generate after the initial delay
-                doGenerateWorld(cycleNum);
-            }
-        }, Math.max(0, delayBeforeGenerationSeconds) * 20L);
-        // performCycle returns; generation continues asynchronously
+        // Drain the previous world before replacing it when it is going to be deleted
+        boolean waitForDrain = waitForPlayersToLeaveSeconds > 0 && next > 1 && cfg.getBoolean("behavior.delete_previous_worlds", true);
+        if (cycleTimings != null) cycleTimings.startCycle(next);
+        step.cycle = next;
+        step.step = "prepare";
+        step.world = prevWorldName;
+        step.players = playersToMove.size();
+        step.commit();
+        cycleCoordinator.begin(next, prevWorldName, waitForDrain, waitForPlayersToLeaveSeconds);
+        // performCycle returns; the coordinator continues the cycle as events arrive
+    }
+
+    /**
+     * Generate or load the world for the given cycle (coordinator GENERATING phase).
+     *
+     * @param next cycle number to generate
+     */
+    void generateWorldForCycle(int next) {
+        doGenerateWorld(next);
+    }
+
+    /**
+     * Schedule deletion of a world folder through the configured deletion service.
+     *
+     * @param worldName world folder name
+     */
+    void scheduleWorldDeletion(String worldName) {
+        worldDeletionService.scheduleDeleteWorldFolder(worldName);
     }
 
     /**
@@ -438,19 +568,54 @@ public class Main extends JavaPlugin implements Listener {
             } catch (Exception ignored) {} 
         });
 
-        World newWorld = null;
-        try {
-            // Build WorldCreator and apply seed strategy using SeedUtil
-            org.bukkit.WorldCreator wc = new org.bukkit.WorldCreator(newWorldName);
-            java.util.OptionalLong maybeSeed = SeedUtil.selectSeed(randomizeSeed, configuredSeed);
-            if (maybeSeed.isPresent()) {
-                long seed = maybeSeed.getAsLong();
-                wc.seed(seed);
-                LOG.info("Using seed " + seed + " for world " + newWorldName);
+        // With a fixed seed, copy the pre-built template folder instead of generating terrain
+        if (Bukkit.getWorld(newWorldName) == null && worldTemplate != null && worldTemplate.isReady()
+                && !new File(Bukkit.getWorldContainer(), newWorldName).exists()) {
+            long copyStarted = System.nanoTime();
+            worldTemplate.materialize(newWorldName).whenComplete((copied, err) -> {
+                recordCycleStage(CycleTimings.Stage.TEMPLATE_COPY, copyStarted);
+                loadNewWorld(next);
+            });
+            return;
+        }
+        loadNewWorld(next);
+    }
+
+    /**
+     * Load (or generate) the world for the given cycle and move players into it. A spare world or a
+     * materialized template folder is loaded as-is; otherwise terrain is generated from scratch.
+     * Must be invoked on the main server thread.
+     *
+     * @param next cycle number to load
+     */
+    private void loadNewWorld(int next) {
+        String newWorldName = "hardcore_cycle_" + next;
+        // A spare world claimed in performCycle is already loaded; only generate when there is none
+        World newWorld = Bukkit.getWorld(newWorldName);
+        if (newWorld != null) {
+            LOG.info("Using pre-generated world " + newWorldName + " (seed " + newWorld.getSeed() + ").");
+        } else {
+            try {
+                // Build WorldCreator and apply seed strategy using SeedUtil
+                org.bukkit.WorldCreator wc = new org.bukkit.WorldCreator(newWorldName);
+                java.util.OptionalLong maybeSeed = SeedUtil.selectSeed(randomizeSeed, configuredSeed);
+                if (maybeSeed.isPresent()) {
+                    long seed = maybeSeed.getAsLong();
+                    wc.seed(seed);
+                    LOG.info("Using seed " + seed + " for world " + newWorldName);
+                }
+                long loadStarted = System.nanoTime();
+                var step = new CycleJfrEvents.Step();
+                step.begin();
+                newWorld = Bukkit.createWorld(wc);
+                recordCycleStage(CycleTimings.Stage.WORLD_LOAD, loadStarted);
+                step.cycle = next;
+                step.step = "create-world";
+                step.world = newWorldName;
+                step.commit();
+            } catch (Exception e) {
+                LOG.warning("Failed to create new world '" + newWorldName + "': " + e.getMessage());
             }
-            newWorld = Bukkit.createWorld(wc);
-        } catch (Exception e) {
-            LOG.warning("Failed to create new world '" + newWorldName + "': " + e.getMessage());
         }
 
         // Handle previous world deletion/teleporting
@@ -478,7 +643,13 @@ public class Main extends JavaPlugin implements Listener {
                 }
 
                 LOG.info("Unloading previous world: " + prevWorldName);
+                var unload = new CycleJfrEvents.WorldUnload();
+                unload.begin();
                 boolean unloaded = Bukkit.unloadWorld(prevWorld, false);
+                unload.cycle = next - 1;
+                unload.world = prevWorldName;
+                unload.unloaded = unloaded;
+                unload.commit();
                 if (!unloaded) {
                     LOG.warning("Failed to unload world " + prevWorldName + "; scheduling deletion fallback.");
                     worldDeletionService.scheduleDeleteWorldFolder(prevWorldName);
@@ -494,6 +665,9 @@ public class Main extends JavaPlugin implements Listener {
         if (newWorld != null) {
             final org.bukkit.Location spawn = newWorld.getSpawnLocation();
             if (spawn != null) {
+                long teleportStarted = System.nanoTime();
+                var step = new CycleJfrEvents.Step();
+                step.begin();
                 Bukkit.getOnlinePlayers().forEach(p -> {
                     try { 
                         p.teleport(spawn);
@@ -501,12 +675,18 @@ public class Main extends JavaPlugin implements Listener {
                     } catch (Exception ex) { LOG.warning("Failed to teleport player " + p.getName() + " to new world: " + ex.getMessage()); }
                     aliveMap.put(p.getUniqueId(), true);
                 });
+                recordCycleStage(CycleTimings.Stage.TELEPORT, teleportStarted);
+                step.cycle = next;
+                step.step = "teleport";
+                step.world = newWorldName;
+                step.players = Bukkit.getOnlinePlayers().size();
+                step.commit();
             } else {
                 LOG.warning("New world spawn is null; sending players to configured lobby (if any).");
                 scheduleCountdownThenSendPlayersToLobby(Bukkit.getOnlinePlayers(), countdownSendToLobbySeconds);
             }
 
-            try { notifyLobbyWorldReady(next); } catch (Exception e) { LOG.warning("Failed to notify lobby that world is ready: " + e.getMessage()); }
+            pregenerateThenNotifyLobby(newWorld, next);
         } else {
             LOG.warning("New world is null; sending players to configured lobby (if any).");
             Bukkit.getOnlinePlayers().forEach(this::sendPlayerToLobby);
@@ -515,9 +695,360 @@ public class Main extends JavaPlugin implements Listener {
         // Show premium title notification for world cycle completion
         showWorldCycleCompleteTitle(next);
 
+        if (cycleCoordinator != null) cycleCoordinator.worldLoaded(next, newWorld != null);
         LOG.info("Cycle " + next + " complete.");
     }
 
+    /**
+     * Create the spare world pool from configuration, load its persisted bookkeeping and schedule
+     * the periodic refill task. Refills run on the main thread (world creation requires it) but
+     * only while no cycle is in progress, the hardcore world is empty and the server is not under load.
+     */
+    private void initSpareWorldPool() {
+        int poolSize = cfg.getInt("world_pool.size", 1);
+        double maxMspt = cfg.getDouble("world_pool.max_mspt", 40.0);
+        int refillSeconds = Math.max(1, cfg.getInt("world_pool.refill_interval_seconds", 60));
+        spareWorldPool = new SpareWorldPool(this, poolSize, maxMspt, randomizeSeed, configuredSeed,
+                worldDeletionService::scheduleDeleteWorldFolder);
+        if (!spareWorldPool.isEnabled()) return;
+        spareWorldPool.load(cycleNumber.get());
+        spareWorldRefillTaskId = Bukkit.getScheduler().runTaskTimer(this,
+                () -> spareWorldPool.refillOnce(cycleNumber::get, () -> isCycleInProgress() || isPregenerating() || (worldTemplate != null && worldTemplate.isBuilding())),
+                SPARE_WORLD_FIRST_REFILL_DELAY_TICKS, refillSeconds * TICKS_PER_SECOND).getTaskId();
+        LOG.info("Spare world pool enabled (size=" + poolSize + ", refill every " + refillSeconds + "s).");
+    }
+
+    /**
+     * Enable template mode when the seed is fixed: every cycle would generate identical terrain, so
+     * the world is generated once into a template and copied for each cycle. The template is
+     * (re)built in the background while no cycle or pre-generation is running.
+     */
+    private void initWorldTemplate() {
+        if (!cfg.getBoolean("world_template.enabled", true)) return;
+        if (randomizeSeed || configuredSeed == 0L) return;
+        worldTemplate = new WorldTemplate(this, configuredSeed,
+                cfg.getInt("world_template.radius_chunks", cfg.getInt("pregeneration.radius_chunks", 8)),
+                Math.max(1, cfg.getInt("pregeneration.max_in_flight", 16)),
+                cfg.getDouble("pregeneration.max_mspt", 45.0),
+                worldDeletionService::scheduleDeleteWorldFolder);
+        worldTemplateTaskId = Bukkit.getScheduler().runTaskTimer(this, () -> {
+            if (!isCycleInProgress() && !isPregenerating()) worldTemplate.ensureBuilt();
+        }, SPARE_WORLD_FIRST_REFILL_DELAY_TICKS, WORLD_TEMPLATE_CHECK_INTERVAL_TICKS).getTaskId();
+        LOG.info("World template mode enabled for fixed seed " + configuredSeed + ".");
+    }
+
+    /**
+     * Schedule the orphaned world folder sweep: shortly after startup and then every
+     * {@code deletion.orphan_sweep_interval_minutes} (0 sweeps once). The world container is listed
+     * on an async thread so enabling the plugin is never delayed.
+     */
+    private void initOrphanSweep() {
+        if (!cfg.getBoolean("behavior.delete_previous_worlds", true)) return;
+        long intervalTicks = Math.max(0, cfg.getInt("deletion.orphan_sweep_interval_minutes", 30)) * 60L * TICKS_PER_SECOND;
+        if (intervalTicks > 0) {
+            orphanSweepTaskId = Bukkit.getScheduler().runTaskTimer(this, this::sweepOrphanWorlds, ORPHAN_SWEEP_FIRST_DELAY_TICKS, intervalTicks).getTaskId();
+        } else {
+            Bukkit.getScheduler().runTaskLater(this, this::sweepOrphanWorlds, ORPHAN_SWEEP_FIRST_DELAY_TICKS);
+        }
+    }
+
+    private void sweepOrphanWorlds() {
+        // Folders are renamed and created while a cycle runs; look again next time
+        if (isCycleInProgress()) return;
+        var loaded = new HashSet<String>();
+        for (World w : Bukkit.getWorlds()) loaded.add(w.getName());
+        File container = Bukkit.getWorldContainer();
+        int current = cycleNumber.get();
+        Bukkit.getScheduler().runTaskAsynchronously(this, () -> {
+            // Read right before listing so a template copy started since the check above is kept
+            if (worldTemplate != null) loaded.addAll(worldTemplate.copyingWorlds());
+            worldDeletionService.sweepOrphans(container, current, loaded);
+        });
+    }
+
+    /**
+     * Pre-generate the spawn area of a freshly created world, then tell the lobby it is ready so the
+     * lobby countdown starts once terrain around spawn exists. The lobby is notified anyway after
+     * {@code pregeneration.max_wait_seconds} so a slow or paused run never stalls the cycle.
+     * Generated chunks keep a plugin ticket until players arrive (see {@link #onPlayerArrivedInWorld(String)})
+     * or {@code pregeneration.keep_resident_seconds} after the notification.
+     *
+     * @param world new cycle world
+     * @param cycle cycle number of the world
+     */
+    private void pregenerateThenNotifyLobby(World world, int cycle) {
+        releasePregeneratedChunks();
+        Runnable notifyOnce = new Runnable() {
+            private boolean notified = false;
+
+            @Override
+            public void run() {
+                // A newer cycle may have superseded this one before its run finished
+                if (notified || cycle != cycleNumber.get()) return;
+                notified = true;
+                stopPregenProgress();
+                // Subscribed lobbies react to the event right away; the POST below covers lobbies without a stream
+                publishCycleEvent("world-ready", Map.of("cycle", cycle));
+                long notifyStarted = System.nanoTime();
+                CompletableFuture<Void> notifyDone;
+                try {
+                    notifyDone = notifyLobbyWorldReady(cycle);
+                } catch (Exception e) {
+                    LOG.warning("Failed to notify lobby that world is ready: " + e.getMessage());
+                    notifyDone = CompletableFuture.completedFuture(null);
+                }
+                Runnable finish = () -> {
+                    recordCycleStage(CycleTimings.Stage.NOTIFY_LOBBY, notifyStarted);
+                    if (cycleCoordinator != null) cycleCoordinator.lobbyNotified(cycle);
+                };
+                // The coordinator runs on the main thread; come back to it once the POST has finished
+                if (notifyDone.isDone()) finish.run();
+                else notifyDone.whenComplete((r, t) -> Bukkit.getScheduler().runTask(Main.this, finish));
+                schedulePregenRelease(Math.max(0, cfg.getInt("pregeneration.keep_resident_seconds", 120)) * TICKS_PER_SECOND);
+            }
+        };
+        org.bukkit.Location spawn = world.getSpawnLocation();
+        if (!cfg.getBoolean("pregeneration.enabled", true) || spawn == null) {
+            notifyOnce.run();
+            return;
+        }
+
+        int radius = Math.max(0, cfg.getInt("pregeneration.radius_chunks", 8));
+        int maxInFlight = Math.max(1, cfg.getInt("pregeneration.max_in_flight", 16));
+        double maxMspt = cfg.getDouble("pregeneration.max_mspt", 45.0);
+        int maxWaitSeconds = Math.max(0, cfg.getInt("pregeneration.max_wait_seconds", 20));
+        chunkPregenerator = new ChunkPregenerator(this, world, spawn.getBlockX() >> 4, spawn.getBlockZ() >> 4,
+                radius, maxInFlight, maxMspt);
+        long started = System.nanoTime();
+        startPregenProgress(cycle);
+        chunkPregenerator.start().whenComplete((v, err) -> Bukkit.getScheduler().runTask(this, () -> {
+            LOG.info("Spawn pre-generation for " + world.getName() + " ended after " + (System.nanoTime() - started) / 1_000_000L + "ms.");
+            recordCycleStage(CycleTimings.Stage.PREGENERATION, started);
+            notifyOnce.run();
+        }));
+        Bukkit.getScheduler().runTaskLater(this, () -> {
+            if (chunkPregenerator != null && chunkPregenerator.getProgress() < 1.0) {
+                LOG.info("Spawn pre-generation still running after " + maxWaitSeconds + "s; notifying lobby anyway.");
+            }
+            notifyOnce.run();
+        }, maxWaitSeconds * TICKS_PER_SECOND);
+    }
+
+    /**
+     * Publish pre-generation progress once a second while it changes, so lobbies can show it.
+     */
+    private void startPregenProgress(int cycle) {
+        stopPregenProgress();
+        if (cycleEvents == null) return;
+        double[] last = {-1.0};
+        pregenProgressTaskId = Bukkit.getScheduler().runTaskTimer(this, () -> {
+            var pregen = chunkPregenerator;
+            if (pregen == null) return;
+            double progress = Math.floor(pregen.getProgress() * 100.0) / 100.0;
+            if (progress == last[0]) return;
+            last[0] = progress;
+            publishCycleEvent("progress", Map.of("cycle", cycle, "world", pregen.getWorldName(), "progress", progress, "paused", pregen.isPaused()));
+        }, TICKS_PER_SECOND, TICKS_PER_SECOND).getTaskId();
+    }
+
+    private void stopPregenProgress() {
+        if (pregenProgressTaskId == -1) return;
+        Bukkit.getScheduler().cancelTask(pregenProgressTaskId);
+        pregenProgressTaskId = -1;
+    }
+
+    private void schedulePregenRelease(long delayTicks) {
+        if (chunkPregenerator == null) return;
+        if (pregenReleaseTaskId != -1) Bukkit.getScheduler().cancelTask(pregenReleaseTaskId);
+        pregenReleaseTaskId = Bukkit.getScheduler().runTaskLater(this, this::releasePregeneratedChunks, delayTicks).getTaskId();
+    }
+
+    /**
+     * Stop any running pre-generation and drop the chunk tickets it holds.
+     */
+    private void releasePregeneratedChunks() {
+        if (pregenReleaseTaskId != -1) {
+            Bukkit.getScheduler().cancelTask(pregenReleaseTaskId);
+            pregenReleaseTaskId = -1;
+        }
+        if (chunkPregenerator != null) {
+            chunkPregenerator.releaseTickets();
+            chunkPregenerator = null;
+        }
+    }
+
+    /**
+     * Called when a player shows up in a world on this backend. Once players reach the
+     * pre-generated world its chunk tickets are released after a short settle delay, since the
+     * players' own view distance keeps the chunks they need loaded.
+     *
+     * @param worldName world the player is now in
+     */
+    public void onPlayerArrivedInWorld(String worldName) {
+        if (chunkPregenerator == null || !chunkPregenerator.getWorldName().equals(worldName)) return;
+        schedulePregenRelease(PREGEN_RELEASE_AFTER_ARRIVAL_TICKS);
+    }
+
+    /**
+     * @return true while spawn pre-generation is dispatching chunk requests
+     */
+    public boolean isPregenerating() {
+        return chunkPregenerator != null && chunkPregenerator.isRunning();
+    }
+
+    /**
+     * Describe the current spawn pre-generation run for status output.
+     *
+     * @return human-readable progress, or null when no run is tracked
+     */
+    public String getPregenerationStatus() {
+        var pregen = chunkPregenerator;
+        if (pregen == null) return null;
+        return pregen.getWorldName() + " " + Math.round(pregen.getProgress() * 100) + "% of " + pregen.getTotalChunks()
+                + " chunks" + (pregen.isPaused() ? " (paused: server busy)" : "");
+    }
+
+    /**
+     * Record a cycle stage that started at the given {@link System#nanoTime()} value and ends now.
+     *
+     * @param stage      stage that finished
+     * @param startNanos start timestamp
+     */
+    void recordCycleStage(CycleTimings.Stage stage, long startNanos) {
+        if (cycleTimings != null) cycleTimings.recordSince(stage, startNanos);
+    }
+
+    /**
+     * @return HMAC signer for the configured RPC secret
+     */
+    public RpcSigner getRpcSigner() {
+        return rpcSigner;
+    }
+
+    /**
+     * @return cycle requests accepted over HTTP, followed by the status endpoint
+     */
+    public CycleOperations getCycleOperations() {
+        return cycleOperations;
+    }
+
+    /**
+     * @return per-stage cycle timings, or null before the plugin is enabled
+     */
+    public CycleTimings getCycleTimings() {
+        return cycleTimings;
+    }
+
+    /**
+     * @return recent world archives, newest first (empty when archiving is disabled)
+     */
+    public List<WorldArchiver.Result> getArchiveResults() {
+        return worldDeletionService == null ? List.of() : worldDeletionService.getArchiveResults();
+    }
+
+    /**
+     * @return world folder deletion counters, or null before the plugin is enabled
+     */
+    public ParallelWorldDeleter.Stats getDeletionStats() {
+        return worldDeletionService == null ? null : worldDeletionService.getStats();
+    }
+
+    /**
+     * Capture the status served on {@code /health} and publish it when it changed. Runs on the main
+     * thread every tick.
+     *
+     * @param role configured server role
+     */
+    void refreshHealthSnapshot(String role) {
+        var pregen = chunkPregenerator;
+        var rpcRetry = rpcRetryEngine;
+        var transfers = transferScheduler;
+        var outbox = rpcOutbox;
+        var values = new HealthSnapshot.Values(
+                role,
+                cycleNumber.get(),
+                getCyclePhase(),
+                Bukkit.getOnlinePlayers().size(),
+                Math.round(ServerLoad.averageTickMillis() * 10.0) / 10.0,
+                rpcRetry == null ? 0 : rpcRetry.queued(),
+                outbox == null ? 0 : outbox.size(),
+                transfers == null ? 0 : transfers.getStats().queued(),
+                pendingLobbyMoves.size() + pendingHardcoreMoves.size(),
+                pregen != null && pregen.isRunning() ? Math.floor(pregen.getProgress() * 100.0) / 100.0 : null);
+        var current = healthSnapshot;
+        if (current == null || !current.values().equals(values)) healthSnapshot = new HealthSnapshot(values);
+    }
+
+    /**
+     * Bind the gauges exported on {@code /metrics} to this instance. Gauges are read on HTTP threads,
+     * so they only use thread-safe state or the main-thread health snapshot.
+     */
+    private void registerMetrics() {
+        var registry = Metrics.REGISTRY;
+        registry.gauge("hardcore_cycle_cycle_number", "Current cycle number.", cycleNumber::get);
+        registry.gauge("hardcore_cycle_players_online", "Online players.",
+                () -> healthValue(HealthSnapshot.Values::playersOnline));
+        registry.gauge("hardcore_cycle_mspt", "Average tick duration in milliseconds.",
+                () -> healthValue(HealthSnapshot.Values::mspt));
+        registry.gauge("hardcore_cycle_rpc_queue_depth", "RPCs waiting for delivery.",
+                () -> rpcRetryEngine == null ? 0 : rpcRetryEngine.queued(), "queue", "retry");
+        registry.gauge("hardcore_cycle_rpc_queue_depth", "RPCs waiting for delivery.",
+                () -> rpcOutbox == null ? 0 : rpcOutbox.size(), "queue", "plugin_message");
+        registry.gauge("hardcore_cycle_transfer_queue_depth", "Players waiting for a transfer wave.",
+                () -> healthValue(HealthSnapshot.Values::transferQueue));
+        registry.gauge("hardcore_cycle_pending_moves", "Players with a pending move on their next join.",
+                pendingLobbyMoves::size, "target", "lobby");
+        registry.gauge("hardcore_cycle_pending_moves", "Players with a pending move on their next join.",
+                pendingHardcoreMoves::size, "target", "hardcore");
+        registry.gauge("hardcore_cycle_deletions_active", "World folders currently being deleted.", () -> {
+            var stats = getDeletionStats();
+            return stats == null ? 0 : stats.activeDeletions();
+        });
+        registry.gauge("hardcore_cycle_deletion_last_bytes_per_second", "Throughput of the last finished world folder deletion.", () -> {
+            var stats = getDeletionStats();
+            return stats == null ? 0 : stats.lastBytesPerSecond();
+        });
+    }
+
+    private double healthValue(ToDoubleFunction<HealthSnapshot.Values> field) {
+        var snapshot = healthSnapshot;
+        return snapshot == null ? Double.NaN : field.applyAsDouble(snapshot.values());
+    }
+
+    /**
+     * @return latest status for {@code /health}, or null before the first tick after startup
+     */
+    public HealthSnapshot getHealthSnapshot() {
+        return healthSnapshot;
+    }
+
+    /**
+     * Describe the running cycle's phase for status output.
+     *
+     * @return phase name, or null on servers that do not run cycles
+     */
+    public String getCyclePhase() {
+        return cycleCoordinator == null ? null : cycleCoordinator.getPhase().name();
+    }
+
+    /**
+     * Return whether a cycle swap is currently running on this backend.
+     *
+     * @return true while the previous world drains and the new world is produced
+     */
+    public boolean isCycleInProgress() {
+        return cycleCoordinator != null && cycleCoordinator.isBusy();
+    }
+
+    /**
+     * Return whether a cycle has started and its lobby has not been notified yet.
+     *
+     * @return true in every coordinator phase except IDLE and READY
+     */
+    public boolean isCycleActive() {
+        return cycleCoordinator != null && cycleCoordinator.isActive();
+    }
+
     /**
      * Ensure the plugin data folder exists. If creation fails a warning is logged.
      */
@@ -533,62 +1064,108 @@ public class Main extends JavaPlugin implements Listener {
     }
 
     /**
-     * Load the cycle number from disk. If the file is missing or invalid this defaults to 1.
+     * Load the cycle number and stats from {@code state.json} and the pending moves from
+     * {@code pending_moves.log}. When {@code state.json} does not exist yet the files written by
+     * older versions ({@code cycles.json}, {@code stats.txt} and {@code pending_moves.json}) are
+     * imported and removed. An unreadable {@code state.json} is moved aside rather than overwritten.
      */
-    private void loadCycleNumber() {
+    private void loadState() {
+        ensureDataFolderExists();
         try {
-            ensureDataFolderExists();
-            if (!cycleFile.exists()) {
-                writeCycleFile(cycleNumber.get());
+            var state = stateStore.load();
+            if (state != null) {
+                cycleNumber.set(state.cycleNumber());
+                attemptsSinceLastWin.set(state.attemptsSinceLastWin());
+                totalWins.set(state.totalWins());
+                pendingLobbyMoves.clear();
+                pendingLobbyMoves.addAll(state.pendingLobbyMoves());
+                pendingHardcoreMoves.clear();
+                pendingHardcoreMoves.addAll(state.pendingHardcoreMoves());
                 return;
             }
-            try (var r = new BufferedReader(new FileReader(cycleFile))) {
-                String s = r.readLine();
-                if (s != null && !s.trim().isEmpty()) {
-                    int n = Integer.parseInt(s.trim());
-                    cycleNumber.set(n);
-                }
-            }
-        } catch (Exception e) {
-            LOG.warning("Failed to read cycle file, defaulting to 1: " + e.getMessage());
+        } catch (IOException e) {
+            LOG.severe("Failed to read " + stateFile.getName() + ": " + e.getMessage());
+            setStateFileAside();
+            // Without legacy files to import, defaults must not be written over the counters
+            if (!cycleFile.exists() && !statsFile.exists() && !pendingMovesFile.exists()) return;
+        }
+        readLegacyCycleNumber();
+        readLegacyStats();
+        readLegacyPendingMoves();
+        // Write the imported state before dropping the old files so nothing is lost on a failed write
+        stateStore.markDirty();
+        if (!stateStore.flush()) return;
+        for (var legacy : new File[]{cycleFile, statsFile, pendingMovesFile}) {
+            if (legacy.exists() && legacy.delete()) LOG.info("Imported " + legacy.getName() + " into " + stateFile.getName());
         }
     }
 
     /**
-     * Persist the given cycle number to the plugin data folder (cycles.json).
-     *
-     * @param n cycle number to write
+     * Move an unreadable {@code state.json} to {@code state.json.corrupt-<millis>} so the next write
+     * cannot destroy the counters it may still hold; they can be recovered from it by hand.
      */
-    private void writeCycleFile(int n) {
+    private void setStateFileAside() {
+        var aside = new File(stateFile.getParentFile(), stateFile.getName() + ".corrupt-" + System.currentTimeMillis());
         try {
-            ensureDataFolderExists();
-            try (var w = new BufferedWriter(new FileWriter(cycleFile))) {
-                w.write(String.valueOf(n));
+            Files.move(stateFile.toPath(), aside.toPath());
+            LOG.severe("Moved unreadable " + stateFile.getName() + " to " + aside.getName() + "; cycle number and stats restart from defaults.");
+        } catch (IOException e) {
+            LOG.severe("Could not move unreadable " + stateFile.getName() + " aside: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Capture the persisted state; runs on the state store's flusher thread.
+     *
+     * @return current cycle, stats and pending moves
+     */
+    private StateStore.State captureState() {
+        List<UUID> lobby;
+        List<UUID> hardcore;
+        synchronized (pendingLobbyMoves) {
+            lobby = new ArrayList<>(pendingLobbyMoves);
+        }
+        synchronized (pendingHardcoreMoves) {
+            hardcore = new ArrayList<>(pendingHardcoreMoves);
+        }
+        return new StateStore.State(cycleNumber.get(), attemptsSinceLastWin.get(), totalWins.get(), lobby, hardcore);
+    }
+
+    /**
+     * Schedule the current state for the next write-behind flush. Never blocks on disk.
+     */
+    private void markStateDirty() {
+        if (stateStore != null) stateStore.markDirty();
+    }
+
+    /**
+     * Read the cycle number from a legacy {@code cycles.json}, leaving it unchanged when the file is missing or invalid.
+     */
+    private void readLegacyCycleNumber() {
+        if (!cycleFile.exists()) return;
+        try (var r = new BufferedReader(new FileReader(cycleFile))) {
+            String s = r.readLine();
+            if (s != null && !s.trim().isEmpty()) {
+                cycleNumber.set(Integer.parseInt(s.trim()));
             }
         } catch (Exception e) {
-            LOG.severe("Unable to write cycle file: " + e.getMessage());
+            LOG.warning("Failed to read cycle file, defaulting to 1: " + e.getMessage());
         }
     }
 
     /**
-     * Load stats (attempts and wins) from disk. If the file is missing or invalid, defaults to 0.
+     * Read attempts and wins from a legacy {@code stats.txt}, leaving them unchanged when the file is missing or invalid.
      */
-    private void loadStats() {
-        try {
-            ensureDataFolderExists();
-            if (!statsFile.exists()) {
-                writeStatsFile();
-                return;
+    private void readLegacyStats() {
+        if (!statsFile.exists()) return;
+        try (var r = new BufferedReader(new FileReader(statsFile))) {
+            String attemptsLine = r.readLine();
+            String winsLine = r.readLine();
+            if (attemptsLine != null && !attemptsLine.trim().isEmpty()) {
+                attemptsSinceLastWin.set(Integer.parseInt(attemptsLine.trim()));
             }
-            try (var r = new BufferedReader(new FileReader(statsFile))) {
-                String attemptsLine = r.readLine();
-                String winsLine = r.readLine();
-                if (attemptsLine != null && !attemptsLine.trim().isEmpty()) {
-                    attemptsSinceLastWin.set(Integer.parseInt(attemptsLine.trim()));
-                }
-                if (winsLine != null && !winsLine.trim().isEmpty()) {
-                    totalWins.set(Integer.parseInt(winsLine.trim()));
-                }
+            if (winsLine != null && !winsLine.trim().isEmpty()) {
+                totalWins.set(Integer.parseInt(winsLine.trim()));
             }
         } catch (Exception e) {
             LOG.warning("Failed to read stats file, defaulting to 0: " + e.getMessage());
@@ -596,18 +1173,14 @@ public class Main extends JavaPlugin implements Listener {
     }
 
     /**
-     * Persist stats (attempts and wins) to the plugin data folder (stats.json).
+     * Read pending moves from a legacy {@code pending_moves.json}.
      */
-    private void writeStatsFile() {
+    private void readLegacyPendingMoves() {
+        if (!pendingMovesFile.exists()) return;
         try {
-            ensureDataFolderExists();
-            try (var w = new BufferedWriter(new FileWriter(statsFile))) {
-                w.write(String.valueOf(attemptsSinceLastWin.get()));
-                w.newLine();
-                w.write(String.valueOf(totalWins.get()));
-            }
+            PendingMovesStorage.load(pendingMovesFile, pendingLobbyMoves, pendingHardcoreMoves);
         } catch (Exception e) {
-            LOG.severe("Unable to write stats file: " + e.getMessage());
+            LOG.warning("Failed to load pending moves: " + e.getMessage());
         }
     }
 
@@ -741,7 +1314,7 @@ public class Main extends JavaPlugin implements Listener {
             if (switchDeadPlayerToSpectator(p)) {
                 // Fallback: mark pending move and wait for respawn
                 pendingLobbyMoves.add(p.getUniqueId());
-                savePendingMovesAsync();
+                markStateDirty();
                 LOG.info("Player " + p.getName() + " is dead; will send to lobby on respawn.");
                 return true;
             }
@@ -815,42 +1388,78 @@ public class Main extends JavaPlugin implements Listener {
              return false;
          }
 
+         String caller = requester instanceof org.bukkit.entity.Player ? ((org.bukkit.entity.Player) requester).getUniqueId().toString() : "console";
+         // One idempotency key per request: HTTP retries, queue replays and the plugin-message fallback all reuse it
+         RpcEnvelope envelope = "cycle-now".equals(action) ? RpcEnvelope.cycleNow(caller, targetCycleForRequest()) : RpcEnvelope.of(action, caller);
+
          // If configured, prefer HTTP forwarding (does not need a player). The config key server.hardcore_http_url
          // should be a full URL like http://hardcore-host:8080/rpc
          String hardcoreHttpUrl = cfg.getString("server.hardcore_http_url", "").trim();
          if (!hardcoreHttpUrl.isEmpty()) {
-             String caller = requester instanceof org.bukkit.entity.Player ? ((org.bukkit.entity.Player) requester).getUniqueId().toString() : "console";
-             String payload = "{\"action\":\"" + action + "\",\"caller\":\"" + caller + "\"}";
-             
-             try {
-                 String sig = RpcHttpUtil.computeHmacHex(rpcSecret, payload);
-                 
-                 // Use HttpRetryUtil for resilient HTTP POST with automatic retry and exponential backoff
-                 HttpRetryUtil.RetryConfig retryConfig = HttpRetryUtil.RetryConfig.defaults();
-                 HttpRetryUtil.HttpResult result = HttpRetryUtil.postWithRetry(hardcoreHttpUrl, payload, sig, retryConfig);
-                 
-                 if (result.success()) {
-                     LOG.info("Forwarded RPC via HTTP to " + hardcoreHttpUrl + " status=" + result.statusCode() + " (attempts=" + result.attempts() + ")");
-                     return true;
-                 } else {
-                     LOG.warning("HTTP RPC forward failed after " + result.attempts() + " attempts: " + result.errorMessage());
-                     // Save to persistent queue for retry on next startup or periodic retry
-                     enqueuePersistentRpc(payload.getBytes(java.nio.charset.StandardCharsets.UTF_8), action, caller);
+             byte[] payload = envelope.toJson().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+             String sig = rpcSigner.signHex(payload);
+             var breaker = backendHealth == null ? null : backendHealth.breaker();
+             if (breaker != null && !breaker.allowRequest()) {
+                 // Backend known to be down: queue for delivery on recovery instead of waiting out timeouts
+                 LOG.info("Hardcore backend unreachable (circuit open); queued RPC " + action + " without sending.");
+                 enqueuePersistentRpc(payload, action, caller);
+                 if (!forwardRpcViaPluginMessage(envelope)) {
+                     clearLastCycleRequester();
+                     clearCycleStartPending();
                  }
-             } catch (Exception e) {
-                 LOG.warning("HTTP RPC forward setup failed: " + e.getMessage());
-                 // Save to persistent queue for retry
-                 enqueuePersistentRpc(payload.getBytes(java.nio.charset.StandardCharsets.UTF_8), action, caller);
+                 return true;
              }
+             // Retries and backoff run off the main thread; only the fallback below needs to come back to it
+             HttpRetryUtil.postAsync(hardcoreHttpUrl, new String(payload, java.nio.charset.StandardCharsets.UTF_8), sig, HttpRetryUtil.RetryConfig.defaults())
+                     .thenAccept(result -> {
+                         if (breaker != null) {
+                             // A 4xx still proves the backend is up
+                             if (result.success() || result.statusCode() >= 400 && result.statusCode() < 500) breaker.recordSuccess();
+                             else breaker.recordFailure();
+                         }
+                         if (result.success()) {
+                             LOG.info("Forwarded RPC via HTTP to " + hardcoreHttpUrl + " status=" + result.statusCode() + " (attempts=" + result.attempts() + ")");
+                             return;
+                         }
+                         LOG.warning("HTTP RPC forward failed after " + result.attempts() + " attempts: " + result.errorMessage());
+                         // Save to persistent queue for retry on next startup or periodic retry
+                         enqueuePersistentRpc(payload, action, caller);
+                         Bukkit.getScheduler().runTask(this, () -> {
+                             if (!forwardRpcViaPluginMessage(envelope)) {
+                                 clearLastCycleRequester();
+                                 clearCycleStartPending();
+                             }
+                         });
+                     });
+             return true;
          }
 
-         // Determine player to send plugin message through
-         org.bukkit.entity.Player through = null;
-         if (requester instanceof org.bukkit.entity.Player) through = (org.bukkit.entity.Player) requester;
-         else {
-             for (org.bukkit.entity.Player p : Bukkit.getOnlinePlayers()) { through = p; break; }
-         }
-         if (through == null) {
+         return forwardRpcViaPluginMessage(envelope);
+     }
+
+    /**
+     * Cycle number a lobby cycle-now asks for: one past the backend's cycle as last seen by the
+     * health mirror. The backend uses it to recognise requests for a cycle that already started.
+     *
+     * @return target cycle, or null when the backend's cycle is not known
+     */
+    private Integer targetCycleForRequest() {
+        var health = getBackendHealth();
+        return health == null || health.cycleNumber() < 0 ? null : health.cycleNumber() + 1;
+    }
+
+    /**
+     * Forward an RPC through the BungeeCord plugin channel as a signed binary frame. The frame is
+     * batched with the other RPCs of this tick and kept until the backend acknowledges it. Needs an
+     * online player to carry the message; runs on the main thread.
+     *
+     * @param envelope RPC to forward; its idempotency key and cycle travel with it
+     * @return true if the message was queued for sending
+     */
+     private boolean forwardRpcViaPluginMessage(RpcEnvelope envelope) {
+         String action = envelope.action();
+         // Plugin messages travel over a player connection; any online player will do
+         if (Bukkit.getOnlinePlayers().isEmpty()) {
              LOG.warning("No online player to send plugin message; cannot forward RPC to hardcore.");
              return false;
          }
@@ -882,43 +1491,11 @@ public class Main extends JavaPlugin implements Listener {
             }
         }
 
-         try (java.io.ByteArrayOutputStream payloadStream = new java.io.ByteArrayOutputStream();
-              java.io.DataOutputStream payloadOut = new java.io.DataOutputStream(payloadStream)) {
-             String caller = requester instanceof org.bukkit.entity.Player ? ((org.bukkit.entity.Player) requester).getUniqueId().toString() : "console";
-             String payload = "rpc::" + (rpcSecret == null ? "" : rpcSecret) + "::" + action + "::" + caller;
-             payloadOut.writeUTF(payload);
-             payloadOut.flush();
-             byte[] payloadBytes = payloadStream.toByteArray();
-
-             // Build Bungee Forward packet: subchannel Forward, target server, channel, short length, data
-             try (java.io.ByteArrayOutputStream outStream = new java.io.ByteArrayOutputStream();
-                  java.io.DataOutputStream out = new java.io.DataOutputStream(outStream)) {
-                 out.writeUTF("Forward");
-                 out.writeUTF(hardcoreServerName);
-                 out.writeUTF(RPC_CHANNEL);
-                 out.writeShort(payloadBytes.length);
-                 out.write(payloadBytes);
-                 out.flush();
-                 // Attempt immediate send; if it fails due to unregistered channel, enqueue the packet for retry
-                 try {
-                    through.sendPluginMessage(this, "BungeeCord", outStream.toByteArray());
-                } catch (IllegalArgumentException iae) {
-                    LOG.warning("Send failed due to unregistered channel; enqueueing RPC for retry: " + iae.getMessage());
-                    enqueueOutboundRpc(outStream.toByteArray());
-                    return true; // treat as accepted (queued)
-                } catch (Exception ex) {
-                    LOG.warning("Send failed; enqueueing RPC for retry: " + ex.getMessage());
-                    enqueueOutboundRpc(outStream.toByteArray());
-                    return true;
-                }
-             }
-
-             LOG.info("Forwarded RPC action '" + action + "' to hardcore server: " + hardcoreServerName);
-             return true;
-         } catch (Exception e) {
-             LOG.warning("Failed to forward RPC to hardcore: " + e.getMessage());
-             return false;
-         }
+         // Sent with whatever else is queued this tick; retransmitted by the periodic flush until acknowledged
+         rpcOutbox.submit(envelope);
+         scheduleRpcOutboxFlush();
+         LOG.info("Queued RPC action '" + action + "' for hardcore server " + hardcoreServerName + " (unacknowledged=" + rpcOutbox.size() + ")");
+         return true;
      }
 
     /**
@@ -931,7 +1508,7 @@ public class Main extends JavaPlugin implements Listener {
             if (switchDeadPlayerToSpectator(p)) {
                 // Fallback: mark pending move and wait for respawn
                 pendingHardcoreMoves.add(p.getUniqueId());
-                savePendingMovesAsync();
+                markStateDirty();
                 LOG.info("Player " + p.getName() + " is dead; will move to hardcore on respawn.");
                 return true;
             }
@@ -964,24 +1541,21 @@ public class Main extends JavaPlugin implements Listener {
         }
     }
 
-    /**
-     * Enqueue an outbound RPC packet for later delivery when Bungee channel/player is available.
-     */
-    private synchronized void enqueueOutboundRpc(byte[] packet) {
-        if (packet == null || packet.length == 0) return;
-        if (outboundRpcQueue.size() >= MAX_RPC_QUEUE) {
-            outboundRpcQueue.pollFirst();
-            LOG.warning("Outbound RPC queue full; dropping oldest message.");
-        }
-        outboundRpcQueue.addLast(packet);
-        LOG.info("Enqueued outbound RPC; queue size=" + outboundRpcQueue.size());
+    private void scheduleRpcOutboxFlush() {
+        if (rpcFlushScheduled) return;
+        rpcFlushScheduled = true;
+        Bukkit.getScheduler().runTask(this, () -> {
+            rpcFlushScheduled = false;
+            flushRpcOutbox();
+        });
     }
 
     /**
-     * Attempt to drain queued outbound RPC packets. Runs on the main thread via scheduler.
+     * Send the plugin-message RPCs that are due (new, or unacknowledged past the retransmit
+     * interval) in as few Forward packets as possible. Runs on the main thread via scheduler.
      */
-    private synchronized void drainRpcQueue() {
-        if (outboundRpcQueue.isEmpty()) return;
+    private void flushRpcOutbox() {
+        if (rpcOutbox.size() == 0) return;
         // ensure outgoing channel
         try {
             if (!registeredBungeeChannel && getServer() != null) {
@@ -991,7 +1565,7 @@ public class Main extends JavaPlugin implements Listener {
                 registeredBungeeChannel = getServer().getMessenger().isOutgoingChannelRegistered(this, "BungeeCord");
             }
         } catch (Exception e) {
-            LOG.warning("Periodic RPC drain: failed to ensure Bungee outgoing channel: " + e.getMessage());
+            LOG.warning("Periodic RPC flush: failed to ensure Bungee outgoing channel: " + e.getMessage());
             return;
         }
 
@@ -1001,150 +1575,246 @@ public class Main extends JavaPlugin implements Listener {
         for (org.bukkit.entity.Player p : Bukkit.getOnlinePlayers()) { through = p; break; }
         if (through == null) return;
 
-        while (!outboundRpcQueue.isEmpty()) {
-            byte[] pkt = outboundRpcQueue.peekFirst();
-            if (pkt == null) { outboundRpcQueue.pollFirst(); continue; }
+        long now = System.currentTimeMillis();
+        RpcOutbox.Outgoing batch;
+        while ((batch = rpcOutbox.nextBatch(now, rpcSigner)) != null) {
             try {
-                through.sendPluginMessage(this, "BungeeCord", pkt);
-                outboundRpcQueue.pollFirst();
-                LOG.info("Delivered queued RPC; remaining=" + outboundRpcQueue.size());
+                through.sendPluginMessage(this, "BungeeCord", forwardPacket(hardcoreServerName, batch.packet()));
+                LOG.fine("Forwarded " + batch.seqs().size() + " RPC frame(s) to " + hardcoreServerName + "; unacknowledged=" + rpcOutbox.size());
             } catch (Exception e) {
-                LOG.warning("Failed to send queued RPC during drain: " + e.getMessage());
+                rpcOutbox.sendFailed(batch);
+                LOG.warning("Failed to send queued RPCs: " + e.getMessage());
                 break; // stop on first failure
             }
         }
     }
 
     /**
-     * Enqueue a failed RPC to the persistent queue for retry on next startup.
-     * This ensures RPC messages are not lost during server restarts.
+     * Build a BungeeCord Forward packet: subchannel Forward, target server, channel, short length, data.
      */
-    private synchronized void enqueuePersistentRpc(byte[] payload, String action, String caller) {
-        if (payload == null || payload.length == 0) return;
-        if (persistentRpcQueue.size() >= MAX_PERSISTENT_RPC_QUEUE) {
-            persistentRpcQueue.remove(0);
-            LOG.warning("Persistent RPC queue full; dropping oldest message.");
+    private static byte[] forwardPacket(String target, byte[] data) throws java.io.IOException {
+        try (java.io.ByteArrayOutputStream outStream = new java.io.ByteArrayOutputStream();
+             java.io.DataOutputStream out = new java.io.DataOutputStream(outStream)) {
+            out.writeUTF("Forward");
+            out.writeUTF(target);
+            out.writeUTF(RPC_CHANNEL);
+            out.writeShort(data.length);
+            out.write(data);
+            out.flush();
+            return outStream.toByteArray();
         }
-        long timestamp = java.time.Instant.now().getEpochSecond();
-        RpcQueueStorage.QueuedRpc rpc = new RpcQueueStorage.QueuedRpc(payload, action, caller, timestamp, 0);
-        persistentRpcQueue.add(rpc);
-        LOG.info("Enqueued persistent RPC; queue size=" + persistentRpcQueue.size());
-        // Save immediately to ensure it survives unexpected shutdown
-        savePersistentRpcQueue();
     }
 
     /**
-     * Load persistent RPC queue from disk on startup.
+     * Acknowledge RPC frames received from a lobby (hardcore only). The ack is Forwarded through
+     * the player that carried the frames to {@code lobby.server}, or to all servers when that is
+     * not configured; lobbies ignore acks for sessions other than their own.
+     *
+     * @param through player connection the frames arrived on
+     * @param ack     signed ack packet
      */
-    private void loadPersistentRpcQueue() {
-        if (persistentRpcQueueFile == null || !persistentRpcQueueFile.exists()) {
-            LOG.info("No persistent RPC queue file found; starting with empty queue.");
-            return;
-        }
-        List<RpcQueueStorage.QueuedRpc> loaded = RpcQueueStorage.load(persistentRpcQueueFile);
-        persistentRpcQueue.addAll(loaded);
-        LOG.info("Loaded " + loaded.size() + " persistent RPCs from disk.");
-        
-        // Start periodic retry task if we have queued messages
-        if (!persistentRpcQueue.isEmpty()) {
-            schedulePeriodicRpcRetry();
+    public void sendRpcAck(org.bukkit.entity.Player through, byte[] ack) {
+        if (through == null) return;
+        String target = lobbyServer == null || lobbyServer.isEmpty() ? "ALL" : lobbyServer;
+        try {
+            through.sendPluginMessage(this, "BungeeCord", forwardPacket(target, ack));
+        } catch (Exception e) {
+            // The lobby retransmits; the frames are recognised and acked again
+            LOG.warning("Failed to acknowledge RPC frames: " + e.getMessage());
         }
     }
 
     /**
-     * Save persistent RPC queue to disk.
+     * Drop plugin-message RPCs the backend acknowledged (lobby only).
+     *
+     * @param ack acknowledgement received on the RPC channel
      */
-    private void savePersistentRpcQueue() {
-        if (persistentRpcQueueFile == null) return;
-        RpcQueueStorage.save(persistentRpcQueueFile, new ArrayList<>(persistentRpcQueue));
+    public void handleRpcAck(RpcFrameCodec.Ack ack) {
+        int removed = rpcOutbox.acknowledge(ack);
+        if (removed > 0) LOG.fine("Backend acknowledged " + removed + " RPC frame(s); unacknowledged=" + rpcOutbox.size());
     }
 
     /**
-     * Schedule periodic retry of persistent RPC queue.
-     * Runs every 60 seconds to attempt delivery of failed RPCs.
+     * Hand a failed RPC to the retry engine, which persists it and retries it in the background.
+     * This ensures RPC messages are not lost during server restarts.
      */
-    private void schedulePeriodicRpcRetry() {
-        // Cancel existing task if any
-        if (persistentRpcRetryTaskId != -1) {
-            Bukkit.getScheduler().cancelTask(persistentRpcRetryTaskId);
-            LOG.info("Cancelled existing RPC retry task.");
-        }
-        
-        // Schedule task to run every 60 seconds
-        persistentRpcRetryTaskId = Bukkit.getScheduler().runTaskTimer(this, this::retryPersistentRpcQueue, PERSISTENT_RPC_RETRY_INTERVAL_TICKS, PERSISTENT_RPC_RETRY_INTERVAL_TICKS).getTaskId();
-        LOG.info("Scheduled periodic RPC retry task (every 60 seconds).");
+    private void enqueuePersistentRpc(byte[] payload, String action, String caller) {
+        if (rpcRetryEngine != null) rpcRetryEngine.enqueue(payload, action, caller);
     }
 
     /**
-     * Attempt to retry RPCs from the persistent queue.
+     * Create the persistent RPC retry engine and load the queue saved by the previous run.
      */
-    private synchronized void retryPersistentRpcQueue() {
-        if (persistentRpcQueue.isEmpty()) return;
-        
+    private void initRpcRetryEngine() {
         String hardcoreHttpUrl = cfg.getString("server.hardcore_http_url", "").trim();
-        if (hardcoreHttpUrl.isEmpty()) {
-            LOG.fine("No hardcore HTTP URL configured; skipping persistent RPC retry.");
+        var settings = new RpcRetryEngine.Settings(
+                cfg.getInt("rpc_retry.max_concurrent", 4),
+                cfg.getLong("rpc_retry.base_backoff_seconds", 5L) * 1000L,
+                cfg.getLong("rpc_retry.max_backoff_seconds", 300L) * 1000L,
+                cfg.getLong("rpc_retry.health_poll_seconds", 10L) * 1000L,
+                MAX_PERSISTENT_RPC_QUEUE);
+        boolean existed = persistentRpcQueueFile.exists();
+        var log = new RpcQueueLog(persistentRpcQueueFile);
+        if (legacyRpcQueueFile.exists()) {
+            // Queues written by older versions move into the log once
+            var legacy = RpcQueueStorage.load(legacyRpcQueueFile);
+            for (var rpc : legacy) log.append(rpc);
+            log.sync();
+            if (legacyRpcQueueFile.delete()) LOG.info("Imported " + legacy.size() + " queued RPCs from " + legacyRpcQueueFile.getName());
+            existed = true;
+        }
+        // With a health mirror the engine is flushed when the circuit closes instead of probing on its own
+        String healthUrl = backendHealth != null ? null : RpcHttpUtil.healthUrlFor(hardcoreHttpUrl);
+        rpcRetryEngine = new RpcRetryEngine(hardcoreHttpUrl, healthUrl, rpcSigner, log, settings);
+        if (backendHealth != null) backendHealth.breaker().onClose(rpcRetryEngine::flush);
+        if (!existed) {
+            LOG.info("No persistent RPC queue file found; starting with empty queue.");
             return;
         }
+        if (hardcoreHttpUrl.isEmpty()) LOG.fine("No hardcore HTTP URL configured; persistent RPCs are kept but not retried.");
+        rpcRetryEngine.load();
+    }
 
-        LOG.info("Retrying " + persistentRpcQueue.size() + " persistent RPCs...");
-        var toRemove = new ArrayList<RpcQueueStorage.QueuedRpc>();
-        var toUpdate = new ArrayList<RpcQueueStorage.QueuedRpc>();
-        
-        for (var rpc : persistentRpcQueue) {
-            if (rpc.isExpired()) {
-                toRemove.add(rpc);
-                LOG.info("Removing expired RPC: action=" + rpc.action());
-                continue;
-            }
+    /**
+     * Start mirroring the hardcore backend's health (lobby with an HTTP RPC URL only). When the
+     * circuit closes again, queued RPCs are flushed and waiting lobby players get a new auto-start check.
+     */
+    private void initBackendHealth() {
+        if (isHardcoreBackend) return;
+        String healthUrl = hardcoreHealthUrl();
+        if (healthUrl == null) return;
+        var breaker = new CircuitBreaker(
+                cfg.getInt("backend_health.failure_threshold", 3),
+                cfg.getLong("backend_health.open_seconds", 30L) * 1000L);
+        backendHealth = new BackendHealthMirror(healthUrl, breaker, cfg.getLong("backend_health.poll_seconds", 5L) * 1000L);
+        breaker.onClose(() -> {
+            if (cfg.getBoolean("behavior.auto_start_cycles", true)) Bukkit.getScheduler().runTask(this, this::checkAndAutoStartCycle);
+        });
+        backendHealth.start();
+    }
 
-            try {
-                String payload = new String(rpc.payload(), java.nio.charset.StandardCharsets.UTF_8);
-                String sig = RpcHttpUtil.computeHmacHex(rpcSecret, payload);
-                
-                var retryConfig = HttpRetryUtil.RetryConfig.noRetry();
-                var result = HttpRetryUtil.postWithRetry(hardcoreHttpUrl, payload, sig, retryConfig);
-                
-                if (result.success()) {
-                    LOG.info("Persistent RPC retry succeeded: action=" + rpc.action());
-                    toRemove.add(rpc);
-                } else {
-                    LOG.fine("Persistent RPC retry failed: action=" + rpc.action() + " - will retry later");
-                    // Mark for attempt count update
-                    toUpdate.add(rpc);
-                }
-            } catch (Exception e) {
-                LOG.warning("Error retrying persistent RPC: " + e.getMessage());
-            }
+    /**
+     * Hardcore: create the event bus served on {@code /events}. Lobby: subscribe to the backend's
+     * stream (derived from {@code server.hardcore_http_url}) and react to its events.
+     */
+    private void initCycleEvents() {
+        if (!cfg.getBoolean("events.enabled", true)) return;
+        if (isHardcoreBackend) {
+            cycleEvents = new CycleEventBus(Math.max(1, cfg.getInt("events.replay_size", 256)));
+            return;
         }
+        String eventsUrl = RpcHttpUtil.endpointUrlFor(cfg.getString("server.hardcore_http_url", ""), "/events");
+        if (eventsUrl == null) return;
+        cycleEventSubscriber = new CycleEventSubscriber(eventsUrl, this::onBackendEvent);
+        cycleEventSubscriber.start();
+    }
 
-        // Apply updates in a single pass
-        for (var rpc : toUpdate) {
-            int index = persistentRpcQueue.indexOf(rpc);
-            if (index >= 0) {
-                persistentRpcQueue.set(index, rpc.withIncrementedAttempts());
+    /**
+     * @return event bus served on {@code /events}, or null on lobbies and when events are disabled
+     */
+    public CycleEventBus getCycleEvents() {
+        return cycleEvents;
+    }
+
+    /**
+     * Publish a cycle event to subscribed lobbies. Does nothing when this server has no event bus.
+     *
+     * @param type event name
+     * @param data event payload
+     */
+    public void publishCycleEvent(String type, Map<String, ?> data) {
+        if (cycleEvents != null) cycleEvents.publish(type, data);
+    }
+
+    /**
+     * React to an event from the backend's stream (lobby only). Called on the stream thread.
+     */
+    private void onBackendEvent(CycleEventSubscriber.Event event) {
+        com.google.gson.JsonObject data;
+        try {
+            data = com.google.gson.JsonParser.parseString(event.data()).getAsJsonObject();
+        } catch (RuntimeException e) {
+            data = new com.google.gson.JsonObject();
+        }
+        int cycle = data.has("cycle") ? data.get("cycle").getAsInt() : -1;
+        switch (event.type()) {
+            case "world-ready" -> Bukkit.getScheduler().runTask(this, () -> {
+                if (seenWorldReady(cycle)) return;
+                LOG.info("Backend reports world for cycle #" + cycle + " ready; scheduling lobby countdown to move players to hardcore.");
+                scheduleCountdownThenMovePlayersToHardcore(getCountdownSendToHardcoreSeconds());
+            });
+            case "phase" -> LOG.fine("Backend cycle #" + cycle + " entered " + (data.has("phase") ? data.get("phase").getAsString() : "?") + ".");
+            case "progress" -> {
+                if (!cfg.getBoolean("features.actionbar", true)) return;
+                int percent = data.has("progress") ? (int) Math.round(data.get("progress").getAsDouble() * 100.0) : 0;
+                var bar = Component.text("Generating world #" + cycle + ": " + percent + "%", NamedTextColor.GRAY);
+                Bukkit.getScheduler().runTask(this, () -> Bukkit.getOnlinePlayers().forEach(p -> p.sendActionBar(bar)));
+            }
+            case "death" -> {
+                String player = data.has("player") ? data.get("player").getAsString() : "A player";
+                var msg = Component.text("☠ " + player + " died in cycle #" + cycle, NamedTextColor.RED);
+                Bukkit.getScheduler().runTask(this, () -> Bukkit.getOnlinePlayers().forEach(p -> p.sendMessage(msg)));
+            }
+            case "dragon" -> {
+                String killer = data.has("killer") ? data.get("killer").getAsString() : "Unknown Hero";
+                var msg = Component.text("The Ender Dragon was defeated in cycle #" + cycle + " by " + killer + "!", NamedTextColor.GOLD);
+                Bukkit.getScheduler().runTask(this, () -> Bukkit.getOnlinePlayers().forEach(p -> p.sendMessage(msg)));
             }
+            case "reset" -> LOG.info("Missed some backend events while disconnected; continuing with the oldest still available.");
+            default -> { }
         }
+    }
 
-        persistentRpcQueue.removeAll(toRemove);
-        if (!toRemove.isEmpty() || !toUpdate.isEmpty()) {
-            savePersistentRpcQueue();
-            LOG.info("Removed " + toRemove.size() + " RPCs from persistent queue; " + persistentRpcQueue.size() + " remaining.");
-        }
+    /**
+     * Record a world-ready notification. The backend announces each ready world both on its event
+     * stream and with a POST; whichever arrives first moves players. Runs on the main thread.
+     *
+     * @param cycle cycle whose world is ready, or null/negative when the sender did not say
+     * @return true when this cycle's world-ready was already handled
+     */
+    public boolean seenWorldReady(Integer cycle) {
+        if (cycle == null || cycle < 0) return false;
+        if (cycle <= lastWorldReadyCycle) return true;
+        lastWorldReadyCycle = cycle;
+        return false;
+    }
+
+    /**
+     * @return cached hardcore backend health, or null when this server does not mirror it
+     */
+    public BackendHealthMirror.Snapshot getBackendHealth() {
+        return backendHealth == null ? null : backendHealth.snapshot();
+    }
+
+    /**
+     * @return state of the circuit breaker guarding RPCs to the hardcore backend, or null when there is none
+     */
+    public CircuitBreaker.State getBackendCircuitState() {
+        return backendHealth == null ? null : backendHealth.breaker().state();
+    }
+
+    /**
+     * @return persistent RPC retry engine, or null before the plugin is enabled
+     */
+    public RpcRetryEngine getRpcRetryEngine() {
+        return rpcRetryEngine;
     }
 
     /**
-     * Notify configured lobby HTTP endpoint that a world is ready. Fire-and-forget.
+     * Notify configured lobby HTTP endpoint that a world is ready. The POST and its retries run off
+     * the main thread.
+     *
+     * @return future completed once the notification was delivered, failed or skipped
      */
-    private void notifyLobbyWorldReady(int cycle) {
-        if (cfg == null) return;
+    private CompletableFuture<Void> notifyLobbyWorldReady(int cycle) {
+        if (cfg == null) return CompletableFuture.completedFuture(null);
         String lobbyUrl = cfg.getString("server.lobby_http_url", "").trim();
         if (lobbyUrl.isEmpty()) {
             LOG.info("No lobby_http_url configured; skipping world-ready notification.");
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         
-        String payload = "{\"action\":\"world-ready\",\"cycle\":" + cycle + "}";
+        String payload = RpcEnvelope.worldReady(cycle).toJson();
         // Avoid notifying ourself: if lobbyUrl points to our own embedded HTTP listener, skip the POST.
         try {
             java.net.URL parsed = new java.net.URL(lobbyUrl);
@@ -1153,27 +1823,20 @@ public class Main extends JavaPlugin implements Listener {
             boolean isLoopback = "localhost".equalsIgnoreCase(host) || "127.0.0.1".equals(host) || host.equals(java.net.InetAddress.getLocalHost().getHostAddress());
             if (isLoopback && httpRpcServer != null && port == configuredHttpPort) {
                 LOG.info("Lobby URL points to this server's own HTTP listener; skipping HTTP notify to avoid self-delivery: " + lobbyUrl);
-                return;
+                return CompletableFuture.completedFuture(null);
             }
         } catch (Exception e) {
             // ignore URL parse errors and continue attempting to notify
         }
 
-        try {
-            String sig = RpcHttpUtil.computeHmacHex(rpcSecret, payload);
-            
-            // Use HttpRetryUtil for resilient HTTP POST with retry
-            HttpRetryUtil.RetryConfig retryConfig = HttpRetryUtil.RetryConfig.defaults();
-            HttpRetryUtil.HttpResult result = HttpRetryUtil.postWithRetry(lobbyUrl, payload, sig, retryConfig);
-            
+        String sig = rpcSigner.signHex(payload.getBytes(java.nio.charset.StandardCharsets.UTF_8));
+        return HttpRetryUtil.postAsync(lobbyUrl, payload, sig, HttpRetryUtil.RetryConfig.defaults()).thenAccept(result -> {
             if (result.success()) {
                 LOG.info("Notified lobby of world-ready: " + lobbyUrl + " status=" + result.statusCode() + " (attempts=" + result.attempts() + ")");
             } else {
                 LOG.warning("Failed to notify lobby of world-ready after " + result.attempts() + " attempts: " + result.errorMessage());
             }
-        } catch (Exception e) {
-            LOG.warning("Failed to notify lobby of world-ready: " + e.getMessage());
-        }
+        });
     }
 
      /**
@@ -1181,6 +1844,41 @@ public class Main extends JavaPlugin implements Listener {
       */
      public String getHardcoreServerName() { return hardcoreServerName; }
 
+    /**
+     * Hand players to the transfer scheduler so they are released in waves. Falls back to
+     * transferring everyone immediately when the scheduler is not running.
+     *
+     * @param players   players to transfer
+     * @param target    destination label for logs
+     * @param healthUrl destination health endpoint used to adapt the release rate (may be null)
+     * @param transfer  action moving a single player
+     */
+    private void transferPlayers(Collection<? extends Player> players, String target, String healthUrl, java.util.function.Consumer<Player> transfer) {
+        if (players == null || players.isEmpty()) return;
+        if (transferScheduler == null) {
+            players.forEach(p -> { if (p != null) transfer.accept(p); });
+            return;
+        }
+        transferScheduler.enqueue(players, target, healthUrl, transfer);
+    }
+
+    private String lobbyHealthUrl() {
+        return cfg == null ? null : RpcHttpUtil.healthUrlFor(cfg.getString("server.lobby_http_url", ""));
+    }
+
+    private String hardcoreHealthUrl() {
+        return cfg == null ? null : RpcHttpUtil.healthUrlFor(cfg.getString("server.hardcore_http_url", ""));
+    }
+
+    /**
+     * Return transfer wave counters for status output.
+     *
+     * @return current stats, or null when the transfer scheduler is not running
+     */
+    public TransferScheduler.Stats getTransferStats() {
+        return transferScheduler == null ? null : transferScheduler.getStats();
+    }
+
     /**
      * Schedule a countdown in chat for the provided players, then send them to the lobby when it elapses.
      * The countdown runs on the main server thread and sends a message every second.
@@ -1189,7 +1887,7 @@ public class Main extends JavaPlugin implements Listener {
         if (players == null) return;
         if (players.isEmpty() || seconds <= 0) {
             // immediate send for zero/invalid durations
-            players.forEach(this::sendPlayerToLobby);
+            transferPlayers(players, "lobby", lobbyHealthUrl(), this::sendPlayerToLobby);
             return;
         }
         // Determine effective target players based on broadcast config and last requester
@@ -1203,27 +1901,33 @@ public class Main extends JavaPlugin implements Listener {
         }
         // Add all targets to pending moves so respawn will trigger a move if they're dead when countdown ends
         targets.forEach(p -> { if (p != null) pendingLobbyMoves.add(p.getUniqueId()); });
-        savePendingMovesAsync();
+        markStateDirty();
         final int total = seconds;
         // Create static title component once outside the loop for reuse
         final Component lobbyTitleStatic = Component.text("Returning to Lobby", NamedTextColor.YELLOW);
         final Title.Times titleTimes = createCountdownTitleTimes();
+        final long countdownStarted = System.nanoTime();
         new org.bukkit.scheduler.BukkitRunnable() {
              int remaining = total;
              @Override
              public void run() {
                  if (remaining <= 0) {
+                    recordCycleStage(CycleTimings.Stage.COUNTDOWN_TO_LOBBY, countdownStarted);
+                    var ready = new ArrayList<Player>();
                     for (var p : targets) {
                          if (p == null) continue;
                          if (p.isDead()) {
                              // keep in pending set and wait for respawn
                              LOG.info("Player " + p.getName() + " still dead at countdown end; will move on respawn.");
                          } else {
-                             pendingLobbyMoves.remove(p.getUniqueId());
-                             savePendingMovesAsync();
-                             sendPlayerToLobby(p);
+                             ready.add(p);
                          }
                      }
+                    transferPlayers(ready, "lobby", lobbyHealthUrl(), p -> {
+                        pendingLobbyMoves.remove(p.getUniqueId());
+                        markStateDirty();
+                        sendPlayerToLobby(p);
+                    });
                      clearLastCycleRequester();
                      cancel();
                       return;
@@ -1259,10 +1963,10 @@ public class Main extends JavaPlugin implements Listener {
             return;
         }
         if (seconds <= 0) {
-            for (var p : Bukkit.getOnlinePlayers()) {
+            transferPlayers(Bukkit.getOnlinePlayers(), target, hardcoreHealthUrl(), p -> {
                 showCycleStartTitle(p);
                 sendPlayerToServer(p, target);
-            }
+            });
             return;
         }
         // Determine targets depending on broadcast config and last requester
@@ -1282,27 +1986,33 @@ public class Main extends JavaPlugin implements Listener {
         }
         // Mark targets as pending hardcore moves
         targets.forEach(p -> { if (p != null) pendingHardcoreMoves.add(p.getUniqueId()); });
-        savePendingMovesAsync();
+        markStateDirty();
         final int total = seconds;
         // Create static title component once outside the loop for reuse
         final Component hardcoreTitleStatic = Component.text("Entering Hardcore", NamedTextColor.RED);
         final Title.Times titleTimes = createCountdownTitleTimes();
+        final long countdownStarted = System.nanoTime();
         new org.bukkit.scheduler.BukkitRunnable() {
             int remaining = total;
             @Override
             public void run() {
                 if (remaining <= 0) {
+                    recordCycleStage(CycleTimings.Stage.LOBBY_COUNTDOWN, countdownStarted);
+                    var ready = new ArrayList<Player>();
                     for (var p : targets) {
                         if (p == null) continue;
                         if (p.isDead()) {
                             LOG.info("Player " + p.getName() + " still dead at hardcore countdown end; will move on respawn.");
                         } else {
-                            pendingHardcoreMoves.remove(p.getUniqueId());
-                            savePendingMovesAsync();
-                            showCycleStartTitle(p);
-                            sendPlayerToServer(p, target);
+                            ready.add(p);
                         }
                     }
+                    transferPlayers(ready, target, hardcoreHealthUrl(), p -> {
+                        pendingHardcoreMoves.remove(p.getUniqueId());
+                        markStateDirty();
+                        showCycleStartTitle(p);
+                        sendPlayerToServer(p, target);
+                    });
                     clearLastCycleRequester();
                     cancel();
                      return;
@@ -1356,49 +2066,13 @@ public class Main extends JavaPlugin implements Listener {
         }
     }
 
-    /**
-     * Persist pending move sets to disk synchronously.
-     */
-    private synchronized void savePendingMoves() {
-        try {
-            ensureDataFolderExists();
-            if (pendingMovesFile == null) pendingMovesFile = new File(getDataFolder(), "pending_moves.json");
-            PendingMovesStorage.save(pendingMovesFile, pendingLobbyMoves, pendingHardcoreMoves);
-        } catch (Exception e) {
-            LOG.warning("Failed to persist pending moves: " + e.getMessage());
-        }
-    }
-
-    /**
-     * Persist pending moves asynchronously to avoid blocking main thread.
-     */
-    private void savePendingMovesAsync() {
-        // run async to file
-        Bukkit.getScheduler().runTaskAsynchronously(this, this::savePendingMoves);
-    }
-
-    /**
-     * Load pending moves from disk if present.
-     */
-    private synchronized void loadPendingMoves() {
-        try {
-            ensureDataFolderExists();
-            if (pendingMovesFile == null) pendingMovesFile = new File(getDataFolder(), "pending_moves.json");
-            if (!pendingMovesFile.exists()) return;
-            pendingLobbyMoves.clear(); pendingHardcoreMoves.clear();
-            PendingMovesStorage.load(pendingMovesFile, pendingLobbyMoves, pendingHardcoreMoves);
-        } catch (Exception e) {
-            LOG.warning("Failed to load pending moves: " + e.getMessage());
-        }
-    }
-
     /**
      * Clear any pending moves for a given player (used on quit).
      */
     public void clearPendingFor(UUID id) {
         if (id == null) return;
         boolean changed = pendingLobbyMoves.remove(id) | pendingHardcoreMoves.remove(id);
-        if (changed) savePendingMovesAsync();
+        if (changed) markStateDirty();
     }
 
     /**
@@ -1419,7 +2093,7 @@ public class Main extends JavaPlugin implements Listener {
     public void addPendingLobbyMove(UUID id) {
         if (id == null) return;
         pendingLobbyMoves.add(id);
-        savePendingMovesAsync();
+        markStateDirty();
     }
 
     /**
@@ -1429,7 +2103,7 @@ public class Main extends JavaPlugin implements Listener {
     public void addPendingHardcoreMove(UUID id) {
         if (id == null) return;
         pendingHardcoreMoves.add(id);
-        savePendingMovesAsync();
+        markStateDirty();
     }
 
     /**
@@ -1473,7 +2147,7 @@ public class Main extends JavaPlugin implements Listener {
                  } catch (Exception ex) { LOG.warning("Error while processing pending hardcore move: " + ex.getMessage()); }
              }
 
-             if (changed) savePendingMovesAsync();
+             if (changed) markStateDirty();
          });
      }
 
@@ -1497,7 +2171,11 @@ public class Main extends JavaPlugin implements Listener {
     public void recordDragonKill() {
         totalWins.incrementAndGet();
         attemptsSinceLastWin.set(0);
-        writeStatsFile();
+        // Keep the winning world when archive mode is enabled
+        if (isHardcoreBackend && worldDeletionService != null) {
+            worldDeletionService.markForArchive("hardcore_cycle_" + cycleNumber.get());
+        }
+        markStateDirty();
         updateScoreboard();
         LOG.info("Dragon kill recorded! Total wins: " + totalWins.get() + ", attempts reset to 0.");
     }
@@ -1547,6 +2225,21 @@ public class Main extends JavaPlugin implements Listener {
             return;
         }
 
+        // Decide from the cached backend health; no network I/O happens here
+        if (backendHealth != null) {
+            if (backendHealth.breaker().state() == CircuitBreaker.State.OPEN) {
+                LOG.info("Hardcore backend unreachable, skipping auto-start until it recovers.");
+                cycleStartPending.set(false);
+                return;
+            }
+            var health = backendHealth.snapshot();
+            if (health.cycleInProgress()) {
+                LOG.info("Hardcore backend is already preparing cycle #" + health.cycleNumber() + " (" + health.phase() + "), skipping auto-start.");
+                cycleStartPending.set(false);
+                return;
+            }
+        }
+
         // Check if there are players waiting in lobby
         long playersInLobby = Bukkit.getOnlinePlayers().stream()
             .filter(p -> !p.getWorld().getName().startsWith("hardcore_cycle_"))
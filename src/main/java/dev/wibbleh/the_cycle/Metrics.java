@@ -0,0 +1,67 @@
+package dev.wibbleh.the_cycle;
+
+/**
+ * The plugin's metrics, exported on {@code GET /metrics}.
+ * <p>
+ * Counters and histograms recorded from hot paths are created here once, so call sites only touch
+ * a static field. Gauges that read plugin state are registered by {@link Main} on enable.
+ */
+public final class Metrics {
+    /**
+     * Registry scraped by the HTTP server.
+     */
+    public static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final long[] RPC_BUCKETS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000};
+    private static final long[] STAGE_BUCKETS_MILLIS = {50, 250, 1_000, 2_500, 5_000, 10_000, 30_000, 60_000, 120_000, 300_000, 600_000};
+
+    /** Duration of single outbound HTTP RPC attempts, successful or not. */
+    public static final MetricsRegistry.Histogram RPC_ATTEMPT_SECONDS = REGISTRY.histogram("hardcore_cycle_rpc_attempt_seconds",
+            "Duration of outbound HTTP RPC attempts.", MILLIS_PER_SECOND, RPC_BUCKETS_MILLIS);
+    /** Outbound HTTP RPC attempts that were answered with a 2xx status. */
+    public static final MetricsRegistry.Counter RPC_ATTEMPTS_OK = rpcAttempts("ok");
+    /** Outbound HTTP RPC attempts that were answered with a 4xx status (not retried). */
+    public static final MetricsRegistry.Counter RPC_ATTEMPTS_CLIENT_ERROR = rpcAttempts("client_error");
+    /** Outbound HTTP RPC attempts that were answered with a 5xx status. */
+    public static final MetricsRegistry.Counter RPC_ATTEMPTS_SERVER_ERROR = rpcAttempts("server_error");
+    /** Outbound HTTP RPC attempts that got no response (connect failure, timeout). */
+    public static final MetricsRegistry.Counter RPC_ATTEMPTS_IO_ERROR = rpcAttempts("io_error");
+    /** Outbound HTTP RPCs that failed after their last attempt. */
+    public static final MetricsRegistry.Counter RPC_FAILURES = REGISTRY.counter("hardcore_cycle_rpc_failures_total",
+            "Outbound HTTP RPCs that failed after all attempts.");
+
+    /** Files removed by world folder deletions. */
+    public static final MetricsRegistry.Counter DELETED_FILES = REGISTRY.counter("hardcore_cycle_deletion_files_total",
+            "Files removed by world folder deletions.");
+    /** Bytes freed by world folder deletions. */
+    public static final MetricsRegistry.Counter DELETED_BYTES = REGISTRY.counter("hardcore_cycle_deletion_bytes_total",
+            "Bytes freed by world folder deletions.");
+
+    // Indexed by stage ordinal so recording needs no map lookup
+    private static final MetricsRegistry.Histogram[] CYCLE_STAGES = new MetricsRegistry.Histogram[CycleTimings.Stage.values().length];
+
+    static {
+        for (var stage : CycleTimings.Stage.values()) {
+            CYCLE_STAGES[stage.ordinal()] = REGISTRY.histogram("hardcore_cycle_stage_seconds",
+                    "Duration of cycle stages; stage=\"generate\" is world generation.", MILLIS_PER_SECOND, STAGE_BUCKETS_MILLIS,
+                    "stage", stage.key());
+        }
+    }
+
+    private Metrics() {
+        // Utility class
+    }
+
+    /**
+     * @param stage cycle stage
+     * @return histogram of the stage's durations in milliseconds
+     */
+    public static MetricsRegistry.Histogram cycleStage(CycleTimings.Stage stage) {
+        return CYCLE_STAGES[stage.ordinal()];
+    }
+
+    private static MetricsRegistry.Counter rpcAttempts(String outcome) {
+        return REGISTRY.counter("hardcore_cycle_rpc_attempts_total", "Outbound HTTP RPC attempts by outcome.", "outcome", outcome);
+    }
+}
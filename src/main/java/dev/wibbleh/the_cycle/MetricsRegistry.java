@@ -0,0 +1,225 @@
+package dev.wibbleh.the_cycle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Metrics rendered in the Prometheus text exposition format on {@code GET /metrics}.
+ * <p>
+ * Counters and histogram buckets are {@link LongAdder}s, which stripe contended updates across
+ * cells, so recording is lock-free and does not allocate once a metric is registered. Gauges are
+ * read from a supplier at scrape time and must be safe to call from an HTTP thread. Registration
+ * and scraping take a lock; recording never does. Registering a name again with the same labels
+ * returns the existing counter or histogram and replaces a gauge, so a plugin reload re-binds its
+ * gauges to the new instance.
+ */
+public class MetricsRegistry {
+    private enum Type {
+        COUNTER("counter"), GAUGE("gauge"), HISTOGRAM("histogram");
+
+        private final String text;
+
+        Type(String text) {
+            this.text = text;
+        }
+    }
+
+    private record Family(String name, String help, Type type, Map<String, Object> series) {}
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Monotonic counter.
+     */
+    public static final class Counter {
+        private final LongAdder value = new LongAdder();
+
+        /**
+         * Add one.
+         */
+        public void inc() {
+            value.increment();
+        }
+
+        /**
+         * @param amount amount to add; negative amounts are ignored
+         */
+        public void add(long amount) {
+            if (amount > 0) value.add(amount);
+        }
+
+        /**
+         * @return current total
+         */
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    /**
+     * Histogram with fixed bucket bounds. Values are recorded as longs in the unit the bounds are
+     * given in (e.g. milliseconds) and converted to the exported unit (e.g. seconds) on scrape.
+     */
+    public static final class Histogram {
+        private final long[] bounds;
+        private final double divisor;
+        // One more than bounds: the last bucket is +Inf
+        private final LongAdder[] buckets;
+        private final LongAdder sum = new LongAdder();
+
+        private Histogram(long[] bounds, double divisor) {
+            this.bounds = bounds.clone();
+            this.divisor = divisor;
+            this.buckets = new LongAdder[bounds.length + 1];
+            for (int i = 0; i < buckets.length; i++) buckets[i] = new LongAdder();
+        }
+
+        /**
+         * Record a value. Negative values are clamped to zero.
+         *
+         * @param value value in the unit of the bucket bounds
+         */
+        public void observe(long value) {
+            long v = Math.max(0L, value);
+            int lo = 0;
+            int hi = bounds.length;
+            // First bound >= v; bounds.length when v exceeds every bound
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (bounds[mid] < v) lo = mid + 1;
+                else hi = mid;
+            }
+            buckets[lo].increment();
+            sum.add(v);
+        }
+
+        /**
+         * @return number of recorded values
+         */
+        public long count() {
+            long total = 0L;
+            for (var b : buckets) total += b.sum();
+            return total;
+        }
+    }
+
+    /**
+     * Register (or look up) a counter.
+     *
+     * @param name   metric name, ending in {@code _total} by convention
+     * @param help   one-line description
+     * @param labels label names and values, alternating
+     * @return the counter
+     */
+    public synchronized Counter counter(String name, String help, String... labels) {
+        return (Counter) family(name, help, Type.COUNTER).series().computeIfAbsent(labelText(labels), k -> new Counter());
+    }
+
+    /**
+     * Register (or look up) a histogram.
+     *
+     * @param name    metric name, including the exported unit (e.g. {@code _seconds})
+     * @param help    one-line description
+     * @param divisor recorded units per exported unit (1000 for milliseconds recorded, seconds exported)
+     * @param bounds  ascending bucket upper bounds in the recorded unit
+     * @param labels  label names and values, alternating
+     * @return the histogram
+     */
+    public synchronized Histogram histogram(String name, String help, double divisor, long[] bounds, String... labels) {
+        return (Histogram) family(name, help, Type.HISTOGRAM).series().computeIfAbsent(labelText(labels), k -> new Histogram(bounds, divisor));
+    }
+
+    /**
+     * Register a gauge, replacing one with the same name and labels.
+     *
+     * @param name   metric name
+     * @param help   one-line description
+     * @param value  read at scrape time from an HTTP thread
+     * @param labels label names and values, alternating
+     */
+    public synchronized void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, Type.GAUGE).series().put(labelText(labels), value);
+    }
+
+    /**
+     * Render every metric in the Prometheus text format (version 0.0.4).
+     *
+     * @return exposition text
+     */
+    public synchronized String scrape() {
+        var out = new StringBuilder(4096);
+        for (var family : families.values()) {
+            out.append("# HELP ").append(family.name()).append(' ').append(family.help()).append('\n');
+            out.append("# TYPE ").append(family.name()).append(' ').append(family.type().text).append('\n');
+            for (var entry : family.series().entrySet()) {
+                String labels = entry.getKey();
+                switch (family.type()) {
+                    case COUNTER -> sample(out, family.name(), labels, ((Counter) entry.getValue()).get());
+                    case GAUGE -> sample(out, family.name(), labels, readGauge((DoubleSupplier) entry.getValue()));
+                    case HISTOGRAM -> histogramSamples(out, family.name(), labels, (Histogram) entry.getValue());
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private Family family(String name, String help, Type type) {
+        var family = families.computeIfAbsent(name, n -> new Family(n, help, type, new LinkedHashMap<>()));
+        if (family.type() != type) throw new IllegalArgumentException("Metric " + name + " is already registered as a " + family.type().text);
+        return family;
+    }
+
+    private static double readGauge(DoubleSupplier supplier) {
+        try {
+            return supplier.getAsDouble();
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static void histogramSamples(StringBuilder out, String name, String labels, Histogram h) {
+        long cumulative = 0L;
+        for (int i = 0; i < h.buckets.length; i++) {
+            cumulative += h.buckets[i].sum();
+            String le = i < h.bounds.length ? number(h.bounds[i] / h.divisor) : "+Inf";
+            String bucketLabels = labels.isEmpty() ? "le=\"" + le + "\"" : labels + ",le=\"" + le + "\"";
+            out.append(name).append("_bucket{").append(bucketLabels).append("} ").append(cumulative).append('\n');
+        }
+        sample(out, name + "_sum", labels, h.sum.sum() / h.divisor);
+        sample(out, name + "_count", labels, cumulative);
+    }
+
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) out.append('{').append(labels).append('}');
+        out.append(' ').append(number(value)).append('\n');
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (Double.isInfinite(value)) return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return Long.toString((long) value);
+        return Double.toString(value);
+    }
+
+    private static String labelText(String... labels) {
+        if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be name/value pairs");
+        var parts = new ArrayList<String>(labels.length / 2);
+        for (int i = 0; i < labels.length; i += 2) {
+            String value = labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+            parts.add(labels[i] + "=\"" + value + "\"");
+        }
+        return String.join(",", parts);
+    }
+
+    /**
+     * @return names of the registered metrics, in registration order
+     */
+    synchronized List<String> names() {
+        return new ArrayList<>(families.keySet());
+    }
+}
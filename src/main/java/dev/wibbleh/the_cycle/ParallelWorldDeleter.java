@@ -0,0 +1,271 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.IOException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Deletes world folders with a bounded fork-join pool under an IO budget.
+ * <p>
+ * The tree is walked once with {@link Files#walkFileTree}; the files found (mostly the region
+ * files in {@code region/}, {@code entities/} and {@code poi/} of each dimension) are then deleted
+ * in parallel, split across the pool's workers, and the emptied directories are removed last in
+ * post-order. Every file deletion is paced against a shared bytes-per-second and files-per-second
+ * budget, and workers pause while {@code savingInProgress} reports that the server is writing
+ * chunks, so deletion does not compete with region saves for disk bandwidth.
+ */
+public class ParallelWorldDeleter {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final int FILES_PER_TASK = 32;
+    private static final long SAVE_BACKOFF_POLL_MILLIS = 50L;
+    private static final long PROGRESS_LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    /**
+     * Deletion counters since startup.
+     *
+     * @param activeDeletions    world folders currently being deleted
+     * @param filesDeleted       files deleted
+     * @param bytesDeleted       bytes freed
+     * @param throttledMillis    time workers spent waiting for the IO budget or a save to finish
+     * @param lastDurationMillis duration of the last finished deletion (0 when none)
+     * @param lastBytesPerSecond throughput of the last finished deletion (0 when none)
+     */
+    public record Stats(int activeDeletions, long filesDeleted, long bytesDeleted, long throttledMillis,
+                        long lastDurationMillis, long lastBytesPerSecond) {}
+
+    private final ForkJoinPool pool;
+    private final long maxBytesPerSecond;
+    private final long maxFilesPerSecond;
+    private final BooleanSupplier savingInProgress;
+    private final Object budgetLock = new Object();
+    private long budgetNextFreeNanos = System.nanoTime();
+
+    private final AtomicInteger activeDeletions = new AtomicInteger();
+    private final AtomicLong filesDeleted = new AtomicLong();
+    private final AtomicLong bytesDeleted = new AtomicLong();
+    private final AtomicLong throttledNanos = new AtomicLong();
+    private volatile long lastDurationMillis = 0L;
+    private volatile long lastBytesPerSecond = 0L;
+
+    /**
+     * @param parallelism       worker threads deleting files (at least 1)
+     * @param maxBytesPerSecond deletion budget in bytes per second (0 = unlimited)
+     * @param maxFilesPerSecond deletion budget in files per second (0 = unlimited)
+     * @param savingInProgress  reports whether the server is currently saving; null never pauses
+     */
+    public ParallelWorldDeleter(int parallelism, long maxBytesPerSecond, long maxFilesPerSecond, BooleanSupplier savingInProgress) {
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        this.maxBytesPerSecond = Math.max(0L, maxBytesPerSecond);
+        this.maxFilesPerSecond = Math.max(0L, maxFilesPerSecond);
+        this.savingInProgress = savingInProgress == null ? () -> false : savingInProgress;
+    }
+
+    /**
+     * Delete a directory tree. Blocks the calling thread until done; call it off the main thread.
+     *
+     * @param root directory to delete
+     * @return true when the tree is gone (or never existed)
+     */
+    public boolean delete(Path root) {
+        if (root == null || !Files.exists(root)) return true;
+        activeDeletions.incrementAndGet();
+        long started = System.nanoTime();
+        long filesBefore = filesDeleted.get();
+        long bytesBefore = bytesDeleted.get();
+        var event = new CycleJfrEvents.WorldDeletion();
+        event.begin();
+        boolean success = false;
+        try {
+            var files = new ArrayList<Path>();
+            var sizes = new ArrayList<Long>();
+            var dirs = new ArrayList<Path>();
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    files.add(file);
+                    sizes.add(attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                    dirs.add(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            var progress = new Progress(root.getFileName().toString(), files.size(), started);
+            boolean ok = files.isEmpty() || pool.invoke(new DeleteFilesTask(files, sizes, 0, files.size(), progress));
+            // Post-order: children before parents
+            for (Path dir : dirs) ok &= deletePath(dir);
+            success = ok && !Files.exists(root);
+            return success;
+        } catch (IOException e) {
+            LOG.warning("Failed to walk " + root + " for deletion: " + e.getMessage());
+            return false;
+        } finally {
+            long elapsedNanos = System.nanoTime() - started;
+            long bytes = bytesDeleted.get() - bytesBefore;
+            lastDurationMillis = elapsedNanos / 1_000_000L;
+            lastBytesPerSecond = elapsedNanos > 0 ? (long) (bytes / (elapsedNanos / 1_000_000_000.0)) : 0L;
+            activeDeletions.decrementAndGet();
+            String folder = root.getFileName().toString();
+            event.cycle = CycleJfrEvents.cycleOf(folder);
+            event.folder = folder;
+            event.files = filesDeleted.get() - filesBefore;
+            event.bytes = bytes;
+            event.success = success;
+            event.commit();
+            LOG.info("Deleted " + (filesDeleted.get() - filesBefore) + " files (" + bytes / (1024 * 1024) + " MiB) from "
+                    + root.getFileName() + " in " + lastDurationMillis + "ms (" + lastBytesPerSecond / (1024 * 1024) + " MiB/s).");
+        }
+    }
+
+    /**
+     * @return deletion counters since startup
+     */
+    public Stats getStats() {
+        return new Stats(activeDeletions.get(), filesDeleted.get(), bytesDeleted.get(),
+                throttledNanos.get() / 1_000_000L, lastDurationMillis, lastBytesPerSecond);
+    }
+
+    /**
+     * Stop the worker pool. Deletions in progress finish their current files.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Wait until the IO budget allows deleting a file of the given size. Both budgets are enforced
+     * by reserving the larger of the two costs on a shared timeline, so concurrent workers together
+     * stay within the limits.
+     */
+    void acquire(long bytes) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        boolean waited = false;
+        while (savingInProgress.getAsBoolean()) {
+            waited = true;
+            Thread.sleep(SAVE_BACKOFF_POLL_MILLIS);
+        }
+        long costNanos = Math.max(
+                maxBytesPerSecond > 0 ? bytes * 1_000_000_000L / maxBytesPerSecond : 0L,
+                maxFilesPerSecond > 0 ? 1_000_000_000L / maxFilesPerSecond : 0L);
+        long startAt;
+        synchronized (budgetLock) {
+            long now = System.nanoTime();
+            startAt = Math.max(now, budgetNextFreeNanos);
+            budgetNextFreeNanos = startAt + costNanos;
+        }
+        long sleepNanos = startAt - System.nanoTime();
+        if (sleepNanos > 0) {
+            waited = true;
+            TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+        if (waited) throttledNanos.addAndGet(System.nanoTime() - waitStart);
+    }
+
+    private boolean deletePath(Path p) {
+        try {
+            Files.deleteIfExists(p);
+            return true;
+        } catch (AccessDeniedException e) {
+            // Read-only files on some platforms; make writable and retry once
+            if (!p.toFile().setWritable(true)) LOG.fine("Couldn't set writable: " + p);
+            try {
+                Files.deleteIfExists(p);
+                return true;
+            } catch (IOException retry) {
+                LOG.warning("Failed to delete " + p + ": " + retry.getMessage());
+                return false;
+            }
+        } catch (NoSuchFileException e) {
+            return true;
+        } catch (IOException e) {
+            LOG.warning("Failed to delete " + p + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private final class Progress {
+        final String name;
+        final int total;
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicLong lastLogNanos;
+
+        Progress(String name, int total, long startedNanos) {
+            this.name = name;
+            this.total = total;
+            this.lastLogNanos = new AtomicLong(startedNanos);
+        }
+
+        void fileDeleted() {
+            int n = done.incrementAndGet();
+            long now = System.nanoTime();
+            long last = lastLogNanos.get();
+            if (now - last >= PROGRESS_LOG_INTERVAL_NANOS && lastLogNanos.compareAndSet(last, now)) {
+                LOG.info("Deleting " + name + ": " + n + "/" + total + " files.");
+            }
+        }
+    }
+
+    private final class DeleteFilesTask extends RecursiveTask<Boolean> {
+        private final List<Path> files;
+        private final List<Long> sizes;
+        private final int from;
+        private final int to;
+        private final Progress progress;
+
+        DeleteFilesTask(List<Path> files, List<Long> sizes, int from, int to, Progress progress) {
+            this.files = files;
+            this.sizes = sizes;
+            this.from = from;
+            this.to = to;
+            this.progress = progress;
+        }
+
+        @Override
+        protected Boolean compute() {
+            if (to - from > FILES_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                var left = new DeleteFilesTask(files, sizes, from, mid, progress);
+                left.fork();
+                boolean right = new DeleteFilesTask(files, sizes, mid, to, progress).compute();
+                return left.join() & right;
+            }
+            boolean ok = true;
+            for (int i = from; i < to; i++) {
+                long size = sizes.get(i);
+                try {
+                    acquire(size);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                if (deletePath(files.get(i))) {
+                    filesDeleted.incrementAndGet();
+                    bytesDeleted.addAndGet(size);
+                    Metrics.DELETED_FILES.inc();
+                    Metrics.DELETED_BYTES.add(size);
+                    progress.fileDeleted();
+                } else {
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+    }
+}
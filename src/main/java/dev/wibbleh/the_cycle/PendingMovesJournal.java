@@ -0,0 +1,239 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary journal of the pending lobby and hardcore move sets.
+ * <p>
+ * The file starts with a 5-byte header ({@code HCPM} and a format version) followed by fixed-size
+ * 22-byte records:
+ * <pre>
+ * byte op (ADD, REMOVE) | byte set (LOBBY, HARDCORE) | long uuid msb | long uuid lsb | int crc32c(first 18 bytes)
+ * </pre>
+ * {@link #sync} compares the sets it is given with the last persisted ones and appends only the
+ * differences, in one write and one fsync, so moving a whole cycle of players costs a few hundred
+ * bytes instead of a rewrite per player. Once most records are superseded the journal is rewritten
+ * (temp file, fsync, rename) with one ADD per pending player. Loading is one streaming pass that
+ * stops at the first torn or corrupt record. All methods are thread-safe.
+ */
+public class PendingMovesJournal {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final byte[] MAGIC = {'H', 'C', 'P', 'M'};
+    private static final byte VERSION = 1;
+    private static final byte ADD = 1;
+    private static final byte REMOVE = 2;
+    private static final byte LOBBY = 0;
+    private static final byte HARDCORE = 1;
+    static final int RECORD_BYTES = 22;
+    static final int COMPACT_MIN_RECORDS = 256;
+
+    private final File file;
+    // Sets as they are on disk
+    private final Set<UUID> lobby = new LinkedHashSet<>();
+    private final Set<UUID> hardcore = new LinkedHashSet<>();
+    private FileChannel channel;
+    private int records = 0;
+    private boolean compactNeeded = false;
+
+    /**
+     * Open the journal, replaying existing records.
+     *
+     * @param file journal file (created on the first change)
+     */
+    public PendingMovesJournal(File file) {
+        this.file = file;
+        replay();
+    }
+
+    /**
+     * @return players with a pending lobby move, as last persisted
+     */
+    public synchronized Set<UUID> lobby() {
+        return new LinkedHashSet<>(lobby);
+    }
+
+    /**
+     * @return players with a pending hardcore move, as last persisted
+     */
+    public synchronized Set<UUID> hardcore() {
+        return new LinkedHashSet<>(hardcore);
+    }
+
+    /**
+     * @return true when the journal holds no pending move
+     */
+    public synchronized boolean isEmpty() {
+        return lobby.isEmpty() && hardcore.isEmpty();
+    }
+
+    /**
+     * Persist the given sets by appending the changes since the last sync.
+     *
+     * @param currentLobby    players that should have a pending lobby move
+     * @param currentHardcore players that should have a pending hardcore move
+     * @return number of delta records appended (0 when nothing changed or the journal was compacted instead)
+     * @throws IOException when the journal cannot be written; the persisted sets are then unchanged
+     */
+    public synchronized int sync(Collection<UUID> currentLobby, Collection<UUID> currentHardcore) throws IOException {
+        var next = Set.copyOf(currentLobby);
+        var nextHardcore = Set.copyOf(currentHardcore);
+        var out = ByteBuffer.allocate(RECORD_BYTES * (countDeltas(lobby, next) + countDeltas(hardcore, nextHardcore)));
+        putDeltas(out, LOBBY, lobby, next);
+        putDeltas(out, HARDCORE, hardcore, nextHardcore);
+        int deltas = out.position() / RECORD_BYTES;
+        if (deltas == 0 && !compactNeeded) return 0;
+        if (compactNeeded || (records + deltas >= COMPACT_MIN_RECORDS && records + deltas > 2 * (next.size() + nextHardcore.size()))) {
+            compact(next, nextHardcore);
+            return 0;
+        }
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        try {
+            var ch = channel();
+            out.flip();
+            while (out.hasRemaining()) ch.write(out);
+            ch.force(false);
+        } catch (IOException e) {
+            // The file may end in a partial write now; rewrite it on the next sync
+            closeChannel();
+            compactNeeded = true;
+            throw e;
+        }
+        CycleJfrEvents.persisted(event, file.getName(), "append", (long) deltas * RECORD_BYTES);
+        records += deltas;
+        apply(lobby, next);
+        apply(hardcore, nextHardcore);
+        return deltas;
+    }
+
+    /**
+     * Close the file. Changes must be synced first.
+     */
+    public synchronized void close() {
+        closeChannel();
+    }
+
+    /**
+     * @return records in the file, live or superseded
+     */
+    synchronized int recordCount() {
+        return records;
+    }
+
+    private void compact(Set<UUID> nextLobby, Set<UUID> nextHardcore) throws IOException {
+        closeChannel();
+        int live = nextLobby.size() + nextHardcore.size();
+        var out = ByteBuffer.allocate(MAGIC.length + 1 + RECORD_BYTES * live);
+        out.put(MAGIC).put(VERSION);
+        for (var id : nextLobby) putRecord(out, ADD, LOBBY, id);
+        for (var id : nextHardcore) putRecord(out, ADD, HARDCORE, id);
+        out.flip();
+        AtomicFileUtil.writeAtomically(file, "compact", out);
+        records = live;
+        compactNeeded = false;
+        apply(lobby, nextLobby);
+        apply(hardcore, nextHardcore);
+    }
+
+    /**
+     * Read the journal in one streaming pass. Reading stops at the first record that is incomplete
+     * or fails its checksum; everything before it is kept and the file is rewritten on the next sync.
+     */
+    private void replay() {
+        if (file == null || !file.exists()) return;
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            byte[] head = in.readNBytes(MAGIC.length + 1);
+            if (head.length < MAGIC.length + 1 || !Arrays.equals(Arrays.copyOf(head, MAGIC.length), MAGIC) || head[MAGIC.length] > VERSION) {
+                LOG.warning("Pending moves journal " + file.getName() + " has an unknown header; ignoring it.");
+                compactNeeded = true;
+                return;
+            }
+            var crc = new CRC32C();
+            byte[] record = new byte[RECORD_BYTES];
+            while (true) {
+                int read = in.readNBytes(record, 0, RECORD_BYTES);
+                if (read == 0) break;
+                crc.reset();
+                crc.update(record, 0, RECORD_BYTES - 4);
+                var buf = ByteBuffer.wrap(record);
+                if (read < RECORD_BYTES || buf.getInt(RECORD_BYTES - 4) != (int) crc.getValue()) {
+                    compactNeeded = true;
+                    break;
+                }
+                byte op = buf.get();
+                byte target = buf.get();
+                var id = new UUID(buf.getLong(), buf.getLong());
+                var set = target == HARDCORE ? hardcore : lobby;
+                if (op == ADD) set.add(id);
+                else if (op == REMOVE) set.remove(id);
+                records++;
+            }
+        } catch (IOException e) {
+            LOG.warning("Failed to read pending moves journal: " + e.getMessage());
+            compactNeeded = true;
+        }
+    }
+
+    private FileChannel channel() throws IOException {
+        if (channel == null) {
+            var dir = file.getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) throw new IOException("Failed to create directory: " + dir.getAbsolutePath());
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (channel.size() == 0) {
+                byte[] header = Arrays.copyOf(MAGIC, MAGIC.length + 1);
+                header[MAGIC.length] = VERSION;
+                channel.write(ByteBuffer.wrap(header));
+            }
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            LOG.warning("Failed to close pending moves journal: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private static int countDeltas(Set<UUID> persisted, Set<UUID> next) {
+        int n = 0;
+        for (var id : next) if (!persisted.contains(id)) n++;
+        for (var id : persisted) if (!next.contains(id)) n++;
+        return n;
+    }
+
+    private static void putDeltas(ByteBuffer out, byte target, Set<UUID> persisted, Set<UUID> next) {
+        for (var id : persisted) if (!next.contains(id)) putRecord(out, REMOVE, target, id);
+        for (var id : next) if (!persisted.contains(id)) putRecord(out, ADD, target, id);
+    }
+
+    private static void putRecord(ByteBuffer out, byte op, byte target, UUID id) {
+        int start = out.position();
+        out.put(op).put(target).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+        var crc = new CRC32C();
+        crc.update(out.array(), start, RECORD_BYTES - 4);
+        out.putInt((int) crc.getValue());
+    }
+
+    private static void apply(Set<UUID> persisted, Set<UUID> next) {
+        persisted.retainAll(next);
+        persisted.addAll(next);
+    }
+}
@@ -8,6 +8,9 @@ import java.util.UUID;
  * Utility for persisting and loading pending move UUID sets to a simple JSON-like file.
  * This isolates file-format logic so unit tests can exercise persistence without creating
  * a full {@link Main} plugin instance.
+ * <p>
+ * Pending moves are now kept in a {@link PendingMovesJournal}; this format is only read to import
+ * a {@code pending_moves.json} left by an older version.
  */
 public final class PendingMovesStorage {
     private PendingMovesStorage() {}
@@ -19,6 +22,8 @@ public final class PendingMovesStorage {
             boolean created = df.mkdirs();
             if (!created) throw new IOException("Failed to create directory: " + df.getAbsolutePath());
         }
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
         try (var w = new BufferedWriter(new FileWriter(f))) {
             var sb = new StringBuilder(256); // Pre-allocate reasonable capacity
             sb.append('{');
@@ -42,6 +47,8 @@ public final class PendingMovesStorage {
             }
             sb.append("]}");
             w.write(sb.toString());
+            w.flush();
+            CycleJfrEvents.persisted(event, f.getName(), "write", sb.length());
         }
     }
 
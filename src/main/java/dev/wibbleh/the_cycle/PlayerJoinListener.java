@@ -32,6 +32,7 @@ public class PlayerJoinListener implements Listener {
         
         // Handle hardcore server join (prevent mid-cycle joins)
         if (plugin.isHardcoreBackend()) {
+            plugin.onPlayerArrivedInWorld(p.getWorld().getName());
             // Check if player is in current cycle
             if (!plugin.isPlayerInCurrentCycle(p.getUniqueId())) {
                 // Check if they're in a hardcore world
@@ -93,6 +94,7 @@ public class PlayerJoinListener implements Listener {
         // If player entered a hardcore world, add them to the current cycle
         if (newWorldName.startsWith("hardcore_cycle_")) {
             plugin.addPlayerToCurrentCycle(p.getUniqueId());
+            plugin.onPlayerArrivedInWorld(newWorldName);
             plugin.getLogger().info("Player " + p.getName() + " entered hardcore world, added to current cycle.");
             
             // Show cycle start title now that player is in the hardcore world
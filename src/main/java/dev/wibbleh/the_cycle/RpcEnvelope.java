@@ -0,0 +1,85 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.InputStreamReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Versioned body of an HTTP RPC, e.g. {@code {"v":1,"action":"cycle-now","caller":"console"}}.
+ * <p>
+ * Bodies are parsed once into this record and dispatched on {@link #action()}. Bodies written
+ * before the version field existed carry no {@code v} and are read as version 1.
+ *
+ * @param v      envelope version (0 when absent)
+ * @param action action name
+ * @param caller requesting player UUID or "console" (optional)
+ * @param cycle  cycle number the action refers to; for {@code cycle-now} the cycle the caller
+ *               wants started (optional)
+ * @param id     idempotency key; deliveries of the same request share it (optional)
+ */
+public record RpcEnvelope(int v, String action, String caller, Integer cycle, String id) {
+    /** Highest envelope version this build understands. */
+    public static final int VERSION = 1;
+    private static final Gson GSON = new Gson();
+
+    /**
+     * @param action action name
+     * @param caller requesting player UUID or "console"
+     * @return an envelope of the current version
+     */
+    public static RpcEnvelope of(String action, String caller) {
+        return new RpcEnvelope(VERSION, action, caller, null, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param caller      requesting player UUID or "console"
+     * @param targetCycle cycle number the caller wants started, or null when unknown
+     * @return a cycle-now envelope of the current version
+     */
+    public static RpcEnvelope cycleNow(String caller, Integer targetCycle) {
+        return new RpcEnvelope(VERSION, "cycle-now", caller, targetCycle, UUID.randomUUID().toString());
+    }
+
+    /**
+     * @param cycle cycle whose world became ready
+     * @return a world-ready envelope of the current version
+     */
+    public static RpcEnvelope worldReady(int cycle) {
+        return new RpcEnvelope(VERSION, "world-ready", null, cycle, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Parse a raw request body.
+     *
+     * @param body UTF-8 JSON body
+     * @return the envelope
+     * @throws IllegalArgumentException when the body is not a JSON object with an action, or its
+     *                                  version is newer than {@link #VERSION}
+     */
+    public static RpcEnvelope parse(byte[] body) {
+        RpcEnvelope envelope;
+        try (var reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            envelope = GSON.fromJson(reader, RpcEnvelope.class);
+        } catch (JsonParseException | java.io.IOException e) {
+            throw new IllegalArgumentException("Malformed RPC body: " + e.getMessage(), e);
+        }
+        if (envelope == null || envelope.action() == null || envelope.action().isEmpty()) {
+            throw new IllegalArgumentException("RPC body has no action");
+        }
+        if (envelope.v() > VERSION) {
+            throw new IllegalArgumentException("Unsupported RPC version " + envelope.v());
+        }
+        return envelope;
+    }
+
+    /**
+     * @return the JSON body to send
+     */
+    public String toJson() {
+        return GSON.toJson(this);
+    }
+}
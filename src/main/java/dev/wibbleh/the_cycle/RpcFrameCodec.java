@@ -0,0 +1,182 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary frames for RPCs forwarded over the plugin-message channel.
+ * <p>
+ * A packet carries either a batch of RPC frames or the acknowledgement of some of them:
+ * <pre>
+ * byte  magic (0xC7)      byte  version (1)       byte  type (1 = batch, 2 = ack)
+ * long  session           short count
+ * batch: count x { long seq, UTF action, UTF caller, UTF id ("" = none), int cycle (-1 = none) }
+ * ack:   count x { long seq }
+ * byte[32] HMAC-SHA256 of all preceding bytes under server.rpc_secret
+ * </pre>
+ * The session is chosen at random by the sender on startup and sequence numbers are unique within
+ * it, so a receiver can recognise retransmitted frames and route acks back to the sender that is
+ * waiting for them. The secret itself never travels. A packet never starts with the two-byte length
+ * prefix of the legacy {@code rpc::} text format, so both can share the channel.
+ */
+public final class RpcFrameCodec {
+    static final byte MAGIC = (byte) 0xC7;
+    static final byte VERSION = 1;
+    static final byte TYPE_BATCH = 1;
+    static final byte TYPE_ACK = 2;
+    private static final int MAC_LENGTH = 32;
+    private static final int HEADER_LENGTH = 1 + 1 + 1 + Long.BYTES + Short.BYTES;
+
+    private RpcFrameCodec() {
+        // Utility class
+    }
+
+    /**
+     * One RPC in a batch.
+     *
+     * @param seq      sequence number within the sender's session
+     * @param envelope the RPC
+     */
+    public record Frame(long seq, RpcEnvelope envelope) {}
+
+    /**
+     * Decoded packet.
+     */
+    public sealed interface Packet permits Batch, Ack {
+        /**
+         * @return session of the sender of the frames
+         */
+        long session();
+    }
+
+    /**
+     * RPCs sent by a lobby.
+     *
+     * @param session sender session
+     * @param frames  frames in send order
+     */
+    public record Batch(long session, List<Frame> frames) implements Packet {}
+
+    /**
+     * Acknowledgement of frames received from a session.
+     *
+     * @param session session the acknowledged frames belong to
+     * @param seqs    acknowledged sequence numbers
+     */
+    public record Ack(long session, List<Long> seqs) implements Packet {}
+
+    /**
+     * @param message raw plugin message
+     * @return true when the message starts like a binary packet rather than a legacy text RPC
+     */
+    public static boolean isFrame(byte[] message) {
+        return message != null && message.length > 0 && message[0] == MAGIC;
+    }
+
+    /**
+     * @param session sender session
+     * @param frames  frames to send (at most {@link Short#MAX_VALUE})
+     * @param signer  signer for the shared secret
+     * @return the signed packet
+     */
+    public static byte[] encodeBatch(long session, List<Frame> frames, RpcSigner signer) {
+        return encode(TYPE_BATCH, session, frames.size(), out -> {
+            for (var f : frames) {
+                var e = f.envelope();
+                out.writeLong(f.seq());
+                out.writeUTF(e.action());
+                out.writeUTF(e.caller() == null ? "" : e.caller());
+                out.writeUTF(e.id() == null ? "" : e.id());
+                out.writeInt(e.cycle() == null ? -1 : e.cycle());
+            }
+        }, signer);
+    }
+
+    /**
+     * @param session session the acknowledged frames belong to
+     * @param seqs    acknowledged sequence numbers
+     * @param signer  signer for the shared secret
+     * @return the signed packet
+     */
+    public static byte[] encodeAck(long session, List<Long> seqs, RpcSigner signer) {
+        return encode(TYPE_ACK, session, seqs.size(), out -> {
+            for (long seq : seqs) out.writeLong(seq);
+        }, signer);
+    }
+
+    /**
+     * Verify and parse a packet.
+     *
+     * @param packet raw plugin message
+     * @param signer signer for the shared secret
+     * @return the batch or ack
+     * @throws IllegalArgumentException when the packet is truncated, of an unknown version or type,
+     *                                  or its signature does not match
+     */
+    public static Packet decode(byte[] packet, RpcSigner signer) {
+        if (packet == null || packet.length < HEADER_LENGTH + MAC_LENGTH) throw new IllegalArgumentException("RPC frame too short");
+        int bodyLength = packet.length - MAC_LENGTH;
+        byte[] body = Arrays.copyOf(packet, bodyLength);
+        byte[] mac = Arrays.copyOfRange(packet, bodyLength, packet.length);
+        if (!MessageDigest.isEqual(signer.sign(body), mac)) throw new IllegalArgumentException("RPC frame signature mismatch");
+        try (var in = new DataInputStream(new ByteArrayInputStream(body))) {
+            if (in.readByte() != MAGIC) throw new IllegalArgumentException("Not an RPC frame");
+            byte version = in.readByte();
+            if (version != VERSION) throw new IllegalArgumentException("Unsupported RPC frame version " + version);
+            byte type = in.readByte();
+            long session = in.readLong();
+            int count = in.readUnsignedShort();
+            if (type == TYPE_BATCH) {
+                var frames = new ArrayList<Frame>(count);
+                for (int i = 0; i < count; i++) {
+                    long seq = in.readLong();
+                    String action = in.readUTF();
+                    String caller = in.readUTF();
+                    String id = in.readUTF();
+                    int cycle = in.readInt();
+                    frames.add(new Frame(seq, new RpcEnvelope(RpcEnvelope.VERSION, action, caller.isEmpty() ? null : caller,
+                            cycle < 0 ? null : cycle, id.isEmpty() ? null : id)));
+                }
+                return new Batch(session, frames);
+            }
+            if (type == TYPE_ACK) {
+                var seqs = new ArrayList<Long>(count);
+                for (int i = 0; i < count; i++) seqs.add(in.readLong());
+                return new Ack(session, seqs);
+            }
+            throw new IllegalArgumentException("Unknown RPC frame type " + type);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Truncated RPC frame", e);
+        }
+    }
+
+    private interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(byte type, long session, int count, BodyWriter writer, RpcSigner signer) {
+        if (count > Short.MAX_VALUE) throw new IllegalArgumentException("Too many entries in one RPC frame: " + count);
+        try (var bytes = new ByteArrayOutputStream(); var out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            out.writeByte(type);
+            out.writeLong(session);
+            out.writeShort(count);
+            writer.write(out);
+            out.flush();
+            out.write(signer.sign(bytes.toByteArray()));
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -6,6 +6,9 @@ import org.bukkit.plugin.messaging.PluginMessageListener;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.UUID;
 import java.util.Objects;
 
@@ -14,15 +17,31 @@ import java.util.Objects;
  * forward admin actions (like triggering a cycle) to the hardcore backend.
  *
  * Protocol (BungeeCord custom plugin message channel):
- * - Channel: "TheCycleRPC" (registered as an incoming channel on hardcore)
- * - Message format (UTF-8 string payload): "rpc::<secret>::<action>::<caller_uuid>"
+ * - Channel: "thecycle:rpc" (registered as an incoming channel on both roles)
+ * - Lobbies send signed binary batches ({@link RpcFrameCodec}); the backend runs every frame it has
+ *   not seen before and answers with a signed ack Forwarded to the lobby server, which removes the
+ *   acknowledged frames from its {@link RpcOutbox}. Retransmitted frames are acked again but not rerun.
+ * - Legacy message format from older lobbies (UTF-8 string payload), accepted only when
+ *   {@code server.accept_legacy_rpc} is enabled because it carries the secret in plain text:
+ *   "rpc::<secret>::<action>::<caller_uuid>[::<idempotency_key>::<target_cycle>]"
  *   Example: "rpc::s3cr3t::cycle-now::550e8400-e29b-41d4-a716-446655440000"
+ * - Messages with an idempotency key go through the same dedupe window as HTTP RPCs, so the same
+ *   request delivered over both transports starts at most one cycle.
  */
 public class RpcHandler implements PluginMessageListener {
     private final JavaPlugin plugin;
     private final Main main;
     private final String rpcSecret;
     private final String rpcChannel;
+    private final RpcSigner signer;
+    private final boolean acceptLegacy;
+    // Log the deprecation once per run rather than once per message
+    private boolean legacyWarned = false;
+    // (session, seq) of recently run frames; plugin messages arrive on the main thread only
+    private final LinkedHashSet<FrameId> seen = new LinkedHashSet<>();
+    static final int MAX_SEEN_FRAMES = 1024;
+
+    private record FrameId(long session, long seq) {}
 
     /**
      * @param plugin hosting plugin
@@ -31,16 +50,33 @@ public class RpcHandler implements PluginMessageListener {
      * @param rpcChannel namespaced plugin channel (eg. "thecycle:rpc")
      */
     public RpcHandler(JavaPlugin plugin, Main main, String rpcSecret, String rpcChannel) {
+        this(plugin, main, rpcSecret, rpcChannel, false);
+    }
+
+    /**
+     * @param plugin hosting plugin
+     * @param main main plugin instance
+     * @param rpcSecret optional shared secret for RPC validation
+     * @param rpcChannel namespaced plugin channel (eg. "thecycle:rpc")
+     * @param acceptLegacy whether legacy {@code rpc::<secret>::...} text messages are run
+     */
+    public RpcHandler(JavaPlugin plugin, Main main, String rpcSecret, String rpcChannel, boolean acceptLegacy) {
         this.plugin = Objects.requireNonNull(plugin);
         this.main = Objects.requireNonNull(main);
         this.rpcSecret = rpcSecret == null ? "" : rpcSecret;
         this.rpcChannel = rpcChannel == null ? "thecycle:rpc" : rpcChannel;
+        this.signer = new RpcSigner(this.rpcSecret);
+        this.acceptLegacy = acceptLegacy;
     }
 
     @Override
     public void onPluginMessageReceived(String channel, Player player, byte[] message) {
         if (!this.rpcChannel.equals(channel)) return;
         if (message == null || message.length == 0) return;
+        if (RpcFrameCodec.isFrame(message)) {
+            handleFrame(player, message);
+            return;
+        }
         try (var in = new DataInputStream(new ByteArrayInputStream(message))) {
             String payload = in.readUTF();
             if (payload == null || payload.isEmpty()) return;
@@ -48,9 +84,26 @@ public class RpcHandler implements PluginMessageListener {
             String[] parts = payload.split("::");
             if (parts.length < 3) return;
             if (!"rpc".equals(parts[0])) return;
+            if (!acceptLegacy) {
+                plugin.getLogger().warning("Rejected legacy text RPC; upgrade the sending lobby or enable server.accept_legacy_rpc");
+                return;
+            }
+            if (!legacyWarned) {
+                legacyWarned = true;
+                plugin.getLogger().warning("Accepted a legacy text RPC, which sends the secret in plain text; this format is deprecated and will be removed");
+            }
             String secret = parts[1];
             String action = parts[2];
             String caller = parts.length >= 4 ? parts[3] : "";
+            String key = parts.length >= 5 ? parts[4] : "";
+            Integer target = null;
+            if (parts.length >= 6 && !parts[5].isEmpty()) {
+                try {
+                    target = Integer.parseInt(parts[5]);
+                } catch (NumberFormatException ignored) {
+                    // Older senders never set it; treat garbage the same way
+                }
+            }
 
             // If rpc_secret is configured, validate it
             if (!rpcSecret.isEmpty() && !rpcSecret.equals(secret)) {
@@ -58,18 +111,87 @@ public class RpcHandler implements PluginMessageListener {
                 return;
             }
 
-            handleAction(action, caller);
+            receive(message.length, action, caller, key, target);
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to parse RPC message: " + e.getMessage());
         }
     }
 
-    private void handleAction(String action, String callerUuid) {
+    private void handleFrame(Player player, byte[] message) {
+        RpcFrameCodec.Packet packet;
+        try {
+            packet = RpcFrameCodec.decode(message, signer);
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Rejected RPC frame: " + e.getMessage());
+            return;
+        }
+        if (packet instanceof RpcFrameCodec.Ack ack) {
+            main.handleRpcAck(ack);
+            return;
+        }
+        var batch = (RpcFrameCodec.Batch) packet;
+        var acked = new ArrayList<Long>(batch.frames().size());
+        for (var frame : batch.frames()) {
+            acked.add(frame.seq());
+            if (!remember(new FrameId(batch.session(), frame.seq()))) continue;
+            var e = frame.envelope();
+            try {
+                receive(message.length, e.action(), e.caller() == null ? "" : e.caller(), e.id() == null ? "" : e.id(), e.cycle());
+            } catch (Exception ex) {
+                plugin.getLogger().warning("RPC " + e.action() + " failed: " + ex.getMessage());
+            }
+        }
+        main.sendRpcAck(player, RpcFrameCodec.encodeAck(batch.session(), acked, signer));
+    }
+
+    /**
+     * @return true when the frame was not seen before
+     */
+    private boolean remember(FrameId id) {
+        if (!seen.add(id)) return false;
+        if (seen.size() > MAX_SEEN_FRAMES) {
+            Iterator<FrameId> it = seen.iterator();
+            it.next();
+            it.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Run one RPC inside a {@link CycleJfrEvents.RpcReceive} flight recorder event.
+     */
+    private void receive(int messageBytes, String action, String callerUuid, String key, Integer targetCycle) {
+        var event = new CycleJfrEvents.RpcReceive();
+        event.begin();
+        try {
+            handleAction(action, callerUuid, key, targetCycle);
+            event.accepted = true;
+        } finally {
+            event.transport = "plugin-message";
+            event.action = action;
+            event.caller = callerUuid;
+            event.cycle = targetCycle == null ? -1 : targetCycle;
+            event.bytes = messageBytes;
+            event.commit();
+        }
+    }
+
+    private void handleAction(String action, String callerUuid, String key, Integer targetCycle) {
         if (action == null) return;
         if ("cycle-now".equals(action)) {
             plugin.getLogger().info("Received RPC request to cycle (caller=" + callerUuid + ")");
-            // Only hardcore backends should perform cycles; main.triggerCycle is safe-guarded
-            main.triggerCycle();
+            var operations = main.getCycleOperations();
+            if (key.isEmpty() || operations == null) {
+                // Only hardcore backends should perform cycles; main.triggerCycle is safe-guarded
+                main.triggerCycle();
+                return;
+            }
+            var admission = operations.admit(key);
+            if (admission.duplicate()) {
+                plugin.getLogger().info("Ignoring duplicate cycle-now (key " + key + "); handled by operation " + admission.operationId());
+                return;
+            }
+            main.startCycleOperation(admission.operationId(), targetCycle);
             return;
         }
         plugin.getLogger().warning("Unknown RPC action: " + action);
@@ -1,45 +1,100 @@
 package dev.wibbleh.the_cycle;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
- * Small utility for HMAC signing/verification used by the optional HTTP RPC transport.
+ * Small utility for HMAC signing/verification and endpoint URLs used by the optional HTTP RPC transport.
+ * Long-lived callers should keep an {@link RpcSigner} for their secret instead of these one-off helpers.
  */
 public final class RpcHttpUtil {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) HEX_VALUES['0' + i] = (byte) i;
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
     private RpcHttpUtil() {}
 
     public static String computeHmacHex(String secret, String payload) throws Exception {
-        if (secret == null) secret = "";
-        Mac mac = Mac.getInstance("HmacSHA256");
-        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-        byte[] sig = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-        return bytesToHex(sig);
+        return new RpcSigner(secret).signHex(payload.getBytes(StandardCharsets.UTF_8));
     }
 
     public static boolean verifyHmacHex(String secret, String payload, String hexSignature) {
         try {
             if (hexSignature == null) return false;
-            String expected = computeHmacHex(secret, payload);
-            return constantTimeEquals(expected, hexSignature);
+            return new RpcSigner(secret).verify(payload.getBytes(StandardCharsets.UTF_8), hexSignature);
         } catch (Exception e) {
             return false;
         }
     }
 
-    private static boolean constantTimeEquals(String a, String b) {
-        if (a == null || b == null) return false;
-        if (a.length() != b.length()) return false;
-        int res = 0;
-        for (int i = 0; i < a.length(); i++) res |= a.charAt(i) ^ b.charAt(i);
-        return res == 0;
+    /**
+     * Encode bytes as lowercase hex through a lookup table.
+     *
+     * @param bytes bytes to encode
+     * @return hex string, two characters per byte
+     */
+    public static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            out[i * 2] = HEX_DIGITS[b >>> 4];
+            out[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(out);
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) sb.append(String.format("%02x", b & 0xff));
-        return sb.toString();
+    /**
+     * Decode a hex string (either case).
+     *
+     * @param hex hex string
+     * @return decoded bytes, or null when the input is null, of odd length or not hex
+     */
+    public static byte[] fromHex(String hex) {
+        if (hex == null || (hex.length() & 1) != 0) return null;
+        byte[] out = new byte[hex.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            char hi = hex.charAt(i * 2);
+            char lo = hex.charAt(i * 2 + 1);
+            if (hi >= 128 || lo >= 128 || HEX_VALUES[hi] < 0 || HEX_VALUES[lo] < 0) return null;
+            out[i] = (byte) (HEX_VALUES[hi] << 4 | HEX_VALUES[lo]);
+        }
+        return out;
     }
-}
 
+    /**
+     * Derive the {@code /health} URL of a server from its configured RPC URL.
+     *
+     * @param rpcUrl RPC endpoint such as {@code http://host:8080/rpc}
+     * @return health URL on the same host and port, or null when the URL is empty or invalid
+     */
+    static String healthUrlFor(String rpcUrl) {
+        return endpointUrlFor(rpcUrl, "/health");
+    }
+
+    /**
+     * Derive the URL of another endpoint of a server from its configured RPC URL.
+     *
+     * @param rpcUrl RPC endpoint such as {@code http://host:8080/rpc}
+     * @param path   endpoint path such as {@code /events}
+     * @return URL on the same host and port, or null when the URL is empty or invalid
+     */
+    static String endpointUrlFor(String rpcUrl, String path) {
+        if (rpcUrl == null || rpcUrl.isBlank()) return null;
+        try {
+            var uri = URI.create(rpcUrl.trim());
+            if (uri.getScheme() == null || uri.getHost() == null) return null;
+            return new URI(uri.getScheme(), null, uri.getHost(), uri.getPort(), path, null, null).toString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package dev.wibbleh.the_cycle;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * RPCs forwarded over the plugin-message channel that the backend has not acknowledged yet.
+ * <p>
+ * Each submitted RPC gets the next sequence number of this sender's session. {@link #nextBatch}
+ * packs frames that were never sent, or whose last send is older than the retransmit interval,
+ * into one signed packet, so a burst of RPCs costs one Forward message and a lost packet only
+ * resends what was not acknowledged. Frames leave when the backend acknowledges them, or are
+ * dropped after {@link #MAX_ATTEMPTS} sends or when the outbox is full. All methods are thread-safe.
+ */
+public class RpcOutbox {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    static final int MAX_BATCH_FRAMES = 32;
+    static final int MAX_ATTEMPTS = 10;
+    static final long RETRANSMIT_MILLIS = 5_000L;
+
+    /**
+     * Packet ready to send.
+     *
+     * @param packet signed bytes to forward
+     * @param seqs   sequence numbers of the frames it carries
+     */
+    public record Outgoing(byte[] packet, List<Long> seqs) {}
+
+    private static final class Pending {
+        final RpcFrameCodec.Frame frame;
+        long lastSentAt = 0L;
+        int attempts = 0;
+
+        Pending(RpcFrameCodec.Frame frame) {
+            this.frame = frame;
+        }
+    }
+
+    private final long session = new SecureRandom().nextLong();
+    private final int capacity;
+    private final Map<Long, Pending> pending = new LinkedHashMap<>();
+    private long nextSeq = 1L;
+
+    /**
+     * @param capacity unacknowledged RPCs kept; the oldest is dropped beyond this
+     */
+    public RpcOutbox(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * @return session id that frames from this outbox carry
+     */
+    public long session() {
+        return session;
+    }
+
+    /**
+     * Queue an RPC for sending.
+     *
+     * @param envelope RPC to send
+     * @return its sequence number
+     */
+    public synchronized long submit(RpcEnvelope envelope) {
+        if (pending.size() >= capacity) {
+            Iterator<Pending> it = pending.values().iterator();
+            var oldest = it.next();
+            it.remove();
+            LOG.warning("Outbound RPC queue full; dropping unacknowledged " + oldest.frame.envelope().action() + ".");
+        }
+        long seq = nextSeq++;
+        pending.put(seq, new Pending(new RpcFrameCodec.Frame(seq, envelope)));
+        return seq;
+    }
+
+    /**
+     * Take the frames that are due and pack them into one packet. The frames count as sent at
+     * {@code now}; call {@link #sendFailed} if the packet could not be handed to a player.
+     *
+     * @param now    current time in epoch millis
+     * @param signer signer for the shared secret
+     * @return the packet, or null when nothing is due
+     */
+    public synchronized Outgoing nextBatch(long now, RpcSigner signer) {
+        var frames = new ArrayList<RpcFrameCodec.Frame>();
+        var seqs = new ArrayList<Long>();
+        for (Iterator<Pending> it = pending.values().iterator(); it.hasNext() && frames.size() < MAX_BATCH_FRAMES; ) {
+            var p = it.next();
+            if (p.lastSentAt != 0L && now - p.lastSentAt < RETRANSMIT_MILLIS) continue;
+            if (p.attempts >= MAX_ATTEMPTS) {
+                it.remove();
+                LOG.warning("Giving up on RPC " + p.frame.envelope().action() + " after " + p.attempts + " unacknowledged sends.");
+                continue;
+            }
+            p.lastSentAt = now;
+            p.attempts++;
+            frames.add(p.frame);
+            seqs.add(p.frame.seq());
+        }
+        return frames.isEmpty() ? null : new Outgoing(RpcFrameCodec.encodeBatch(session, frames, signer), seqs);
+    }
+
+    /**
+     * Make the frames of a packet that was not sent due again right away.
+     *
+     * @param outgoing packet returned by {@link #nextBatch}
+     */
+    public synchronized void sendFailed(Outgoing outgoing) {
+        for (long seq : outgoing.seqs()) {
+            var p = pending.get(seq);
+            if (p != null) {
+                p.lastSentAt = 0L;
+                p.attempts = Math.max(0, p.attempts - 1);
+            }
+        }
+    }
+
+    /**
+     * Remove acknowledged frames.
+     *
+     * @param ack acknowledgement received from the backend
+     * @return number of frames removed; 0 when the ack belongs to another sender
+     */
+    public synchronized int acknowledge(RpcFrameCodec.Ack ack) {
+        if (ack.session() != session) return 0;
+        int removed = 0;
+        for (long seq : ack.seqs()) {
+            if (pending.remove(seq) != null) removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * @return number of unacknowledged RPCs
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+}
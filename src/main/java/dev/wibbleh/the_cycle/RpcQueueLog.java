@@ -0,0 +1,470 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary write-ahead log backing the persistent RPC queue.
+ * <p>
+ * The file starts with a 5-byte header ({@code HCRQ} and a format version) followed by records:
+ * <pre>
+ * int length | int crc32c(body) | body
+ * body: byte type | long id | ...
+ *   ENQUEUE  long timestamp | int attempts | short+utf8 action | short+utf8 caller | int+bytes payload
+ *   ATTEMPT  int attempts
+ *   ACK      (nothing; the entry was delivered or dropped)
+ * </pre>
+ * Enqueueing, counting an attempt and acknowledging an entry each cost one small append. Appends
+ * reach the OS immediately but are forced to disk in groups, at most {@link #GROUP_COMMIT_MILLIS}
+ * after the first unforced one, so a burst of changes shares a single fsync. Replay is one streaming
+ * pass that stops at the first torn or corrupt record. Once at least half of the records describe
+ * entries that are gone or attempt counts that were superseded, the log is rewritten in the
+ * background with one record per live entry. Neither the group fsync nor the compaction fsync holds
+ * the log's lock, so callers appending under their own locks never wait on the disk. All methods
+ * are thread-safe.
+ */
+public class RpcQueueLog {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final byte[] MAGIC = {'H', 'C', 'R', 'Q'};
+    private static final byte VERSION = 1;
+    private static final byte ENQUEUE = 1;
+    private static final byte ATTEMPT = 2;
+    private static final byte ACK = 3;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    static final long GROUP_COMMIT_MILLIS = 50L;
+    static final int COMPACT_MIN_RECORDS = 64;
+    static final double COMPACT_DEAD_RATIO = 0.5;
+
+    /**
+     * A queued RPC that has not been acknowledged.
+     *
+     * @param id  log id
+     * @param rpc queued RPC with its current attempt count
+     */
+    public record Entry(long id, RpcQueueStorage.QueuedRpc rpc) {}
+
+    private final File file;
+    private final Map<Long, RpcQueueStorage.QueuedRpc> live = new LinkedHashMap<>();
+    private final ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "HardcoreCycle-RpcLog");
+        t.setDaemon(true);
+        return t;
+    });
+    private FileChannel channel;
+    private long nextId = 1L;
+    private int records = 0;
+    private boolean syncScheduled = false;
+    private boolean dirty = false;
+    private boolean compactScheduled = false;
+    private boolean closed = false;
+    // Record bodies appended while a compaction writes its snapshot; null when none is running
+    private List<byte[]> tail;
+
+    /**
+     * Open the log, replaying existing records. A torn tail or dead records are dropped by
+     * rewriting the file before anything new is appended.
+     *
+     * @param file log file (created on first append)
+     */
+    public RpcQueueLog(File file) {
+        this.file = file;
+        var replayed = replay(file);
+        for (var e : replayed.entries()) live.put(e.id(), e.rpc());
+        nextId = replayed.maxId() + 1;
+        records = replayed.records();
+        if (replayed.torn() || records > live.size()) compact();
+    }
+
+    /**
+     * Append a new entry.
+     *
+     * @param rpc queued RPC
+     * @return log id of the entry
+     */
+    public synchronized long append(RpcQueueStorage.QueuedRpc rpc) {
+        long id = nextId++;
+        live.put(id, rpc);
+        write(enqueueRecord(id, rpc));
+        return id;
+    }
+
+    /**
+     * Record the attempt count of an entry after a failed delivery.
+     *
+     * @param id       log id
+     * @param attempts attempts made so far
+     */
+    public synchronized void recordAttempt(long id, int attempts) {
+        var rpc = live.get(id);
+        if (rpc == null) return;
+        live.put(id, new RpcQueueStorage.QueuedRpc(rpc.payload(), rpc.action(), rpc.caller(), rpc.timestamp(), attempts));
+        var body = ByteBuffer.allocate(13).put(ATTEMPT).putLong(id).putInt(attempts);
+        write(body.array());
+    }
+
+    /**
+     * Remove an entry: it was delivered, rejected, expired or evicted.
+     *
+     * @param id log id
+     */
+    public synchronized void ack(long id) {
+        if (live.remove(id) == null) return;
+        write(ByteBuffer.allocate(9).put(ACK).putLong(id).array());
+    }
+
+    /**
+     * @return entries not acknowledged yet, in append order
+     */
+    public synchronized List<Entry> pending() {
+        var list = new ArrayList<Entry>(live.size());
+        for (var e : live.entrySet()) list.add(new Entry(e.getKey(), e.getValue()));
+        return list;
+    }
+
+    /**
+     * Force all appended records to disk now.
+     */
+    public synchronized void sync() {
+        if (channel == null || !dirty) return;
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        try {
+            channel.force(false);
+            dirty = false;
+            CycleJfrEvents.persisted(event, file.getName(), "sync", 0L);
+        } catch (IOException e) {
+            LOG.warning("Failed to sync RPC queue log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Force pending records to disk and close the file. Further changes are not written.
+     */
+    public void close() {
+        synchronized (this) {
+            sync();
+            closed = true;
+            closeChannel();
+        }
+        background.shutdownNow();
+    }
+
+    /**
+     * Rewrite the log with one enqueue record per live entry. The snapshot is written and fsynced
+     * without holding the lock; records appended meanwhile are copied after it before the new file
+     * replaces the old one.
+     */
+    void compact() {
+        var bodies = new ArrayList<ByteBuffer>();
+        synchronized (this) {
+            compactScheduled = false;
+            if (closed || tail != null) return;
+            bodies.add(ByteBuffer.wrap(header()));
+            for (var e : live.entrySet()) bodies.add(frame(enqueueRecord(e.getKey(), e.getValue())));
+            tail = new ArrayList<>();
+        }
+        long bytes = 0L;
+        for (var b : bodies) bytes += b.remaining();
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        File tmp;
+        try {
+            tmp = AtomicFileUtil.writeTemp(file, bodies.toArray(ByteBuffer[]::new));
+        } catch (IOException e) {
+            LOG.warning("Failed to compact RPC queue log: " + e.getMessage());
+            synchronized (this) {
+                tail = null;
+            }
+            return;
+        }
+        synchronized (this) {
+            var appended = tail;
+            tail = null;
+            if (closed) {
+                tmp.delete();
+                return;
+            }
+            FileChannel next = null;
+            try {
+                next = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                for (var body : appended) {
+                    var buf = frame(body);
+                    while (buf.hasRemaining()) next.write(buf);
+                }
+                AtomicFileUtil.replace(tmp, file);
+            } catch (IOException e) {
+                LOG.warning("Failed to compact RPC queue log: " + e.getMessage());
+                if (next != null) {
+                    try {
+                        next.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+                tmp.delete();
+                return;
+            }
+            closeChannel();
+            channel = next;
+            records = bodies.size() - 1 + appended.size();
+            // The snapshot is on disk; only records copied after it still need a sync
+            dirty = !appended.isEmpty();
+            if (dirty) scheduleSync();
+            CycleJfrEvents.persisted(event, file.getName(), "compact", bytes);
+        }
+    }
+
+    /**
+     * @return records in the file, live or dead
+     */
+    synchronized int recordCount() {
+        return records;
+    }
+
+    /**
+     * @param file candidate file
+     * @return true when the file starts with the log header
+     */
+    static boolean isLog(File file) {
+        if (file == null || !file.isFile() || file.length() < MAGIC.length) return false;
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            return Arrays.equals(in.readNBytes(MAGIC.length), MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Result of replaying a log file.
+     *
+     * @param entries live entries in append order
+     * @param maxId   highest id seen (0 when none)
+     * @param records complete records read
+     * @param torn    true when the file ended in a partial or corrupt record
+     */
+    record Replay(List<Entry> entries, long maxId, int records, boolean torn) {}
+
+    /**
+     * Read a log in one streaming pass. Reading stops at the first record that is incomplete or
+     * fails its checksum; everything before it is kept.
+     *
+     * @param file log file
+     * @return replayed state (empty when the file does not exist or is not a log)
+     */
+    static Replay replay(File file) {
+        var live = new LinkedHashMap<Long, RpcQueueStorage.QueuedRpc>();
+        long maxId = 0L;
+        int count = 0;
+        boolean torn = false;
+        if (file == null || !file.exists()) return new Replay(List.of(), 0L, 0, false);
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            byte[] head = in.readNBytes(MAGIC.length + 1);
+            if (head.length < MAGIC.length + 1 || !Arrays.equals(Arrays.copyOf(head, MAGIC.length), MAGIC) || head[MAGIC.length] > VERSION) {
+                LOG.warning("RPC queue log " + file.getName() + " has an unknown header; ignoring it.");
+                return new Replay(List.of(), 0L, 0, true);
+            }
+            var crc = new CRC32C();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                byte[] body;
+                int checksum;
+                try {
+                    if (length < 9 || length > MAX_RECORD_BYTES) {
+                        torn = true;
+                        break;
+                    }
+                    checksum = in.readInt();
+                    body = in.readNBytes(length);
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+                crc.reset();
+                crc.update(body);
+                if (body.length < length || (int) crc.getValue() != checksum) {
+                    torn = true;
+                    break;
+                }
+                count++;
+                var buf = ByteBuffer.wrap(body);
+                byte type = buf.get();
+                long id = buf.getLong();
+                maxId = Math.max(maxId, id);
+                switch (type) {
+                    case ENQUEUE -> live.put(id, readEnqueue(buf));
+                    case ATTEMPT -> {
+                        var rpc = live.get(id);
+                        if (rpc != null) live.put(id, new RpcQueueStorage.QueuedRpc(rpc.payload(), rpc.action(), rpc.caller(), rpc.timestamp(), buf.getInt()));
+                    }
+                    case ACK -> live.remove(id);
+                    default -> { }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warning("Failed to read RPC queue log: " + e.getMessage());
+            torn = true;
+        }
+        var entries = new ArrayList<Entry>(live.size());
+        for (var e : live.entrySet()) entries.add(new Entry(e.getKey(), e.getValue()));
+        return new Replay(entries, maxId, count, torn);
+    }
+
+    private static RpcQueueStorage.QueuedRpc readEnqueue(ByteBuffer buf) {
+        long timestamp = buf.getLong();
+        int attempts = buf.getInt();
+        String action = readString(buf);
+        String caller = readString(buf);
+        byte[] payload = new byte[buf.getInt()];
+        buf.get(payload);
+        return new RpcQueueStorage.QueuedRpc(payload, action, caller, timestamp, attempts);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getShort() & 0xFFFF;
+        if (len == 0xFFFF) return null;
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] enqueueRecord(long id, RpcQueueStorage.QueuedRpc rpc) {
+        byte[] action = utf8(rpc.action());
+        byte[] caller = utf8(rpc.caller());
+        byte[] payload = rpc.payload() == null ? new byte[0] : rpc.payload();
+        var buf = ByteBuffer.allocate(1 + 8 + 8 + 4 + 2 + lengthOf(action) + 2 + lengthOf(caller) + 4 + payload.length);
+        buf.put(ENQUEUE).putLong(id).putLong(rpc.timestamp()).putInt(rpc.attempts());
+        putString(buf, action);
+        putString(buf, caller);
+        buf.putInt(payload.length).put(payload);
+        return buf.array();
+    }
+
+    private static byte[] utf8(String s) {
+        if (s == null) return null;
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        // Action and caller are short identifiers; anything longer is cut rather than rejected
+        return bytes.length < 0xFFFF ? bytes : Arrays.copyOf(bytes, 0xFFFE);
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] bytes) {
+        if (bytes == null) {
+            buf.putShort((short) 0xFFFF);
+        } else {
+            buf.putShort((short) bytes.length).put(bytes);
+        }
+    }
+
+    private static ByteBuffer frame(byte[] body) {
+        var crc = new CRC32C();
+        crc.update(body);
+        var buf = ByteBuffer.allocate(8 + body.length);
+        buf.putInt(body.length).putInt((int) crc.getValue()).put(body);
+        return buf.flip();
+    }
+
+    private static byte[] header() {
+        byte[] header = Arrays.copyOf(MAGIC, MAGIC.length + 1);
+        header[MAGIC.length] = VERSION;
+        return header;
+    }
+
+    private void write(byte[] body) {
+        if (closed) return;
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        try {
+            if (channel == null) {
+                var df = file.getParentFile();
+                if (df != null && !df.exists() && !df.mkdirs()) {
+                    LOG.warning("Failed to create data folder: " + df.getAbsolutePath());
+                }
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                if (channel.size() == 0) channel.write(ByteBuffer.wrap(header()));
+            }
+            int written = channel.write(frame(body));
+            records++;
+            dirty = true;
+            if (tail != null) tail.add(body);
+            CycleJfrEvents.persisted(event, file.getName(), "append", written);
+        } catch (IOException e) {
+            LOG.warning("Failed to append to RPC queue log: " + e.getMessage());
+            closeChannel();
+            return;
+        }
+        scheduleSync();
+        if (!compactScheduled && tail == null && records >= COMPACT_MIN_RECORDS && records - live.size() >= records * COMPACT_DEAD_RATIO) {
+            compactScheduled = true;
+            background.execute(this::compact);
+        }
+    }
+
+    private void scheduleSync() {
+        if (syncScheduled) return;
+        syncScheduled = true;
+        background.schedule(this::groupSync, GROUP_COMMIT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Force the records of the last group. Runs without the lock so appends continue during the fsync.
+     */
+    private void groupSync() {
+        FileChannel ch;
+        synchronized (this) {
+            syncScheduled = false;
+            if (channel == null || !dirty) return;
+            ch = channel;
+            dirty = false;
+        }
+        var event = new CycleJfrEvents.PersistenceWrite();
+        event.begin();
+        try {
+            ch.force(false);
+            CycleJfrEvents.persisted(event, file.getName(), "sync", 0L);
+        } catch (ClosedChannelException e) {
+            // Replaced by a compaction (which forced or rescheduled its records) or closed on shutdown
+        } catch (IOException e) {
+            LOG.warning("Failed to sync RPC queue log: " + e.getMessage());
+            synchronized (this) {
+                // Retried with the next append, like a failed sync()
+                if (ch == channel) dirty = true;
+            }
+        }
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        channel = null;
+    }
+}
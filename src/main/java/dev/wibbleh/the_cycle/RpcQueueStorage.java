@@ -18,6 +18,9 @@ import java.util.stream.Collectors;
 /**
  * Utility class for persisting and loading failed RPC messages to/from disk.
  * This ensures that RPC messages queued for retry are not lost on server restart.
+ * <p>
+ * The live queue is kept in an {@link RpcQueueLog}; {@link #save} writes the older JSON snapshot
+ * format, and {@link #load} reads either.
  */
 public final class RpcQueueStorage {
     private static final Logger LOG = Logger.getLogger("HardcoreCycle");
@@ -113,13 +116,21 @@ public final class RpcQueueStorage {
     }
 
     /**
-     * Load queued RPC messages from a JSON file.
+     * Load queued RPC messages from an {@link RpcQueueLog} or a JSON file.
      *
      * @param file target file to read from
      * @return list of queued RPCs (may be empty if file doesn't exist or is invalid)
      */
     public static List<QueuedRpc> load(File file) {
         if (file == null || !file.exists()) return new ArrayList<>();
+        if (RpcQueueLog.isLog(file)) {
+            // One streaming pass over the log; acknowledged entries never materialize
+            var result = new ArrayList<QueuedRpc>();
+            for (var e : RpcQueueLog.replay(file).entries()) {
+                if (!e.rpc().isExpired()) result.add(e.rpc());
+            }
+            return result;
+        }
 
         try (var reader = new FileReader(file)) {
             Type listType = new TypeToken<List<QueuedRpcDto>>(){}.getType();
@@ -0,0 +1,313 @@
+package dev.wibbleh.the_cycle;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+
+/**
+ * Delivers RPCs that could not be sent to the hardcore backend, entirely off the main thread.
+ * <p>
+ * Each queued RPC is retried on its own schedule: after a failed attempt it waits an exponential
+ * backoff with jitter on a {@link TimerWheel} and is then handed to a ready queue, from which at most
+ * {@code maxConcurrent} posts are in flight at once. While anything is queued the backend's
+ * {@code /health} endpoint is probed; when it comes back after being down every waiting entry is
+ * sent straight away instead of sitting out its backoff. Successful and rejected (4xx) RPCs leave
+ * the queue. Every change is appended to an {@link RpcQueueLog} so the queue survives restarts.
+ */
+public class RpcRetryEngine {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final long WHEEL_TICK_MILLIS = 100L;
+    private static final int WHEEL_SLOTS = 512;
+    private static final int HEALTH_TIMEOUT_MS = 2000;
+    private static final int JITTER_DIVISOR = 4;
+
+    /**
+     * Tuning of the engine.
+     *
+     * @param maxConcurrent     posts in flight at once
+     * @param baseBackoffMillis delay after the first failed attempt
+     * @param maxBackoffMillis  upper bound of the delay between attempts
+     * @param healthPollMillis  interval between {@code /health} probes while entries are queued
+     * @param maxEntries        queued RPCs kept; the oldest is dropped beyond this
+     */
+    public record Settings(int maxConcurrent, long baseBackoffMillis, long maxBackoffMillis, long healthPollMillis, int maxEntries) {}
+
+    /**
+     * Counters since startup.
+     *
+     * @param queued    RPCs waiting for delivery
+     * @param inFlight  posts currently outstanding
+     * @param delivered RPCs delivered
+     * @param dropped   RPCs dropped as expired, rejected by the backend or evicted from a full queue
+     * @param failures  failed attempts
+     * @param flushes   times the whole queue was sent because the backend came back
+     */
+    public record Stats(int queued, int inFlight, long delivered, long dropped, long failures, long flushes) {}
+
+    private static final class Entry {
+        final long id;
+        RpcQueueStorage.QueuedRpc rpc;
+        TimerWheel.Timeout timer;
+        boolean ready;
+        boolean inFlight;
+
+        Entry(long id, RpcQueueStorage.QueuedRpc rpc) {
+            this.id = id;
+            this.rpc = rpc;
+        }
+    }
+
+    private final String url;
+    private final String healthUrl;
+    private final RpcSigner signer;
+    private final RpcQueueLog log;
+    private final Settings settings;
+    private final TimerWheel wheel = new TimerWheel(WHEEL_TICK_MILLIS, WHEEL_SLOTS, "HardcoreCycle-RpcRetry");
+    private final Map<Long, Entry> entries = new LinkedHashMap<>();
+    private final ArrayDeque<Entry> ready = new ArrayDeque<>();
+    private long nextId = 0L;
+    // entries.size(), published for readers on the main thread that must not wait for the lock
+    private volatile int queuedCount = 0;
+    private int inFlight = 0;
+    private long delivered = 0L;
+    private long dropped = 0L;
+    private long failures = 0L;
+    private long flushes = 0L;
+    private boolean backendUp = false;
+    private TimerWheel.Timeout healthTimer;
+    private boolean closed = false;
+
+    /**
+     * @param url       RPC endpoint of the hardcore backend; when empty entries are kept but not sent
+     * @param healthUrl {@code /health} endpoint of the backend, or null to rely on backoff alone
+     * @param signer    signer for the {@code X-Signature} header
+     * @param log       log the queue is persisted to (may be null)
+     * @param settings  tuning
+     */
+    public RpcRetryEngine(String url, String healthUrl, RpcSigner signer, RpcQueueLog log, Settings settings) {
+        this.url = url == null ? "" : url.trim();
+        this.healthUrl = healthUrl;
+        this.signer = signer;
+        this.log = log;
+        this.settings = settings;
+    }
+
+    /**
+     * Start delivering the entries replayed from the log.
+     */
+    public void load() {
+        if (log == null) return;
+        List<RpcQueueLog.Entry> loaded = log.pending();
+        synchronized (this) {
+            for (var e : loaded) add(e.id(), e.rpc());
+        }
+        LOG.info("Loaded " + loaded.size() + " persistent RPCs from disk.");
+        pump();
+    }
+
+    /**
+     * Queue an RPC for delivery. Costs one log append on the calling thread; the post and the
+     * fsync happen in the background.
+     *
+     * @param payload signed body
+     * @param action  RPC action
+     * @param caller  caller recorded in the body
+     */
+    public void enqueue(byte[] payload, String action, String caller) {
+        if (payload == null || payload.length == 0) return;
+        synchronized (this) {
+            if (closed) return;
+            var rpc = new RpcQueueStorage.QueuedRpc(payload, action, caller, Instant.now().getEpochSecond(), 0);
+            add(log != null ? log.append(rpc) : nextId++, rpc);
+            LOG.info("Enqueued persistent RPC; queue size=" + entries.size());
+        }
+        pump();
+    }
+
+    /**
+     * Send every queued RPC that is not already in flight now, ignoring its backoff.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (closed) return;
+            flushes++;
+            for (var e : entries.values()) markReady(e);
+        }
+        pump();
+    }
+
+    /**
+     * Stop retrying and close the log. Posts still in flight stay in the log.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            closed = true;
+        }
+        wheel.stop();
+        if (log != null) log.close();
+    }
+
+    /**
+     * @return counters since startup
+     */
+    public synchronized Stats getStats() {
+        return new Stats(queuedCount, inFlight, delivered, dropped, failures, flushes);
+    }
+
+    /**
+     * Lock-free read of {@link Stats#queued()} for callers on the main thread (health snapshot,
+     * metrics gauge) that must not block behind a delivery holding the engine's lock.
+     *
+     * @return RPCs waiting for delivery
+     */
+    public int queued() {
+        return queuedCount;
+    }
+
+    /**
+     * Delay before the next attempt of an entry that failed {@code attempts} times: the base
+     * delay doubled per attempt, capped, plus up to 25% jitter so entries do not retry in lockstep.
+     */
+    static long backoffMillis(int attempts, long baseMillis, long maxMillis) {
+        int doublings = Math.min(Math.max(0, attempts - 1), 30);
+        long capped = Math.min(maxMillis, baseMillis << doublings);
+        if (capped <= 0) return 0L;
+        return capped + ThreadLocalRandom.current().nextLong(capped / JITTER_DIVISOR + 1);
+    }
+
+    private void add(long id, RpcQueueStorage.QueuedRpc rpc) {
+        if (entries.size() >= settings.maxEntries()) {
+            Iterator<Entry> it = entries.values().iterator();
+            if (it.hasNext()) {
+                var oldest = it.next();
+                it.remove();
+                if (oldest.timer != null) oldest.timer.cancel();
+                if (log != null) log.ack(oldest.id);
+                dropped++;
+                LOG.warning("Persistent RPC queue full; dropping oldest message.");
+            }
+        }
+        var entry = new Entry(id, rpc);
+        entries.put(entry.id, entry);
+        queuedCount = entries.size();
+        markReady(entry);
+        ensureHealthPolling();
+    }
+
+    private boolean isQueued(Entry e) {
+        return entries.get(e.id) == e;
+    }
+
+    private void markReady(Entry e) {
+        if (e.ready || e.inFlight) return;
+        if (e.timer != null) {
+            e.timer.cancel();
+            e.timer = null;
+        }
+        e.ready = true;
+        ready.add(e);
+    }
+
+    /**
+     * Start posts from the ready queue up to the concurrency cap.
+     */
+    private void pump() {
+        if (url.isEmpty()) return;
+        var launch = new ArrayList<Entry>();
+        synchronized (this) {
+            while (!closed && inFlight < settings.maxConcurrent() && !ready.isEmpty()) {
+                var e = ready.poll();
+                e.ready = false;
+                if (!isQueued(e)) continue;
+                if (e.rpc.isExpired()) {
+                    entries.remove(e.id);
+                    queuedCount = entries.size();
+                    if (log != null) log.ack(e.id);
+                    dropped++;
+                    LOG.info("Removing expired RPC: action=" + e.rpc.action());
+                    continue;
+                }
+                e.inFlight = true;
+                inFlight++;
+                launch.add(e);
+            }
+        }
+        for (var e : launch) {
+            byte[] payload = e.rpc.payload();
+            HttpRetryUtil.postAsync(url, new String(payload, StandardCharsets.UTF_8), signer.signHex(payload), HttpRetryUtil.RetryConfig.noRetry())
+                    .thenAccept(result -> completed(e, result));
+        }
+    }
+
+    private void completed(Entry e, HttpRetryUtil.HttpResult result) {
+        synchronized (this) {
+            e.inFlight = false;
+            inFlight--;
+            if (!isQueued(e) || closed) {
+                // Evicted from a full queue while the post was outstanding
+            } else if (result.success()) {
+                entries.remove(e.id);
+                queuedCount = entries.size();
+                if (log != null) log.ack(e.id);
+                delivered++;
+                backendUp = true;
+                LOG.info("Persistent RPC retry succeeded: action=" + e.rpc.action());
+            } else if (result.statusCode() >= 400 && result.statusCode() < 500) {
+                // The backend understood and refused the request; repeating it cannot help
+                entries.remove(e.id);
+                queuedCount = entries.size();
+                if (log != null) log.ack(e.id);
+                dropped++;
+                LOG.warning("Dropping persistent RPC rejected by backend: action=" + e.rpc.action() + " status=" + result.statusCode());
+            } else {
+                failures++;
+                if (result.statusCode() < 0) backendUp = false;
+                e.rpc = e.rpc.withIncrementedAttempts();
+                if (log != null) log.recordAttempt(e.id, e.rpc.attempts());
+                long delay = backoffMillis(e.rpc.attempts(), settings.baseBackoffMillis(), settings.maxBackoffMillis());
+                e.timer = wheel.schedule(() -> retryDue(e), delay);
+                ensureHealthPolling();
+                LOG.fine("Persistent RPC retry failed: action=" + e.rpc.action() + " - next attempt in " + delay + "ms");
+            }
+        }
+        pump();
+    }
+
+    private void retryDue(Entry e) {
+        synchronized (this) {
+            if (closed || !isQueued(e)) return;
+            e.timer = null;
+            markReady(e);
+        }
+        pump();
+    }
+
+    private void ensureHealthPolling() {
+        if (healthUrl == null || healthUrl.isEmpty() || healthTimer != null || closed) return;
+        healthTimer = wheel.schedule(this::probeHealth, settings.healthPollMillis());
+    }
+
+    private void probeHealth() {
+        HttpRetryUtil.getStatusAsync(healthUrl, HEALTH_TIMEOUT_MS).thenAccept(code -> {
+            boolean up = code >= 200 && code < 300;
+            boolean cameBack;
+            synchronized (this) {
+                cameBack = up && !backendUp;
+                backendUp = up;
+                healthTimer = null;
+                if (!entries.isEmpty()) ensureHealthPolling();
+            }
+            if (cameBack) {
+                LOG.info("Hardcore backend is healthy again; flushing persistent RPC queue.");
+                flush();
+            }
+        });
+    }
+}
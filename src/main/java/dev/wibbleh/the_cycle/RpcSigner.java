@@ -0,0 +1,89 @@
+package dev.wibbleh.the_cycle;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * HMAC-SHA256 signer for one RPC secret.
+ * <p>
+ * The secret is resolved once, when the configuration is loaded, into a keyed prototype {@link Mac}.
+ * Signing borrows a clone from a small pool and returns it afterwards, so each {@code Mac} is used by
+ * one thread at a time and neither the key schedule nor the provider lookup is repeated per request.
+ * A pool is used instead of a {@link ThreadLocal} because HTTP requests run on short-lived virtual
+ * threads. Signatures are computed over raw bytes and compared in constant time.
+ */
+public final class RpcSigner {
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_POOLED = 16;
+
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final ConcurrentLinkedQueue<Mac> pool = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param secret shared secret (null is treated as empty)
+     */
+    public RpcSigner(String secret) {
+        byte[] raw = (secret == null ? "" : secret).getBytes(StandardCharsets.UTF_8);
+        // SecretKeySpec rejects an empty key; HMAC pads short keys with zeros, so one zero byte is equivalent
+        key = new SecretKeySpec(raw.length == 0 ? new byte[1] : raw, ALGORITHM);
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(key);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    /**
+     * @param payload bytes to sign
+     * @return raw signature
+     */
+    public byte[] sign(byte[] payload) {
+        Mac mac = borrow();
+        try {
+            return mac.doFinal(payload);
+        } finally {
+            if (pool.size() < MAX_POOLED) pool.offer(mac);
+        }
+    }
+
+    /**
+     * @param payload bytes to sign
+     * @return lowercase hex signature
+     */
+    public String signHex(byte[] payload) {
+        return RpcHttpUtil.toHex(sign(payload));
+    }
+
+    /**
+     * @param payload      signed bytes
+     * @param hexSignature signature received with the payload
+     * @return true when the signature matches
+     */
+    public boolean verify(byte[] payload, String hexSignature) {
+        byte[] received = RpcHttpUtil.fromHex(hexSignature);
+        return received != null && MessageDigest.isEqual(sign(payload), received);
+    }
+
+    private Mac borrow() {
+        Mac mac = pool.poll();
+        if (mac != null) return mac;
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Providers without clone support: key a fresh instance
+            try {
+                Mac fresh = Mac.getInstance(ALGORITHM);
+                fresh.init(key);
+                return fresh;
+            } catch (GeneralSecurityException ex) {
+                throw new IllegalStateException("Cannot create HMAC instance", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+
+/**
+ * Small helper around the server's tick-time statistics so background work (spare world
+ * generation, chunk pre-generation, player transfers) can back off while the server is busy.
+ */
+public final class ServerLoad {
+    private ServerLoad() {
+        // Utility class
+    }
+
+    /**
+     * Return the server's average tick duration in milliseconds (MSPT).
+     * Returns 0 when the value is unavailable (e.g. unit tests without a running server).
+     *
+     * @return average milliseconds per tick, or 0 when unknown
+     */
+    public static double averageTickMillis() {
+        try {
+            double mspt = Bukkit.getAverageTickTime();
+            return Double.isFinite(mspt) && mspt > 0 ? mspt : 0.0;
+        } catch (Throwable t) {
+            return 0.0;
+        }
+    }
+}
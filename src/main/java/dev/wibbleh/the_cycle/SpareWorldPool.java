@@ -0,0 +1,300 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps a small pool of pre-generated hardcore worlds so a cycle swap only has to load an
+ * existing world folder instead of generating one from scratch.
+ * <p>
+ * Spare worlds are named after the cycle they will serve ({@code hardcore_cycle_<n>}) so that the
+ * rest of the plugin (join handling, deletion) keeps working on plain world names. A spare is
+ * generated on the main thread during quiet periods (no cycle in progress, nobody playing in the
+ * current hardcore world and the server tick time under a threshold), then unloaded with a save so
+ * it costs nothing while it waits. Generation stalls the main thread for seconds, which players in
+ * a hardcore world must never absorb.
+ * Bookkeeping is persisted to {@code spare_worlds.json} so spares survive restarts; {@link #save()}
+ * only takes a copy and the file is replaced atomically on an async thread.
+ * <p>
+ * All methods except {@link #flush()} must be invoked on the main server thread.
+ */
+public class SpareWorldPool {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final String WORLD_PREFIX = "hardcore_cycle_";
+
+    private final JavaPlugin plugin;
+    private final int targetSize;
+    private final double maxMsptForRefill;
+    private final boolean randomizeSeed;
+    private final long configuredSeed;
+    private final File poolFile;
+    private final Consumer<String> discardWorld;
+    private final List<SpareWorld> spares = new ArrayList<>();
+    // Held while writing the file so async writes never interleave
+    private final Object ioLock = new Object();
+    // Guarded by this: bookkeeping not written yet, or null when the file is current
+    private List<SpareWorld> unsaved;
+
+    /**
+     * A generated-but-unclaimed world.
+     *
+     * @param worldName world folder name ({@code hardcore_cycle_<cycle>})
+     * @param cycle     cycle number the world was generated for
+     * @param seed      seed used for generation (0 when Minecraft chose it)
+     * @param createdAt epoch seconds when the world was generated
+     */
+    public record SpareWorld(String worldName, int cycle, long seed, long createdAt) {}
+
+    /**
+     * @param plugin           owning plugin (used for data folder and logging)
+     * @param targetSize       number of spare worlds to keep ready (0 disables the pool)
+     * @param maxMsptForRefill refill is skipped while the average tick time is above this value
+     * @param randomizeSeed    passed to {@link SeedUtil#selectSeed(boolean, long)}
+     * @param configuredSeed   passed to {@link SeedUtil#selectSeed(boolean, long)}
+     * @param discardWorld     receives folder names of stale spares that should be deleted
+     */
+    public SpareWorldPool(JavaPlugin plugin, int targetSize, double maxMsptForRefill, boolean randomizeSeed, long configuredSeed, Consumer<String> discardWorld) {
+        this.plugin = plugin;
+        this.targetSize = Math.max(0, targetSize);
+        this.maxMsptForRefill = maxMsptForRefill;
+        this.randomizeSeed = randomizeSeed;
+        this.configuredSeed = configuredSeed;
+        this.poolFile = new File(plugin.getDataFolder(), "spare_worlds.json");
+        this.discardWorld = discardWorld == null ? name -> {} : discardWorld;
+    }
+
+    /**
+     * @return true when the pool is configured to hold at least one spare world
+     */
+    public boolean isEnabled() {
+        return targetSize > 0;
+    }
+
+    /**
+     * @return number of spare worlds currently tracked
+     */
+    public int size() {
+        return spares.size();
+    }
+
+    /**
+     * @return an immutable view of the tracked spare worlds, ordered by cycle
+     */
+    public List<SpareWorld> getSpares() {
+        return List.copyOf(spares);
+    }
+
+    /**
+     * Load persisted bookkeeping and drop entries that can no longer be used: worlds whose folder
+     * disappeared, or worlds for cycles that are not after the current one.
+     *
+     * @param currentCycle current cycle number
+     */
+    public void load(int currentCycle) {
+        spares.clear();
+        spares.addAll(readPoolFile(poolFile));
+        prune(currentCycle);
+        if (!spares.isEmpty()) {
+            plugin.getLogger().info("Loaded " + spares.size() + " spare world(s) from " + poolFile.getName() + ".");
+        }
+    }
+
+    /**
+     * Claim the spare world prepared for the given cycle, loading it into the server.
+     *
+     * @param cycle cycle number about to start
+     * @return the loaded world, or empty when no usable spare exists
+     */
+    public Optional<World> claim(int cycle) {
+        var spare = spares.stream().filter(s -> s.cycle() == cycle).findFirst();
+        if (spare.isEmpty()) return Optional.empty();
+        spares.remove(spare.get());
+        save();
+
+        String name = spare.get().worldName();
+        World world = Bukkit.getWorld(name);
+        if (world == null) {
+            try {
+                // Loading an existing folder skips terrain generation entirely.
+                world = Bukkit.createWorld(new WorldCreator(name).seed(spare.get().seed()));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Failed to load spare world '" + name + "': " + e.getMessage());
+                return Optional.empty();
+            }
+        }
+        if (world != null) {
+            plugin.getLogger().info("Claimed spare world '" + name + "' for cycle #" + cycle + " (" + spares.size() + " spare(s) left).");
+        }
+        return Optional.ofNullable(world);
+    }
+
+    /**
+     * Generate at most one spare world if the pool is below its target, the server is quiet and
+     * nobody is in the current hardcore world.
+     *
+     * @param currentCycle    supplier of the current cycle number
+     * @param cycleInProgress supplier reporting whether a cycle swap is running
+     * @return true when a spare world was generated
+     */
+    public boolean refillOnce(IntSupplier currentCycle, BooleanSupplier cycleInProgress) {
+        if (!isEnabled()) return false;
+        int current = currentCycle.getAsInt();
+        prune(current);
+        if (spares.size() >= targetSize) return false;
+        if (cycleInProgress.getAsBoolean()) return false;
+        World live = Bukkit.getWorld(WORLD_PREFIX + current);
+        if (live != null && !live.getPlayers().isEmpty()) {
+            plugin.getLogger().fine("Skipping spare world refill; " + live.getPlayers().size() + " player(s) in '" + live.getName() + "'.");
+            return false;
+        }
+        double mspt = ServerLoad.averageTickMillis();
+        if (mspt > maxMsptForRefill) {
+            plugin.getLogger().fine("Skipping spare world refill; server busy (mspt=" + mspt + ").");
+            return false;
+        }
+
+        int cycle = nextSpareCycle(current);
+        String name = WORLD_PREFIX + cycle;
+        if (Bukkit.getWorld(name) != null) return false;
+
+        var creator = new WorldCreator(name);
+        OptionalLong maybeSeed = SeedUtil.selectSeed(randomizeSeed, configuredSeed);
+        maybeSeed.ifPresent(creator::seed);
+        long started = System.nanoTime();
+        World world;
+        try {
+            world = Bukkit.createWorld(creator);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to generate spare world '" + name + "': " + e.getMessage());
+            return false;
+        }
+        if (world == null) return false;
+        long seed = world.getSeed();
+        // Keep the spare on disk only; claiming it later reloads the saved folder.
+        if (!Bukkit.unloadWorld(world, true)) {
+            plugin.getLogger().warning("Generated spare world '" + name + "' but could not unload it; it will stay loaded until claimed.");
+        }
+        spares.add(new SpareWorld(name, cycle, seed, Instant.now().getEpochSecond()));
+        spares.sort(Comparator.comparingInt(SpareWorld::cycle));
+        save();
+        plugin.getLogger().info("Generated spare world '" + name + "' in " + (System.nanoTime() - started) / 1_000_000L
+                + "ms (" + spares.size() + "/" + targetSize + ").");
+        return true;
+    }
+
+    /**
+     * Persist the current bookkeeping. The write happens on an async thread; saves made before it
+     * runs share one write.
+     */
+    public void save() {
+        synchronized (this) {
+            unsaved = List.copyOf(spares);
+        }
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, this::flush);
+    }
+
+    /**
+     * Write any bookkeeping not on disk yet and wait for it. Safe to call from any thread; used on shutdown.
+     */
+    public void flush() {
+        synchronized (ioLock) {
+            List<SpareWorld> pending;
+            synchronized (this) {
+                pending = unsaved;
+                unsaved = null;
+            }
+            if (pending != null) writePoolFile(poolFile, pending);
+        }
+    }
+
+    private int nextSpareCycle(int current) {
+        int next = current + 1;
+        for (var s : spares) next = Math.max(next, s.cycle() + 1);
+        return next;
+    }
+
+    /**
+     * Drop spares for cycles that already passed or whose folder was removed. A spare is never
+     * reused for a different cycle number; folders of spares older than the current cycle are
+     * handed to the discard callback. A spare matching the current cycle is the live world's name
+     * and is left alone (it is deleted as the previous world on the next cycle).
+     */
+    private void prune(int currentCycle) {
+        var container = Bukkit.getWorldContainer();
+        boolean changed = spares.removeIf(s -> {
+            if (s.cycle() <= currentCycle) {
+                plugin.getLogger().info("Discarding stale spare world '" + s.worldName() + "' (current cycle #" + currentCycle + ").");
+                if (s.cycle() < currentCycle && Bukkit.getWorld(s.worldName()) == null) discardWorld.accept(s.worldName());
+                return true;
+            }
+            if (container != null && !new File(container, s.worldName()).isDirectory() && Bukkit.getWorld(s.worldName()) == null) {
+                plugin.getLogger().warning("Spare world folder '" + s.worldName() + "' is missing; dropping it from the pool.");
+                return true;
+            }
+            return false;
+        });
+        if (changed) save();
+    }
+
+    /**
+     * Read pool bookkeeping from disk.
+     *
+     * @param file pool file
+     * @return list of spare worlds (empty when the file is missing or invalid)
+     */
+    static List<SpareWorld> readPoolFile(File file) {
+        if (file == null || !file.exists()) return new ArrayList<>();
+        try (var reader = new FileReader(file)) {
+            Type listType = new TypeToken<List<SpareWorld>>() {}.getType();
+            List<SpareWorld> loaded = GSON.fromJson(reader, listType);
+            if (loaded == null) return new ArrayList<>();
+            var result = new ArrayList<SpareWorld>();
+            for (var s : loaded) {
+                if (s != null && s.worldName() != null && s.worldName().equals(WORLD_PREFIX + s.cycle())) result.add(s);
+            }
+            result.sort(Comparator.comparingInt(SpareWorld::cycle));
+            return result;
+        } catch (Exception e) {
+            LOG.warning("Failed to read spare world pool: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Write pool bookkeeping to disk, replacing the file atomically (temp file, fsync, rename).
+     *
+     * @param file   pool file
+     * @param spares spare worlds to persist
+     */
+    static void writePoolFile(File file, List<SpareWorld> spares) {
+        if (file == null) return;
+        try {
+            AtomicFileUtil.writeAtomically(file, "write", ByteBuffer.wrap(GSON.toJson(spares).getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            LOG.warning("Failed to save spare world pool: " + e.getMessage());
+        }
+    }
+}
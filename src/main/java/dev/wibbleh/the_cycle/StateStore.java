@@ -0,0 +1,205 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind store for the plugin's state: the cycle number and stats in a {@code state.json}
+ * snapshot, and the pending moves in a {@link PendingMovesJournal}.
+ * <p>
+ * The in-memory model stays in {@link Main}; callers change it and call {@link #markDirty()}, which
+ * only bumps a counter, so the main thread never touches the disk. A daemon flusher checks the
+ * counter every {@code flushMillis} and, when something changed, captures one snapshot through the
+ * supplier, appends the pending-move differences to the journal and, only when the counters
+ * changed, replaces {@code state.json} atomically (write to a temp file, fsync, rename). Any number
+ * of changes between two flushes cost one write. {@link #flush()} is the barrier used on shutdown:
+ * it returns once everything marked before the call is on disk.
+ */
+public class StateStore {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final Gson GSON = new Gson();
+    // Version 1 also held the pending moves, which moved to the journal in version 2
+    static final int FORMAT_VERSION = 2;
+
+    /**
+     * Persisted plugin state.
+     *
+     * @param version              format version
+     * @param cycleNumber          current cycle
+     * @param attemptsSinceLastWin cycles since the last dragon kill
+     * @param totalWins            dragon kills
+     * @param pendingLobbyMoves    players to move to the lobby on their next join or respawn
+     * @param pendingHardcoreMoves players to move to the hardcore world on their next join; neither
+     *                             set is written to {@code state.json}
+     */
+    public record State(int version, int cycleNumber, int attemptsSinceLastWin, int totalWins,
+                        List<UUID> pendingLobbyMoves, List<UUID> pendingHardcoreMoves) {
+        /**
+         * Current-format state.
+         */
+        public State(int cycleNumber, int attemptsSinceLastWin, int totalWins,
+                     List<UUID> pendingLobbyMoves, List<UUID> pendingHardcoreMoves) {
+            this(FORMAT_VERSION, cycleNumber, attemptsSinceLastWin, totalWins, pendingLobbyMoves, pendingHardcoreMoves);
+        }
+    }
+
+    private final File file;
+    private final PendingMovesJournal pendingMoves;
+    private final long flushMillis;
+    private final Supplier<State> snapshot;
+    private final AtomicLong version = new AtomicLong();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        var t = new Thread(r, "HardcoreCycle-StateStore");
+        t.setDaemon(true);
+        return t;
+    });
+    // Guarded by this: version of the last snapshot on disk
+    private long flushedVersion = 0L;
+    // Guarded by this: counters as last written to file, or null when the file needs rewriting
+    private State writtenCounters;
+    private boolean started = false;
+
+    /**
+     * @param file         snapshot file ({@code state.json})
+     * @param pendingMoves journal holding the pending moves
+     * @param flushMillis  interval between flusher checks
+     * @param snapshot     captures the current state; called on the flusher thread or the flushing thread
+     */
+    public StateStore(File file, PendingMovesJournal pendingMoves, long flushMillis, Supplier<State> snapshot) {
+        this.file = file;
+        this.pendingMoves = pendingMoves;
+        this.flushMillis = Math.max(1L, flushMillis);
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Read the state written by a previous run. Pending moves still in a version 1 snapshot are
+     * used when the journal is empty and are moved to it by the next flush.
+     *
+     * @return the state, or null when {@code state.json} does not exist
+     * @throws IOException when the snapshot cannot be read or parsed
+     */
+    public synchronized State load() throws IOException {
+        if (file == null || !file.exists()) return null;
+        String json = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        State state;
+        try {
+            state = GSON.fromJson(json, State.class);
+        } catch (JsonParseException e) {
+            throw new IOException("Corrupt state file " + file.getName() + ": " + e.getMessage(), e);
+        }
+        if (state == null) throw new IOException("Empty state file " + file.getName());
+        var counters = counters(state);
+        List<UUID> lobby = List.copyOf(pendingMoves.lobby());
+        List<UUID> hardcore = List.copyOf(pendingMoves.hardcore());
+        if (state.version() < FORMAT_VERSION) {
+            if (pendingMoves.isEmpty()) {
+                if (state.pendingLobbyMoves() != null) lobby = state.pendingLobbyMoves();
+                if (state.pendingHardcoreMoves() != null) hardcore = state.pendingHardcoreMoves();
+            }
+            markDirty();
+        } else {
+            writtenCounters = counters;
+        }
+        return new State(FORMAT_VERSION, state.cycleNumber(), state.attemptsSinceLastWin(), state.totalWins(), lobby, hardcore);
+    }
+
+    /**
+     * Start the background flusher.
+     */
+    public synchronized void start() {
+        if (started) return;
+        started = true;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record that the state changed. Cheap and safe to call from any thread; the change is written
+     * by the next flush.
+     */
+    public void markDirty() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * @return true when a change has not been written yet
+     */
+    public synchronized boolean isDirty() {
+        return version.get() != flushedVersion;
+    }
+
+    /**
+     * Write the current state now if anything changed since the last write. Blocks until it is on disk.
+     *
+     * @return true when the file is up to date with every change marked before the call
+     */
+    public synchronized boolean flush() {
+        long target = version.get();
+        if (target == flushedVersion) return true;
+        // Captured after reading the version, so it includes every change counted in target
+        var state = snapshot.get();
+        try {
+            pendingMoves.sync(state.pendingLobbyMoves(), state.pendingHardcoreMoves());
+            var counters = counters(state);
+            if (!counters.equals(writtenCounters)) {
+                write(counters);
+                writtenCounters = counters;
+            }
+        } catch (IOException e) {
+            LOG.warning("Failed to persist plugin state: " + e.getMessage());
+            return false;
+        }
+        flushedVersion = target;
+        return true;
+    }
+
+    /**
+     * Stop the flusher and write any remaining change.
+     *
+     * @return true when the final state is on disk
+     */
+    public boolean close() {
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) flusher.shutdownNow();
+        } catch (InterruptedException e) {
+            flusher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        boolean flushed = flush();
+        pendingMoves.close();
+        return flushed;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive; the next run retries
+            LOG.warning("State flush failed: " + e.getMessage());
+        }
+    }
+
+    private static State counters(State state) {
+        // Null lists are left out of the JSON
+        return new State(FORMAT_VERSION, state.cycleNumber(), state.attemptsSinceLastWin(), state.totalWins(), null, null);
+    }
+
+    private void write(State state) throws IOException {
+        AtomicFileUtil.writeAtomically(file, "write", ByteBuffer.wrap(GSON.toJson(state).getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,149 @@
+package dev.wibbleh.the_cycle;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Hashed timer wheel: a ring of buckets advanced by one daemon thread at a fixed tick.
+ * <p>
+ * Scheduling and cancelling are O(1) regardless of how many timeouts are pending, which suits many
+ * long, mostly-cancelled delays such as per-entry retry backoff. A timeout lands in the bucket its
+ * deadline hashes to and carries the number of full wheel rotations left; each tick only visits one
+ * bucket. Deadlines are rounded up to the tick. Tasks run on the wheel thread and must be short.
+ */
+public class TimerWheel {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long delayTicks;
+        private long remainingRounds;
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long delayTicks) {
+            this.task = task;
+            this.delayTicks = delayTicks;
+        }
+
+        /**
+         * Prevent the task from running if it has not run yet.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        /**
+         * @return true when {@link #cancel()} was called
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] buckets;
+    private final int mask;
+    private final ConcurrentLinkedQueue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private volatile boolean running = true;
+    private long tick = 0L;
+
+    /**
+     * Create and start the wheel.
+     *
+     * @param tickMillis resolution of the wheel
+     * @param slots      number of buckets (rounded up to a power of two)
+     * @param threadName name of the wheel thread
+     */
+    @SuppressWarnings("unchecked")
+    public TimerWheel(long tickMillis, int slots, String threadName) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, tickMillis));
+        int size = Integer.highestOneBit(Math.max(2, slots) - 1) << 1;
+        this.buckets = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) buckets[i] = new ArrayDeque<>();
+        this.mask = size - 1;
+        this.worker = new Thread(this::run, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Run a task after a delay.
+     *
+     * @param task        task to run on the wheel thread
+     * @param delayMillis delay, rounded up to the tick
+     * @return handle to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delayMillis) {
+        long ticks = Math.max(1L, (TimeUnit.MILLISECONDS.toNanos(Math.max(0L, delayMillis)) + tickNanos - 1) / tickNanos);
+        var timeout = new Timeout(task, ticks);
+        incoming.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stop the wheel thread. Pending tasks are dropped.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long next = System.nanoTime() + tickNanos;
+        while (running) {
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleep);
+                } catch (InterruptedException e) {
+                    if (!running) return;
+                    continue;
+                }
+            }
+            next += tickNanos;
+            transferIncoming();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * Place newly scheduled timeouts relative to the current tick. Only the wheel thread touches
+     * the buckets, so scheduling from other threads goes through a lock-free queue.
+     */
+    private void transferIncoming() {
+        Timeout t;
+        while ((t = incoming.poll()) != null) {
+            if (t.cancelled) continue;
+            // The current bucket is processed right after this transfer, so a delay of one tick lands in it
+            long deadline = tick + t.delayTicks - 1;
+            t.remainingRounds = (deadline - tick) / buckets.length;
+            buckets[(int) (deadline & mask)].add(t);
+        }
+    }
+
+    private void expire(ArrayDeque<Timeout> bucket) {
+        for (Iterator<Timeout> it = bucket.iterator(); it.hasNext(); ) {
+            Timeout t = it.next();
+            if (t.cancelled) {
+                it.remove();
+            } else if (t.remainingRounds > 0) {
+                t.remainingRounds--;
+            } else {
+                it.remove();
+                try {
+                    t.task.run();
+                } catch (RuntimeException e) {
+                    LOG.warning("Timer task failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Releases player transfers in waves instead of sending every Connect request in the same tick.
+ * <p>
+ * Queued transfers are released {@code per_wave} players at a time every {@code wave_interval_ticks}.
+ * The wave size shrinks when this server or the destination backend is under load: the local tick
+ * time comes from {@link ServerLoad}, the destination's from its {@code /health} endpoint: the
+ * lobby's {@link BackendHealthMirror} for the hardcore backend, otherwise an asynchronous poll
+ * while transfers are queued. A wave is considered complete once all of its players
+ * have left this server; the release-to-departure latency of every wave is logged and kept in
+ * {@link Stats}.
+ * <p>
+ * All methods except the completion of the async health poll run on the main server thread.
+ */
+public class TransferScheduler implements Listener {
+    private static final int HEALTH_TIMEOUT_MILLIS = 2000;
+    private static final long WAVE_TIMEOUT_MILLIS = 30_000L;
+
+    private final JavaPlugin plugin;
+    private final int perWave;
+    private final long waveIntervalTicks;
+    private final double maxMspt;
+    private final long healthPollMillis;
+    private final BackendHealthMirror backendMirror;
+    private final Deque<Transfer> queue = new ArrayDeque<>();
+    private final Set<UUID> queued = new HashSet<>();
+    private final Map<UUID, Wave> inFlight = new HashMap<>();
+    private final List<Wave> openWaves = new ArrayList<>();
+    private final Map<String, BackendHealth> backendHealth = new ConcurrentHashMap<>();
+    private int taskId = -1;
+    private long wavesReleased = 0;
+    private long playersReleased = 0;
+    private long lastWaveLatencyMillis = -1;
+    private long maxWaveLatencyMillis = 0;
+    private long totalWaveLatencyMillis = 0;
+    private long completedWaves = 0;
+
+    private record Transfer(Player player, String target, String healthUrl, Consumer<Player> action) {}
+
+    private static final class Wave {
+        final long id;
+        final String target;
+        final long releasedAt = System.nanoTime();
+        int size;
+        int remaining;
+        // True while tick() is still handing players to their transfer actions
+        boolean releasing = true;
+
+        Wave(long id, String target) {
+            this.id = id;
+            this.target = target;
+        }
+    }
+
+    private record BackendHealth(double mspt, boolean reachable, long checkedAt, boolean polling) {}
+
+    /**
+     * Snapshot of transfer counters.
+     *
+     * @param queued                players waiting for a wave
+     * @param wavesReleased         waves released since startup
+     * @param playersReleased       players released since startup
+     * @param lastWaveLatencyMillis release-to-departure time of the last completed wave (-1 if none)
+     * @param avgWaveLatencyMillis  mean latency over completed waves (-1 if none)
+     * @param maxWaveLatencyMillis  worst latency over completed waves
+     */
+    public record Stats(int queued, long wavesReleased, long playersReleased, long lastWaveLatencyMillis,
+                        long avgWaveLatencyMillis, long maxWaveLatencyMillis) {}
+
+    /**
+     * @param plugin            owning plugin
+     * @param perWave           players released per wave when nothing is under load (at least 1)
+     * @param waveIntervalTicks ticks between waves (at least 1)
+     * @param maxMspt           tick time above which waves shrink to a single player
+     * @param healthPollSeconds minimum seconds between {@code /health} polls of a destination
+     * @param backendMirror     mirror of the hardcore backend's health, used instead of polling its URL (may be null)
+     */
+    public TransferScheduler(JavaPlugin plugin, int perWave, long waveIntervalTicks, double maxMspt, int healthPollSeconds,
+                             BackendHealthMirror backendMirror) {
+        this.plugin = plugin;
+        this.perWave = Math.max(1, perWave);
+        this.waveIntervalTicks = Math.max(1L, waveIntervalTicks);
+        this.maxMspt = maxMspt;
+        this.healthPollMillis = Math.max(1, healthPollSeconds) * 1000L;
+        this.backendMirror = backendMirror;
+    }
+
+    /**
+     * Queue players for transfer. Players already queued are ignored.
+     *
+     * @param players   players to transfer
+     * @param target    destination label used in logs
+     * @param healthUrl destination {@code /health} URL, or null/empty when unknown
+     * @param action    performs the actual transfer for one player
+     */
+    public void enqueue(Collection<? extends Player> players, String target, String healthUrl, Consumer<Player> action) {
+        int added = 0;
+        for (var p : players) {
+            if (p == null || !queued.add(p.getUniqueId())) continue;
+            queue.add(new Transfer(p, target, healthUrl, action));
+            added++;
+        }
+        if (added == 0) return;
+        plugin.getLogger().info("Queued " + added + " player transfer(s) to " + target + " (" + queue.size() + " waiting).");
+        if (healthUrl != null && !healthUrl.isEmpty()) pollHealth(healthUrl);
+        if (taskId == -1) {
+            // First wave goes out immediately; later waves are paced by the interval
+            taskId = Bukkit.getScheduler().runTaskTimer(plugin, this::tick, 0L, waveIntervalTicks).getTaskId();
+        }
+    }
+
+    /**
+     * Release one wave. Runs on the main thread every {@code wave_interval_ticks} while work remains.
+     */
+    void tick() {
+        expireWaves();
+        if (queue.isEmpty()) {
+            if (openWaves.isEmpty()) stop();
+            return;
+        }
+        var head = queue.peek();
+        double localMspt = ServerLoad.averageTickMillis();
+        double backendMspt = backendMspt(head.healthUrl());
+        int size = waveSize(perWave, maxMspt, Math.max(localMspt, backendMspt));
+
+        var wave = new Wave(wavesReleased + 1, head.target());
+        while (wave.size < size && !queue.isEmpty()) {
+            var t = queue.poll();
+            var id = t.player().getUniqueId();
+            queued.remove(id);
+            if (!t.player().isOnline()) continue;
+            // Tracked before the action runs: a same-server teleport changes world synchronously
+            wave.size++;
+            wave.remaining++;
+            inFlight.put(id, wave);
+            try {
+                t.action().accept(t.player());
+            } catch (Exception e) {
+                plugin.getLogger().warning("Transfer of " + t.player().getName() + " to " + t.target() + " failed: " + e.getMessage());
+                if (inFlight.remove(id) == wave) {
+                    wave.size--;
+                    wave.remaining--;
+                }
+            }
+        }
+        wave.releasing = false;
+        if (wave.size == 0) return;
+        wavesReleased++;
+        openWaves.add(wave);
+        playersReleased += wave.size;
+        plugin.getLogger().info(String.format(Locale.ROOT,
+                "Transfer wave #%d to %s: released %d player(s) (wave size %d, mspt local=%.1f backend=%.1f, %d waiting).",
+                wave.id, wave.target, wave.size, size, localMspt, backendMspt, queue.size()));
+        if (wave.remaining <= 0) completeWave(wave, false);
+    }
+
+    /**
+     * Track departures so per-wave latency can be measured.
+     */
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        onDeparted(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Same-server transfers (lobby world teleports) complete when the player changes world.
+     */
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        var id = event.getPlayer().getUniqueId();
+        if (inFlight.containsKey(id)) onDeparted(id);
+    }
+
+    private void onDeparted(UUID id) {
+        if (queued.remove(id)) queue.removeIf(t -> t.player().getUniqueId().equals(id));
+        var wave = inFlight.remove(id);
+        if (wave == null) return;
+        if (--wave.remaining <= 0 && !wave.releasing) completeWave(wave, false);
+    }
+
+    private void expireWaves() {
+        long now = System.nanoTime();
+        for (var wave : List.copyOf(openWaves)) {
+            if ((now - wave.releasedAt) / 1_000_000L >= WAVE_TIMEOUT_MILLIS) {
+                inFlight.values().removeIf(w -> w == wave);
+                completeWave(wave, true);
+            }
+        }
+    }
+
+    private void completeWave(Wave wave, boolean timedOut) {
+        if (!openWaves.remove(wave)) return;
+        long latency = (System.nanoTime() - wave.releasedAt) / 1_000_000L;
+        if (timedOut) {
+            plugin.getLogger().warning("Transfer wave #" + wave.id + " to " + wave.target + ": only "
+                    + (wave.size - wave.remaining) + "/" + wave.size + " player(s) left within " + latency + "ms.");
+        } else {
+            plugin.getLogger().info("Transfer wave #" + wave.id + " to " + wave.target + " completed in " + latency + "ms.");
+        }
+        lastWaveLatencyMillis = latency;
+        maxWaveLatencyMillis = Math.max(maxWaveLatencyMillis, latency);
+        totalWaveLatencyMillis += latency;
+        completedWaves++;
+    }
+
+    /**
+     * Cancel the release task. Queued transfers are dropped.
+     */
+    public void stop() {
+        if (taskId != -1) {
+            Bukkit.getScheduler().cancelTask(taskId);
+            taskId = -1;
+        }
+        queue.clear();
+        queued.clear();
+    }
+
+    /**
+     * @return current transfer counters
+     */
+    public Stats getStats() {
+        return new Stats(queue.size(), wavesReleased, playersReleased, lastWaveLatencyMillis,
+                completedWaves == 0 ? -1 : totalWaveLatencyMillis / completedWaves, maxWaveLatencyMillis);
+    }
+
+    /**
+     * Compute the wave size for the observed load: full size while comfortably below the threshold,
+     * half size when within 25% of it, and a single player once it is exceeded.
+     *
+     * @param perWave configured wave size
+     * @param maxMspt load threshold
+     * @param mspt    worst observed tick time (local or destination)
+     * @return players to release in the next wave
+     */
+    static int waveSize(int perWave, double maxMspt, double mspt) {
+        if (mspt > maxMspt) return 1;
+        if (mspt > maxMspt * 0.75) return Math.max(1, perWave / 2);
+        return perWave;
+    }
+
+    /**
+     * @param healthUrl destination {@code /health} URL, or null/empty when unknown
+     * @return last known destination tick time; infinite while it is unreachable
+     */
+    double backendMspt(String healthUrl) {
+        if (healthUrl == null || healthUrl.isEmpty()) return 0.0;
+        if (backendMirror != null && healthUrl.equals(backendMirror.healthUrl())) {
+            var snapshot = backendMirror.snapshot();
+            if (snapshot.checkedAt() == 0L) return 0.0;
+            return snapshot.reachable() ? snapshot.mspt() : Double.POSITIVE_INFINITY;
+        }
+        pollHealth(healthUrl);
+        var h = backendHealth.get(healthUrl);
+        if (h == null) return 0.0;
+        // An unreachable destination is treated as overloaded so we trickle players instead of storming it
+        return h.reachable() ? h.mspt() : Double.POSITIVE_INFINITY;
+    }
+
+    private void pollHealth(String healthUrl) {
+        // The mirror already probes the hardcore backend
+        if (backendMirror != null && healthUrl.equals(backendMirror.healthUrl())) return;
+        long now = System.currentTimeMillis();
+        var existing = backendHealth.get(healthUrl);
+        if (existing != null && (existing.polling() || now - existing.checkedAt() < healthPollMillis)) return;
+        backendHealth.put(healthUrl, existing == null
+                ? new BackendHealth(0.0, true, 0L, true)
+                : new BackendHealth(existing.mspt(), existing.reachable(), existing.checkedAt(), true));
+        HttpRetryUtil.getBodyAsync(healthUrl, HEALTH_TIMEOUT_MILLIS).whenComplete((body, error) -> {
+            long checkedAt = System.currentTimeMillis();
+            var parsed = body == null ? null : BackendHealthMirror.parse(body, checkedAt);
+            backendHealth.put(healthUrl, new BackendHealth(parsed == null ? 0.0 : Math.max(0.0, parsed.mspt()), parsed != null, checkedAt, false));
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package dev.wibbleh.the_cycle;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams finished cycle worlds into zip archives under a disk budget.
+ * <p>
+ * Files are copied through one fixed-size buffer into a {@link ZipOutputStream}, so memory use does
+ * not depend on world size. Session locks, world ids and cache folders are skipped. The archive is
+ * written to a {@code .part} file and renamed once complete. After each archive the oldest archives
+ * are evicted until the archive folder fits the configured budget again.
+ */
+public class WorldArchiver {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int RECENT_RESULTS = 10;
+    private static final String ARCHIVE_SUFFIX = ".zip";
+    private static final Set<String> SKIPPED_FILES = Set.of("uid.dat", "session.lock");
+    private static final Set<String> SKIPPED_DIRS = Set.of("cache", "paper-cache");
+
+    /**
+     * Outcome of one archive run.
+     *
+     * @param worldName    archived world
+     * @param archiveName  archive file name
+     * @param files        files written
+     * @param sourceBytes  uncompressed bytes read
+     * @param archiveBytes archive size on disk
+     * @param millis       time spent writing the archive
+     */
+    public record Result(String worldName, String archiveName, long files, long sourceBytes, long archiveBytes, long millis) {}
+
+    private final File archiveDir;
+    private final int compressionLevel;
+    private final long maxTotalBytes;
+    private final Deque<Result> recent = new ArrayDeque<>();
+
+    /**
+     * @param archiveDir       folder receiving the archives
+     * @param compressionLevel deflate level 0-9
+     * @param maxTotalBytes    disk budget for all archives (0 = unlimited)
+     */
+    public WorldArchiver(File archiveDir, int compressionLevel, long maxTotalBytes) {
+        this.archiveDir = archiveDir;
+        this.compressionLevel = Math.max(0, Math.min(9, compressionLevel));
+        this.maxTotalBytes = Math.max(0L, maxTotalBytes);
+    }
+
+    /**
+     * Write a world folder into a new archive and evict old archives over the budget.
+     *
+     * @param folder    world folder (possibly renamed for deletion)
+     * @param worldName world name used for the archive file name
+     * @return archive statistics
+     * @throws IOException when the archive cannot be written; the partial file is removed
+     */
+    public Result archive(Path folder, String worldName) throws IOException {
+        if (!archiveDir.exists() && !archiveDir.mkdirs()) throw new IOException("Cannot create " + archiveDir);
+        long started = System.nanoTime();
+        Path part = archiveDir.toPath().resolve(worldName + ARCHIVE_SUFFIX + ".part");
+        Path target = archiveDir.toPath().resolve(worldName + "-" + System.currentTimeMillis() + ARCHIVE_SUFFIX);
+        long[] counts = new long[2];
+        try (var zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(part), BUFFER_SIZE))) {
+            zip.setLevel(compressionLevel);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            Files.walkFileTree(folder, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(folder) && SKIPPED_DIRS.contains(dir.getFileName().toString())
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (SKIPPED_FILES.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+                    var entry = new ZipEntry(worldName + "/" + folder.relativize(file).toString().replace(File.separatorChar, '/'));
+                    entry.setTime(attrs.lastModifiedTime().toMillis());
+                    zip.putNextEntry(entry);
+                    try (InputStream in = Files.newInputStream(file)) {
+                        int n;
+                        while ((n = in.read(buffer)) > 0) {
+                            zip.write(buffer, 0, n);
+                            counts[1] += n;
+                        }
+                    }
+                    zip.closeEntry();
+                    counts[0]++;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+        var result = new Result(worldName, target.getFileName().toString(), counts[0], counts[1], Files.size(target),
+                (System.nanoTime() - started) / 1_000_000L);
+        synchronized (recent) {
+            recent.addFirst(result);
+            while (recent.size() > RECENT_RESULTS) recent.removeLast();
+        }
+        LOG.info("Archived " + worldName + " to " + result.archiveName() + ": " + result.files() + " files, "
+                + result.sourceBytes() / (1024 * 1024) + " MiB -> " + result.archiveBytes() / (1024 * 1024) + " MiB in " + result.millis() + "ms.");
+        evictOldest(target);
+        return result;
+    }
+
+    /**
+     * @return the most recent archive results, newest first
+     */
+    public List<Result> recentResults() {
+        synchronized (recent) {
+            return new ArrayList<>(recent);
+        }
+    }
+
+    /**
+     * Delete the oldest archives until the total size fits the budget. The archive just written is
+     * never evicted.
+     */
+    void evictOldest(Path keep) {
+        if (maxTotalBytes == 0) return;
+        File[] archives = archiveDir.listFiles((d, n) -> n.endsWith(ARCHIVE_SUFFIX));
+        if (archives == null) return;
+        Arrays.sort(archives, Comparator.comparingLong(File::lastModified));
+        long total = 0L;
+        for (File f : archives) total += f.length();
+        for (File f : archives) {
+            if (total <= maxTotalBytes) break;
+            if (keep != null && f.toPath().equals(keep)) continue;
+            long size = f.length();
+            if (f.delete()) {
+                total -= size;
+                LOG.info("Evicted world archive " + f.getName() + " to stay within the archive budget.");
+            }
+        }
+        if (total > maxTotalBytes) LOG.warning("World archives use " + total / (1024 * 1024) + " MiB, above the configured budget.");
+    }
+}
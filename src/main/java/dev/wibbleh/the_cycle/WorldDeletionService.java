@@ -1,136 +1,323 @@
 package dev.wibbleh.the_cycle;
 
 import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldSaveEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.io.*;
+import java.util.UUID;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 
-public class WorldDeletionService {
+/**
+ * Deletes the folders of previous cycle worlds, immediately, asynchronously or on the next start.
+ * Every deletion is recorded in a {@link DeletionJournal} before it runs and removed only once the
+ * folder is gone, so deletions interrupted by a crash resume on the next start. Asynchronous
+ * deletions are worked off one at a time by a single long-lived background thread.
+ * In archive mode selected worlds are first streamed into a compressed archive by a
+ * {@link WorldArchiver}. Folder contents are removed by a {@link ParallelWorldDeleter}; as a listener this service pauses
+ * that deleter for a short window after each {@link WorldSaveEvent}.
+ */
+public class WorldDeletionService implements Listener {
+    private static final int DEFAULT_PARALLELISM = 2;
+
+    private static final String WORLD_PREFIX = "hardcore_cycle_";
+    private static final String DELETING_MARKER = ".deleting.";
+
+    /**
+     * Queued deletion. Low-priority jobs (orphan sweeps) run only when no regular deletion is waiting.
+     */
+    private record Job(long id, File worldRoot, boolean lowPriority, long seq) implements Comparable<Job> {
+        @Override
+        public int compareTo(Job o) {
+            if (lowPriority != o.lowPriority) return lowPriority ? 1 : -1;
+            return Long.compare(seq, o.seq);
+        }
+    }
+
     private final JavaPlugin plugin;
     private final boolean deletePreviousWorlds;
     private final boolean deferDeleteUntilRestart;
     private final boolean asyncDelete;
-    private final File pendingDeletesFile;
+    private final File legacyPendingDeletesFile;
+    private final DeletionJournal journal;
+    private final ParallelWorldDeleter deleter;
+    private final BlockingQueue<Job> work = new PriorityBlockingQueue<>();
+    private final AtomicLong jobSeq = new AtomicLong();
+    private Thread worker;
+    private volatile WorldArchiver archiver;
+    private volatile boolean archiveAll = false;
+    private final long saveBackoffNanos;
+    private volatile long savingUntilNanos = System.nanoTime();
 
     public WorldDeletionService(JavaPlugin plugin, boolean deletePreviousWorlds, boolean deferDeleteUntilRestart, boolean asyncDelete) {
+        this(plugin, deletePreviousWorlds, deferDeleteUntilRestart, asyncDelete, DEFAULT_PARALLELISM, 0L, 0L, 0L);
+    }
+
+    /**
+     * @param parallelism       worker threads deleting files
+     * @param maxBytesPerSecond deletion budget in bytes per second (0 = unlimited)
+     * @param maxFilesPerSecond deletion budget in files per second (0 = unlimited)
+     * @param saveBackoffMillis pause deletion for this long after a world save starts (0 = never pause)
+     */
+    public WorldDeletionService(JavaPlugin plugin, boolean deletePreviousWorlds, boolean deferDeleteUntilRestart, boolean asyncDelete,
+                                int parallelism, long maxBytesPerSecond, long maxFilesPerSecond, long saveBackoffMillis) {
         this.plugin = plugin;
         this.deletePreviousWorlds = deletePreviousWorlds;
         this.deferDeleteUntilRestart = deferDeleteUntilRestart;
         this.asyncDelete = asyncDelete;
-        this.pendingDeletesFile = new File(plugin.getDataFolder(), "pending_deletes.txt");
+        this.legacyPendingDeletesFile = new File(plugin.getDataFolder(), "pending_deletes.txt");
+        this.journal = new DeletionJournal(new File(plugin.getDataFolder(), "deletion_journal.log"));
+        this.saveBackoffNanos = Math.max(0L, saveBackoffMillis) * 1_000_000L;
+        this.deleter = new ParallelWorldDeleter(parallelism, maxBytesPerSecond, maxFilesPerSecond, this::isSaving);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldSave(WorldSaveEvent event) {
+        if (saveBackoffNanos > 0) savingUntilNanos = System.nanoTime() + saveBackoffNanos;
     }
 
     /**
-     * Read the pending deletes file and schedule deletion attempts for each recorded world.
-     * If the file is empty it will be removed. Deletions are performed asynchronously.
+     * @return true within the back-off window after the last world save started
      */
-    public void processPendingDeletions() {
-        if (!pendingDeletesFile.exists()) return;
-        var lines = new ArrayList<String>();
-        try (var r = new BufferedReader(new FileReader(pendingDeletesFile))) {
-            String l;
-            while ((l = r.readLine()) != null) {
-                if (!l.trim().isEmpty()) lines.add(l.trim());
-            }
-        } catch (IOException e) {
-            plugin.getLogger().warning("Failed to read pending deletes: " + e.getMessage());
-            return;
-        }
-        if (lines.isEmpty()) {
-            boolean delOk = pendingDeletesFile.delete();
-            if (!delOk)
-                plugin.getLogger().warning("Could not delete empty pending deletes file: " + pendingDeletesFile.getAbsolutePath());
-            return;
-        }
-        for (String w : lines) {
-            final String wn = w;
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                boolean ok = deleteWorldFolder(wn);
-                if (ok) plugin.getLogger().info("Deleted pending world folder: " + wn);
-                else plugin.getLogger().warning("Failed to delete pending world folder: " + wn);
-            });
-        }
-        try {
-            boolean delOk = pendingDeletesFile.delete();
-            if (!delOk)
-                plugin.getLogger().warning("Could not delete pending deletes file after scheduling: " + pendingDeletesFile.getAbsolutePath());
-        } catch (Exception ignored) {
+    boolean isSaving() {
+        return System.nanoTime() - savingUntilNanos < 0;
+    }
+
+    /**
+     * Enable archive mode: matching worlds are streamed into a compressed archive before deletion.
+     *
+     * @param archiver   archive writer, or null to disable archiving
+     * @param archiveAll archive every deleted cycle world; otherwise only worlds marked with
+     *                   {@link #markForArchive(String)}
+     */
+    public void configureArchive(WorldArchiver archiver, boolean archiveAll) {
+        this.archiver = archiver;
+        this.archiveAll = archiveAll;
+    }
+
+    /**
+     * Keep an archive of the given world when it is deleted (e.g. the world of a dragon kill).
+     * The mark is journaled, so it survives restarts. No-op when archiving is disabled.
+     *
+     * @param worldName world folder name
+     */
+    public void markForArchive(String worldName) {
+        if (archiver == null || worldName == null) return;
+        journal.markKeep(worldName);
+        plugin.getLogger().info("World " + worldName + " will be archived when it is deleted.");
+    }
+
+    /**
+     * @return recent archive results, newest first (empty when archiving is disabled)
+     */
+    public List<WorldArchiver.Result> getArchiveResults() {
+        var a = archiver;
+        return a == null ? List.of() : a.recentResults();
+    }
+
+    /**
+     * @return deletion throughput counters
+     */
+    public ParallelWorldDeleter.Stats getStats() {
+        return deleter.getStats();
+    }
+
+    /**
+     * Stop the background worker and the deletion pool (plugin shutdown). Unfinished deletions stay
+     * in the journal and resume on the next start.
+     */
+    public synchronized void shutdown() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
         }
+        deleter.shutdown();
+        journal.close();
+    }
+
+    /**
+     * Resume deletions left unfinished by the previous run and migrate a legacy
+     * {@code pending_deletes.txt}. Deletions are performed by the background worker.
+     */
+    public void processPendingDeletions() {
+        migrateLegacyPendingDeletes();
+        var pending = journal.pending();
+        if (pending.isEmpty()) return;
+        plugin.getLogger().info("Resuming " + pending.size() + " pending world deletion(s).");
+        var worldRoot = Bukkit.getWorldContainer();
+        for (var entry : pending) submit(entry, worldRoot);
     }
 
     /**
      * Schedule deletion of a world folder by name.
      * Behavior respects the service configuration:
      * - If deletes are disabled this is a no-op.
-     * - If deferDeleteUntilRestart is true the world name is recorded for later.
-     * - Else deletion happens synchronously or asynchronously depending on asyncDelete.
+     * - Otherwise the world is recorded in the deletion journal first, so it survives a crash.
+     * - If deferDeleteUntilRestart is true deletion happens on the next start.
+     * - Else deletion happens on the calling thread or the background worker depending on asyncDelete.
      *
      * @param worldName name of the world folder to delete
      */
     public void scheduleDeleteWorldFolder(String worldName) {
         if (!deletePreviousWorlds) return;
         if (worldName == null || worldName.trim().isEmpty()) return;
+        var entry = journal.enqueue(worldName, archiver != null && archiveAll);
         if (deferDeleteUntilRestart) {
-            recordPendingDelete(worldName);
             plugin.getLogger().info("Deferred deletion of world '" + worldName + "' until next server start.");
             return;
         }
+        var worldRoot = Bukkit.getWorldContainer();
         if (asyncDelete) {
-            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
-                boolean ok = deleteWorldFolder(worldName);
-                if (ok) plugin.getLogger().info("Asynchronously deleted world folder: " + worldName);
-                else {
-                    plugin.getLogger().warning("Asynchronous deletion failed for world: " + worldName + "; recording for restart.");
-                    recordPendingDelete(worldName);
-                }
-            });
+            submit(entry, worldRoot);
         } else {
-            boolean ok = deleteWorldFolder(worldName);
-            if (ok) plugin.getLogger().info("Deleted world folder: " + worldName);
-            else {
-                plugin.getLogger().warning("Deletion failed for world: " + worldName + ". Recording for deletion on restart.");
-                recordPendingDelete(worldName);
+            runDeletion(entry.id(), worldRoot);
+        }
+    }
+
+    /**
+     * @return number of deletions recorded in the journal that have not completed
+     */
+    public int getPendingCount() {
+        return journal.pending().size();
+    }
+
+    /**
+     * Hand a journal entry to the single background worker, starting it on first use.
+     * The world container is resolved by the caller since Bukkit is not consulted off-thread.
+     */
+    private void submit(DeletionJournal.Entry entry, File worldRoot) {
+        submit(entry, worldRoot, false);
+    }
+
+    private synchronized void submit(DeletionJournal.Entry entry, File worldRoot, boolean lowPriority) {
+        if (worker == null) {
+            worker = new Thread(this::workLoop, "HardcoreCycle-WorldDeleter");
+            worker.setDaemon(true);
+            // Archiving and deleting are background housekeeping; never compete with the server threads
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.start();
+        }
+        work.add(new Job(entry.id(), worldRoot, lowPriority, jobSeq.incrementAndGet()));
+    }
+
+    private void workLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var job = work.take();
+                runDeletion(job.id(), job.worldRoot());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /**
-     * Append a world name to the pending deletes file unless it's already present.
-     * This method is synchronized to avoid races when multiple threads attempt to record.
+     * Delete the folder of a journal entry and mark it completed. A failed deletion stays in the
+     * journal and is retried on the next start.
+     */
+    private void runDeletion(long id, File worldRoot) {
+        // Re-read: the entry may have completed or started since it was submitted
+        var entry = journal.get(id);
+        if (entry == null) return;
+        if (deleteWorldFolder(entry, worldRoot)) {
+            journal.complete(id);
+            plugin.getLogger().info("Deleted world folder: " + entry.worldName());
+        } else {
+            plugin.getLogger().warning("Deletion failed for world: " + entry.worldName() + "; will retry on next start.");
+        }
+    }
+
+    /**
+     * Find world folders nobody will delete and queue them at low priority: renamed
+     * {@code *.deleting.*} folders left by an interrupted run, {@code *.copying.*} folders left by an
+     * interrupted template copy and {@code hardcore_cycle_<n>} folders of past cycles, unless the
+     * journal already tracks them or the world is loaded. Lists the
+     * world container on the calling thread; call it off the main thread.
      *
-     * @param worldName world folder name to record
+     * @param worldRoot    server world container
+     * @param currentCycle persisted current cycle number; only older cycle folders are orphans
+     * @param loadedWorlds names of worlds currently loaded by the server or being copied from the template
+     * @return folder names queued for deletion
      */
-    private synchronized void recordPendingDelete(String worldName) {
-        var df = plugin.getDataFolder();
-        if (!df.exists()) {
-            boolean created = df.mkdirs();
-            if (!created) plugin.getLogger().warning("Failed to create data folder: " + df.getAbsolutePath());
+    public List<String> sweepOrphans(File worldRoot, int currentCycle, Set<String> loadedWorlds) {
+        if (!deletePreviousWorlds || worldRoot == null) return List.of();
+        String[] names = worldRoot.list();
+        if (names == null) return List.of();
+        var tracked = new java.util.HashSet<String>();
+        for (var e : journal.pending()) {
+            tracked.add(e.worldName());
+            tracked.add(e.folderName());
         }
-        try {
-            var existing = new ArrayList<String>();
-            if (pendingDeletesFile.exists()) {
-                try (var r = new BufferedReader(new FileReader(pendingDeletesFile))) {
-                    String l;
-                    while ((l = r.readLine()) != null) {
-                        if (!l.trim().isEmpty()) existing.add(l.trim());
-                    }
+        var orphans = findOrphans(names, currentCycle, loadedWorlds, tracked);
+        for (String name : orphans) {
+            if (!new File(worldRoot, name).isDirectory()) continue;
+            var entry = journal.enqueue(name);
+            // Already renamed folders are deleted in place
+            if (name.contains(DELETING_MARKER)) entry = journal.markStarted(entry.id(), name);
+            if (entry != null) submit(entry, worldRoot, true);
+        }
+        if (!orphans.isEmpty()) plugin.getLogger().info("Queued " + orphans.size() + " orphaned world folder(s) for deletion: " + orphans);
+        return orphans;
+    }
+
+    /**
+     * Select orphaned world folders from a listing of the world container.
+     *
+     * @param names        folder names in the world container
+     * @param currentCycle current cycle number
+     * @param loadedWorlds worlds loaded by the server (never orphans, nor are their copy folders)
+     * @param tracked      folders the deletion journal already tracks
+     * @return orphaned folder names
+     */
+    static List<String> findOrphans(String[] names, int currentCycle, Set<String> loadedWorlds, Set<String> tracked) {
+        var orphans = new ArrayList<String>();
+        for (String name : names) {
+            if (loadedWorlds.contains(name) || tracked.contains(name)) continue;
+            if (name.contains(DELETING_MARKER)) {
+                orphans.add(name);
+            } else if (name.contains(WorldTemplate.COPYING_MARKER)) {
+                // A copy still being written belongs to a world in loadedWorlds
+                if (!loadedWorlds.contains(name.substring(0, name.indexOf(WorldTemplate.COPYING_MARKER)))) orphans.add(name);
+            } else if (name.startsWith(WORLD_PREFIX)) {
+                try {
+                    if (Integer.parseInt(name.substring(WORLD_PREFIX.length())) < currentCycle) orphans.add(name);
+                } catch (NumberFormatException ignored) {
+                    // not a cycle world
                 }
             }
-            if (!existing.contains(worldName)) {
-                try (var w = new BufferedWriter(new FileWriter(pendingDeletesFile, true))) {
-                    w.write(worldName);
-                    w.newLine();
-                }
+        }
+        return orphans;
+    }
+
+    /**
+     * Move world names from the old {@code pending_deletes.txt} into the journal, then remove it.
+     */
+    private void migrateLegacyPendingDeletes() {
+        if (!legacyPendingDeletesFile.exists()) return;
+        try (var r = new BufferedReader(new FileReader(legacyPendingDeletesFile))) {
+            String l;
+            while ((l = r.readLine()) != null) {
+                if (!l.trim().isEmpty()) journal.enqueue(l.trim());
             }
         } catch (IOException e) {
-            plugin.getLogger().warning("Failed to record pending delete for " + worldName + ": " + e.getMessage());
+            plugin.getLogger().warning("Failed to read pending deletes: " + e.getMessage());
+            return;
         }
+        // The old file goes only once its entries are on disk in the journal
+        journal.sync();
+        if (!legacyPendingDeletesFile.delete())
+            plugin.getLogger().warning("Could not delete migrated pending deletes file: " + legacyPendingDeletesFile.getAbsolutePath());
     }
 
     /**
@@ -138,12 +325,13 @@ public class WorldDeletionService {
      * Adds a safety check to ensure the target lies under the server world container to avoid
      * accidental deletion of arbitrary filesystem locations.
      *
-     * @param worldName name of the world folder to delete
+     * @param entry     journal entry; deletion of a started entry resumes on its renamed folder
+     * @param worldRoot server world container
      * @return true when deletion was successful or folder absent; false on error
      */
-    private boolean deleteWorldFolder(String worldName) {
+    private boolean deleteWorldFolder(DeletionJournal.Entry entry, File worldRoot) {
+        String worldName = entry.folderName();
         try {
-            var worldRoot = Bukkit.getWorldContainer();
             if (worldRoot == null) {
                 plugin.getLogger().warning("World container is null; cannot delete world: " + worldName);
                 return false;
@@ -170,11 +358,27 @@ public class WorldDeletionService {
 
             // Attempt an atomic (or best-effort) rename/move of the world folder to a temporary name. This
             // reduces the chance of partially deleting the original folder (helps on interruptions or errors).
+            // The renamed folder is journaled so an interrupted deletion resumes on it.
             String tempName = worldName + ".deleting." + UUID.randomUUID();
             var tempFolder = new File(worldRoot, tempName);
             
-            var folderToDelete = attemptAtomicMove(worldFolder, tempFolder);
-            return deleteRecursively(folderToDelete);
+            var folderToDelete = entry.startedFolder() != null ? worldFolder : attemptAtomicMove(worldFolder, tempFolder);
+            if (entry.startedFolder() == null) journal.markStarted(entry.id(), folderToDelete.getName());
+            if (entry.archive() && !entry.archived()) {
+                var a = archiver;
+                if (a == null) {
+                    plugin.getLogger().warning("World " + entry.worldName() + " was marked for archiving but archiving is disabled; deleting it.");
+                } else {
+                    try {
+                        a.archive(folderToDelete.toPath(), entry.worldName());
+                        journal.markArchived(entry.id());
+                    } catch (IOException e) {
+                        plugin.getLogger().warning("Failed to archive " + entry.worldName() + "; keeping its folder: " + e.getMessage());
+                        return false;
+                    }
+                }
+            }
+            return deleter.delete(folderToDelete.toPath());
         } catch (IOException ioe) {
             plugin.getLogger().warning("deleteWorldFolder failed (IO): " + ioe.getMessage());
             return false;
@@ -220,40 +424,4 @@ public class WorldDeletionService {
             }
         }
     }
-
-    /**
-     * Recursively delete a directory and its contents. Attempts to set files writable when delete fails.
-     *
-     * @param f directory or file to delete
-     * @return true on success, false on failure
-     */
-    private boolean deleteRecursively(File f) {
-        if (f == null || !f.exists()) return true;
-        File[] children = f.listFiles();
-        if (children != null) {
-            for (File c : children) {
-                if (c.isDirectory()) {
-                    if (!deleteRecursively(c)) return false;
-                } else {
-                    if (!c.delete()) {
-                        try {
-                            boolean _w = c.setWritable(true);
-                            if (!_w) plugin.getLogger().fine("Couldn't set writable: " + c.getAbsolutePath());
-                        } catch (Exception ignored) {
-                        }
-                        if (!c.delete()) return false;
-                    }
-                }
-            }
-        }
-        if (!f.delete()) {
-            try {
-                boolean _w = f.setWritable(true);
-                if (!_w) plugin.getLogger().fine("Couldn't set writable: " + f.getAbsolutePath());
-            } catch (Exception ignored) {
-            }
-            return f.delete();
-        }
-        return true;
-    }
 }
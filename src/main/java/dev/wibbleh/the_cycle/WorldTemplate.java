@@ -0,0 +1,316 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Pristine copy of a fixed-seed world used to materialize new cycle worlds by file copy instead
+ * of terrain generation.
+ * <p>
+ * When the seed is fixed every cycle would generate the exact same terrain, so the template is
+ * generated (and its spawn area pre-generated) once into {@value #TEMPLATE_WORLD_NAME} in the world
+ * container, unloaded, and then copied for each cycle with {@link FileChannel#transferTo}. The copy
+ * is written to a temporary folder and renamed into place so a partially copied folder never looks
+ * like a world. Files that identify a specific world instance ({@code uid.dat}, {@code session.lock})
+ * are skipped so Bukkit assigns the copy its own UID.
+ * <p>
+ * Metadata (seed, radius) is persisted to {@code world_template.json}; a template built with
+ * different settings is discarded and rebuilt. The metadata is read once on construction and kept in
+ * memory, so {@link #isReady()} does not touch the file.
+ */
+public class WorldTemplate {
+    private static final Logger LOG = Logger.getLogger("HardcoreCycle");
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    static final String TEMPLATE_WORLD_NAME = "cycle_template";
+    private static final Set<String> SKIPPED_FILES = Set.of("uid.dat", "session.lock");
+    /** Infix of the temporary folder a world is copied into before it is renamed into place. */
+    static final String COPYING_MARKER = ".copying.";
+
+    private final JavaPlugin plugin;
+    private final long seed;
+    private final int radiusChunks;
+    private final int maxInFlight;
+    private final double maxMspt;
+    private final File metadataFile;
+    private final Consumer<String> discardWorld;
+    private boolean building = false;
+    // Target world names of copies in progress; read by the async orphan sweep
+    private final Set<String> copying = ConcurrentHashMap.newKeySet();
+    // Metadata of the template on disk, or null when there is none
+    private TemplateInfo info;
+
+    /**
+     * Persisted description of a built template.
+     *
+     * @param seed         seed the template was generated with
+     * @param radiusChunks pre-generated radius around spawn
+     * @param createdAt    epoch seconds when the template was finished
+     */
+    public record TemplateInfo(long seed, int radiusChunks, long createdAt) {}
+
+    /**
+     * @param plugin       owning plugin (scheduler, data folder, logging)
+     * @param seed         fixed world seed
+     * @param radiusChunks spawn radius to pre-generate into the template
+     * @param maxInFlight  async chunk requests in flight while building
+     * @param maxMspt      building pauses while the average tick time is above this value
+     * @param discardWorld receives folder names of outdated templates that should be deleted
+     */
+    public WorldTemplate(JavaPlugin plugin, long seed, int radiusChunks, int maxInFlight, double maxMspt, Consumer<String> discardWorld) {
+        this.plugin = plugin;
+        this.seed = seed;
+        this.radiusChunks = Math.max(0, radiusChunks);
+        this.maxInFlight = maxInFlight;
+        this.maxMspt = maxMspt;
+        this.metadataFile = new File(plugin.getDataFolder(), "world_template.json");
+        this.discardWorld = discardWorld == null ? name -> {} : discardWorld;
+        this.info = readInfo(metadataFile);
+    }
+
+    /**
+     * @return true when a template matching the current settings exists on disk
+     */
+    public boolean isReady() {
+        if (building) return false;
+        if (info == null || info.seed() != seed || info.radiusChunks() != radiusChunks) return false;
+        var container = Bukkit.getWorldContainer();
+        return container != null && new File(container, TEMPLATE_WORLD_NAME).isDirectory();
+    }
+
+    /**
+     * @return true while the template world is being generated
+     */
+    public boolean isBuilding() {
+        return building;
+    }
+
+    /**
+     * @return names of the worlds currently being copied from the template; their
+     *         {@code <name>.copying.*} folders are still being written
+     */
+    public Set<String> copyingWorlds() {
+        return Set.copyOf(copying);
+    }
+
+    /**
+     * Build the template if it is missing or outdated. Must be called on the main server thread;
+     * world creation happens synchronously and the spawn pre-generation runs over the following ticks.
+     *
+     * @return future completing with true once a usable template exists
+     */
+    public CompletableFuture<Boolean> ensureBuilt() {
+        if (isReady()) return CompletableFuture.completedFuture(true);
+        if (building) return CompletableFuture.completedFuture(false);
+
+        var container = Bukkit.getWorldContainer();
+        if (Bukkit.getWorld(TEMPLATE_WORLD_NAME) == null && container != null && new File(container, TEMPLATE_WORLD_NAME).exists()) {
+            // Outdated or half-built template; delete it and build again on a later attempt
+            plugin.getLogger().info("Discarding outdated world template '" + TEMPLATE_WORLD_NAME + "'.");
+            info = null;
+            if (metadataFile.exists() && !metadataFile.delete()) {
+                plugin.getLogger().warning("Could not delete world template metadata: " + metadataFile.getAbsolutePath());
+            }
+            discardWorld.accept(TEMPLATE_WORLD_NAME);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        building = true;
+        info = null;
+        World world;
+        try {
+            world = Bukkit.createWorld(new WorldCreator(TEMPLATE_WORLD_NAME).seed(seed));
+        } catch (Exception e) {
+            plugin.getLogger().warning("Failed to create world template: " + e.getMessage());
+            world = null;
+        }
+        if (world == null) {
+            building = false;
+            return CompletableFuture.completedFuture(false);
+        }
+
+        final World templateWorld = world;
+        var spawn = templateWorld.getSpawnLocation();
+        int cx = spawn == null ? 0 : spawn.getBlockX() >> 4;
+        int cz = spawn == null ? 0 : spawn.getBlockZ() >> 4;
+        var pregen = new ChunkPregenerator(plugin, templateWorld, cx, cz, radiusChunks, maxInFlight, maxMspt);
+        var result = new CompletableFuture<Boolean>();
+        pregen.start().whenComplete((v, err) -> Bukkit.getScheduler().runTask(plugin, () -> {
+            pregen.releaseTickets();
+            boolean unloaded = Bukkit.unloadWorld(templateWorld, true);
+            building = false;
+            if (!unloaded) {
+                plugin.getLogger().warning("Could not unload world template; it will be rebuilt later.");
+                result.complete(false);
+                return;
+            }
+            var built = new TemplateInfo(seed, radiusChunks, Instant.now().getEpochSecond());
+            info = built;
+            // The in-memory copy is authoritative; keep the fsync off the main thread
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> writeInfo(metadataFile, built));
+            plugin.getLogger().info("World template built for seed " + seed + " (radius " + radiusChunks + " chunks).");
+            result.complete(true);
+        }));
+        return result;
+    }
+
+    /**
+     * Copy the template into a new world folder on an async thread. The returned future always
+     * completes on the main server thread.
+     *
+     * @param worldName target world folder name (must not exist yet)
+     * @return future completing with true when the folder was materialized
+     */
+    public CompletableFuture<Boolean> materialize(String worldName) {
+        var result = new CompletableFuture<Boolean>();
+        var container = Bukkit.getWorldContainer();
+        if (!isReady() || container == null) {
+            result.complete(false);
+            return result;
+        }
+        Path source = new File(container, TEMPLATE_WORLD_NAME).toPath();
+        Path target = new File(container, worldName).toPath();
+        copying.add(worldName);
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                long bytes = copyWorld(source, target);
+                plugin.getLogger().info("Materialized '" + worldName + "' from template (" + bytes / 1024 + " KiB in "
+                        + (System.nanoTime() - started) / 1_000_000L + "ms).");
+                ok = true;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to copy world template to '" + worldName + "': " + e.getMessage());
+                ok = false;
+            } finally {
+                copying.remove(worldName);
+            }
+            final boolean copied = ok;
+            Bukkit.getScheduler().runTask(plugin, () -> result.complete(copied));
+        });
+        return result;
+    }
+
+    /**
+     * Copy a world folder via a temporary sibling folder that is renamed into place when complete.
+     *
+     * @param source template folder
+     * @param target destination folder (must not exist)
+     * @return number of bytes copied
+     * @throws IOException when the copy fails; the temporary folder is removed
+     */
+    static long copyWorld(Path source, Path target) throws IOException {
+        if (Files.exists(target)) throw new IOException("Target already exists: " + target.getFileName());
+        Path temp = target.resolveSibling(target.getFileName() + COPYING_MARKER + UUID.randomUUID());
+        long[] bytes = {0L};
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(temp.resolve(source.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (SKIPPED_FILES.contains(file.getFileName().toString())) return FileVisitResult.CONTINUE;
+                    bytes[0] += copyFile(file, temp.resolve(source.relativize(file).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (UnsupportedOperationException | IOException e) {
+                Files.move(temp, target);
+            }
+            return bytes[0];
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Copy one file with {@link FileChannel#transferTo}, letting the kernel move the bytes.
+     */
+    private static long copyFile(Path from, Path to) throws IOException {
+        try (var in = FileChannel.open(from, StandardOpenOption.READ);
+             var out = FileChannel.open(to, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long pos = 0;
+            while (pos < size) {
+                long n = in.transferTo(pos, size - pos, out);
+                if (n <= 0) throw new IOException("transferTo made no progress on " + from.getFileName());
+                pos += n;
+            }
+            return size;
+        }
+    }
+
+    private static void deleteQuietly(Path root) {
+        try {
+            if (!Files.exists(root)) return;
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.deleteIfExists(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.deleteIfExists(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            LOG.warning("Failed to clean up partial world copy " + root.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    static TemplateInfo readInfo(File file) {
+        if (file == null || !file.exists()) return null;
+        try (var reader = new FileReader(file)) {
+            return GSON.fromJson(reader, TemplateInfo.class);
+        } catch (Exception e) {
+            LOG.warning("Failed to read world template metadata: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replace the metadata file atomically (temp file, fsync, rename) so a crash never leaves a
+     * truncated file that would discard a good template.
+     */
+    static void writeInfo(File file, TemplateInfo info) {
+        try {
+            AtomicFileUtil.writeAtomically(file, "write", ByteBuffer.wrap(GSON.toJson(info).getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            LOG.warning("Failed to save world template metadata: " + e.getMessage());
+        }
+    }
+}
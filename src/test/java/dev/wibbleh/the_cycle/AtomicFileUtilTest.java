@@ -0,0 +1,50 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicFileUtilTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testWritesEveryBufferAndReplacesTarget() throws Exception {
+        File file = tempDir.resolve("nested/data.bin").toFile();
+        Files.createDirectories(file.toPath().getParent());
+        Files.writeString(file.toPath(), "old contents that are longer", StandardCharsets.UTF_8);
+
+        long written = AtomicFileUtil.writeAtomically(file, "write",
+                ByteBuffer.wrap("abc".getBytes(StandardCharsets.UTF_8)), ByteBuffer.wrap("def".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(6L, written);
+        assertEquals("abcdef", Files.readString(file.toPath(), StandardCharsets.UTF_8));
+        assertFalse(new File(file.getParentFile(), "data.bin.tmp").exists());
+    }
+
+    @Test
+    void testCreatesMissingDirectory() throws Exception {
+        File file = tempDir.resolve("a/b/state.json").toFile();
+
+        AtomicFileUtil.writeAtomically(file, "write", ByteBuffer.wrap(new byte[]{1, 2, 3}));
+
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(file.toPath()));
+    }
+
+    @Test
+    void testFailureLeavesTargetUnchanged() throws Exception {
+        File blocker = tempDir.resolve("blocker").toFile();
+        Files.writeString(blocker.toPath(), "not a directory", StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> AtomicFileUtil.writeAtomically(new File(blocker, "state.json"), "write", ByteBuffer.allocate(1)));
+        assertEquals("not a directory", Files.readString(blocker.toPath(), StandardCharsets.UTF_8));
+    }
+}
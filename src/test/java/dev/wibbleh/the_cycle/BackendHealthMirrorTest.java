@@ -0,0 +1,136 @@
+package dev.wibbleh.the_cycle;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackendHealthMirrorTest {
+    private HttpServer server;
+    private BackendHealthMirror mirror;
+    private final AtomicInteger status = new AtomicInteger(200);
+
+    @AfterEach
+    void tearDown() {
+        if (mirror != null) mirror.stop();
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void testParseHealthResponse() {
+        var snapshot = BackendHealthMirror.parse(
+                "{\"status\":\"ok\",\"role\":\"hardcore\",\"cycleNumber\":7,\"playersOnline\":3,\"mspt\":12.5,\"phase\":\"GENERATING\"}", 42L);
+
+        assertNotNull(snapshot);
+        assertTrue(snapshot.reachable());
+        assertEquals("hardcore", snapshot.role());
+        assertEquals(7, snapshot.cycleNumber());
+        assertEquals(3, snapshot.playersOnline());
+        assertEquals("GENERATING", snapshot.phase());
+        assertEquals(12.5, snapshot.mspt(), 0.001);
+        assertEquals(42L, snapshot.checkedAt());
+        assertTrue(snapshot.cycleInProgress());
+    }
+
+    @Test
+    void testParseWithoutPhase() {
+        var snapshot = BackendHealthMirror.parse("{\"status\":\"ok\",\"role\":\"hardcore\",\"cycleNumber\":2}", 1L);
+
+        assertNotNull(snapshot);
+        assertNull(snapshot.phase());
+        assertFalse(snapshot.cycleInProgress());
+    }
+
+    @Test
+    void testParseRejectsGarbage() {
+        assertNull(BackendHealthMirror.parse("not json", 1L));
+        assertNull(BackendHealthMirror.parse("{\"foo\":1}", 1L));
+    }
+
+    @Test
+    void testSnapshotUnknownBeforeFirstProbe() {
+        mirror = new BackendHealthMirror("http://127.0.0.1:1/health", new CircuitBreaker(1, 1000), 60_000);
+        assertSame(BackendHealthMirror.Snapshot.UNKNOWN, mirror.snapshot());
+        assertFalse(mirror.snapshot().reachable());
+    }
+
+    @Test
+    void testProbeUpdatesSnapshotAndBreaker() throws Exception {
+        startServer();
+        var breaker = new CircuitBreaker(1, 60_000);
+        mirror = new BackendHealthMirror(healthUrl(), breaker, 60_000);
+
+        // A probe still finishing is skipped, so keep asking until the expected result shows up
+        waitFor(() -> probed(() -> mirror.snapshot().reachable()));
+        assertEquals(5, mirror.snapshot().cycleNumber());
+        assertEquals("READY", mirror.snapshot().phase());
+
+        status.set(503);
+        waitFor(() -> probed(() -> breaker.state() == CircuitBreaker.State.OPEN));
+        assertFalse(mirror.snapshot().reachable());
+        // The last known values are kept while the backend is unreachable
+        assertEquals(5, mirror.snapshot().cycleNumber());
+
+        var closed = new AtomicInteger();
+        breaker.onClose(closed::incrementAndGet);
+        status.set(200);
+        waitFor(() -> probed(() -> closed.get() == 1));
+        assertTrue(mirror.snapshot().reachable());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    void testUnreachableBackendOpensCircuit() throws Exception {
+        var breaker = new CircuitBreaker(2, 60_000);
+        // Port 1 refuses connections
+        mirror = new BackendHealthMirror("http://127.0.0.1:1/health", breaker, 100);
+        mirror.start();
+
+        waitFor(() -> breaker.state() == CircuitBreaker.State.OPEN);
+        assertFalse(breaker.allowRequest());
+        assertTrue(mirror.snapshot().checkedAt() > 0);
+    }
+
+    private boolean probed(BooleanSupplier condition) {
+        if (condition.getAsBoolean()) return true;
+        mirror.probe();
+        return false;
+    }
+
+    private void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/health", exchange -> {
+            byte[] body = "{\"status\":\"ok\",\"role\":\"hardcore\",\"cycleNumber\":5,\"playersOnline\":0,\"mspt\":1.0,\"phase\":\"READY\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+            int code = status.get();
+            if (code == 200) {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } else {
+                exchange.sendResponseHeaders(code, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    private String healthUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/health";
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
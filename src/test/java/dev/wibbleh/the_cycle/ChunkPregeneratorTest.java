@@ -0,0 +1,137 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkPregeneratorTest {
+
+    @Mock
+    private JavaPlugin mockPlugin;
+
+    @Mock
+    private World mockWorld;
+
+    @Mock
+    private Chunk mockChunk;
+
+    private final List<CompletableFuture<Chunk>> requests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mockPlugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
+        lenient().when(mockWorld.getName()).thenReturn("hardcore_cycle_2");
+        lenient().when(mockWorld.getChunkAtAsync(anyInt(), anyInt(), anyBoolean())).thenAnswer(inv -> {
+            var f = new CompletableFuture<Chunk>();
+            requests.add(f);
+            return f;
+        });
+    }
+
+    @Test
+    void testSpiralCoversSquareNearestFirst() {
+        int[][] offsets = ChunkPregenerator.spiralOffsets(3);
+
+        assertEquals(49, offsets.length);
+        assertArrayEquals(new int[]{0, 0}, offsets[0]);
+        Set<String> seen = new HashSet<>();
+        int lastRing = 0;
+        for (int[] o : offsets) {
+            assertTrue(seen.add(o[0] + "," + o[1]), "Offsets must be unique");
+            int ring = Math.max(Math.abs(o[0]), Math.abs(o[1]));
+            assertTrue(ring <= 3);
+            assertTrue(ring >= lastRing, "Rings must be visited outward");
+            lastRing = ring;
+        }
+    }
+
+    @Test
+    void testTickRespectsInFlightLimit() {
+        var pregen = new ChunkPregenerator(mockPlugin, mockWorld, 10, -4, 2, 4, 45.0);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            pregen.tick();
+            assertEquals(4, requests.size());
+            verify(mockWorld).getChunkAtAsync(10, -4, true);
+
+            pregen.tick();
+            assertEquals(4, requests.size(), "No new requests while the limit is reached");
+
+            requests.get(0).complete(mockChunk);
+            pregen.tick();
+            assertEquals(5, requests.size());
+        }
+    }
+
+    @Test
+    void testPausesWhileServerIsBusy() {
+        var pregen = new ChunkPregenerator(mockPlugin, mockWorld, 0, 0, 1, 4, 45.0);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getAverageTickTime).thenReturn(60.0);
+            pregen.tick();
+            assertTrue(pregen.isPaused());
+            assertTrue(requests.isEmpty());
+
+            bukkit.when(Bukkit::getAverageTickTime).thenReturn(20.0);
+            pregen.tick();
+            assertFalse(pregen.isPaused());
+            assertEquals(4, requests.size());
+        }
+    }
+
+    @Test
+    void testCompletionTicketsChunksUntilReleased() {
+        var pregen = new ChunkPregenerator(mockPlugin, mockWorld, 0, 0, 1, 16, 45.0);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            pregen.tick();
+            assertEquals(9, requests.size());
+            requests.forEach(f -> f.complete(mockChunk));
+        }
+
+        assertEquals(1.0, pregen.getProgress());
+        assertFalse(pregen.isRunning());
+        verify(mockWorld, times(9)).addPluginChunkTicket(anyInt(), anyInt(), eq(mockPlugin));
+
+        pregen.releaseTickets();
+        verify(mockWorld).removePluginChunkTickets(mockPlugin);
+    }
+
+    @Test
+    void testFailedChunksStillCountTowardsCompletion() {
+        var pregen = new ChunkPregenerator(mockPlugin, mockWorld, 0, 0, 0, 16, 45.0);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            pregen.tick();
+            requests.get(0).completeExceptionally(new IllegalStateException("boom"));
+        }
+
+        assertEquals(1.0, pregen.getProgress());
+        verify(mockWorld, never()).addPluginChunkTicket(anyInt(), anyInt(), any());
+
+        pregen.releaseTickets();
+        verify(mockWorld, never()).removePluginChunkTickets(any());
+    }
+}
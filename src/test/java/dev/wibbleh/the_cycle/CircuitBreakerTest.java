@@ -0,0 +1,88 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(3, 1000, now::get);
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1, breaker.rejectedCount());
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void testHalfOpenAllowsSingleTrial() {
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertFalse(breaker.allowRequest(), "only one trial while half-open");
+    }
+
+    @Test
+    void testFailedTrialReopens() {
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    void testSuccessClosesAndNotifiesListeners() {
+        var closed = new AtomicInteger();
+        breaker.onClose(closed::incrementAndGet);
+        breaker.recordSuccess();
+        assertEquals(0, closed.get(), "already closed circuits do not notify");
+
+        openBreaker();
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(1, closed.get());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    void testFailuresWhileOpenExtendOpenPeriod() {
+        openBreaker();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(800));
+        breaker.recordFailure();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(800));
+
+        assertFalse(breaker.allowRequest());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) breaker.recordFailure();
+    }
+}
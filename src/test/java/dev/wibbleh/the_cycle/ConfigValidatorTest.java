@@ -70,6 +70,23 @@ class ConfigValidatorTest {
         assertTrue(result.errors().stream().anyMatch(e -> e.contains("http_port")));
     }
 
+    @Test
+    void testInvalidHttpLimits() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("server.http_enabled", true);
+        cfg.set("server.http_port", 8080);
+        cfg.set("server.http_max_concurrent_requests", 0);
+        cfg.set("server.http_max_body_bytes", 10);
+        cfg.set("server.http_rate_limit_per_second", -1.0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("http_max_concurrent_requests")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("http_max_body_bytes")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("http_rate_limit_per_second")));
+    }
+
     @Test
     void testHttpEnabledWithoutSecret() {
         FileConfiguration cfg = new YamlConfiguration();
@@ -147,6 +164,163 @@ class ConfigValidatorTest {
         assertTrue(result.hasWarnings(), "Extreme countdown values should produce warnings");
     }
 
+    @Test
+    void testNegativeSparePoolSize() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("world_pool.size", -1);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.hasErrors(), "Negative pool size should produce error");
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("world_pool.size")));
+    }
+
+    @Test
+    void testInvalidPregenerationSettings() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("pregeneration.radius_chunks", -2);
+        cfg.set("pregeneration.max_in_flight", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("pregeneration.radius_chunks")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("pregeneration.max_in_flight")));
+    }
+
+    @Test
+    void testLegacyRpcWarns() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("server.accept_legacy_rpc", true);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.warnings().stream().anyMatch(w -> w.contains("accept_legacy_rpc")));
+    }
+
+    @Test
+    void testTemplateModeWithoutFixedSeedWarns() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("server.randomize_seed", false);
+        cfg.set("server.seed", 0L);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.warnings().stream().anyMatch(w -> w.contains("world_template")));
+    }
+
+    @Test
+    void testInvalidTransferPacing() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "lobby");
+        cfg.set("server.hardcore", "hardcore-server");
+        cfg.set("transfers.per_wave", 0);
+        cfg.set("transfers.wave_interval_ticks", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("transfers.per_wave")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("transfers.wave_interval_ticks")));
+    }
+
+    @Test
+    void testInvalidRpcRetryTuning() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "lobby");
+        cfg.set("server.hardcore", "hardcore-server");
+        cfg.set("rpc_retry.max_concurrent", 0);
+        cfg.set("rpc_retry.base_backoff_seconds", 60);
+        cfg.set("rpc_retry.max_backoff_seconds", 30);
+        cfg.set("rpc_retry.health_poll_seconds", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("rpc_retry.max_concurrent")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("rpc_retry.max_backoff_seconds")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("rpc_retry.health_poll_seconds")));
+    }
+
+    @Test
+    void testInvalidBackendHealthSettings() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "lobby");
+        cfg.set("server.hardcore", "hardcore-server");
+        cfg.set("backend_health.poll_seconds", 0);
+        cfg.set("backend_health.failure_threshold", 0);
+        cfg.set("backend_health.open_seconds", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("backend_health.poll_seconds")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("backend_health.failure_threshold")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("backend_health.open_seconds")));
+    }
+
+    @Test
+    void testInvalidEventReplaySize() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("events.replay_size", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("events.replay_size")));
+    }
+
+    @Test
+    void testInvalidStateFlushInterval() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("state.flush_millis", 0);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("state.flush_millis")));
+    }
+
+    @Test
+    void testInvalidDeletionBudget() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("deletion.parallelism", 0);
+        cfg.set("deletion.max_bytes_per_second", -1);
+        cfg.set("deletion.orphan_sweep_interval_minutes", -5);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("deletion.parallelism")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("deletion.max_bytes_per_second")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("deletion.orphan_sweep_interval_minutes")));
+        assertFalse(result.errors().stream().anyMatch(e -> e.contains("deletion.max_files_per_second")));
+    }
+
+    @Test
+    void testInvalidArchiveSettings() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("deletion.archive_mode", "sometimes");
+        cfg.set("deletion.archive_compression_level", 12);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("deletion.archive_mode")));
+        assertTrue(result.errors().stream().anyMatch(e -> e.contains("deletion.archive_compression_level")));
+    }
+
+    @Test
+    void testRemovedGenerationDelayWarns() {
+        FileConfiguration cfg = new YamlConfiguration();
+        cfg.set("server.role", "hardcore");
+        cfg.set("behavior.delay_before_generation_seconds", 3);
+
+        ConfigValidator.ValidationResult result = ConfigValidator.validate(cfg);
+
+        assertTrue(result.warnings().stream().anyMatch(w -> w.contains("delay_before_generation_seconds")));
+    }
+
     @Test
     void testNullConfig() {
         ConfigValidator.ValidationResult result = ConfigValidator.validate(null);
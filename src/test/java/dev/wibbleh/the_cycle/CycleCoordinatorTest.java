@@ -0,0 +1,211 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CycleCoordinatorTest {
+
+    @Mock
+    private Main mockPlugin;
+
+    @Mock
+    private BukkitScheduler mockScheduler;
+
+    @Mock
+    private BukkitTask mockTask;
+
+    @Mock
+    private World prevWorld;
+
+    private CycleCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mockPlugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
+        lenient().when(mockScheduler.runTaskLater(any(Main.class), any(Runnable.class), anyLong())).thenReturn(mockTask);
+        lenient().when(prevWorld.getName()).thenReturn("hardcore_cycle_1");
+        coordinator = new CycleCoordinator(mockPlugin);
+    }
+
+    private Player player() {
+        Player p = mock(Player.class);
+        lenient().when(p.getUniqueId()).thenReturn(UUID.randomUUID());
+        lenient().when(p.getName()).thenReturn("p");
+        return p;
+    }
+
+    private PlayerQuitEvent quit(Player p) {
+        var e = mock(PlayerQuitEvent.class);
+        when(e.getPlayer()).thenReturn(p);
+        return e;
+    }
+
+    @Test
+    void testPhasesWithoutDrain() {
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            assertTrue(coordinator.begin(2, "hardcore_cycle_1", false, 30));
+        }
+
+        verify(mockPlugin).generateWorldForCycle(2);
+        assertEquals(CycleCoordinator.Phase.GENERATING, coordinator.getPhase());
+        assertTrue(coordinator.isBusy());
+
+        coordinator.worldLoaded(2, true);
+        assertEquals(CycleCoordinator.Phase.ADMITTING, coordinator.getPhase());
+        assertFalse(coordinator.isBusy());
+        assertTrue(coordinator.isActive());
+
+        coordinator.lobbyNotified(2);
+        assertEquals(CycleCoordinator.Phase.READY, coordinator.getPhase());
+        assertFalse(coordinator.isActive());
+    }
+
+    @Test
+    void testMissingPreviousWorldSkipsDrain() {
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            bukkit.when(() -> Bukkit.getWorld("hardcore_cycle_1")).thenReturn(null);
+
+            coordinator.begin(2, "hardcore_cycle_1", true, 30);
+        }
+
+        verify(mockPlugin).generateWorldForCycle(2);
+        verify(mockScheduler, never()).runTaskLater(any(Main.class), any(Runnable.class), anyLong());
+    }
+
+    @Test
+    void testDrainAdvancesWhenLastPlayerLeaves() {
+        var a = player();
+        var b = player();
+        List<Player> inWorld = new ArrayList<>(List.of(a, b));
+        when(prevWorld.getPlayers()).thenAnswer(inv -> List.copyOf(inWorld));
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            bukkit.when(() -> Bukkit.getWorld("hardcore_cycle_1")).thenReturn(prevWorld);
+            bukkit.when(() -> Bukkit.unloadWorld(prevWorld, false)).thenReturn(true);
+
+            coordinator.begin(2, "hardcore_cycle_1", true, 30);
+            assertEquals(CycleCoordinator.Phase.DRAINING, coordinator.getPhase());
+            verify(mockScheduler).runTaskLater(eq(mockPlugin), any(Runnable.class), eq(600L));
+
+            coordinator.onPlayerQuit(quit(a));
+            inWorld.remove(a);
+            verify(mockScheduler, never()).runTask(any(Main.class), any(Runnable.class));
+
+            var changed = mock(PlayerChangedWorldEvent.class);
+            when(changed.getPlayer()).thenReturn(b);
+            when(changed.getFrom()).thenReturn(prevWorld);
+            coordinator.onPlayerChangedWorld(changed);
+            inWorld.remove(b);
+
+            var advance = ArgumentCaptor.forClass(Runnable.class);
+            verify(mockScheduler).runTask(eq(mockPlugin), advance.capture());
+            verify(mockPlugin, never()).generateWorldForCycle(anyInt());
+
+            advance.getValue().run();
+            bukkit.verify(() -> Bukkit.unloadWorld(prevWorld, false));
+        }
+
+        verify(mockTask).cancel();
+        verify(mockPlugin).scheduleWorldDeletion("hardcore_cycle_1");
+        verify(mockPlugin).generateWorldForCycle(2);
+        assertEquals(CycleCoordinator.Phase.GENERATING, coordinator.getPhase());
+    }
+
+    @Test
+    void testDrainTimeoutForcesRemainingPlayersToLobby() {
+        var a = player();
+        when(prevWorld.getPlayers()).thenReturn(List.of(a));
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            bukkit.when(() -> Bukkit.getWorld("hardcore_cycle_1")).thenReturn(prevWorld);
+
+            coordinator.begin(2, "hardcore_cycle_1", true, 5);
+            var timeout = ArgumentCaptor.forClass(Runnable.class);
+            verify(mockScheduler).runTaskLater(eq(mockPlugin), timeout.capture(), eq(100L));
+
+            timeout.getValue().run();
+        }
+
+        verify(mockPlugin).sendPlayerToLobby(a);
+        verify(mockScheduler).runTaskLater(any(Main.class), any(Runnable.class), eq(60L));
+        assertEquals(CycleCoordinator.Phase.DRAINING, coordinator.getPhase());
+    }
+
+    @Test
+    void testBusyCoordinatorRejectsNewCycle() {
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            assertTrue(coordinator.begin(2, "hardcore_cycle_1", false, 30));
+            assertFalse(coordinator.begin(3, "hardcore_cycle_2", false, 30));
+        }
+
+        verify(mockPlugin, never()).generateWorldForCycle(3);
+        assertEquals(2, coordinator.getCycle());
+    }
+
+    @Test
+    void testPhaseDurationsAreRecorded() {
+        var timings = new CycleTimings(null, null);
+        when(mockPlugin.getCycleTimings()).thenReturn(timings);
+        timings.startCycle(2);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            coordinator.begin(2, "hardcore_cycle_1", false, 30);
+        }
+        coordinator.worldLoaded(2, true);
+        coordinator.lobbyNotified(2);
+
+        assertEquals(1, timings.histogram(CycleTimings.Stage.GENERATE).getCount());
+        assertEquals(1, timings.histogram(CycleTimings.Stage.ADMIT).getCount());
+        assertEquals(0, timings.histogram(CycleTimings.Stage.DRAIN).getCount());
+        assertEquals(2, timings.getLastCycle().cycle());
+    }
+
+    @Test
+    void testWorldLoadFailureFailsBoundOperation() {
+        var operations = new CycleOperations();
+        when(mockPlugin.getCycleOperations()).thenReturn(operations);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            coordinator.begin(2, "hardcore_cycle_1", false, 30);
+        }
+        String id = operations.create();
+        operations.bind(id, 2);
+        assertEquals(CycleCoordinator.Phase.GENERATING, operations.status(id).phase());
+
+        coordinator.worldLoaded(2, false);
+
+        assertEquals(CycleOperations.State.FAILED, operations.status(id).state());
+        assertEquals(CycleCoordinator.Phase.READY, operations.status(id).phase());
+    }
+}
@@ -0,0 +1,149 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleEventBusTest {
+    private CycleEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) bus.close();
+    }
+
+    @Test
+    void testLiveEventsReachSubscriber() throws Exception {
+        bus = new CycleEventBus(8);
+        var out = new Sink();
+        assertTrue(bus.subscribe(null, out, () -> { }));
+
+        bus.publish("death", Map.of("cycle", 4, "player", "Steve"));
+
+        waitFor(() -> out.text().contains("event: death"));
+        var parsed = events(out.text());
+        assertEquals(1, parsed.size());
+        assertEquals("death", parsed.get(0).type());
+        assertTrue(parsed.get(0).id().endsWith("-1"));
+        assertTrue(parsed.get(0).data().contains("\"player\":\"Steve\""));
+    }
+
+    @Test
+    void testReplaysEventsAfterLastEventId() throws Exception {
+        bus = new CycleEventBus(8);
+        bus.publish("phase", Map.of("phase", "GENERATING"));
+        bus.publish("phase", Map.of("phase", "LOADING"));
+        bus.publish("phase", Map.of("phase", "READY"));
+        var first = new Sink();
+        bus.subscribe("", first, () -> { });
+        bus.publish("world-ready", Map.of("cycle", 2));
+        waitFor(() -> first.text().contains("world-ready"));
+        String firstId = events(first.text()).get(0).id();
+        String prefix = firstId.substring(0, firstId.lastIndexOf('-') + 1);
+
+        var resumed = new Sink();
+        bus.subscribe(prefix + "2", resumed, () -> { });
+        waitFor(() -> resumed.text().contains("world-ready"));
+
+        var replayed = events(resumed.text());
+        assertEquals(List.of("phase", "world-ready"), replayed.stream().map(CycleEventSubscriber.Event::type).toList());
+        assertTrue(replayed.get(0).data().contains("READY"));
+    }
+
+    @Test
+    void testResetWhenIdUnknownOrTooOld() throws Exception {
+        bus = new CycleEventBus(2);
+        for (int i = 1; i <= 5; i++) bus.publish("progress", Map.of("progress", i / 10.0));
+
+        var stale = new Sink();
+        bus.subscribe("previous-run-3", stale, () -> { });
+        waitFor(() -> stale.text().contains("0.5"));
+        var fromOtherRun = events(stale.text());
+        assertEquals("reset", fromOtherRun.get(0).type());
+        assertNull(fromOtherRun.get(0).id());
+        assertEquals(3, fromOtherRun.size());
+
+        var probe = new Sink();
+        bus.subscribe("previous-run-1", probe, () -> { });
+        waitFor(() -> probe.text().contains("0.5"));
+        String id = events(probe.text()).get(1).id();
+        var tooOld = new Sink();
+        bus.subscribe(id.substring(0, id.lastIndexOf('-')) + "-1", tooOld, () -> { });
+        waitFor(() -> tooOld.text().contains("0.5"));
+        var missed = events(tooOld.text());
+        assertEquals("reset", missed.get(0).type());
+        assertTrue(missed.get(1).id().endsWith("-4"));
+    }
+
+    @Test
+    void testSubscriberLimit() {
+        bus = new CycleEventBus(4);
+        for (int i = 0; i < CycleEventBus.MAX_SUBSCRIBERS; i++) {
+            assertTrue(bus.subscribe(null, new ByteArrayOutputStream(), () -> { }));
+        }
+        assertFalse(bus.subscribe(null, new ByteArrayOutputStream(), () -> { }));
+        assertEquals(CycleEventBus.MAX_SUBSCRIBERS, bus.subscriberCount());
+    }
+
+    @Test
+    void testCloseEndsSubscribersAndIgnoresLaterEvents() throws Exception {
+        bus = new CycleEventBus(4);
+        var closed = new CountDownLatch(1);
+        bus.subscribe(null, new Sink(), closed::countDown);
+
+        bus.close();
+        bus.publish("phase", Map.of("phase", "IDLE"));
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals(0, bus.subscriberCount());
+        assertFalse(bus.subscribe(null, new Sink(), () -> { }));
+    }
+
+    private static List<CycleEventSubscriber.Event> events(String stream) {
+        var parser = new CycleEventSubscriber.Parser();
+        var events = new ArrayList<CycleEventSubscriber.Event>();
+        for (String line : stream.split("\n", -1)) {
+            var event = parser.accept(line);
+            if (event != null) events.add(event);
+        }
+        return events;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    /** Response stream that can be read while the writer thread is still using it. */
+    private static final class Sink extends OutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public synchronized void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            bytes.write(b, off, len);
+        }
+
+        synchronized String text() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+    }
+}
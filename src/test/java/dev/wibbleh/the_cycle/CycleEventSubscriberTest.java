@@ -0,0 +1,103 @@
+package dev.wibbleh.the_cycle;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleEventSubscriberTest {
+    private HttpServer server;
+    private CycleEventBus bus;
+    private CycleEventSubscriber subscriber;
+    private final List<String> resumeIds = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        if (subscriber != null) subscriber.stop();
+        if (bus != null) bus.close();
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void testParserDispatchesOnBlankLine() {
+        var parser = new CycleEventSubscriber.Parser();
+
+        assertNull(parser.accept(": ping"));
+        assertNull(parser.accept(""));
+        assertNull(parser.accept("id: abc-7"));
+        assertNull(parser.accept("event: phase"));
+        assertNull(parser.accept("data: {\"a\":1,"));
+        assertNull(parser.accept("data:\"b\":2}"));
+        var event = parser.accept("");
+
+        assertEquals(new CycleEventSubscriber.Event("abc-7", "phase", "{\"a\":1,\n\"b\":2}"), event);
+    }
+
+    @Test
+    void testParserDefaultsTypeAndAllowsMissingId() {
+        var parser = new CycleEventSubscriber.Parser();
+
+        parser.accept("retry: 1000");
+        parser.accept("data: hello");
+        var event = parser.accept("");
+
+        assertNull(event.id());
+        assertEquals("message", event.type());
+        assertEquals("hello", event.data());
+    }
+
+    @Test
+    void testReceivesEventsAndResumesAfterStaleStream() throws Exception {
+        startServer();
+        var received = new CopyOnWriteArrayList<CycleEventSubscriber.Event>();
+        subscriber = new CycleEventSubscriber(eventsUrl(), received::add, 300L);
+        subscriber.start();
+        waitFor(() -> bus.subscriberCount() == 1);
+
+        bus.publish("phase", Map.of("cycle", 1, "phase", "GENERATING"));
+        waitFor(() -> received.size() == 1);
+        String firstId = received.get(0).id();
+        assertEquals(firstId, subscriber.lastEventId());
+
+        // No heartbeat within the stale window: the watchdog reopens the stream from the last id
+        waitFor(() -> resumeIds.contains(firstId));
+        bus.publish("world-ready", Map.of("cycle", 1));
+        waitFor(() -> received.size() == 2);
+
+        assertEquals("world-ready", received.get(1).type());
+        assertEquals("{\"cycle\":1}", received.get(1).data());
+    }
+
+    private void startServer() throws Exception {
+        bus = new CycleEventBus(16);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/events", exchange -> {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            if (lastEventId != null) resumeIds.add(lastEventId);
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            bus.subscribe(lastEventId, exchange.getResponseBody(), exchange::close);
+        });
+        server.start();
+    }
+
+    private String eventsUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/events";
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dev.wibbleh.the_cycle;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleJfrEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCycleOfWorldNames() {
+        assertEquals(12, CycleJfrEvents.cycleOf("hardcore_cycle_12"));
+        assertEquals(3, CycleJfrEvents.cycleOf("hardcore_cycle_3.deleting." + UUID.randomUUID()));
+        assertEquals(-1, CycleJfrEvents.cycleOf("world_nether"));
+        assertEquals(-1, CycleJfrEvents.cycleOf(null));
+    }
+
+    @Test
+    void testPendingMovesWriteIsRecorded() throws Exception {
+        File file = tempDir.resolve("pending_moves.json").toFile();
+
+        var events = record("dev.wibbleh.the_cycle.PersistenceWrite",
+                () -> PendingMovesStorage.save(file, Set.of(UUID.randomUUID()), Set.of()));
+
+        var write = events.stream().filter(e -> "pending_moves.json".equals(e.getString("file"))).findFirst().orElseThrow();
+        assertEquals("write", write.getString("operation"));
+        assertEquals(file.length(), write.getLong("bytes"));
+    }
+
+    @Test
+    void testWorldDeletionIsRecordedWithSizes() throws Exception {
+        Path folder = Files.createDirectories(tempDir.resolve("hardcore_cycle_7.deleting.x").resolve("region"));
+        Files.write(folder.resolve("r.0.0.mca"), new byte[4096]);
+        Files.write(folder.resolve("r.0.1.mca"), new byte[1024]);
+        var deleter = new ParallelWorldDeleter(2, 0L, 0L, () -> false);
+        try {
+            var events = record("dev.wibbleh.the_cycle.WorldDeletion",
+                    () -> assertTrue(deleter.delete(tempDir.resolve("hardcore_cycle_7.deleting.x"))));
+
+            assertEquals(1, events.size());
+            var deletion = events.get(0);
+            assertEquals(7, deletion.getInt("cycle"));
+            assertEquals(2L, deletion.getLong("files"));
+            assertEquals(5120L, deletion.getLong("bytes"));
+            assertTrue(deletion.getBoolean("success"));
+        } finally {
+            deleter.shutdown();
+        }
+    }
+
+    private interface Action {
+        void run() throws Exception;
+    }
+
+    private List<RecordedEvent> record(String eventName, Action action) throws Exception {
+        Path dump = tempDir.resolve("recording.jfr");
+        try (var recording = new Recording()) {
+            recording.enable(eventName);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(dump);
+        }
+        return RecordingFile.readAllEvents(dump).stream()
+                .filter(e -> e.getEventType().getName().equals(eventName))
+                .toList();
+    }
+}
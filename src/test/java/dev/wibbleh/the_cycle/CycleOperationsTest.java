@@ -0,0 +1,153 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleOperationsTest {
+
+    @Test
+    void testNewOperationIsPending() {
+        var operations = new CycleOperations();
+        String id = operations.create();
+
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.PENDING, status.state());
+        assertEquals(-1, status.cycle());
+        assertNull(operations.status("unknown"));
+        assertNull(operations.await("unknown", CycleCoordinator.Phase.READY));
+    }
+
+    @Test
+    void testBindAppliesPhasesReachedBeforeBinding() {
+        var operations = new CycleOperations();
+        String id = operations.create();
+        // The cycle advanced while the request was still running on the main thread
+        operations.phaseReached(4, CycleCoordinator.Phase.GENERATING, false);
+
+        operations.bind(id, 4);
+
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.RUNNING, status.state());
+        assertEquals(CycleCoordinator.Phase.GENERATING, status.phase());
+        assertTrue(operations.await(id, CycleCoordinator.Phase.DRAINING).isDone());
+    }
+
+    @Test
+    void testAwaitCompletesWhenPhaseIsReached() throws Exception {
+        var operations = new CycleOperations();
+        String id = operations.create();
+        operations.bind(id, 2);
+
+        var admitting = operations.await(id, CycleCoordinator.Phase.ADMITTING);
+        var ready = operations.await(id, CycleCoordinator.Phase.READY);
+        operations.phaseReached(2, CycleCoordinator.Phase.ADMITTING, false);
+
+        assertEquals(CycleCoordinator.Phase.ADMITTING, admitting.get(1, TimeUnit.SECONDS).phase());
+        assertFalse(ready.isDone());
+
+        operations.phaseReached(2, CycleCoordinator.Phase.READY, false);
+        assertEquals(CycleOperations.State.DONE, ready.get(1, TimeUnit.SECONDS).state());
+    }
+
+    @Test
+    void testOtherCyclesDoNotAdvanceOperation() {
+        var operations = new CycleOperations();
+        String id = operations.create();
+        operations.bind(id, 2);
+
+        var ready = operations.await(id, CycleCoordinator.Phase.READY);
+        operations.phaseReached(3, CycleCoordinator.Phase.READY, false);
+
+        assertFalse(ready.isDone());
+        assertEquals(CycleOperations.State.RUNNING, operations.status(id).state());
+    }
+
+    @Test
+    void testRejectionReleasesWaiters() throws Exception {
+        var operations = new CycleOperations();
+        String id = operations.create();
+        var ready = operations.await(id, CycleCoordinator.Phase.READY);
+
+        operations.end(id, CycleOperations.State.REJECTED, "busy");
+
+        var status = ready.get(1, TimeUnit.SECONDS);
+        assertEquals(CycleOperations.State.REJECTED, status.state());
+        assertEquals("busy", status.message());
+        // A late bind does not revive a finished operation
+        operations.bind(id, 5);
+        assertEquals(CycleOperations.State.REJECTED, operations.status(id).state());
+    }
+
+    @Test
+    void testWaiterTimeoutDoesNotAffectOtherWaiters() {
+        var operations = new CycleOperations();
+        String id = operations.create();
+        operations.bind(id, 2);
+
+        var first = operations.await(id, CycleCoordinator.Phase.READY);
+        var second = operations.await(id, CycleCoordinator.Phase.READY);
+        first.complete(null);
+
+        assertFalse(second.isDone());
+        operations.phaseReached(2, CycleCoordinator.Phase.READY, false);
+        assertTrue(second.isDone());
+    }
+
+    @Test
+    void testPruneDropsExpiredFinishedOperations() {
+        var operations = new CycleOperations();
+        String finished = operations.create();
+        String running = operations.create();
+        operations.end(finished, CycleOperations.State.REJECTED, "busy");
+        operations.bind(running, 2);
+
+        operations.prune(System.currentTimeMillis() + CycleOperations.RETENTION_MILLIS + 1_000L);
+
+        assertNull(operations.status(finished));
+        assertNotNull(operations.status(running));
+        assertEquals(1, operations.size());
+    }
+
+    @Test
+    void testAdmitReturnsSameOperationForRepeatedKey() {
+        var operations = new CycleOperations();
+
+        var first = operations.admit("key-1");
+        var again = operations.admit("key-1");
+        var other = operations.admit("key-2");
+
+        assertFalse(first.duplicate());
+        assertTrue(again.duplicate());
+        assertEquals(first.operationId(), again.operationId());
+        assertNotEquals(first.operationId(), other.operationId());
+        assertFalse(operations.admit(null).duplicate());
+    }
+
+    @Test
+    void testAdmitKeepsAtMostMaxKeys() {
+        var operations = new CycleOperations();
+
+        for (int i = 0; i <= CycleOperations.MAX_KEYS; i++) operations.admit("key-" + i);
+
+        assertEquals(CycleOperations.MAX_KEYS, operations.keyCount());
+        // The oldest key was evicted, so it is treated as a new request
+        assertFalse(operations.admit("key-0").duplicate());
+        assertTrue(operations.admit("key-" + CycleOperations.MAX_KEYS).duplicate());
+    }
+
+    @Test
+    void testBindFinishedEndsOperationAsDone() {
+        var operations = new CycleOperations();
+        String id = operations.create();
+
+        operations.bindFinished(id, 3);
+
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.DONE, status.state());
+        assertEquals(3, status.cycle());
+        assertTrue(operations.await(id, CycleCoordinator.Phase.READY).isDone());
+    }
+}
@@ -0,0 +1,79 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CycleTimingsTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testRecordsStagesIntoHistograms() {
+        var timings = new CycleTimings(null, null);
+        timings.record(CycleTimings.Stage.DRAIN, 2_000_000L);
+        timings.record(CycleTimings.Stage.DRAIN, 4_000_000L);
+
+        var summary = timings.histogram(CycleTimings.Stage.DRAIN).summary();
+        assertEquals(2, summary.count());
+        assertEquals(2_000, summary.min());
+        assertEquals(4_000, summary.max());
+        assertEquals(1, timings.formatLines().size());
+        assertTrue(timings.formatLines().get(0).startsWith("drain: n=2"));
+    }
+
+    @Test
+    void testFinishCycleAppendsHistoryLine() throws Exception {
+        var file = new File(tempDir, "cycle_history.jsonl");
+        var timings = new CycleTimings(file, Runnable::run);
+
+        timings.startCycle(4);
+        timings.record(CycleTimings.Stage.GENERATE, 1_500_000_000L);
+        timings.record(CycleTimings.Stage.TELEPORT, 3_000_000L);
+        timings.finishCycle(4);
+        timings.startCycle(5);
+        timings.finishCycle(5);
+
+        var lines = Files.readAllLines(file.toPath());
+        assertEquals(2, lines.size());
+        var first = new Gson().fromJson(lines.get(0), CycleTimings.CycleRecord.class);
+        assertEquals(4, first.cycle());
+        assertEquals(1500L, ((Number) ((Map<?, ?>) first.stagesMs()).get("generate")).longValue());
+        assertTrue(first.stagesMs().containsKey("total"));
+        assertEquals(5, timings.getLastCycle().cycle());
+        assertEquals(2, timings.histogram(CycleTimings.Stage.TOTAL).getCount());
+    }
+
+    @Test
+    void testFinishIgnoresOtherCycle() {
+        var timings = new CycleTimings(null, null);
+        timings.startCycle(2);
+        timings.finishCycle(3);
+        assertNull(timings.getLastCycle());
+        assertEquals(0, timings.histogram(CycleTimings.Stage.TOTAL).getCount());
+    }
+
+    @Test
+    void testJsonModelSkipsEmptyStages() {
+        var timings = new CycleTimings(null, null);
+        timings.record(CycleTimings.Stage.WORLD_LOAD, 250_000_000L);
+        var stages = (Map<?, ?>) timings.toJsonModel().get("stages");
+        assertEquals(1, stages.size());
+        var load = (Map<?, ?>) stages.get("world_load");
+        assertEquals(250.0, (Double) load.get("maxMs"), 0.001);
+    }
+
+    @Test
+    void testFormatMicros() {
+        assertEquals("900us", CycleTimings.formatMicros(900));
+        assertEquals("12.5ms", CycleTimings.formatMicros(12_500));
+        assertEquals("3.20s", CycleTimings.formatMicros(3_200_000));
+    }
+}
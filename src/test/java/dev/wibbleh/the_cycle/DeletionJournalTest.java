@@ -0,0 +1,144 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeletionJournalTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    void testReplayKeepsOnlyUnfinishedEntries() {
+        var file = new File(tempDir, "deletion_journal.log");
+        var journal = new DeletionJournal(file);
+        var a = journal.enqueue("hardcore_cycle_1");
+        var b = journal.enqueue("hardcore_cycle_2");
+        journal.markStarted(a.id(), "hardcore_cycle_1.deleting.x");
+        journal.complete(b.id());
+        journal.close();
+
+        var replayed = new DeletionJournal(file);
+        var pending = replayed.pending();
+        assertEquals(1, pending.size());
+        assertEquals("hardcore_cycle_1", pending.get(0).worldName());
+        assertEquals("hardcore_cycle_1.deleting.x", pending.get(0).folderName());
+        // New ids continue after the replayed ones
+        assertTrue(replayed.enqueue("hardcore_cycle_3").id() > b.id());
+        replayed.close();
+    }
+
+    @Test
+    void testAppendsAreWrittenInTheBackground() throws Exception {
+        var file = new File(tempDir, "deletion_journal.log");
+        var journal = new DeletionJournal(file);
+        journal.enqueue("hardcore_cycle_1");
+        journal.markKeep("hardcore_cycle_2");
+
+        waitFor(() -> lines(file).size() == 2);
+        journal.close();
+    }
+
+    @Test
+    void testMarkStartedIsDurableOnReturn() throws Exception {
+        var file = new File(tempDir, "deletion_journal.log");
+        var journal = new DeletionJournal(file);
+        var entry = journal.enqueue("hardcore_cycle_1");
+
+        journal.markStarted(entry.id(), "hardcore_cycle_1.deleting.x");
+
+        // The enqueue record is forced together with the start record
+        assertEquals(List.of("E\t" + entry.id() + "\thardcore_cycle_1", "S\t" + entry.id() + "\thardcore_cycle_1.deleting.x"), lines(file));
+        journal.close();
+    }
+
+    @Test
+    void testCompactionDropsCompletedRecords() throws Exception {
+        var file = new File(tempDir, "deletion_journal.log");
+        var journal = new DeletionJournal(file);
+        for (int i = 0; i < 70; i++) journal.complete(journal.enqueue("w" + i).id());
+        journal.enqueue("kept");
+        journal.close();
+
+        // 64 completions triggered a rewrite; the 6 after it are still in the file
+        long lines = Files.readAllLines(file.toPath()).size();
+        assertTrue(lines <= 6 * 2 + 1, "journal was not compacted: " + lines + " lines");
+
+        var replayed = new DeletionJournal(file);
+        assertEquals(1, replayed.pending().size());
+        // Opening compacts the remaining completed records
+        assertEquals(1, Files.readAllLines(file.toPath()).size());
+        replayed.close();
+    }
+
+    @Test
+    void testTornFinalLineIsIgnored() throws Exception {
+        var file = new File(tempDir, "deletion_journal.log");
+        Files.writeString(file.toPath(), "E\t1\thardcore_cycle_12\nE\t2\thardcore_cyc");
+
+        var journal = new DeletionJournal(file);
+        assertEquals(1, journal.pending().size());
+        journal.enqueue("hardcore_cycle_13");
+        journal.close();
+
+        var replayed = new DeletionJournal(file);
+        assertEquals(2, replayed.pending().size());
+        assertEquals("hardcore_cycle_13", replayed.pending().get(1).worldName());
+        replayed.close();
+    }
+
+    @Test
+    void testEnqueueIsIdempotentPerWorld() {
+        var journal = new DeletionJournal(new File(tempDir, "deletion_journal.log"));
+        var first = journal.enqueue("w");
+        assertEquals(first.id(), journal.enqueue("w").id());
+        assertNull(journal.markStarted(99L, "x"));
+        journal.close();
+    }
+
+    @Test
+    void testKeepMarkAndArchiveProgressSurviveReplay() {
+        var file = new File(tempDir, "deletion_journal.log");
+        var journal = new DeletionJournal(file);
+        journal.markKeep("hardcore_cycle_4");
+        journal.markKeep("hardcore_cycle_5");
+        var entry = journal.enqueue("hardcore_cycle_4");
+        assertTrue(entry.archive());
+        journal.markStarted(entry.id(), "hardcore_cycle_4.deleting.x");
+        journal.markArchived(entry.id());
+        journal.close();
+
+        var replayed = new DeletionJournal(file);
+        var pending = replayed.pending().get(0);
+        assertTrue(pending.archive());
+        assertTrue(pending.archived());
+        // The remaining mark still applies to a later enqueue
+        assertTrue(replayed.enqueue("hardcore_cycle_5").archive());
+        assertFalse(replayed.enqueue("hardcore_cycle_6").archive());
+        replayed.close();
+    }
+
+    private static List<String> lines(File file) {
+        try {
+            return file.exists() ? Files.readAllLines(file.toPath()) : List.of();
+        } catch (java.io.IOException e) {
+            return List.of();
+        }
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dev.wibbleh.the_cycle;
+
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthSnapshotTest {
+
+    private static HealthSnapshot.Values values(int players, Double progress) {
+        return new HealthSnapshot.Values("hardcore", 7, "GENERATING", players, 21.3, 2, 1, 4, 3, progress);
+    }
+
+    @Test
+    void testBodyHoldsStatusQueuesAndProgress() {
+        var snapshot = new HealthSnapshot(values(3, 0.42));
+
+        var json = JsonParser.parseString(new String(snapshot.body(), StandardCharsets.UTF_8)).getAsJsonObject();
+
+        assertEquals("ok", json.get("status").getAsString());
+        assertEquals("hardcore", json.get("role").getAsString());
+        assertEquals(7, json.get("cycleNumber").getAsInt());
+        assertEquals(3, json.get("playersOnline").getAsInt());
+        assertEquals(21.3, json.get("mspt").getAsDouble(), 0.001);
+        assertEquals("GENERATING", json.get("phase").getAsString());
+        assertEquals(0.42, json.get("generationProgress").getAsDouble(), 0.001);
+        var queues = json.getAsJsonObject("queues");
+        assertEquals(2, queues.get("rpc").getAsInt());
+        assertEquals(1, queues.get("rpcOutbox").getAsInt());
+        assertEquals(4, queues.get("transfers").getAsInt());
+        assertEquals(3, queues.get("pendingMoves").getAsInt());
+    }
+
+    @Test
+    void testBodyStaysReadableByHealthMirror() {
+        var snapshot = new HealthSnapshot(values(3, null));
+
+        var parsed = BackendHealthMirror.parse(new String(snapshot.body(), StandardCharsets.UTF_8), 1L);
+
+        assertNotNull(parsed);
+        assertEquals(7, parsed.cycleNumber());
+        assertEquals("GENERATING", parsed.phase());
+        assertEquals(21.3, parsed.mspt(), 0.001);
+    }
+
+    @Test
+    void testEtagFollowsContent() {
+        var a = new HealthSnapshot(values(3, null));
+        var b = new HealthSnapshot(values(3, null));
+        var c = new HealthSnapshot(values(4, null));
+
+        assertEquals(a.etag(), b.etag());
+        assertNotEquals(a.etag(), c.etag());
+        assertTrue(a.etag().startsWith("\"") && a.etag().endsWith("\""));
+    }
+
+    @Test
+    void testMatchesIfNoneMatchHeader() {
+        var snapshot = new HealthSnapshot(values(3, null));
+
+        assertTrue(snapshot.matches(snapshot.etag()));
+        assertTrue(snapshot.matches("\"other\", W/" + snapshot.etag()));
+        assertTrue(snapshot.matches("*"));
+        assertFalse(snapshot.matches("\"other\""));
+        assertFalse(snapshot.matches(null));
+    }
+}
@@ -0,0 +1,95 @@
+package dev.wibbleh.the_cycle;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HttpAdmissionFilterTest {
+
+    private static HttpExchange exchangeFrom(String address) {
+        HttpExchange exchange = mock(HttpExchange.class);
+        lenient().when(exchange.getRemoteAddress()).thenReturn(new InetSocketAddress(address, 40000));
+        lenient().when(exchange.getRequestBody()).thenReturn(new ByteArrayInputStream(new byte[0]));
+        return exchange;
+    }
+
+    @Test
+    void testTokenBucketAllowsBurstThenRefills() {
+        var filter = new HttpAdmissionFilter(4, 0L, 2.0, 3);
+        long now = 1_000_000_000L;
+
+        assertTrue(filter.tryTake("10.0.0.1", now));
+        assertTrue(filter.tryTake("10.0.0.1", now));
+        assertTrue(filter.tryTake("10.0.0.1", now));
+        assertFalse(filter.tryTake("10.0.0.1", now));
+        // Other addresses have their own bucket
+        assertTrue(filter.tryTake("10.0.0.2", now));
+        // Half a second at 2/s refills one token
+        assertTrue(filter.tryTake("10.0.0.1", now + 500_000_000L));
+        assertFalse(filter.tryTake("10.0.0.1", now + 500_000_000L));
+    }
+
+    @Test
+    void testZeroRateDisablesLimit() {
+        var filter = new HttpAdmissionFilter(4, 0L, 0.0, 1);
+        for (int i = 0; i < 100; i++) assertTrue(filter.tryTake("10.0.0.1", 0L));
+    }
+
+    @Test
+    void testRateLimitedRequestGets429() throws Exception {
+        var filter = new HttpAdmissionFilter(4, 0L, 1.0, 1);
+        var chain = new Filter.Chain(List.of(), ex -> { });
+        var first = exchangeFrom("127.0.0.1");
+        var second = exchangeFrom("127.0.0.1");
+
+        filter.doFilter(first, chain);
+        filter.doFilter(second, chain);
+
+        verify(first, never()).sendResponseHeaders(anyInt(), anyLong());
+        verify(second).sendResponseHeaders(429, -1);
+        var stats = filter.getStats();
+        assertEquals(1, stats.admitted());
+        assertEquals(1, stats.rateLimited());
+    }
+
+    @Test
+    void testRequestsOverConcurrencyCapGet503() throws Exception {
+        var filter = new HttpAdmissionFilter(1, 50L, 0.0, 1);
+        var entered = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var blocking = new Filter.Chain(List.of(), ex -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        var holder = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(exchangeFrom("127.0.0.1"), blocking);
+            } catch (Exception ignored) {
+            }
+        });
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, filter.getStats().inFlight());
+
+        var rejected = exchangeFrom("127.0.0.2");
+        filter.doFilter(rejected, new Filter.Chain(List.of(), ex -> fail("should not be handled")));
+
+        verify(rejected).sendResponseHeaders(503, -1);
+        assertEquals(1, filter.getStats().overloaded());
+        release.countDown();
+        holder.join(5000);
+        assertEquals(0, filter.getStats().inFlight());
+    }
+}
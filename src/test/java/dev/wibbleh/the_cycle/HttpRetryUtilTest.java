@@ -1,7 +1,13 @@
 package dev.wibbleh.the_cycle;
 
+import com.sun.net.httpserver.HttpServer;
 import org.junit.jupiter.api.Test;
 
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class HttpRetryUtilTest {
@@ -118,4 +124,91 @@ class HttpRetryUtilTest {
         assertFalse(result.success());
         assertEquals(3, result.attempts()); // 1 initial + 2 retries
     }
+
+    private static HttpServer startServer(int... codes) throws Exception {
+        var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        var calls = new AtomicInteger();
+        server.createContext("/rpc", exchange -> {
+            int call = calls.getAndIncrement();
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(codes[Math.min(call, codes.length - 1)], -1);
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/rpc";
+    }
+
+    @Test
+    void testPostAsyncSucceeds() throws Exception {
+        var server = startServer(202);
+        try {
+            var result = HttpRetryUtil.postAsync(url(server), "{}", "abc", HttpRetryUtil.RetryConfig.defaults())
+                    .get(10, TimeUnit.SECONDS);
+
+            assertTrue(result.success());
+            assertEquals(202, result.statusCode());
+            assertEquals(1, result.attempts());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testPostAsyncRetriesServerErrors() throws Exception {
+        var server = startServer(500, 503, 200);
+        try {
+            var config = new HttpRetryUtil.RetryConfig(3, 10, 50, 1000, 1000);
+            var result = HttpRetryUtil.postAsync(url(server), "{}", null, config).get(10, TimeUnit.SECONDS);
+
+            assertTrue(result.success());
+            assertEquals(3, result.attempts());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testPostAsyncDoesNotRetryClientErrors() throws Exception {
+        var server = startServer(403, 200);
+        try {
+            var config = new HttpRetryUtil.RetryConfig(3, 10, 50, 1000, 1000);
+            var result = HttpRetryUtil.postAsync(url(server), "{}", null, config).get(10, TimeUnit.SECONDS);
+
+            assertFalse(result.success());
+            assertEquals(403, result.statusCode());
+            assertEquals(1, result.attempts());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testPostAsyncReturnsBeforeResponse() throws Exception {
+        var release = new CountDownLatch(1);
+        var server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/rpc", exchange -> {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            var future = HttpRetryUtil.postAsync(url(server), "{}", null, HttpRetryUtil.RetryConfig.defaults());
+
+            // The caller is not blocked while the server holds the request
+            assertFalse(future.isDone());
+            release.countDown();
+            assertTrue(future.get(10, TimeUnit.SECONDS).success());
+        } finally {
+            server.stop(0);
+        }
+    }
 }
@@ -17,14 +17,20 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -128,9 +134,12 @@ class HttpRpcServerTest {
             when(mockExchange.getRequestBody()).thenReturn(is);
             when(mockExchange.getRequestHeaders()).thenReturn(headers);
             when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+            when(mockPlugin.getCycleOperations()).thenReturn(new CycleOperations());
             
             // Mock triggerCycle to not throw exception
             doNothing().when(mockPlugin).triggerCycle();
+            doCallRealMethod().when(mockPlugin).startCycleOperation(anyString(), any());
 
             try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
                 mockedBukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
@@ -142,7 +151,9 @@ class HttpRpcServerTest {
 
                 handler.handle(mockExchange);
 
-                verify(mockExchange).sendResponseHeaders(eq(200), eq(2L));
+                // cycle-now is answered immediately with an operation id instead of waiting for the cycle
+                verify(mockExchange).sendResponseHeaders(eq(202), anyLong());
+                assertTrue(responseBody.toString(StandardCharsets.UTF_8).contains("\"operationId\""));
                 verify(mockPlugin).triggerCycle();
             }
         } finally {
@@ -323,23 +334,26 @@ class HttpRpcServerTest {
             Headers responseHeaders = new Headers();
 
             when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestHeaders()).thenReturn(new Headers());
             when(mockExchange.getResponseBody()).thenReturn(responseBody);
             when(mockExchange.getResponseHeaders()).thenReturn(responseHeaders);
-            when(mockConfig.getString("server.role", "hardcore")).thenReturn("hardcore");
-            when(mockPlugin.getCycleNumber()).thenReturn(5);
+            when(mockPlugin.getHealthSnapshot()).thenReturn(snapshot("hardcore", 5, 0));
 
             try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
-                mockedBukkit.when(Bukkit::getOnlinePlayers).thenReturn(java.util.Collections.emptyList());
-
                 handler.handle(mockExchange);
 
-                verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
-                String response = responseBody.toString(StandardCharsets.UTF_8);
-                assertTrue(response.contains("\"status\":\"ok\""));
-                assertTrue(response.contains("\"role\":\"hardcore\""));
-                assertTrue(response.contains("\"cycleNumber\":5"));
-                assertTrue(response.contains("\"playersOnline\":0"));
+                // Served from the published snapshot without touching Bukkit
+                mockedBukkit.verifyNoInteractions();
             }
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("\"status\":\"ok\""));
+            assertTrue(response.contains("\"role\":\"hardcore\""));
+            assertTrue(response.contains("\"cycleNumber\":5"));
+            assertTrue(response.contains("\"playersOnline\":0"));
+            assertTrue(response.contains("\"mspt\":"));
+            assertTrue(response.contains("\"phase\":\"IDLE\""));
+            assertEquals(mockPlugin.getHealthSnapshot().etag(), responseHeaders.getFirst("ETag"));
         } finally {
             server.stop(0);
         }
@@ -356,46 +370,439 @@ class HttpRpcServerTest {
             Headers responseHeaders = new Headers();
 
             when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestHeaders()).thenReturn(new Headers());
             when(mockExchange.getResponseBody()).thenReturn(responseBody);
             when(mockExchange.getResponseHeaders()).thenReturn(responseHeaders);
-            when(mockConfig.getString("server.role", "hardcore")).thenReturn("lobby");
-            when(mockPlugin.getCycleNumber()).thenReturn(3);
+            when(mockPlugin.getHealthSnapshot()).thenReturn(snapshot("lobby", 3, 2));
 
-            try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
-                // Mock 2 online players
-                mockedBukkit.when(Bukkit::getOnlinePlayers).thenReturn(
-                    java.util.Arrays.asList(mock(org.bukkit.entity.Player.class), mock(org.bukkit.entity.Player.class))
-                );
+            handler.handle(mockExchange);
 
-                handler.handle(mockExchange);
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("\"status\":\"ok\""));
+            assertTrue(response.contains("\"role\":\"lobby\""));
+            assertTrue(response.contains("\"cycleNumber\":3"));
+            assertTrue(response.contains("\"playersOnline\":2"));
+        } finally {
+            server.stop(0);
+        }
+    }
 
-                verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
-                String response = responseBody.toString(StandardCharsets.UTF_8);
-                assertTrue(response.contains("\"status\":\"ok\""));
-                assertTrue(response.contains("\"role\":\"lobby\""));
-                assertTrue(response.contains("\"cycleNumber\":3"));
-                assertTrue(response.contains("\"playersOnline\":2"));
-            }
+    @Test
+    void testHealthEndpointAnswersNotModifiedForCurrentEtag() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.HealthHandler handler = server.new HealthHandler();
+            var snapshot = snapshot("hardcore", 5, 1);
+            var requestHeaders = new Headers();
+            requestHeaders.set("If-None-Match", snapshot.etag());
+
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestHeaders()).thenReturn(requestHeaders);
+            when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+            when(mockPlugin.getHealthSnapshot()).thenReturn(snapshot);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(304, -1);
+            verify(mockExchange, never()).getResponseBody();
         } finally {
             server.stop(0);
         }
     }
 
     @Test
-    void testHealthEndpointErrorHandling() throws Exception {
+    void testHealthEndpointUnavailableBeforeFirstSnapshot() throws Exception {
         int port = getNextPort();
         HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
         try {
             HttpRpcServer.HealthHandler handler = server.new HealthHandler();
 
             when(mockExchange.getRequestMethod()).thenReturn("GET");
-            when(mockConfig.getString("server.role", "hardcore")).thenThrow(new RuntimeException("Config error"));
+            when(mockPlugin.getHealthSnapshot()).thenReturn(null);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(503, -1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testMetricsEndpointReturnsPrometheusText() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.MetricsHandler handler = server.new MetricsHandler();
+            ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+            Headers responseHeaders = new Headers();
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(responseHeaders);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            assertTrue(responseHeaders.getFirst("Content-Type").startsWith("text/plain; version=0.0.4"));
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("# TYPE hardcore_cycle_rpc_attempt_seconds histogram"), response);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HealthSnapshot snapshot(String role, int cycle, int players) {
+        return new HealthSnapshot(new HealthSnapshot.Values(role, cycle, "hardcore".equals(role) ? "IDLE" : null, players, 12.5, 0, 0, 0, 0, null));
+    }
+
+    @Test
+    void testStatsEndpointReturnsCycleTimings() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.StatsHandler handler = server.new StatsHandler();
+
+            ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+            Headers responseHeaders = new Headers();
+            var timings = new CycleTimings(null, null);
+            timings.record(CycleTimings.Stage.DRAIN, 5_000_000L);
+
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(responseHeaders);
+            when(mockPlugin.getCycleNumber()).thenReturn(7);
+            when(mockPlugin.getCycleTimings()).thenReturn(timings);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("\"cycleNumber\":7"));
+            assertTrue(response.contains("\"drain\":{\"count\":1"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testDuplicateCycleNowKeyReturnsSameOperation() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.RpcHandler handler = server.new RpcHandler();
+            var operations = new CycleOperations();
+            String first = operations.admit("key-1").operationId();
+
+            String payload = "{\"v\":1,\"action\":\"cycle-now\",\"caller\":\"test\",\"cycle\":5,\"id\":\"key-1\"}";
+            Headers headers = new Headers();
+            headers.add("X-Signature", RpcHttpUtil.computeHmacHex("test-secret", payload));
+            ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+            when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+            when(mockExchange.getRequestHeaders()).thenReturn(headers);
+            when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+            when(mockPlugin.getCycleOperations()).thenReturn(operations);
+
+            handler.handle(mockExchange);
+
+            // A redelivered request is answered with the original operation and never reaches the main thread
+            verify(mockExchange).sendResponseHeaders(eq(202), anyLong());
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("\"operationId\":\"" + first + "\""));
+            assertTrue(response.contains("\"duplicate\":true"));
+            verify(mockPlugin, never()).startCycleOperation(anyString(), any());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testEventsEndpointRejectsNonGetRequests() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.EventsHandler handler = server.new EventsHandler();
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(405, -1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testEventsEndpointReturns404WithoutEventBus() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.EventsHandler handler = server.new EventsHandler();
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockPlugin.getCycleEvents()).thenReturn(null);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(404, -1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testEventsEndpointStreamsReplayedEvents() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        var bus = new CycleEventBus(8);
+        try {
+            HttpRpcServer.EventsHandler handler = server.new EventsHandler();
+            bus.publish("phase", java.util.Map.of("cycle", 3, "phase", "GENERATING"));
+            bus.publish("phase", java.util.Map.of("cycle", 3, "phase", "READY"));
+            var body = new ByteArrayOutputStream();
+            var headers = new Headers();
+            var requestHeaders = new Headers();
+            var closed = new CountDownLatch(1);
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockPlugin.getCycleEvents()).thenReturn(bus);
+            when(mockExchange.getRequestHeaders()).thenReturn(requestHeaders);
+            when(mockExchange.getRequestURI()).thenReturn(URI.create("/events?lastEventId=unknown-0"));
+            when(mockExchange.getResponseHeaders()).thenReturn(headers);
+            when(mockExchange.getResponseBody()).thenReturn(body);
+            doAnswer(inv -> {
+                closed.countDown();
+                return null;
+            }).when(mockExchange).close();
+
+            handler.handle(mockExchange);
+            Thread.sleep(200);
+            bus.close();
+
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            verify(mockExchange).sendResponseHeaders(200, 0);
+            assertTrue(headers.getFirst("Content-Type").startsWith("text/event-stream"));
+            String stream = body.toString(StandardCharsets.UTF_8);
+            assertTrue(stream.startsWith("event: reset\n"), stream);
+            assertTrue(stream.contains("\"phase\":\"READY\""), stream);
+        } finally {
+            bus.close();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testOperationsEndpointReturns404ForUnknownId() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.OperationsHandler handler = server.new OperationsHandler();
+            when(mockPlugin.getCycleOperations()).thenReturn(new CycleOperations());
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestURI()).thenReturn(URI.create("/rpc/operations/missing"));
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(404, -1);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testOperationsLongPollAnswersWhenPhaseIsReached() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.OperationsHandler handler = server.new OperationsHandler();
+            var operations = new CycleOperations();
+            String id = operations.create();
+            operations.bind(id, 3);
+
+            var written = new CountDownLatch(1);
+            var writer = new java.util.concurrent.atomic.AtomicReference<Thread>();
+            ByteArrayOutputStream responseBody = new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    writer.set(Thread.currentThread());
+                    written.countDown();
+                }
+            };
+            when(mockPlugin.getCycleOperations()).thenReturn(operations);
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestURI()).thenReturn(URI.create("/rpc/operations/" + id + "?phase=ready&timeout=60"));
+            when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+
+            // The handler returns without answering while the cycle is still running
+            handler.handle(mockExchange);
+            verify(mockExchange, never()).sendResponseHeaders(anyInt(), anyLong());
+
+            operations.phaseReached(3, CycleCoordinator.Phase.READY, false);
+
+            // Written on the HTTP executor, not on the thread that reached the phase
+            assertTrue(written.await(2, TimeUnit.SECONDS));
+            assertNotSame(Thread.currentThread(), writer.get());
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            String response = responseBody.toString(StandardCharsets.UTF_8);
+            assertTrue(response.contains("\"state\":\"DONE\""));
+            assertTrue(response.contains("\"reached\":true"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testOperationsLongPollTimesOutWithCurrentStatus() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.OperationsHandler handler = server.new OperationsHandler();
+            var operations = new CycleOperations();
+            String id = operations.create();
+            operations.bind(id, 3);
+
+            var written = new CountDownLatch(1);
+            ByteArrayOutputStream responseBody = new ByteArrayOutputStream() {
+                @Override
+                public void close() {
+                    written.countDown();
+                }
+            };
+            when(mockPlugin.getCycleOperations()).thenReturn(operations);
+            when(mockExchange.getRequestMethod()).thenReturn("GET");
+            when(mockExchange.getRequestURI()).thenReturn(URI.create("/rpc/operations/" + id + "?phase=READY&timeout=0"));
+            when(mockExchange.getResponseBody()).thenReturn(responseBody);
+            when(mockExchange.getResponseHeaders()).thenReturn(new Headers());
+
+            handler.handle(mockExchange);
+
+            assertTrue(written.await(2, TimeUnit.SECONDS));
+            verify(mockExchange).sendResponseHeaders(eq(200), anyLong());
+            assertTrue(responseBody.toString(StandardCharsets.UTF_8).contains("\"reached\":false"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testOversizedBodyIsRejected() throws Exception {
+        int port = getNextPort();
+        var limits = new HttpRpcServer.Limits(4, 100L, 1024, 5, 30, 0.0, 1);
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1", limits);
+        try {
+            HttpRpcServer.RpcHandler handler = server.new RpcHandler();
+
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+            when(mockExchange.getRequestHeaders()).thenReturn(new Headers());
+            when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(new byte[4096]));
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(413, -1);
+            assertEquals(1, server.getAdmissionStats().oversized());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testDeclaredOversizedBodyIsRejectedWithoutReading() throws Exception {
+        int port = getNextPort();
+        var limits = new HttpRpcServer.Limits(4, 100L, 1024, 5, 30, 0.0, 1);
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1", limits);
+        try {
+            HttpRpcServer.RpcHandler handler = server.new RpcHandler();
+            Headers headers = new Headers();
+            headers.add("Content-Length", "1000000");
+
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+            when(mockExchange.getRequestHeaders()).thenReturn(headers);
 
             handler.handle(mockExchange);
 
-            verify(mockExchange).sendResponseHeaders(500, -1);
+            verify(mockExchange).sendResponseHeaders(413, -1);
+            verify(mockExchange, never()).getRequestBody();
         } finally {
             server.stop(0);
         }
     }
+
+    @Test
+    void testSignedMalformedBodyIsRejected() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            HttpRpcServer.RpcHandler handler = server.new RpcHandler();
+
+            String payload = "{\"v\":2,\"action\":\"cycle-now\"}";
+            Headers headers = new Headers();
+            headers.add("X-Signature", RpcHttpUtil.computeHmacHex("test-secret", payload));
+
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+            when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+            when(mockExchange.getRequestHeaders()).thenReturn(headers);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(400, -1);
+            verify(mockPlugin, never()).getCycleOperations();
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testRegisteredActionIsDispatched() throws Exception {
+        int port = getNextPort();
+        HttpRpcServer server = new HttpRpcServer(mockPlugin, port, "127.0.0.1");
+        try {
+            var seen = new java.util.concurrent.atomic.AtomicReference<RpcEnvelope>();
+            server.registerAction("ping", (envelope, exchange) -> {
+                seen.set(envelope);
+                exchange.sendResponseHeaders(204, -1);
+            });
+            HttpRpcServer.RpcHandler handler = server.new RpcHandler();
+
+            var signer = new RpcSigner("signer-secret");
+            when(mockPlugin.getRpcSigner()).thenReturn(signer);
+            byte[] payload = RpcEnvelope.of("ping", "test").toJson().getBytes(StandardCharsets.UTF_8);
+            Headers headers = new Headers();
+            headers.add("X-Signature", signer.signHex(payload));
+
+            when(mockExchange.getRequestMethod()).thenReturn("POST");
+            when(mockExchange.getRequestBody()).thenReturn(new ByteArrayInputStream(payload));
+            when(mockExchange.getRequestHeaders()).thenReturn(headers);
+
+            handler.handle(mockExchange);
+
+            verify(mockExchange).sendResponseHeaders(204, -1);
+            assertEquals("test", seen.get().caller());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testConnectionTimeoutsKeepJvmWideValuesAlreadySet() {
+        String idle = "sun.net.httpserver.idleInterval";
+        String maxReq = "sun.net.httpserver.maxReqTime";
+        String idleBefore = System.getProperty(idle);
+        String maxReqBefore = System.getProperty(maxReq);
+        try {
+            System.setProperty(idle, "77");
+            System.clearProperty(maxReq);
+
+            HttpRpcServer.applyConnectionTimeouts(new HttpRpcServer.Limits(4, 100L, 1024, 5, 30, 0.0, 1));
+
+            // An existing value wins (operator -D or an earlier start); an unset one is filled in
+            assertEquals("77", System.getProperty(idle));
+            assertEquals("5", System.getProperty(maxReq));
+        } finally {
+            if (idleBefore == null) System.clearProperty(idle); else System.setProperty(idle, idleBefore);
+            if (maxReqBefore == null) System.clearProperty(maxReq); else System.setProperty(maxReq, maxReqBefore);
+        }
+    }
 }
@@ -2,6 +2,7 @@ package dev.wibbleh.the_cycle;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitScheduler;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -41,6 +42,10 @@ class IntegrationForwardTest {
         Field secretField = Main.class.getDeclaredField("rpcSecret");
         secretField.setAccessible(true);
         secretField.set(main, "my-secret");
+        setField(main, "rpcSigner", new RpcSigner("my-secret"));
+        RpcOutbox outbox = new RpcOutbox(10);
+        setField(main, "rpcOutbox", outbox);
+        setField(main, "registeredBungeeChannel", true);
 
         // Ensure cfg isn't null in the test (avoid NPE)
         FileConfiguration mockCfg = mock(FileConfiguration.class);
@@ -56,6 +61,13 @@ class IntegrationForwardTest {
         // Ensure there is an online player to send the plugin message through
         try (MockedStatic<Bukkit> mocked = mockStatic(Bukkit.class)) {
             mocked.when(Bukkit::getOnlinePlayers).thenReturn(List.of(mockPlayer));
+            BukkitScheduler scheduler = mock(BukkitScheduler.class);
+            mocked.when(Bukkit::getScheduler).thenReturn(scheduler);
+            // The batch flush is scheduled for the next tick; run it right away
+            when(scheduler.runTask(eq(main), any(Runnable.class))).thenAnswer(inv -> {
+                ((Runnable) inv.getArgument(1)).run();
+                return null;
+            });
 
             // Call sendRpcToHardcore
             boolean sent = main.sendRpcToHardcore("cycle-now", null);
@@ -80,23 +92,35 @@ class IntegrationForwardTest {
                 int read = in.read(inner);
                 assertEquals(len, read);
 
-                // Inner payload should be a UTF string starting with rpc::
-                try (DataInputStream innerIn = new DataInputStream(new ByteArrayInputStream(inner))) {
-                    String payload = innerIn.readUTF();
-                    assertTrue(payload.startsWith("rpc::"));
-                    assertTrue(payload.contains("::cycle-now::"));
-                    assertTrue(payload.contains("my-secret"));
-                }
+                // Inner payload is a signed binary batch; the secret itself is never sent
+                assertTrue(RpcFrameCodec.isFrame(inner));
+                assertFalse(new String(inner, java.nio.charset.StandardCharsets.ISO_8859_1).contains("my-secret"));
+                var batch = (RpcFrameCodec.Batch) RpcFrameCodec.decode(inner, new RpcSigner("my-secret"));
+                assertEquals(outbox.session(), batch.session());
+                assertEquals("cycle-now", batch.frames().get(0).envelope().action());
 
                 // Now simulate the hardcore receiving the inner payload on RPC_CHANNEL and verify handler triggers a cycle
                 Main mockHardcore = mock(Main.class);
                 lenient().when(mockHardcore.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
                 RpcHandler rpcHandler = new RpcHandler(mockHardcore, mockHardcore, "my-secret", "thecycle:rpc");
 
-                // The RpcHandler expects the message bytes to be exactly the inner byte array (UTF written). Call it directly.
+                // The RpcHandler expects the message bytes to be exactly the inner frame. Call it directly.
                 rpcHandler.onPluginMessageReceived("thecycle:rpc", mockPlayer, inner);
                 verify(mockHardcore).triggerCycle();
+
+                // The backend acknowledges the frame; handing the ack to the lobby empties its outbox
+                ArgumentCaptor<byte[]> ackCap = ArgumentCaptor.forClass(byte[].class);
+                verify(mockHardcore).sendRpcAck(eq(mockPlayer), ackCap.capture());
+                assertEquals(1, outbox.size());
+                main.handleRpcAck((RpcFrameCodec.Ack) RpcFrameCodec.decode(ackCap.getValue(), new RpcSigner("my-secret")));
+                assertEquals(0, outbox.size());
             }
         }
     }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = Main.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
 }
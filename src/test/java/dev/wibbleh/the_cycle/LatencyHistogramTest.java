@@ -0,0 +1,55 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testEmptyHistogramSummary() {
+        var summary = new LatencyHistogram().summary();
+        assertEquals(0, summary.count());
+        assertEquals(0, summary.p99());
+        assertEquals(0, summary.max());
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        var h = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) h.record(i);
+        var summary = h.summary();
+        assertEquals(10, summary.count());
+        assertEquals(1, summary.min());
+        assertEquals(5, summary.p50());
+        assertEquals(9, summary.p90());
+        assertEquals(10, summary.max());
+    }
+
+    @Test
+    void testPercentilesStayWithinRelativeError() {
+        var h = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) h.record(v);
+        assertEquals(50_000, h.percentile(50), 50_000 * 0.07);
+        assertEquals(90_000, h.percentile(90), 90_000 * 0.07);
+        assertEquals(99_000, h.percentile(99), 99_000 * 0.07);
+        assertEquals(100_000, h.percentile(100));
+    }
+
+    @Test
+    void testBucketBoundsCoverValues() {
+        for (long v : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123_456_789L, Long.MAX_VALUE}) {
+            int idx = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.bucketLowerBound(idx) <= v, "lower bound for " + v);
+            if (idx > 0) assertTrue(LatencyHistogram.bucketLowerBound(idx - 1) < LatencyHistogram.bucketLowerBound(idx));
+        }
+    }
+
+    @Test
+    void testNegativeValuesClampToZero() {
+        var h = new LatencyHistogram();
+        h.record(-5);
+        assertEquals(0, h.summary().min());
+        assertEquals(1, h.getCount());
+    }
+}
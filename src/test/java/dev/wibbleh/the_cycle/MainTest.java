@@ -184,39 +184,109 @@ class MainTest {
 
 
     @Test
-    void testCycleFileOperations() throws Exception {
+    void testSetCycleNumberIsWrittenBehind() throws Exception {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        File stateFile = new File(tempDir.toFile(), "state.json");
+        StateStore store = stateStoreFor(plugin, stateFile);
+
+        plugin.setCycleNumber(42);
+
+        // Nothing is written on the calling thread
+        assertTrue(store.isDirty());
+        assertFalse(stateFile.exists());
+
+        assertTrue(store.flush());
+        assertEquals(42, store.load().cycleNumber());
+        assertFalse(store.isDirty());
+    }
+
+    @Test
+    void testLegacyStateFilesAreImported() throws Exception {
         Main plugin = mock(Main.class, CALLS_REAL_METHODS);
-        
-        // Mock the data folder
         File dataFolder = tempDir.toFile();
         lenient().when(plugin.getDataFolder()).thenReturn(dataFolder);
-        lenient().when(plugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
-        
-        // Initialize the cycleFile field via reflection since it's private
+        File stateFile = new File(dataFolder, "state.json");
+        stateStoreFor(plugin, stateFile);
+        UUID pending = UUID.randomUUID();
+
         File cycleFile = new File(dataFolder, "cycles.json");
-        java.lang.reflect.Field cycleFileField = Main.class.getDeclaredField("cycleFile");
-        cycleFileField.setAccessible(true);
-        cycleFileField.set(plugin, cycleFile);
-        
-        // Access private methods for testing
-        Method ensureDataFolder = Main.class.getDeclaredMethod("ensureDataFolderExists");
-        ensureDataFolder.setAccessible(true);
-        ensureDataFolder.invoke(plugin);
-        
-        Method writeCycleMethod = Main.class.getDeclaredMethod("writeCycleFile", int.class);
-        writeCycleMethod.setAccessible(true);
-        
-        // Write a cycle number
-        writeCycleMethod.invoke(plugin, 42);
-        
-        // Verify file was created
-        assertTrue(cycleFile.exists(), "Cycle file should exist");
-        
-        // Read and verify content
-        try (BufferedReader reader = new BufferedReader(new FileReader(cycleFile))) {
-            String content = reader.readLine();
-            assertEquals("42", content);
-        }
+        File statsFile = new File(dataFolder, "stats.txt");
+        File pendingMovesFile = new File(dataFolder, "pending_moves.json");
+        try (var w = new FileWriter(cycleFile)) { w.write("17"); }
+        try (var w = new FileWriter(statsFile)) { w.write("3" + System.lineSeparator() + "2"); }
+        PendingMovesStorage.save(pendingMovesFile, Set.of(pending), Set.of());
+        setField(plugin, "cycleFile", cycleFile);
+        setField(plugin, "statsFile", statsFile);
+        setField(plugin, "pendingMovesFile", pendingMovesFile);
+
+        Method loadState = Main.class.getDeclaredMethod("loadState");
+        loadState.setAccessible(true);
+        loadState.invoke(plugin);
+
+        assertEquals(17, plugin.getCycleNumber());
+        assertEquals(3, plugin.getAttemptsSinceLastWin());
+        assertEquals(2, plugin.getTotalWins());
+        var state = new StateStore(stateFile, new PendingMovesJournal(new File(dataFolder, "pending_moves.log")), 60_000L, null).load();
+        assertEquals(17, state.cycleNumber());
+        assertEquals(List.of(pending), state.pendingLobbyMoves());
+        assertFalse(cycleFile.exists());
+        assertFalse(statsFile.exists());
+        assertFalse(pendingMovesFile.exists());
+    }
+
+    @Test
+    void testCorruptStateFileIsMovedAsideNotOverwritten() throws Exception {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        File dataFolder = tempDir.toFile();
+        lenient().when(plugin.getDataFolder()).thenReturn(dataFolder);
+        File stateFile = new File(dataFolder, "state.json");
+        StateStore store = stateStoreFor(plugin, stateFile);
+        String corrupt = "{\"version\":2,\"cycleNumber\":41,\"attemptsSince";
+        java.nio.file.Files.writeString(stateFile.toPath(), corrupt);
+        setField(plugin, "cycleFile", new File(dataFolder, "cycles.json"));
+        setField(plugin, "statsFile", new File(dataFolder, "stats.txt"));
+        setField(plugin, "pendingMovesFile", new File(dataFolder, "pending_moves.json"));
+
+        Method loadState = Main.class.getDeclaredMethod("loadState");
+        loadState.setAccessible(true);
+        loadState.invoke(plugin);
+
+        // No legacy files to import: nothing is written and the bad file is kept for recovery
+        assertFalse(store.isDirty());
+        assertFalse(stateFile.exists());
+        File[] aside = dataFolder.listFiles((d, n) -> n.startsWith("state.json.corrupt-"));
+        assertEquals(1, aside.length);
+        assertEquals(corrupt, java.nio.file.Files.readString(aside[0].toPath()));
+    }
+
+    /**
+     * Give a mocked plugin its state fields and a state store (not started) backed by stateFile.
+     */
+    private static StateStore stateStoreFor(Main plugin, File stateFile) throws Exception {
+        setField(plugin, "cycleNumber", new java.util.concurrent.atomic.AtomicInteger(1));
+        setField(plugin, "attemptsSinceLastWin", new java.util.concurrent.atomic.AtomicInteger(0));
+        setField(plugin, "totalWins", new java.util.concurrent.atomic.AtomicInteger(0));
+        setField(plugin, "pendingLobbyMoves", Collections.synchronizedSet(new HashSet<UUID>()));
+        setField(plugin, "pendingHardcoreMoves", Collections.synchronizedSet(new HashSet<UUID>()));
+        setField(plugin, "stateFile", stateFile);
+        Method capture = Main.class.getDeclaredMethod("captureState");
+        capture.setAccessible(true);
+        var journal = new PendingMovesJournal(new File(stateFile.getParentFile(), "pending_moves.log"));
+        StateStore store = new StateStore(stateFile, journal, 60_000L, () -> {
+            try {
+                return (StateStore.State) capture.invoke(plugin);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        setField(plugin, "stateStore", store);
+        return store;
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        java.lang.reflect.Field field = Main.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
     }
 
     @Test
@@ -769,5 +839,107 @@ class MainTest {
         // Should not throw exception - exceptions are caught
         assertDoesNotThrow(() -> showCycleStartMethod.invoke(plugin, mockPlayer));
     }
-}
 
+    @Test
+    void testCycleNowOperationIsBoundToStartedCycle() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        var operations = new CycleOperations();
+        doReturn(operations).when(plugin).getCycleOperations();
+        doReturn(4, 5).when(plugin).getCycleNumber();
+        doReturn(false).when(plugin).isCycleActive();
+        doNothing().when(plugin).triggerCycle();
+        String id = operations.create();
+
+        plugin.startCycleOperation(id, null);
+
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.RUNNING, status.state());
+        assertEquals(5, status.cycle());
+    }
+
+    @Test
+    void testCycleNowOperationRejectedWhenNoCycleStarted() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        var operations = new CycleOperations();
+        doReturn(operations).when(plugin).getCycleOperations();
+        doReturn(4).when(plugin).getCycleNumber();
+        doReturn(false).when(plugin).isCycleActive();
+        doNothing().when(plugin).triggerCycle();
+        String id = operations.create();
+
+        plugin.startCycleOperation(id, null);
+
+        assertEquals(CycleOperations.State.REJECTED, operations.status(id).state());
+    }
+
+    @Test
+    void testCycleNowDuringCycleJoinsRunningCycle() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        var operations = new CycleOperations();
+        doReturn(operations).when(plugin).getCycleOperations();
+        doReturn(6).when(plugin).getCycleNumber();
+        doReturn(true).when(plugin).isCycleActive();
+        operations.phaseReached(6, CycleCoordinator.Phase.GENERATING, false);
+        String id = operations.create();
+
+        plugin.startCycleOperation(id, 6);
+
+        verify(plugin, never()).triggerCycle();
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.RUNNING, status.state());
+        assertEquals(6, status.cycle());
+        assertEquals(CycleCoordinator.Phase.GENERATING, status.phase());
+    }
+
+    @Test
+    void testCycleNowDuringAdmissionJoinsRunningCycle() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        var operations = new CycleOperations();
+        doReturn(operations).when(plugin).getCycleOperations();
+        doReturn(6).when(plugin).getCycleNumber();
+        doReturn(true).when(plugin).isCycleActive();
+        operations.phaseReached(6, CycleCoordinator.Phase.ADMITTING, false);
+        String id = operations.create();
+
+        // A duplicate request from a lobby whose mirror already saw cycle 6
+        plugin.startCycleOperation(id, 7);
+
+        verify(plugin, never()).triggerCycle();
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.RUNNING, status.state());
+        assertEquals(6, status.cycle());
+        assertEquals(CycleCoordinator.Phase.ADMITTING, status.phase());
+    }
+
+    @Test
+    void testCycleNowForAlreadyStartedCycleDoesNotStartAnother() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+        var operations = new CycleOperations();
+        doReturn(operations).when(plugin).getCycleOperations();
+        doReturn(7).when(plugin).getCycleNumber();
+        doReturn(false).when(plugin).isCycleActive();
+        String id = operations.create();
+
+        // The lobby saw cycle 6 and asked for 7, which another request already started
+        plugin.startCycleOperation(id, 7);
+
+        verify(plugin, never()).triggerCycle();
+        var status = operations.status(id);
+        assertEquals(CycleOperations.State.DONE, status.state());
+        assertEquals(7, status.cycle());
+    }
+
+    @Test
+    void testWorldReadyHandledOncePerCycle() {
+        Main plugin = mock(Main.class, CALLS_REAL_METHODS);
+
+        // The event stream and the POST both announce cycle 3; only the first moves players
+        assertFalse(plugin.seenWorldReady(3));
+        assertTrue(plugin.seenWorldReady(3));
+        assertTrue(plugin.seenWorldReady(2));
+        assertFalse(plugin.seenWorldReady(4));
+        // Senders that do not say which cycle are never deduplicated
+        assertFalse(plugin.seenWorldReady(null));
+        assertFalse(plugin.seenWorldReady(null));
+    }
+}
@@ -0,0 +1,94 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+    @Test
+    void testCounterRendersWithHelpTypeAndLabels() {
+        var registry = new MetricsRegistry();
+        var ok = registry.counter("rpc_total", "RPCs.", "outcome", "ok");
+        var failed = registry.counter("rpc_total", "RPCs.", "outcome", "failed");
+
+        ok.inc();
+        ok.add(2);
+        failed.inc();
+        failed.add(-5);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# HELP rpc_total RPCs.\n# TYPE rpc_total counter\n"), text);
+        assertTrue(text.contains("rpc_total{outcome=\"ok\"} 3\n"), text);
+        assertTrue(text.contains("rpc_total{outcome=\"failed\"} 1\n"), text);
+        assertEquals(1, text.split("# TYPE rpc_total").length - 1);
+    }
+
+    @Test
+    void testRegisteringAgainReturnsSameCounter() {
+        var registry = new MetricsRegistry();
+        var first = registry.counter("files_total", "Files.");
+        first.add(4);
+
+        assertSame(first, registry.counter("files_total", "Files."));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("files_total", "Files.", () -> 1.0));
+    }
+
+    @Test
+    void testHistogramBucketsAreCumulativeAndScaled() {
+        var registry = new MetricsRegistry();
+        var h = registry.histogram("latency_seconds", "Latency.", 1000.0, new long[]{10, 100, 1000}, "stage", "drain");
+
+        h.observe(5);
+        h.observe(10);
+        h.observe(50);
+        h.observe(5000);
+        h.observe(-3);
+
+        String text = registry.scrape();
+        assertTrue(text.contains("# TYPE latency_seconds histogram\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{stage=\"drain\",le=\"0.01\"} 3\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{stage=\"drain\",le=\"0.1\"} 4\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{stage=\"drain\",le=\"1\"} 4\n"), text);
+        assertTrue(text.contains("latency_seconds_bucket{stage=\"drain\",le=\"+Inf\"} 5\n"), text);
+        assertTrue(text.contains("latency_seconds_sum{stage=\"drain\"} 5.065\n"), text);
+        assertTrue(text.contains("latency_seconds_count{stage=\"drain\"} 5\n"), text);
+        assertEquals(5, h.count());
+    }
+
+    @Test
+    void testGaugeIsReadAtScrapeAndReplacedOnReRegistration() {
+        var registry = new MetricsRegistry();
+        registry.gauge("queue_depth", "Queue.", () -> 2.0, "queue", "retry");
+        registry.gauge("queue_depth", "Queue.", () -> 7.0, "queue", "retry");
+        registry.gauge("broken", "Broken.", () -> {
+            throw new IllegalStateException("not ready");
+        });
+
+        String text = registry.scrape();
+        assertTrue(text.contains("queue_depth{queue=\"retry\"} 7\n"), text);
+        assertTrue(text.contains("broken NaN\n"), text);
+        assertEquals(List.of("queue_depth", "broken"), registry.names());
+    }
+
+    @Test
+    void testLabelValuesAreEscaped() {
+        var registry = new MetricsRegistry();
+        registry.counter("events_total", "Events.", "name", "a\"b\\c").inc();
+
+        assertTrue(registry.scrape().contains("events_total{name=\"a\\\"b\\\\c\"} 1\n"));
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("odd_total", "Odd.", "name"));
+    }
+
+    @Test
+    void testPluginMetricsAreRegistered() {
+        Metrics.cycleStage(CycleTimings.Stage.GENERATE).observe(1);
+
+        String text = Metrics.REGISTRY.scrape();
+        assertTrue(text.contains("hardcore_cycle_stage_seconds_bucket{stage=\"generate\",le=\"0.05\"}"), text);
+        assertTrue(text.contains("# TYPE hardcore_cycle_rpc_attempts_total counter"), text);
+        assertTrue(text.contains("hardcore_cycle_deletion_bytes_total"), text);
+    }
+}
@@ -0,0 +1,80 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelWorldDeleterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ParallelWorldDeleter deleter;
+
+    @AfterEach
+    void tearDown() {
+        if (deleter != null) deleter.shutdown();
+    }
+
+    private Path createWorld(int regionFiles) throws Exception {
+        Path world = tempDir.resolve("hardcore_cycle_1");
+        for (String dir : new String[]{"region", "entities", "poi", "DIM-1/region"}) {
+            Path d = Files.createDirectories(world.resolve(dir));
+            for (int i = 0; i < regionFiles; i++) Files.write(d.resolve("r." + i + ".0.mca"), new byte[128]);
+        }
+        Files.writeString(world.resolve("level.dat"), "level");
+        return world;
+    }
+
+    @Test
+    void testDeletesWholeTreeAndCountsThroughput() throws Exception {
+        Path world = createWorld(50);
+        deleter = new ParallelWorldDeleter(4, 0L, 0L, null);
+
+        assertTrue(deleter.delete(world));
+        assertFalse(Files.exists(world));
+
+        var stats = deleter.getStats();
+        assertEquals(201, stats.filesDeleted());
+        assertEquals(200 * 128 + 5, stats.bytesDeleted());
+        assertEquals(0, stats.activeDeletions());
+    }
+
+    @Test
+    void testMissingFolderCountsAsDeleted() {
+        deleter = new ParallelWorldDeleter(1, 0L, 0L, null);
+        assertTrue(deleter.delete(tempDir.resolve("missing")));
+    }
+
+    @Test
+    void testFilesPerSecondBudgetPacesDeletion() throws Exception {
+        Path world = createWorld(5);
+        deleter = new ParallelWorldDeleter(2, 0L, 100L, null);
+
+        long started = System.nanoTime();
+        assertTrue(deleter.delete(world));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000L;
+
+        // 21 files at 100 files/s need at least ~200ms
+        assertTrue(elapsedMillis >= 180, "Deletion finished too fast: " + elapsedMillis + "ms");
+        assertTrue(deleter.getStats().throttledMillis() > 0);
+    }
+
+    @Test
+    void testPausesWhileSaving() throws Exception {
+        Path world = createWorld(1);
+        var polls = new AtomicInteger();
+        // Report "saving" for the first few polls only
+        deleter = new ParallelWorldDeleter(1, 0L, 0L, () -> polls.incrementAndGet() <= 3);
+
+        assertTrue(deleter.delete(world));
+        assertTrue(polls.get() > 3);
+        assertTrue(deleter.getStats().throttledMillis() >= 100);
+    }
+}
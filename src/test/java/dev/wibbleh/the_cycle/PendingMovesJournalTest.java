@@ -0,0 +1,147 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingMovesJournalTest {
+    private static final int HEADER_BYTES = 5;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        UUID lobby = UUID.randomUUID();
+        UUID hardcore = UUID.randomUUID();
+        var journal = new PendingMovesJournal(file);
+
+        assertEquals(2, journal.sync(List.of(lobby), List.of(hardcore)));
+        journal.close();
+
+        var reopened = new PendingMovesJournal(file);
+        assertEquals(Set.of(lobby), reopened.lobby());
+        assertEquals(Set.of(hardcore), reopened.hardcore());
+        assertEquals(HEADER_BYTES + 2L * PendingMovesJournal.RECORD_BYTES, file.length());
+    }
+
+    @Test
+    void testOnlyDeltasAreAppended() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        var journal = new PendingMovesJournal(file);
+        var lobby = new HashSet<UUID>();
+        for (int i = 0; i < 50; i++) lobby.add(UUID.randomUUID());
+        journal.sync(lobby, Set.of());
+        long size = file.length();
+
+        UUID moved = lobby.iterator().next();
+        lobby.remove(moved);
+        UUID added = UUID.randomUUID();
+        lobby.add(added);
+
+        assertEquals(2, journal.sync(lobby, Set.of()));
+        assertEquals(size + 2L * PendingMovesJournal.RECORD_BYTES, file.length());
+        assertEquals(0, journal.sync(lobby, Set.of()));
+        assertEquals(size + 2L * PendingMovesJournal.RECORD_BYTES, file.length());
+        journal.close();
+
+        var reopened = new PendingMovesJournal(file);
+        assertEquals(lobby, reopened.lobby());
+        assertFalse(reopened.lobby().contains(moved));
+    }
+
+    @Test
+    void testMovingBetweenSets() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        UUID id = UUID.randomUUID();
+        var journal = new PendingMovesJournal(file);
+        journal.sync(List.of(id), List.of());
+        journal.sync(List.of(), List.of(id));
+        journal.close();
+
+        var reopened = new PendingMovesJournal(file);
+        assertTrue(reopened.lobby().isEmpty());
+        assertEquals(Set.of(id), reopened.hardcore());
+    }
+
+    @Test
+    void testCompactsWhenMostRecordsAreSuperseded() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        UUID kept = UUID.randomUUID();
+        var journal = new PendingMovesJournal(file);
+        for (int i = 0; i < PendingMovesJournal.COMPACT_MIN_RECORDS; i++) {
+            journal.sync(List.of(kept, UUID.randomUUID()), List.of());
+        }
+
+        assertTrue(journal.recordCount() < PendingMovesJournal.COMPACT_MIN_RECORDS);
+        assertTrue(file.length() < HEADER_BYTES + (long) PendingMovesJournal.COMPACT_MIN_RECORDS * PendingMovesJournal.RECORD_BYTES);
+        journal.close();
+
+        var reopened = new PendingMovesJournal(file);
+        assertTrue(reopened.lobby().contains(kept));
+        assertEquals(2, reopened.lobby().size());
+    }
+
+    @Test
+    void testTornTailIsDroppedAndRewritten() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        var journal = new PendingMovesJournal(file);
+        journal.sync(List.of(first), List.of());
+        journal.sync(List.of(first, second), List.of());
+        journal.close();
+        try (var raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        var reopened = new PendingMovesJournal(file);
+        assertEquals(Set.of(first), reopened.lobby());
+
+        UUID third = UUID.randomUUID();
+        reopened.sync(List.of(first, third), List.of());
+        reopened.close();
+        assertEquals(HEADER_BYTES + 2L * PendingMovesJournal.RECORD_BYTES, file.length());
+        assertEquals(Set.of(first, third), new PendingMovesJournal(file).lobby());
+    }
+
+    @Test
+    void testCorruptRecordStopsReplay() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        UUID first = UUID.randomUUID();
+        var journal = new PendingMovesJournal(file);
+        journal.sync(List.of(first), List.of());
+        journal.sync(List.of(first, UUID.randomUUID()), List.of());
+        journal.close();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[HEADER_BYTES + PendingMovesJournal.RECORD_BYTES + 5] ^= 0x1;
+        Files.write(file.toPath(), bytes);
+
+        assertEquals(Set.of(first), new PendingMovesJournal(file).lobby());
+    }
+
+    @Test
+    void testUnknownHeaderIsIgnored() throws Exception {
+        File file = tempDir.resolve("pending_moves.log").toFile();
+        Files.writeString(file.toPath(), "{\"lobby\":[]}");
+
+        var journal = new PendingMovesJournal(file);
+        assertTrue(journal.isEmpty());
+        UUID id = UUID.randomUUID();
+        journal.sync(List.of(), List.of(id));
+        journal.close();
+
+        assertEquals(Set.of(id), new PendingMovesJournal(file).hardcore());
+    }
+}
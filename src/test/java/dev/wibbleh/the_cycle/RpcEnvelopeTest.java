@@ -0,0 +1,76 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcEnvelopeTest {
+
+    private static RpcEnvelope parse(String json) {
+        return RpcEnvelope.parse(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRoundTrip() {
+        var envelope = RpcEnvelope.of("cycle-now", "console");
+
+        var parsed = parse(envelope.toJson());
+
+        assertEquals(envelope, parsed);
+        assertEquals(RpcEnvelope.VERSION, parsed.v());
+    }
+
+    @Test
+    void testWorldReadyCarriesCycle() {
+        var parsed = parse(RpcEnvelope.worldReady(12).toJson());
+
+        assertEquals("world-ready", parsed.action());
+        assertEquals(12, parsed.cycle());
+    }
+
+    @Test
+    void testUnversionedBodyIsAccepted() {
+        var parsed = parse("{\"action\":\"cycle-now\",\"caller\":\"test\"}");
+
+        assertEquals(0, parsed.v());
+        assertEquals("cycle-now", parsed.action());
+        assertEquals("test", parsed.caller());
+    }
+
+    @Test
+    void testActionIsMatchedExactly() {
+        // A caller value that looks like an action must not change the dispatched action
+        var parsed = parse("{\"action\":\"move-players\",\"caller\":\"\\\"action\\\":\\\"cycle-now\\\"\"}");
+
+        assertEquals("move-players", parsed.action());
+    }
+
+    @Test
+    void testInvalidBodiesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> parse("not json"));
+        assertThrows(IllegalArgumentException.class, () -> parse("{}"));
+        assertThrows(IllegalArgumentException.class, () -> parse(""));
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"v\":99,\"action\":\"cycle-now\"}"));
+    }
+
+    @Test
+    void testEveryEnvelopeCarriesIdempotencyKey() {
+        var first = RpcEnvelope.of("cycle-now", "console");
+        var second = RpcEnvelope.of("cycle-now", "console");
+
+        assertNotNull(first.id());
+        assertNotEquals(first.id(), second.id());
+        assertEquals(first.id(), parse(first.toJson()).id());
+    }
+
+    @Test
+    void testCycleNowCarriesTargetCycle() {
+        var parsed = parse(RpcEnvelope.cycleNow("console", 8).toJson());
+
+        assertEquals("cycle-now", parsed.action());
+        assertEquals(8, parsed.cycle());
+        assertNull(RpcEnvelope.cycleNow("console", null).cycle());
+    }
+}
@@ -0,0 +1,62 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcFrameCodecTest {
+
+    private final RpcSigner signer = new RpcSigner("secret");
+
+    @Test
+    void testBatchRoundTrip() {
+        var frames = List.of(
+                new RpcFrameCodec.Frame(1L, RpcEnvelope.cycleNow("console", 4)),
+                new RpcFrameCodec.Frame(2L, RpcEnvelope.of("move-players", "550e8400-e29b-41d4-a716-446655440000")));
+
+        var packet = RpcFrameCodec.decode(RpcFrameCodec.encodeBatch(42L, frames, signer), signer);
+
+        var batch = assertInstanceOf(RpcFrameCodec.Batch.class, packet);
+        assertEquals(42L, batch.session());
+        assertEquals(frames, batch.frames());
+    }
+
+    @Test
+    void testAckRoundTrip() {
+        var packet = RpcFrameCodec.decode(RpcFrameCodec.encodeAck(7L, List.of(3L, 5L), signer), signer);
+
+        var ack = assertInstanceOf(RpcFrameCodec.Ack.class, packet);
+        assertEquals(7L, ack.session());
+        assertEquals(List.of(3L, 5L), ack.seqs());
+    }
+
+    @Test
+    void testOptionalFieldsStayAbsent() {
+        var envelope = new RpcEnvelope(RpcEnvelope.VERSION, "world-ready", null, null, null);
+        byte[] bytes = RpcFrameCodec.encodeBatch(1L, List.of(new RpcFrameCodec.Frame(1L, envelope)), signer);
+
+        var batch = (RpcFrameCodec.Batch) RpcFrameCodec.decode(bytes, signer);
+
+        assertEquals(envelope, batch.frames().get(0).envelope());
+    }
+
+    @Test
+    void testTamperedOrForeignPacketIsRejected() {
+        byte[] bytes = RpcFrameCodec.encodeBatch(1L, List.of(new RpcFrameCodec.Frame(1L, RpcEnvelope.of("cycle-now", "x"))), signer);
+        byte[] tampered = bytes.clone();
+        tampered[12] ^= 1;
+
+        assertThrows(IllegalArgumentException.class, () -> RpcFrameCodec.decode(tampered, signer));
+        assertThrows(IllegalArgumentException.class, () -> RpcFrameCodec.decode(bytes, new RpcSigner("other")));
+        assertThrows(IllegalArgumentException.class, () -> RpcFrameCodec.decode(new byte[]{RpcFrameCodec.MAGIC, 1}, signer));
+    }
+
+    @Test
+    void testLegacyTextPayloadIsNotAFrame() {
+        assertTrue(RpcFrameCodec.isFrame(RpcFrameCodec.encodeAck(1L, List.of(1L), signer)));
+        // writeUTF prefixes the string with its length, whose high byte is 0 for any short payload
+        assertFalse(RpcFrameCodec.isFrame(new byte[]{0, 5, 'r', 'p', 'c', ':', ':'}));
+    }
+}
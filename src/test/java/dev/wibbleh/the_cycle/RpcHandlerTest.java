@@ -3,13 +3,16 @@ package dev.wibbleh.the_cycle;
 import org.bukkit.entity.Player;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
+import java.util.List;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,9 +26,9 @@ class RpcHandlerTest {
         // Ensure getLogger() returns a real logger to avoid NPE from code that logs
         lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
 
-        // Create a handler with an empty secret (no validation) and the namespaced channel
+        // Create a handler with an empty secret (no validation), the namespaced channel and legacy messages enabled
         final String RPC_CHANNEL = "thecycle:rpc";
-        RpcHandler handler = new RpcHandler(mockMain, mockMain, "", RPC_CHANNEL);
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "", RPC_CHANNEL, true);
 
         // Build payload: "rpc::<secret>::cycle-now::<caller>"
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
@@ -41,4 +44,88 @@ class RpcHandlerTest {
 
         verify(mockMain).triggerCycle();
     }
+
+    @Test
+    void testRpcHandlerIgnoresDuplicateKey() throws Exception {
+        lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
+        var operations = new CycleOperations();
+        when(mockMain.getCycleOperations()).thenReturn(operations);
+        final String RPC_CHANNEL = "thecycle:rpc";
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "", RPC_CHANNEL, true);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeUTF("rpc::::cycle-now::test-caller::key-1::5");
+        dos.flush();
+        byte[] bytes = bos.toByteArray();
+
+        Player p = mock(Player.class);
+        handler.onPluginMessageReceived(RPC_CHANNEL, p, bytes);
+        handler.onPluginMessageReceived(RPC_CHANNEL, p, bytes);
+
+        // The second delivery of the same request must not start another cycle
+        verify(mockMain, times(1)).startCycleOperation(anyString(), eq(5));
+        verify(mockMain, never()).triggerCycle();
+    }
+
+    @Test
+    void testRpcHandlerRejectsLegacyMessageByDefault() throws Exception {
+        lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
+        final String RPC_CHANNEL = "thecycle:rpc";
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "s3cr3t", RPC_CHANNEL);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        DataOutputStream dos = new DataOutputStream(bos);
+        dos.writeUTF("rpc::s3cr3t::cycle-now::test-caller");
+        dos.flush();
+
+        handler.onPluginMessageReceived(RPC_CHANNEL, mock(Player.class), bos.toByteArray());
+
+        verify(mockMain, never()).triggerCycle();
+    }
+
+    @Test
+    void testRpcHandlerRunsSignedFrameOnceAndAcksEveryDelivery() throws Exception {
+        lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
+        final String RPC_CHANNEL = "thecycle:rpc";
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "s3cr3t", RPC_CHANNEL);
+        var signer = new RpcSigner("s3cr3t");
+        byte[] batch = RpcFrameCodec.encodeBatch(9L, List.of(new RpcFrameCodec.Frame(1L, RpcEnvelope.of("cycle-now", "test-caller"))), signer);
+
+        Player p = mock(Player.class);
+        handler.onPluginMessageReceived(RPC_CHANNEL, p, batch);
+        // A retransmission after a lost ack
+        handler.onPluginMessageReceived(RPC_CHANNEL, p, batch);
+
+        verify(mockMain, times(1)).triggerCycle();
+        ArgumentCaptor<byte[]> acks = ArgumentCaptor.forClass(byte[].class);
+        verify(mockMain, times(2)).sendRpcAck(eq(p), acks.capture());
+        var ack = (RpcFrameCodec.Ack) RpcFrameCodec.decode(acks.getValue(), signer);
+        assertEquals(9L, ack.session());
+        assertEquals(List.of(1L), ack.seqs());
+    }
+
+    @Test
+    void testRpcHandlerRejectsFrameSignedWithOtherSecret() {
+        lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
+        final String RPC_CHANNEL = "thecycle:rpc";
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "s3cr3t", RPC_CHANNEL);
+        byte[] batch = RpcFrameCodec.encodeBatch(9L, List.of(new RpcFrameCodec.Frame(1L, RpcEnvelope.of("cycle-now", "x"))), new RpcSigner("wrong"));
+
+        handler.onPluginMessageReceived(RPC_CHANNEL, mock(Player.class), batch);
+
+        verify(mockMain, never()).triggerCycle();
+        verify(mockMain, never()).sendRpcAck(any(), any());
+    }
+
+    @Test
+    void testRpcHandlerPassesAcksToMain() {
+        lenient().when(mockMain.getLogger()).thenReturn(Logger.getLogger("test"));
+        final String RPC_CHANNEL = "thecycle:rpc";
+        RpcHandler handler = new RpcHandler(mockMain, mockMain, "s3cr3t", RPC_CHANNEL);
+
+        handler.onPluginMessageReceived(RPC_CHANNEL, mock(Player.class), RpcFrameCodec.encodeAck(3L, List.of(4L), new RpcSigner("s3cr3t")));
+
+        verify(mockMain).handleRpcAck(new RpcFrameCodec.Ack(3L, List.of(4L)));
+    }
 }
@@ -21,4 +21,37 @@ class RpcHttpUtilTest {
         // wrong payload
         assertFalse(RpcHttpUtil.verifyHmacHex(secret, payload + "x", sig));
     }
+
+    @Test
+    void testHexRoundTrip() {
+        byte[] bytes = {0, 1, 0x0f, 0x10, 0x7f, (byte) 0x80, (byte) 0xab, (byte) 0xff};
+
+        String hex = RpcHttpUtil.toHex(bytes);
+
+        assertEquals("00010f107f80abff", hex);
+        assertArrayEquals(bytes, RpcHttpUtil.fromHex(hex));
+        assertArrayEquals(bytes, RpcHttpUtil.fromHex(hex.toUpperCase()));
+    }
+
+    @Test
+    void testFromHexRejectsInvalidInput() {
+        assertNull(RpcHttpUtil.fromHex(null));
+        assertNull(RpcHttpUtil.fromHex("abc"));
+        assertNull(RpcHttpUtil.fromHex("zz"));
+        assertNull(RpcHttpUtil.fromHex("\u00e9\u00e9"));
+    }
+
+    @Test
+    void testEndpointUrlDerivedFromRpcUrl() {
+        assertEquals("http://hardcore:8080/events", RpcHttpUtil.endpointUrlFor("http://hardcore:8080/rpc", "/events"));
+        assertNull(RpcHttpUtil.endpointUrlFor(null, "/events"));
+    }
+
+    @Test
+    void testHealthUrlDerivedFromRpcUrl() {
+        assertEquals("http://hardcore:8080/health", RpcHttpUtil.healthUrlFor("http://hardcore:8080/rpc"));
+        assertEquals("https://example.com/health", RpcHttpUtil.healthUrlFor("https://example.com/rpc?x=1"));
+        assertNull(RpcHttpUtil.healthUrlFor(""));
+        assertNull(RpcHttpUtil.healthUrlFor("not a url"));
+    }
 }
@@ -0,0 +1,94 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcOutboxTest {
+
+    private final RpcSigner signer = new RpcSigner("secret");
+
+    private RpcFrameCodec.Batch decode(RpcOutbox.Outgoing outgoing) {
+        return (RpcFrameCodec.Batch) RpcFrameCodec.decode(outgoing.packet(), signer);
+    }
+
+    @Test
+    void testQueuedRpcsAreSentInOneBatch() {
+        var outbox = new RpcOutbox(10);
+        outbox.submit(RpcEnvelope.of("cycle-now", "a"));
+        outbox.submit(RpcEnvelope.of("cycle-now", "b"));
+
+        var outgoing = outbox.nextBatch(1_000L, signer);
+
+        assertEquals(List.of(1L, 2L), outgoing.seqs());
+        assertEquals(2, decode(outgoing).frames().size());
+        assertEquals(outbox.session(), decode(outgoing).session());
+        assertNull(outbox.nextBatch(1_000L, signer));
+    }
+
+    @Test
+    void testOnlyUnackedFramesAreRetransmitted() {
+        var outbox = new RpcOutbox(10);
+        outbox.submit(RpcEnvelope.of("cycle-now", "a"));
+        outbox.submit(RpcEnvelope.of("cycle-now", "b"));
+        outbox.nextBatch(1_000L, signer);
+
+        assertEquals(1, outbox.acknowledge(new RpcFrameCodec.Ack(outbox.session(), List.of(1L))));
+        // Not yet due, then only the unacknowledged frame comes back
+        assertNull(outbox.nextBatch(1_000L + RpcOutbox.RETRANSMIT_MILLIS - 1, signer));
+        var retry = outbox.nextBatch(1_000L + RpcOutbox.RETRANSMIT_MILLIS, signer);
+
+        assertEquals(List.of(2L), retry.seqs());
+        assertEquals(1, outbox.size());
+    }
+
+    @Test
+    void testAckForOtherSessionIsIgnored() {
+        var outbox = new RpcOutbox(10);
+        outbox.submit(RpcEnvelope.of("cycle-now", "a"));
+
+        assertEquals(0, outbox.acknowledge(new RpcFrameCodec.Ack(outbox.session() + 1, List.of(1L))));
+        assertEquals(1, outbox.size());
+    }
+
+    @Test
+    void testFailedSendIsDueAgainImmediately() {
+        var outbox = new RpcOutbox(10);
+        outbox.submit(RpcEnvelope.of("cycle-now", "a"));
+        var outgoing = outbox.nextBatch(1_000L, signer);
+
+        outbox.sendFailed(outgoing);
+
+        assertEquals(List.of(1L), outbox.nextBatch(1_001L, signer).seqs());
+    }
+
+    @Test
+    void testBatchesAreCappedAndFullOutboxDropsOldest() {
+        var outbox = new RpcOutbox(RpcOutbox.MAX_BATCH_FRAMES + 1);
+        for (int i = 0; i < RpcOutbox.MAX_BATCH_FRAMES + 2; i++) outbox.submit(RpcEnvelope.of("cycle-now", "c" + i));
+
+        assertEquals(RpcOutbox.MAX_BATCH_FRAMES + 1, outbox.size());
+        var first = outbox.nextBatch(1_000L, signer);
+        var second = outbox.nextBatch(1_000L, signer);
+
+        assertEquals(RpcOutbox.MAX_BATCH_FRAMES, first.seqs().size());
+        assertEquals(2L, first.seqs().get(0));
+        assertEquals(1, second.seqs().size());
+    }
+
+    @Test
+    void testFrameIsDroppedAfterMaxAttempts() {
+        var outbox = new RpcOutbox(10);
+        outbox.submit(RpcEnvelope.of("cycle-now", "a"));
+        long now = 1_000L;
+        for (int i = 0; i < RpcOutbox.MAX_ATTEMPTS; i++) {
+            assertNotNull(outbox.nextBatch(now, signer));
+            now += RpcOutbox.RETRANSMIT_MILLIS;
+        }
+
+        assertNull(outbox.nextBatch(now, signer));
+        assertEquals(0, outbox.size());
+    }
+}
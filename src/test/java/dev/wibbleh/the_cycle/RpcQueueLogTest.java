@@ -0,0 +1,208 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcQueueLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testReplayRestoresLiveEntriesWithAttempts() {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        long a = log.append(rpc("a"));
+        long b = log.append(rpc("b"));
+        long c = log.append(rpc("c"));
+        log.recordAttempt(b, 3);
+        log.ack(a);
+        log.close();
+
+        var reopened = new RpcQueueLog(file);
+        List<RpcQueueLog.Entry> pending = reopened.pending();
+        reopened.close();
+
+        assertEquals(2, pending.size());
+        assertEquals(b, pending.get(0).id());
+        assertEquals("b", pending.get(0).rpc().action());
+        assertEquals(3, pending.get(0).rpc().attempts());
+        assertEquals(c, pending.get(1).id());
+        assertArrayEquals("payload-c".getBytes(StandardCharsets.UTF_8), pending.get(1).rpc().payload());
+    }
+
+    @Test
+    void testIdsContinueAfterReopen() {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        long first = log.append(rpc("a"));
+        log.ack(first);
+        log.close();
+
+        var reopened = new RpcQueueLog(file);
+        long next = reopened.append(rpc("b"));
+        reopened.close();
+
+        assertTrue(next > first);
+    }
+
+    @Test
+    void testTornTailIsIgnoredAndTruncated() throws Exception {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        log.append(rpc("a"));
+        log.append(rpc("b"));
+        log.close();
+
+        try (var raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 3);
+        }
+
+        var reopened = new RpcQueueLog(file);
+        assertEquals(1, reopened.pending().size());
+        // Appends after a torn tail must be readable again
+        reopened.append(rpc("c"));
+        reopened.close();
+
+        var replay = RpcQueueLog.replay(file);
+        assertFalse(replay.torn());
+        assertEquals(List.of("a", "c"), replay.entries().stream().map(e -> e.rpc().action()).toList());
+    }
+
+    @Test
+    void testCorruptRecordStopsReplay() throws Exception {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        log.append(rpc("a"));
+        log.close();
+        long firstEnd = file.length();
+        log = new RpcQueueLog(file);
+        log.append(rpc("b"));
+        log.close();
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[(int) firstEnd + 12] ^= 0x55;
+        Files.write(file.toPath(), bytes);
+
+        var replay = RpcQueueLog.replay(file);
+        assertTrue(replay.torn());
+        assertEquals(1, replay.entries().size());
+        assertEquals("a", replay.entries().get(0).rpc().action());
+    }
+
+    @Test
+    void testCompactsWhenMostRecordsAreDead() throws Exception {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        log.append(rpc("keep"));
+        for (int i = 0; i < RpcQueueLog.COMPACT_MIN_RECORDS; i++) {
+            log.ack(log.append(rpc("gone-" + i)));
+        }
+
+        // Compaction runs in the background and may start before the loop ends; records appended
+        // after it stay in the log, so only the dead records before it are guaranteed to be gone
+        waitFor(() -> log.recordCount() < RpcQueueLog.COMPACT_MIN_RECORDS);
+        log.append(rpc("after"));
+        log.close();
+
+        var replay = RpcQueueLog.replay(file);
+        assertTrue(replay.records() <= RpcQueueLog.COMPACT_MIN_RECORDS);
+        assertEquals(List.of("keep", "after"), replay.entries().stream().map(e -> e.rpc().action()).toList());
+    }
+
+    @Test
+    void testRecordsAppendedDuringCompactionAreKept() throws Exception {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        var kept = new java.util.ArrayList<String>();
+        var writer = new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+                long id = log.append(rpc("r-" + i));
+                if (i % 10 == 0) {
+                    synchronized (kept) {
+                        kept.add("r-" + i);
+                    }
+                } else {
+                    log.ack(id);
+                }
+            }
+        });
+        writer.start();
+        // Compactions triggered by the writer run alongside these explicit ones
+        while (writer.isAlive()) log.compact();
+        writer.join();
+        // A background compaction may still be finishing; the explicit one is skipped until it has
+        waitFor(() -> {
+            log.compact();
+            return log.recordCount() == kept.size();
+        });
+        assertEquals(kept, log.pending().stream().map(e -> e.rpc().action()).toList());
+        log.close();
+
+        assertEquals(kept, RpcQueueLog.replay(file).entries().stream().map(e -> e.rpc().action()).toList());
+        assertFalse(new File(file.getParentFile(), file.getName() + ".tmp").exists());
+    }
+
+    @Test
+    void testStorageLoadReadsLogAndSkipsExpired() {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        log.append(rpc("fresh"));
+        log.append(new RpcQueueStorage.QueuedRpc("old".getBytes(StandardCharsets.UTF_8), "old", "console", 0L, 0));
+        log.close();
+
+        var loaded = RpcQueueStorage.load(file);
+        assertEquals(1, loaded.size());
+        assertEquals("fresh", loaded.get(0).action());
+    }
+
+    @Test
+    void testNullCallerRoundTrips() {
+        File file = logFile();
+        var log = new RpcQueueLog(file);
+        log.append(new RpcQueueStorage.QueuedRpc("p".getBytes(StandardCharsets.UTF_8), "a", null, Instant.now().getEpochSecond(), 0));
+        log.close();
+
+        var entries = RpcQueueLog.replay(file).entries();
+        assertEquals(1, entries.size());
+        assertNull(entries.get(0).rpc().caller());
+    }
+
+    @Test
+    void testJsonFileIsNotALog() {
+        File json = tempDir.resolve("failed_rpcs.json").toFile();
+        RpcQueueStorage.save(json, List.of(rpc("a")));
+
+        assertFalse(RpcQueueLog.isLog(json));
+        assertEquals(1, RpcQueueStorage.load(json).size());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    private File logFile() {
+        return tempDir.resolve("failed_rpcs.log").toFile();
+    }
+
+    private static RpcQueueStorage.QueuedRpc rpc(String action) {
+        return new RpcQueueStorage.QueuedRpc(("payload-" + action).getBytes(StandardCharsets.UTF_8), action, "console",
+                Instant.now().getEpochSecond(), 0);
+    }
+}
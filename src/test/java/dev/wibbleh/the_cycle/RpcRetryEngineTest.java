@@ -0,0 +1,211 @@
+package dev.wibbleh.the_cycle;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcRetryEngineTest {
+    private static final RpcSigner SIGNER = new RpcSigner("test-secret");
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private RpcRetryEngine engine;
+    private final AtomicInteger rpcStatus = new AtomicInteger(200);
+    private final AtomicInteger healthStatus = new AtomicInteger(200);
+    private final AtomicInteger rpcCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long rpcDelayMillis = 0L;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) engine.shutdown();
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    void testDeliversEnqueuedRpc() throws Exception {
+        startEngine(settings(4, 60_000, 60_000));
+        engine.enqueue(payload("cycle-now"), "cycle-now", "console");
+
+        waitFor(() -> engine.getStats().delivered() == 1);
+        assertEquals(0, engine.getStats().queued());
+        assertEquals(0, engine.queued());
+        assertEquals(1, rpcCalls.get());
+    }
+
+    @Test
+    void testFailedRpcBacksOffAndIsPersisted() throws Exception {
+        rpcStatus.set(503);
+        startEngine(settings(4, 60_000, 60_000));
+        engine.enqueue(payload("cycle-now"), "cycle-now", "console");
+
+        waitFor(() -> engine.getStats().failures() == 1);
+        Thread.sleep(300);
+        // The next attempt waits out its backoff
+        assertEquals(1, rpcCalls.get());
+        assertEquals(1, engine.getStats().queued());
+        assertEquals(1, engine.queued());
+
+        engine.shutdown();
+        var saved = RpcQueueStorage.load(queueFile());
+        assertEquals(1, saved.size());
+        assertEquals(1, saved.get(0).attempts());
+        engine = null;
+    }
+
+    @Test
+    void testRetriesAfterBackoff() throws Exception {
+        rpcStatus.set(503);
+        startEngine(settings(4, 100, 100));
+        engine.enqueue(payload("cycle-now"), "cycle-now", "console");
+
+        waitFor(() -> engine.getStats().failures() >= 1);
+        rpcStatus.set(200);
+        waitFor(() -> engine.getStats().delivered() == 1);
+        assertTrue(rpcCalls.get() >= 2);
+    }
+
+    @Test
+    void testClientErrorIsDropped() throws Exception {
+        rpcStatus.set(400);
+        startEngine(settings(4, 100, 100));
+        engine.enqueue(payload("cycle-now"), "cycle-now", "console");
+
+        waitFor(() -> engine.getStats().dropped() == 1);
+        assertEquals(0, engine.getStats().queued());
+        assertEquals(1, rpcCalls.get());
+    }
+
+    @Test
+    void testConcurrencyIsCapped() throws Exception {
+        rpcDelayMillis = 100;
+        startEngine(settings(2, 60_000, 60_000));
+        for (int i = 0; i < 6; i++) engine.enqueue(payload("cycle-now"), "cycle-now", "caller-" + i);
+
+        waitFor(() -> engine.getStats().delivered() == 6);
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+    }
+
+    @Test
+    void testHealthRecoveryFlushesQueue() throws Exception {
+        rpcStatus.set(503);
+        healthStatus.set(503);
+        startEngine(new RpcRetryEngine.Settings(4, 60_000, 60_000, 100, 100));
+        engine.enqueue(payload("cycle-now"), "cycle-now", "a");
+        engine.enqueue(payload("cycle-now"), "cycle-now", "b");
+        waitFor(() -> engine.getStats().failures() == 2);
+
+        rpcStatus.set(200);
+        healthStatus.set(200);
+
+        // Backoff is a minute; only the health probe can trigger the resend this quickly
+        waitFor(() -> engine.getStats().delivered() == 2);
+        assertTrue(engine.getStats().flushes() >= 1);
+    }
+
+    @Test
+    void testFullQueueDropsOldest() throws Exception {
+        startEngine(new RpcRetryEngine.Settings(1, 60_000, 60_000, 60_000, 2), "");
+        engine.enqueue(payload("a"), "a", "console");
+        engine.enqueue(payload("b"), "b", "console");
+        engine.enqueue(payload("c"), "c", "console");
+
+        assertEquals(2, engine.getStats().queued());
+        assertEquals(1, engine.getStats().dropped());
+        engine.shutdown();
+        var saved = RpcQueueStorage.load(queueFile());
+        assertEquals(2, saved.size());
+        assertEquals("b", saved.get(0).action());
+        assertEquals("c", saved.get(1).action());
+        engine = null;
+    }
+
+    @Test
+    void testLoadsPersistedQueue() throws Exception {
+        var stored = new RpcQueueStorage.QueuedRpc(payload("cycle-now"), "cycle-now", "console",
+                java.time.Instant.now().getEpochSecond(), 2);
+        var log = new RpcQueueLog(queueFile());
+        log.append(stored);
+        log.close();
+
+        startEngine(settings(4, 60_000, 60_000));
+        engine.load();
+
+        waitFor(() -> engine.getStats().delivered() == 1);
+    }
+
+    @Test
+    void testBackoffGrowsAndIsCapped() {
+        assertTrue(RpcRetryEngine.backoffMillis(1, 1000, 60_000) >= 1000);
+        assertTrue(RpcRetryEngine.backoffMillis(1, 1000, 60_000) <= 1250);
+        assertTrue(RpcRetryEngine.backoffMillis(3, 1000, 60_000) >= 4000);
+        assertTrue(RpcRetryEngine.backoffMillis(40, 1000, 60_000) <= 75_000);
+        assertTrue(RpcRetryEngine.backoffMillis(40, 1000, 60_000) >= 60_000);
+    }
+
+    private RpcRetryEngine.Settings settings(int maxConcurrent, long base, long max) {
+        return new RpcRetryEngine.Settings(maxConcurrent, base, max, 60_000, 100);
+    }
+
+    private void startEngine(RpcRetryEngine.Settings settings) throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(java.util.concurrent.Executors.newCachedThreadPool());
+        server.createContext("/rpc", exchange -> {
+            rpcCalls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                exchange.getRequestBody().readAllBytes();
+                if (rpcDelayMillis > 0) Thread.sleep(rpcDelayMillis);
+                exchange.sendResponseHeaders(rpcStatus.get(), -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(healthStatus.get(), -1);
+            exchange.close();
+        });
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        startEngine(settings, base);
+    }
+
+    private void startEngine(RpcRetryEngine.Settings settings, String base) {
+        String url = base.isEmpty() ? "" : base + "/rpc";
+        String health = base.isEmpty() ? null : base + "/health";
+        engine = new RpcRetryEngine(url, health, SIGNER, new RpcQueueLog(queueFile()), settings);
+    }
+
+    private File queueFile() {
+        return tempDir.resolve("failed_rpcs.log").toFile();
+    }
+
+    private static byte[] payload(String action) {
+        return RpcEnvelope.of(action, "console").toJson().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcSignerTest {
+
+    @Test
+    void testSignatureMatchesPlainHmac() throws Exception {
+        byte[] payload = "{\"v\":1,\"action\":\"cycle-now\"}".getBytes(StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("s3cr3t".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+
+        var signer = new RpcSigner("s3cr3t");
+
+        assertArrayEquals(mac.doFinal(payload), signer.sign(payload));
+        assertTrue(signer.verify(payload, signer.signHex(payload)));
+        assertTrue(signer.verify(payload, signer.signHex(payload).toUpperCase()));
+    }
+
+    @Test
+    void testVerifyRejectsWrongSignatures() {
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+        var signer = new RpcSigner("s3cr3t");
+        String sig = signer.signHex(payload);
+
+        assertFalse(new RpcSigner("other").verify(payload, sig));
+        assertFalse(signer.verify("payload!".getBytes(StandardCharsets.UTF_8), sig));
+        assertFalse(signer.verify(payload, null));
+        assertFalse(signer.verify(payload, "not-hex"));
+        assertFalse(signer.verify(payload, sig.substring(2)));
+    }
+
+    @Test
+    void testEmptySecretSignsConsistently() {
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(new RpcSigner("").signHex(payload), new RpcSigner(null).signHex(payload));
+    }
+
+    @Test
+    void testConcurrentSigningIsConsistent() throws Exception {
+        var signer = new RpcSigner("s3cr3t");
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+        String expected = signer.signHex(payload);
+
+        try (var pool = Executors.newFixedThreadPool(8)) {
+            var tasks = new ArrayList<Callable<String>>();
+            for (int i = 0; i < 200; i++) tasks.add(() -> signer.signHex(payload));
+            for (Future<String> f : pool.invokeAll(tasks)) assertEquals(expected, f.get());
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.WorldCreator;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpareWorldPoolTest {
+
+    @Mock
+    private JavaPlugin mockPlugin;
+
+    @Mock
+    private World mockWorld;
+
+    @Mock
+    private BukkitScheduler mockScheduler;
+
+    @TempDir
+    Path tempDir;
+
+    private File dataFolder;
+    private File worldContainer;
+
+    @BeforeEach
+    void setUp() {
+        dataFolder = tempDir.resolve("data").toFile();
+        worldContainer = tempDir.resolve("worlds").toFile();
+        assertTrue(worldContainer.mkdirs());
+        lenient().when(mockPlugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
+        lenient().when(mockPlugin.getDataFolder()).thenReturn(dataFolder);
+    }
+
+    @Test
+    void testPoolFileRoundTrip() {
+        File f = new File(dataFolder, "spare_worlds.json");
+        var spares = List.of(
+                new SpareWorldPool.SpareWorld("hardcore_cycle_3", 3, 42L, 1000L),
+                new SpareWorldPool.SpareWorld("hardcore_cycle_4", 4, 43L, 1001L));
+
+        SpareWorldPool.writePoolFile(f, spares);
+        var loaded = SpareWorldPool.readPoolFile(f);
+
+        assertEquals(spares, loaded);
+    }
+
+    @Test
+    void testReadPoolFileIgnoresEntriesWithMismatchedNames() {
+        File f = new File(dataFolder, "spare_worlds.json");
+        var spares = new ArrayList<SpareWorldPool.SpareWorld>();
+        spares.add(new SpareWorldPool.SpareWorld("../../etc", 3, 42L, 1000L));
+        spares.add(new SpareWorldPool.SpareWorld("hardcore_cycle_5", 5, 1L, 1000L));
+
+        SpareWorldPool.writePoolFile(f, spares);
+        var loaded = SpareWorldPool.readPoolFile(f);
+
+        assertEquals(1, loaded.size());
+        assertEquals("hardcore_cycle_5", loaded.get(0).worldName());
+    }
+
+    @Test
+    void testReadMissingPoolFileReturnsEmpty() {
+        assertTrue(SpareWorldPool.readPoolFile(new File(dataFolder, "missing.json")).isEmpty());
+    }
+
+    @Test
+    void testDisabledPoolNeverRefills() {
+        var pool = new SpareWorldPool(mockPlugin, 0, 40.0, true, 0L, null);
+
+        assertFalse(pool.isEnabled());
+        assertFalse(pool.refillOnce(() -> 1, () -> false));
+    }
+
+    @Test
+    void testLoadDropsStaleAndMissingSpares() {
+        assertTrue(new File(worldContainer, "hardcore_cycle_6").mkdirs());
+        assertTrue(new File(worldContainer, "hardcore_cycle_2").mkdirs());
+        SpareWorldPool.writePoolFile(new File(dataFolder, "spare_worlds.json"), List.of(
+                new SpareWorldPool.SpareWorld("hardcore_cycle_2", 2, 1L, 1L),
+                new SpareWorldPool.SpareWorld("hardcore_cycle_6", 6, 1L, 1L),
+                new SpareWorldPool.SpareWorld("hardcore_cycle_7", 7, 1L, 1L)));
+        var discarded = new ArrayList<String>();
+        var pool = new SpareWorldPool(mockPlugin, 2, 40.0, true, 0L, discarded::add);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+            runAsyncInline(bukkit);
+
+            pool.load(5);
+        }
+
+        assertEquals(1, pool.size(), "Only the spare with an existing folder for a future cycle should remain");
+        assertEquals(6, pool.getSpares().get(0).cycle());
+        assertEquals(List.of("hardcore_cycle_2"), discarded);
+    }
+
+    @Test
+    void testClaimLoadsSpareForRequestedCycle() {
+        assertTrue(new File(worldContainer, "hardcore_cycle_6").mkdirs());
+        SpareWorldPool.writePoolFile(new File(dataFolder, "spare_worlds.json"), List.of(
+                new SpareWorldPool.SpareWorld("hardcore_cycle_6", 6, 99L, 1L)));
+        var pool = new SpareWorldPool(mockPlugin, 1, 40.0, true, 0L, null);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+            bukkit.when(() -> Bukkit.createWorld(any(WorldCreator.class))).thenReturn(mockWorld);
+            runAsyncInline(bukkit);
+            pool.load(5);
+
+            assertTrue(pool.claim(7).isEmpty(), "No spare exists for cycle 7");
+            assertSame(mockWorld, pool.claim(6).orElseThrow());
+            assertEquals(0, pool.size());
+        }
+        assertTrue(SpareWorldPool.readPoolFile(new File(dataFolder, "spare_worlds.json")).isEmpty(),
+                "Claiming should persist the updated bookkeeping");
+    }
+
+    @Test
+    void testRefillGeneratesNextCycleAndUnloadsIt() {
+        var pool = new SpareWorldPool(mockPlugin, 1, 40.0, false, 1234L, null);
+        when(mockWorld.getSeed()).thenReturn(1234L);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+            bukkit.when(() -> Bukkit.getWorld(anyString())).thenReturn(null);
+            bukkit.when(() -> Bukkit.createWorld(any(WorldCreator.class))).thenReturn(mockWorld);
+            bukkit.when(() -> Bukkit.unloadWorld(eq(mockWorld), eq(true))).thenReturn(true);
+            runAsyncInline(bukkit);
+
+            assertTrue(pool.refillOnce(() -> 3, () -> false));
+            bukkit.verify(() -> Bukkit.unloadWorld(mockWorld, true));
+        }
+
+        assertEquals(1, pool.size());
+        var spare = pool.getSpares().get(0);
+        assertEquals("hardcore_cycle_4", spare.worldName());
+        assertEquals(1234L, spare.seed());
+    }
+
+    @Test
+    void testRefillSkippedWhileCycleInProgress() {
+        var pool = new SpareWorldPool(mockPlugin, 1, 40.0, true, 0L, null);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+
+            assertFalse(pool.refillOnce(() -> 3, () -> true));
+            bukkit.verify(() -> Bukkit.createWorld(any(WorldCreator.class)), never());
+        }
+    }
+
+    @Test
+    void testRefillSkippedWhilePlayersAreInHardcoreWorld() {
+        var pool = new SpareWorldPool(mockPlugin, 1, 40.0, true, 0L, null);
+        when(mockWorld.getPlayers()).thenReturn(List.of(mock(Player.class)));
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+            bukkit.when(() -> Bukkit.getWorld("hardcore_cycle_3")).thenReturn(mockWorld);
+
+            assertFalse(pool.refillOnce(() -> 3, () -> false));
+            bukkit.verify(() -> Bukkit.createWorld(any(WorldCreator.class)), never());
+        }
+    }
+
+    @Test
+    void testSaveWritesOnAsyncThread() {
+        assertTrue(new File(worldContainer, "hardcore_cycle_6").mkdirs());
+        File f = new File(dataFolder, "spare_worlds.json");
+        SpareWorldPool.writePoolFile(f, List.of(new SpareWorldPool.SpareWorld("hardcore_cycle_6", 6, 99L, 1L)));
+        var pool = new SpareWorldPool(mockPlugin, 1, 40.0, true, 0L, null);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            bukkit.when(() -> Bukkit.createWorld(any(WorldCreator.class))).thenReturn(mockWorld);
+            pool.load(5);
+
+            pool.claim(6);
+
+            // The claim only queued the write
+            assertEquals(1, SpareWorldPool.readPoolFile(f).size());
+            ArgumentCaptor<Runnable> write = ArgumentCaptor.forClass(Runnable.class);
+            verify(mockScheduler).runTaskAsynchronously(eq(mockPlugin), write.capture());
+            write.getValue().run();
+        }
+        assertTrue(SpareWorldPool.readPoolFile(f).isEmpty());
+        assertFalse(new File(dataFolder, "spare_worlds.json.tmp").exists());
+    }
+
+    private void runAsyncInline(MockedStatic<Bukkit> bukkit) {
+        bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+        lenient().when(mockScheduler.runTaskAsynchronously(eq(mockPlugin), any(Runnable.class))).thenAnswer(inv -> {
+            inv.getArgument(1, Runnable.class).run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,201 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateStoreTest {
+    @TempDir
+    Path tempDir;
+
+    private StateStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) store.close();
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        UUID lobby = UUID.randomUUID();
+        UUID hardcore = UUID.randomUUID();
+        store = newStore(file, 60_000L, () -> new StateStore.State(12, 4, 1, List.of(lobby), List.of(hardcore)));
+
+        store.markDirty();
+        assertTrue(store.flush());
+
+        var loaded = newStore(file, 60_000L, null).load();
+        assertEquals(StateStore.FORMAT_VERSION, loaded.version());
+        assertEquals(12, loaded.cycleNumber());
+        assertEquals(4, loaded.attemptsSinceLastWin());
+        assertEquals(1, loaded.totalWins());
+        assertEquals(List.of(lobby), loaded.pendingLobbyMoves());
+        assertEquals(List.of(hardcore), loaded.pendingHardcoreMoves());
+        assertFalse(new File(tempDir.toFile(), "state.json.tmp").exists());
+    }
+
+    @Test
+    void testLoadMissingFileReturnsNull() throws Exception {
+        assertNull(newStore(tempDir.resolve("missing.json").toFile(), 60_000L, null).load());
+    }
+
+    @Test
+    void testLoadCorruptFileThrows() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        Files.writeString(file.toPath(), "{\"cycleNumber\":", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> newStore(file, 60_000L, null).load());
+    }
+
+    @Test
+    void testFlushWithoutChangesDoesNotWrite() {
+        File file = tempDir.resolve("state.json").toFile();
+        var captures = new AtomicInteger();
+        store = newStore(file, 60_000L, () -> {
+            captures.incrementAndGet();
+            return new StateStore.State(1, 0, 0, List.of(), List.of());
+        });
+
+        assertTrue(store.flush());
+
+        assertEquals(0, captures.get());
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void testFlusherCoalescesChanges() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        var cycle = new AtomicInteger();
+        var captures = new AtomicInteger();
+        store = newStore(file, 200L, () -> {
+            captures.incrementAndGet();
+            return new StateStore.State(cycle.get(), 0, 0, List.of(), List.of());
+        });
+        store.start();
+
+        for (int i = 1; i <= 100; i++) {
+            cycle.set(i);
+            store.markDirty();
+        }
+
+        waitFor(() -> !store.isDirty());
+        assertEquals(100, newStore(file, 60_000L, null).load().cycleNumber());
+        assertTrue(captures.get() <= 2, "Changes within one interval should share a write, got " + captures.get());
+    }
+
+    @Test
+    void testCloseFlushesPendingChanges() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        var cycle = new AtomicInteger(3);
+        store = newStore(file, 60_000L, () -> new StateStore.State(cycle.get(), 0, 0, List.of(), List.of()));
+        store.start();
+        store.markDirty();
+        cycle.set(9);
+        store.markDirty();
+
+        assertTrue(store.close());
+
+        assertEquals(9, newStore(file, 60_000L, null).load().cycleNumber());
+    }
+
+    @Test
+    void testFailedWriteStaysDirty() throws Exception {
+        File blocker = tempDir.resolve("blocker").toFile();
+        Files.writeString(blocker.toPath(), "not a directory", StandardCharsets.UTF_8);
+        store = newStore(new File(blocker, "state.json"), 60_000L, () -> new StateStore.State(1, 0, 0, List.of(), List.of()));
+
+        store.markDirty();
+
+        assertFalse(store.flush());
+        assertTrue(store.isDirty());
+    }
+
+    @Test
+    void testWriteEmitsPersistenceEvent() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        store = newStore(file, 60_000L, () -> new StateStore.State(1, 0, 0, List.of(), List.of()));
+        store.markDirty();
+
+        try (var recording = new jdk.jfr.Recording()) {
+            recording.enable("dev.wibbleh.the_cycle.PersistenceWrite").withThreshold(java.time.Duration.ZERO);
+            recording.start();
+            assertTrue(store.flush());
+            recording.stop();
+            Path dump = tempDir.resolve("state.jfr");
+            recording.dump(dump);
+            var events = jdk.jfr.consumer.RecordingFile.readAllEvents(dump);
+            assertTrue(events.stream().anyMatch(e -> "state.json".equals(e.getString("file"))));
+        }
+    }
+
+    @Test
+    void testPendingMovesGoToJournal() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        var lobby = new java.util.ArrayList<UUID>();
+        store = newStore(file, 60_000L, () -> new StateStore.State(5, 0, 0, List.copyOf(lobby), List.of()));
+        store.markDirty();
+        assertTrue(store.flush());
+        String json = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertFalse(json.contains("pending"));
+        // Removed so a rewrite would show up
+        Files.delete(file.toPath());
+
+        UUID id = UUID.randomUUID();
+        lobby.add(id);
+        store.markDirty();
+        assertTrue(store.flush());
+
+        // Only the journal changed; the counters snapshot was not rewritten
+        assertFalse(file.exists());
+        Files.writeString(file.toPath(), json, StandardCharsets.UTF_8);
+        assertEquals(List.of(id), newStore(file, 60_000L, null).load().pendingLobbyMoves());
+    }
+
+    @Test
+    void testVersionOneSnapshotMovesPendingMovesToJournal() throws Exception {
+        File file = tempDir.resolve("state.json").toFile();
+        UUID id = UUID.randomUUID();
+        Files.writeString(file.toPath(), "{\"version\":1,\"cycleNumber\":8,\"attemptsSinceLastWin\":2,\"totalWins\":1,"
+                + "\"pendingLobbyMoves\":[],\"pendingHardcoreMoves\":[\"" + id + "\"]}", StandardCharsets.UTF_8);
+        var loader = newStore(file, 60_000L, null);
+        var loaded = loader.load();
+        assertEquals(8, loaded.cycleNumber());
+        assertEquals(List.of(id), loaded.pendingHardcoreMoves());
+        assertTrue(loader.isDirty());
+
+        store = newStore(file, 60_000L, () -> loaded);
+        store.load();
+        assertTrue(store.flush());
+
+        var reloaded = newStore(file, 60_000L, null).load();
+        assertEquals(StateStore.FORMAT_VERSION, reloaded.version());
+        assertEquals(List.of(id), reloaded.pendingHardcoreMoves());
+        assertFalse(Files.readString(file.toPath(), StandardCharsets.UTF_8).contains("pending"));
+    }
+
+    private StateStore newStore(File file, long flushMillis, java.util.function.Supplier<StateStore.State> snapshot) {
+        var journal = new PendingMovesJournal(new File(file.getParentFile(), "pending_moves.log"));
+        return new StateStore(file, journal, flushMillis, snapshot);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
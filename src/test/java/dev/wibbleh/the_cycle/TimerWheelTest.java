@@ -0,0 +1,62 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+    private final TimerWheel wheel = new TimerWheel(10, 8, "TimerWheelTest");
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void testRunsTaskAfterDelay() throws Exception {
+        var ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(ran::countDown, 50);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 40);
+    }
+
+    @Test
+    void testDelayLongerThanOneRotation() throws Exception {
+        // 8 slots of 10ms: a 250ms delay needs three rotations
+        var ran = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(ran::countDown, 250);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 240);
+    }
+
+    @Test
+    void testCancelledTaskDoesNotRun() throws Exception {
+        var count = new AtomicInteger();
+        var later = new CountDownLatch(1);
+        var timeout = wheel.schedule(count::incrementAndGet, 30);
+        timeout.cancel();
+        wheel.schedule(later::countDown, 80);
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertTrue(timeout.isCancelled());
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopWheel() throws Exception {
+        var ran = new CountDownLatch(1);
+        wheel.schedule(() -> { throw new IllegalStateException("boom"); }, 10);
+        wheel.schedule(ran::countDown, 40);
+
+        assertTrue(ran.await(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,214 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferSchedulerTest {
+
+    @Mock
+    private JavaPlugin mockPlugin;
+
+    @Mock
+    private BukkitScheduler mockScheduler;
+
+    @Mock
+    private BukkitTask mockTask;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mockPlugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
+        lenient().when(mockScheduler.runTaskTimer(any(JavaPlugin.class), any(Runnable.class), anyLong(), anyLong())).thenReturn(mockTask);
+        lenient().when(mockTask.getTaskId()).thenReturn(7);
+    }
+
+    private Player player(boolean online) {
+        Player p = mock(Player.class);
+        lenient().when(p.getUniqueId()).thenReturn(UUID.randomUUID());
+        lenient().when(p.getName()).thenReturn("p");
+        lenient().when(p.isOnline()).thenReturn(online);
+        return p;
+    }
+
+    @Test
+    void testWaveSizeShrinksUnderLoad() {
+        assertEquals(8, TransferScheduler.waveSize(8, 40.0, 10.0));
+        assertEquals(4, TransferScheduler.waveSize(8, 40.0, 35.0));
+        assertEquals(1, TransferScheduler.waveSize(8, 40.0, 41.0));
+        assertEquals(1, TransferScheduler.waveSize(1, 40.0, 35.0));
+        assertEquals(1, TransferScheduler.waveSize(8, 40.0, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void testReleasesPlayersInWavesAndMeasuresLatency() {
+        var scheduler = new TransferScheduler(mockPlugin, 2, 10L, 45.0, 5, null);
+        var players = List.of(player(true), player(true), player(true));
+        var sent = new ArrayList<Player>();
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            scheduler.enqueue(players, "hardcore", null, sent::add);
+            verify(mockScheduler).runTaskTimer(eq(mockPlugin), any(Runnable.class), eq(0L), eq(10L));
+
+            scheduler.tick();
+            assertEquals(players.subList(0, 2), sent);
+            assertEquals(1, scheduler.getStats().queued());
+
+            for (var p : players.subList(0, 2)) {
+                var quit = mock(PlayerQuitEvent.class);
+                when(quit.getPlayer()).thenReturn(p);
+                scheduler.onPlayerQuit(quit);
+            }
+            assertTrue(scheduler.getStats().lastWaveLatencyMillis() >= 0, "Wave should be complete once all players left");
+
+            scheduler.tick();
+            assertEquals(players, sent);
+
+            var stats = scheduler.getStats();
+            assertEquals(2, stats.wavesReleased());
+            assertEquals(3, stats.playersReleased());
+            assertEquals(0, stats.queued());
+        }
+    }
+
+    @Test
+    void testSynchronousWorldChangeCompletesWave() {
+        var scheduler = new TransferScheduler(mockPlugin, 5, 10L, 45.0, 5, null);
+        var players = List.of(player(true), player(true));
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            // Same-server teleport: the world change fires inside the transfer action
+            scheduler.enqueue(players, "lobby", null, p -> {
+                var changed = mock(PlayerChangedWorldEvent.class);
+                when(changed.getPlayer()).thenReturn(p);
+                scheduler.onPlayerChangedWorld(changed);
+            });
+            scheduler.tick();
+        }
+
+        var stats = scheduler.getStats();
+        assertEquals(1, stats.wavesReleased());
+        assertEquals(2, stats.playersReleased());
+        assertTrue(stats.lastWaveLatencyMillis() >= 0, "Wave should complete without waiting for the timeout");
+    }
+
+    @Test
+    void testFailedActionIsNotCountedInWave() {
+        var scheduler = new TransferScheduler(mockPlugin, 5, 10L, 45.0, 5, null);
+        var failing = player(true);
+        var ok = player(true);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            scheduler.enqueue(List.of(failing, ok), "hardcore", null, p -> {
+                if (p == failing) throw new IllegalStateException("no route");
+            });
+            scheduler.tick();
+
+            var quit = mock(PlayerQuitEvent.class);
+            when(quit.getPlayer()).thenReturn(ok);
+            scheduler.onPlayerQuit(quit);
+        }
+
+        var stats = scheduler.getStats();
+        assertEquals(1, stats.playersReleased());
+        assertTrue(stats.lastWaveLatencyMillis() >= 0, "Wave should complete once the one transferred player left");
+    }
+
+    @Test
+    void testSkipsOfflineAndDuplicatePlayers() {
+        var scheduler = new TransferScheduler(mockPlugin, 5, 10L, 45.0, 5, null);
+        var online = player(true);
+        var offline = player(false);
+        var sent = new ArrayList<Player>();
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+
+            scheduler.enqueue(List.of(online, offline), "lobby", null, sent::add);
+            scheduler.enqueue(List.of(online), "lobby", null, sent::add);
+            scheduler.tick();
+        }
+
+        assertEquals(List.of(online), sent);
+        assertEquals(1, scheduler.getStats().playersReleased());
+    }
+
+    @Test
+    void testBackendLoadIsReadFromHealthMirror() {
+        String url = "http://hardcore:8080/health";
+        var mirror = mock(BackendHealthMirror.class);
+        when(mirror.healthUrl()).thenReturn(url);
+        when(mirror.snapshot()).thenReturn(new BackendHealthMirror.Snapshot(true, "hardcore", 3, 10, "IDLE", 50.0, 1L));
+        var scheduler = new TransferScheduler(mockPlugin, 5, 10L, 45.0, 5, mirror);
+        var sent = new ArrayList<Player>();
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            scheduler.enqueue(List.of(player(true), player(true), player(true)), "hardcore", url, sent::add);
+            scheduler.tick();
+        }
+
+        // The backend is above transfers.max_mspt, so only one player goes per wave
+        assertEquals(1, sent.size());
+
+        when(mirror.snapshot()).thenReturn(new BackendHealthMirror.Snapshot(false, "hardcore", 3, 10, "IDLE", 5.0, 2L));
+        assertEquals(Double.POSITIVE_INFINITY, scheduler.backendMspt(url));
+    }
+
+    @Test
+    void testUnreachableDestinationIsTreatedAsOverloaded() throws Exception {
+        String url = "http://127.0.0.1:1/health";
+        var scheduler = new TransferScheduler(mockPlugin, 5, 10L, 45.0, 5, null);
+
+        assertEquals(0.0, scheduler.backendMspt(url), "Unknown until the first poll answers");
+        waitFor(() -> scheduler.backendMspt(url) == Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    void testStopDropsQueuedTransfers() {
+        var scheduler = new TransferScheduler(mockPlugin, 1, 10L, 45.0, 5, null);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            scheduler.enqueue(List.of(player(true), player(true)), "lobby", null, p -> { });
+            scheduler.stop();
+        }
+
+        assertEquals(0, scheduler.getStats().queued());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
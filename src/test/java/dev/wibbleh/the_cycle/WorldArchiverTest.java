@@ -0,0 +1,69 @@
+package dev.wibbleh.the_cycle;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldArchiverTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path createWorld(String name) throws Exception {
+        Path world = tempDir.resolve("worlds").resolve(name);
+        Files.createDirectories(world.resolve("region"));
+        Files.createDirectories(world.resolve("cache"));
+        Files.write(world.resolve("region/r.0.0.mca"), new byte[10_000]);
+        Files.writeString(world.resolve("level.dat"), "level");
+        Files.writeString(world.resolve("session.lock"), "lock");
+        Files.writeString(world.resolve("uid.dat"), "uid");
+        Files.writeString(world.resolve("cache/x.bin"), "cache");
+        return world;
+    }
+
+    @Test
+    void testArchiveSkipsLocksAndCaches() throws Exception {
+        Path world = createWorld("hardcore_cycle_3.deleting.abc");
+        var archiver = new WorldArchiver(tempDir.resolve("archives").toFile(), 9, 0L);
+
+        var result = archiver.archive(world, "hardcore_cycle_3");
+
+        assertEquals(2, result.files());
+        assertEquals(10_005, result.sourceBytes());
+        assertTrue(result.archiveBytes() < result.sourceBytes(), "Zeros should compress");
+        var names = new ArrayList<String>();
+        try (var zip = new ZipFile(tempDir.resolve("archives").resolve(result.archiveName()).toFile())) {
+            zip.stream().forEach(e -> names.add(e.getName()));
+        }
+        assertTrue(names.contains("hardcore_cycle_3/region/r.0.0.mca"));
+        assertTrue(names.contains("hardcore_cycle_3/level.dat"));
+        assertEquals(2, names.size());
+        assertEquals(result, archiver.recentResults().get(0));
+        assertFalse(Files.exists(tempDir.resolve("archives").resolve("hardcore_cycle_3.zip.part")));
+    }
+
+    @Test
+    void testEvictsOldestArchivesOverBudget() throws Exception {
+        File dir = tempDir.resolve("archives").toFile();
+        assertTrue(dir.mkdirs());
+        File oldest = new File(dir, "hardcore_cycle_1-1.zip");
+        File older = new File(dir, "hardcore_cycle_2-2.zip");
+        Files.write(oldest.toPath(), new byte[600]);
+        Files.write(older.toPath(), new byte[600]);
+        assertTrue(oldest.setLastModified(1_000L));
+        assertTrue(older.setLastModified(2_000L));
+        var archiver = new WorldArchiver(dir, 0, 1_000L);
+
+        archiver.evictOldest(null);
+
+        assertFalse(oldest.exists());
+        assertTrue(older.exists());
+    }
+}
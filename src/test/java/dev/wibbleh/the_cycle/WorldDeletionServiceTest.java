@@ -14,7 +14,11 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -80,6 +84,40 @@ class WorldDeletionServiceTest {
         }
     }
 
+    /**
+     * Journal contents once the background group commit has written a record containing {@code expected}.
+     */
+    private static String journal(Path dataFolder, String expected) throws Exception {
+        var file = dataFolder.resolve("deletion_journal.log");
+        waitFor(() -> {
+            try {
+                return Files.exists(file) && Files.readString(file).contains(expected);
+            } catch (IOException e) {
+                return false;
+            }
+        });
+        return Files.readString(file);
+    }
+
+    private static void awaitGone(File folder) throws InterruptedException {
+        waitFor(() -> !folder.exists());
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    private File createWorldFolder(String name) throws Exception {
+        File world = new File(tempDir.toFile(), name);
+        assertTrue(new File(world, "region").mkdirs());
+        Files.write(new File(world, "region/r.0.0.mca").toPath(), new byte[64]);
+        return world;
+    }
+
     @Test
     void testScheduleDeleteDeferred() throws Exception {
         WorldDeletionService service = new WorldDeletionService(mockPlugin, true, true, false);
@@ -92,29 +130,40 @@ class WorldDeletionServiceTest {
             // Should not schedule async deletion when deferred
             verify(mockScheduler, never()).runTaskAsynchronously(any(), any(Runnable.class));
             
-            // Should create pending_deletes.txt file
-            File pendingFile = new File(tempDir.toFile(), "pending_deletes.txt");
-            assertTrue(pendingFile.exists());
+            // Should journal the deletion for the next start
+            assertTrue(journal(tempDir, "E\t1\ttest_world").contains("E\t1\ttest_world"));
+            assertEquals(1, service.getPendingCount());
+        } finally {
+            service.shutdown();
         }
     }
 
     @Test
-    void testScheduleDeleteAsync() {
+    void testScheduleDeleteAsync() throws Exception {
         WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, true);
+        File world = createWorldFolder("test_world");
         
         try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
-            mockedBukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            mockedBukkit.when(Bukkit::getWorldContainer).thenReturn(tempDir.toFile());
             
             service.scheduleDeleteWorldFolder("test_world");
-            
-            // Should schedule async deletion
-            verify(mockScheduler, times(1)).runTaskAsynchronously(eq(mockPlugin), any(Runnable.class));
         }
+
+        // Deleted by the background worker, then marked completed in the journal
+        awaitGone(world);
+        assertFalse(world.exists());
+        waitFor(() -> service.getPendingCount() == 0);
+        assertEquals(0, service.getPendingCount());
+        String journal = journal(tempDir, "C\t1");
+        assertTrue(journal.contains("S\t1\ttest_world.deleting."));
+        assertTrue(journal.contains("C\t1"));
+        service.shutdown();
     }
 
     @Test
-    void testScheduleDeleteSync() {
+    void testScheduleDeleteSync() throws Exception {
         WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, false);
+        File world = createWorldFolder("test_world");
         
         try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
             mockedBukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
@@ -124,7 +173,11 @@ class WorldDeletionServiceTest {
             
             // Should not schedule async when sync deletion is configured
             verify(mockScheduler, never()).runTaskAsynchronously(any(), any(Runnable.class));
+        } finally {
+            service.shutdown();
         }
+        assertFalse(world.exists());
+        assertEquals(0, service.getPendingCount());
     }
 
     @Test
@@ -138,6 +191,9 @@ class WorldDeletionServiceTest {
             service.processPendingDeletions();
             
             verify(mockScheduler, never()).runTaskAsynchronously(any(), any(Runnable.class));
+            assertEquals(0, service.getPendingCount());
+        } finally {
+            service.shutdown();
         }
     }
 
@@ -154,15 +210,18 @@ class WorldDeletionServiceTest {
             service.processPendingDeletions();
             
             // Should not schedule any deletions for empty file
-            verify(mockScheduler, never()).runTaskAsynchronously(any(), any(Runnable.class));
-            // Empty file should be deleted
+            assertEquals(0, service.getPendingCount());
+            // Empty legacy file should be deleted
             assertFalse(pendingFile.exists());
+        } finally {
+            service.shutdown();
         }
     }
 
     @Test
-    void testProcessPendingDeletionsWithWorldNames() throws Exception {
+    void testProcessPendingDeletionsMigratesLegacyFile() throws Exception {
         WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, false);
+        File world1 = createWorldFolder("world1");
         
         File pendingFile = new File(tempDir.toFile(), "pending_deletes.txt");
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(pendingFile))) {
@@ -177,13 +236,39 @@ class WorldDeletionServiceTest {
         }
         
         try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
-            mockedBukkit.when(Bukkit::getScheduler).thenReturn(mockScheduler);
+            mockedBukkit.when(Bukkit::getWorldContainer).thenReturn(tempDir.toFile());
             
             service.processPendingDeletions();
-            
-            // Should schedule 3 async deletions (ignoring empty line)
-            verify(mockScheduler, times(3)).runTaskAsynchronously(eq(mockPlugin), any(Runnable.class));
         }
+
+        // 3 journaled deletions (ignoring empty line), legacy file removed, worker resumes them
+        assertFalse(pendingFile.exists());
+        String journal = journal(tempDir, "\tworld3");
+        assertTrue(journal.contains("\tworld1") && journal.contains("\tworld2") && journal.contains("\tworld3"));
+        awaitGone(world1);
+        assertFalse(world1.exists());
+        waitFor(() -> service.getPendingCount() == 0);
+        assertEquals(0, service.getPendingCount());
+        service.shutdown();
+    }
+
+    @Test
+    void testInterruptedDeletionResumesOnRenamedFolder() throws Exception {
+        // Journal left by a run that crashed after renaming the folder
+        File renamed = createWorldFolder("old_world.deleting.abc");
+        Files.writeString(tempDir.resolve("deletion_journal.log"),
+                "E\t1\told_world\nS\t1\told_world.deleting.abc\nE\t2\tdone_world\nC\t2\n");
+        WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, true);
+        assertEquals(1, service.getPendingCount());
+
+        try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
+            mockedBukkit.when(Bukkit::getWorldContainer).thenReturn(tempDir.toFile());
+            service.processPendingDeletions();
+        }
+
+        awaitGone(renamed);
+        assertFalse(renamed.exists());
+        service.shutdown();
     }
 
     @Test
@@ -197,14 +282,100 @@ class WorldDeletionServiceTest {
             service.scheduleDeleteWorldFolder("duplicate_world");
             service.scheduleDeleteWorldFolder("duplicate_world");
             
-            File pendingFile = new File(tempDir.toFile(), "pending_deletes.txt");
-            assertTrue(pendingFile.exists());
-            
-            // Verify deduplication - should only have one occurrence
-            long count = java.nio.file.Files.lines(pendingFile.toPath())
-                    .filter(line -> line.trim().equals("duplicate_world"))
+            // Verify deduplication - should only have one enqueue record
+            long count = journal(tempDir, "\tduplicate_world").lines()
+                    .filter(line -> line.endsWith("\tduplicate_world"))
                     .count();
             assertEquals(1, count, "Should have exactly one occurrence due to deduplication");
+        } finally {
+            service.shutdown();
         }
     }
+
+    @Test
+    void testWorldSaveStartsBackoffWindow() {
+        WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, true, 1, 0L, 0L, 60_000L);
+        WorldDeletionService noBackoff = new WorldDeletionService(mockPlugin, true, false, true, 1, 0L, 0L, 0L);
+        try {
+            assertFalse(service.isSaving());
+
+            service.onWorldSave(mock(org.bukkit.event.world.WorldSaveEvent.class));
+            noBackoff.onWorldSave(mock(org.bukkit.event.world.WorldSaveEvent.class));
+
+            assertTrue(service.isSaving());
+            assertFalse(noBackoff.isSaving());
+        } finally {
+            service.shutdown();
+            noBackoff.shutdown();
+        }
+    }
+
+    @Test
+    void testFindOrphansSelectsPastCyclesAndRenamedFolders() {
+        String[] names = {"hardcore_cycle_3", "hardcore_cycle_4", "hardcore_cycle_5", "hardcore_cycle_6",
+                "hardcore_cycle_2.deleting.abc", "hardcore_cycle_1.deleting.def", "cycle_template", "world", "hardcore_cycle_x",
+                "hardcore_cycle_6.copying.abc", "hardcore_cycle_4.copying.ghi"};
+
+        var orphans = WorldDeletionService.findOrphans(names, 5, java.util.Set.of("hardcore_cycle_4"),
+                java.util.Set.of("hardcore_cycle_1.deleting.def"));
+
+        // A copy folder is kept only while its world is loaded or still being copied
+        assertEquals(java.util.List.of("hardcore_cycle_3", "hardcore_cycle_2.deleting.abc", "hardcore_cycle_6.copying.abc"), orphans);
+    }
+
+    @Test
+    void testSweepOrphansDeletesUntrackedFolders() throws Exception {
+        WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, true);
+        File past = createWorldFolder("hardcore_cycle_2");
+        File renamed = createWorldFolder("hardcore_cycle_1.deleting.abc");
+        File current = createWorldFolder("hardcore_cycle_3");
+
+        var queued = service.sweepOrphans(tempDir.toFile(), 3, java.util.Set.of());
+
+        assertEquals(2, queued.size());
+        awaitGone(past);
+        awaitGone(renamed);
+        // The originals disappear on rename; wait for the renamed copies too so the temp dir can be cleaned up
+        waitFor(() -> tempDir.toFile().list((d, n) -> n.contains(".deleting.")).length == 0);
+        assertFalse(past.exists());
+        assertFalse(renamed.exists());
+        assertTrue(current.exists());
+        assertFalse(tempDir.toFile().list((d, n) -> n.startsWith("hardcore_cycle_1.deleting.abc.deleting")).length > 0);
+        service.shutdown();
+    }
+
+    @Test
+    void testSweepDisabledWhenDeletionDisabled() throws Exception {
+        WorldDeletionService service = new WorldDeletionService(mockPlugin, false, false, true);
+        createWorldFolder("hardcore_cycle_1");
+
+        assertTrue(service.sweepOrphans(tempDir.toFile(), 5, java.util.Set.of()).isEmpty());
+        service.shutdown();
+    }
+
+    @Test
+    void testMarkedWorldIsArchivedBeforeDeletion() throws Exception {
+        WorldDeletionService service = new WorldDeletionService(mockPlugin, true, false, false);
+        File archives = new File(tempDir.toFile(), "archives");
+        service.configureArchive(new WorldArchiver(archives, 6, 0L), false);
+        File kept = createWorldFolder("hardcore_cycle_7");
+        File dropped = createWorldFolder("hardcore_cycle_8");
+
+        service.markForArchive("hardcore_cycle_7");
+        try (MockedStatic<Bukkit> mockedBukkit = mockStatic(Bukkit.class)) {
+            mockedBukkit.when(Bukkit::getWorldContainer).thenReturn(tempDir.toFile());
+            service.scheduleDeleteWorldFolder("hardcore_cycle_7");
+            service.scheduleDeleteWorldFolder("hardcore_cycle_8");
+        } finally {
+            service.shutdown();
+        }
+
+        assertFalse(kept.exists());
+        assertFalse(dropped.exists());
+        String[] zips = archives.list((d, n) -> n.endsWith(".zip"));
+        assertNotNull(zips);
+        assertEquals(1, zips.length);
+        assertTrue(zips[0].startsWith("hardcore_cycle_7-"));
+        assertEquals(1, service.getArchiveResults().size());
+    }
 }
@@ -0,0 +1,132 @@
+package dev.wibbleh.the_cycle;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorldTemplateTest {
+
+    @Mock
+    private JavaPlugin mockPlugin;
+
+    @TempDir
+    Path tempDir;
+
+    private File dataFolder;
+    private File worldContainer;
+
+    @BeforeEach
+    void setUp() {
+        dataFolder = tempDir.resolve("data").toFile();
+        worldContainer = tempDir.resolve("worlds").toFile();
+        assertTrue(worldContainer.mkdirs());
+        lenient().when(mockPlugin.getLogger()).thenReturn(java.util.logging.Logger.getLogger("test"));
+        lenient().when(mockPlugin.getDataFolder()).thenReturn(dataFolder);
+    }
+
+    @Test
+    void testCopyWorldCopiesTreeAndSkipsInstanceFiles() throws IOException {
+        Path source = worldContainer.toPath().resolve("cycle_template");
+        Files.createDirectories(source.resolve("region"));
+        Files.write(source.resolve("level.dat"), new byte[]{1, 2, 3});
+        Files.write(source.resolve("region").resolve("r.0.0.mca"), new byte[8192]);
+        Files.write(source.resolve("uid.dat"), new byte[]{9});
+        Files.write(source.resolve("session.lock"), new byte[]{9});
+        Path target = worldContainer.toPath().resolve("hardcore_cycle_4");
+
+        long bytes = WorldTemplate.copyWorld(source, target);
+
+        assertEquals(3 + 8192, bytes);
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(target.resolve("level.dat")));
+        assertEquals(8192, Files.size(target.resolve("region").resolve("r.0.0.mca")));
+        assertFalse(Files.exists(target.resolve("uid.dat")));
+        assertFalse(Files.exists(target.resolve("session.lock")));
+        assertTrue(Files.exists(source.resolve("uid.dat")), "Template must be left untouched");
+        try (var siblings = Files.list(worldContainer.toPath())) {
+            assertEquals(2, siblings.count(), "No temporary copy folder should remain");
+        }
+    }
+
+    @Test
+    void testCopyWorldRefusesExistingTarget() throws IOException {
+        Path source = Files.createDirectories(worldContainer.toPath().resolve("cycle_template"));
+        Path target = Files.createDirectories(worldContainer.toPath().resolve("hardcore_cycle_4"));
+
+        assertThrows(IOException.class, () -> WorldTemplate.copyWorld(source, target));
+    }
+
+    @Test
+    void testInfoRoundTrip() {
+        File f = new File(dataFolder, "world_template.json");
+        var info = new WorldTemplate.TemplateInfo(1234L, 8, 1000L);
+
+        WorldTemplate.writeInfo(f, info);
+
+        assertEquals(info, WorldTemplate.readInfo(f));
+        assertFalse(new File(dataFolder, "world_template.json.tmp").exists());
+        assertNull(WorldTemplate.readInfo(new File(dataFolder, "missing.json")));
+    }
+
+    @Test
+    void testReadyOnlyWhenMetadataMatchesSettings() {
+        assertTrue(new File(worldContainer, WorldTemplate.TEMPLATE_WORLD_NAME).mkdirs());
+        WorldTemplate.writeInfo(new File(dataFolder, "world_template.json"), new WorldTemplate.TemplateInfo(1234L, 8, 1000L));
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+
+            assertTrue(new WorldTemplate(mockPlugin, 1234L, 8, 16, 45.0, null).isReady());
+            assertFalse(new WorldTemplate(mockPlugin, 999L, 8, 16, 45.0, null).isReady(), "Different seed");
+            assertFalse(new WorldTemplate(mockPlugin, 1234L, 4, 16, 45.0, null).isReady(), "Different radius");
+        }
+    }
+
+    @Test
+    void testReadyUsesMetadataLoadedOnConstruction() throws IOException {
+        assertTrue(new File(worldContainer, WorldTemplate.TEMPLATE_WORLD_NAME).mkdirs());
+        File f = new File(dataFolder, "world_template.json");
+        WorldTemplate.writeInfo(f, new WorldTemplate.TemplateInfo(1234L, 8, 1000L));
+        var template = new WorldTemplate(mockPlugin, 1234L, 8, 16, 45.0, null);
+        // Overwritten behind the template's back; isReady must not notice
+        Files.writeString(f.toPath(), "{not json");
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+
+            assertTrue(template.isReady());
+        }
+    }
+
+    @Test
+    void testOutdatedTemplateIsDiscarded() {
+        assertTrue(new File(worldContainer, WorldTemplate.TEMPLATE_WORLD_NAME).mkdirs());
+        WorldTemplate.writeInfo(new File(dataFolder, "world_template.json"), new WorldTemplate.TemplateInfo(1L, 8, 1000L));
+        var discarded = new java.util.ArrayList<String>();
+        var template = new WorldTemplate(mockPlugin, 1234L, 8, 16, 45.0, discarded::add);
+
+        try (MockedStatic<Bukkit> bukkit = mockStatic(Bukkit.class)) {
+            bukkit.when(Bukkit::getWorldContainer).thenReturn(worldContainer);
+
+            assertFalse(template.ensureBuilt().join());
+            bukkit.verify(() -> Bukkit.createWorld(any()), never());
+        }
+
+        assertEquals(java.util.List.of(WorldTemplate.TEMPLATE_WORLD_NAME), discarded);
+        assertFalse(new File(dataFolder, "world_template.json").exists());
+    }
+}